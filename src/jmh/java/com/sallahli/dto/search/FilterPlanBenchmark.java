@@ -0,0 +1,109 @@
+package com.sallahli.dto.search;
+
+import com.sallahli.model.CustomerRequest;
+import jakarta.persistence.Entity;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.metamodel.ManagedType;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.type.filter.AnnotationTypeFilter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Predicate building for a 6-filter {@link Criteria} on {@link CustomerRequest}, with two
+ * to-one joins, an enum, an IN list, a LIKE and a date range.
+ * <p>
+ * {@code cachedPlans} is the request path: a new {@link SallahliSpecification} looks up
+ * the cached plans and binds the values. {@code compiledPerRequest} resolves every filter
+ * against the metamodel again, which is the work the cache saves. Both build the query
+ * on Hibernate's own CriteriaBuilder; no database is involved.
+ * <p>
+ * {@code ./gradlew jmh -PjmhIncludes=FilterPlanBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FilterPlanBenchmark {
+
+    private static final List<Filter> FILTERS = List.of(
+            new Filter("status", "BROADCASTED", MatchMode.equals),
+            new Filter("urgent", "true", MatchMode.equals),
+            new Filter("category.id", "1;2;3", MatchMode.in),
+            new Filter("client.firstName", "moh", MatchMode.startsWith),
+            new Filter("addressText", "tevragh", MatchMode.contains),
+            new Filter("broadcastedAt", "20240101;20241231", MatchMode.between));
+
+    private SessionFactory sessionFactory;
+    private CriteriaBuilder criteriaBuilder;
+
+    @Setup
+    public void setUp() throws ClassNotFoundException {
+        // The dialect is given, so Hibernate never opens a connection to build the model
+        StandardServiceRegistry registry = new StandardServiceRegistryBuilder()
+                .applySetting(AvailableSettings.DIALECT, PostgreSQLDialect.class.getName())
+                .applySetting("hibernate.temp.use_jdbc_metadata_defaults", false)
+                .applySetting(AvailableSettings.HBM2DDL_AUTO, "none")
+                .build();
+        MetadataSources sources = new MetadataSources(registry);
+        for (Class<?> entityClass : entityClasses()) {
+            sources.addAnnotatedClass(entityClass);
+        }
+        sessionFactory = sources.buildMetadata().buildSessionFactory();
+        criteriaBuilder = sessionFactory.getCriteriaBuilder();
+    }
+
+    @TearDown
+    public void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Benchmark
+    public Predicate cachedPlans() {
+        CriteriaQuery<CustomerRequest> query = criteriaBuilder.createQuery(CustomerRequest.class);
+        Root<CustomerRequest> root = query.from(CustomerRequest.class);
+        return new SallahliSpecification<CustomerRequest>(FILTERS).toPredicate(root, query, criteriaBuilder);
+    }
+
+    @Benchmark
+    public Predicate compiledPerRequest() {
+        CriteriaQuery<CustomerRequest> query = criteriaBuilder.createQuery(CustomerRequest.class);
+        Root<CustomerRequest> root = query.from(CustomerRequest.class);
+        ManagedType<CustomerRequest> model = root.getModel();
+        List<Predicate> predicates = new ArrayList<>(FILTERS.size());
+        for (Filter filter : FILTERS) {
+            FilterPlan plan = FilterPlanCompiler.compile(model, filter.getKey(), filter.getMatchMode());
+            predicates.add(plan.toPredicate(root, query, criteriaBuilder, plan.bind(filter.getValue())));
+        }
+        return criteriaBuilder.and(predicates.toArray(new Predicate[0]));
+    }
+
+    private static List<Class<?>> entityClasses() throws ClassNotFoundException {
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+        scanner.addIncludeFilter(new AnnotationTypeFilter(Entity.class));
+        List<Class<?>> classes = new ArrayList<>();
+        for (BeanDefinition definition : scanner.findCandidateComponents("com.sallahli.model")) {
+            classes.add(Class.forName(definition.getBeanClassName()));
+        }
+        return classes;
+    }
+}
@@ -0,0 +1,121 @@
+package com.sallahli.service.crud;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Inserts per second on Postgres, with the statements Hibernate sends for a bulk create
+ * before and after the write path change:
+ * <ul>
+ *     <li>{@code perRowSequence}: {@code allocationSize = 1} and no JDBC batching, so a
+ *     {@code nextval} round trip and an INSERT per row;</li>
+ *     <li>{@code pooledBatched}: a pooled-lo sequence incremented by 50, one
+ *     {@code nextval} per 50 rows, and {@code hibernate.jdbc.batch_size: 50} with
+ *     {@code reWriteBatchedInserts}, so one multi-row INSERT per 50 rows.</li>
+ * </ul>
+ * Rows go to a scratch table and sequences created for the run and dropped afterwards.
+ * Requires a database, so it only runs when one is given:
+ * {@code ./gradlew jmh -PjmhIncludes=BulkInsertBenchmark -PjmhJdbcUrl=jdbc:postgresql://localhost:5432/sallahli?user=...&password=...}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class BulkInsertBenchmark {
+
+    private static final int ROWS = 500;
+    private static final int BATCH_SIZE = 50;
+
+    private static final String INSERT =
+            "INSERT INTO jmh_bulk_insert (id, pro_id, amount, label, created_at) VALUES (?, ?, ?, ?, now())";
+
+    private Connection connection;
+
+    @Setup
+    public void setUp() throws SQLException {
+        String url = System.getProperty("jmh.jdbcUrl");
+        if (url == null) {
+            throw new IllegalStateException("Set -PjmhJdbcUrl to run BulkInsertBenchmark");
+        }
+        connection = DriverManager.getConnection(url + (url.contains("?") ? "&" : "?") + "reWriteBatchedInserts=true");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE IF NOT EXISTS jmh_bulk_insert (id BIGINT PRIMARY KEY, pro_id BIGINT, "
+                    + "amount BIGINT, label VARCHAR(255), created_at TIMESTAMP)");
+            statement.execute("CREATE SEQUENCE IF NOT EXISTS jmh_bulk_insert_seq_1 INCREMENT BY 1");
+            statement.execute("CREATE SEQUENCE IF NOT EXISTS jmh_bulk_insert_seq_50 INCREMENT BY " + BATCH_SIZE);
+        }
+        connection.setAutoCommit(false);
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.setAutoCommit(true);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS jmh_bulk_insert");
+            statement.execute("DROP SEQUENCE IF EXISTS jmh_bulk_insert_seq_1");
+            statement.execute("DROP SEQUENCE IF EXISTS jmh_bulk_insert_seq_50");
+        }
+        connection.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void perRowSequence() throws SQLException {
+        try (PreparedStatement nextval = connection.prepareStatement("SELECT nextval('jmh_bulk_insert_seq_1')");
+             PreparedStatement insert = connection.prepareStatement(INSERT)) {
+            for (int i = 0; i < ROWS; i++) {
+                bind(insert, nextId(nextval), i);
+                insert.executeUpdate();
+            }
+        }
+        connection.commit();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void pooledBatched() throws SQLException {
+        try (PreparedStatement nextval = connection.prepareStatement("SELECT nextval('jmh_bulk_insert_seq_50')");
+             PreparedStatement insert = connection.prepareStatement(INSERT)) {
+            long id = 0;
+            for (int i = 0; i < ROWS; i++) {
+                // pooled-lo: the sequence value is the first id of a block of BATCH_SIZE
+                id = i % BATCH_SIZE == 0 ? nextId(nextval) : id + 1;
+                bind(insert, id, i);
+                insert.addBatch();
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    insert.executeBatch();
+                }
+            }
+            insert.executeBatch();
+        }
+        connection.commit();
+    }
+
+    private static long nextId(PreparedStatement nextval) throws SQLException {
+        try (ResultSet resultSet = nextval.executeQuery()) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+
+    private static void bind(PreparedStatement insert, long id, int row) throws SQLException {
+        insert.setLong(1, id);
+        insert.setLong(2, 1000L + row % 40);
+        insert.setLong(3, 150L);
+        insert.setString(4, "Lead offer debit");
+    }
+}
@@ -0,0 +1,80 @@
+package com.sallahli.service.crud;
+
+import com.sallahli.model.Enum.KycStatus;
+import com.sallahli.model.Pro;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.BeanWrapperImpl;
+
+import java.beans.PropertyDescriptor;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The non-null copy of an update onto a {@link Pro}: {@link PropertyCopier} against the
+ * {@code BeanWrapperImpl} loop that {@code AbstractCrudService.copyNonNullProperties}
+ * used before it. Both copy onto a new target on every call, so every property is a change.
+ * <p>
+ * {@code ./gradlew jmh -PjmhIncludes=PropertyCopierBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PropertyCopierBenchmark {
+
+    private static final Set<String> IGNORED = Set.of("id", "version");
+
+    private Pro source;
+    private PropertyCopier<Pro> copier;
+
+    @Setup
+    public void setUp() {
+        source = new Pro();
+        source.setTel("22334455");
+        source.setFirstName("Mohamed");
+        source.setLastName("Salem");
+        source.setFullName("Mohamed Salem");
+        source.setEmail("mohamed.salem@example.com");
+        source.setKycStatus(KycStatus.NOT_STARTED);
+        source.setCurrentLatitude(18.0858);
+        source.setCurrentLongitude(-15.9785);
+        source.setLocationUpdatedAt(LocalDateTime.of(2024, 5, 1, 12, 0));
+        source.setRatingAvg(4.7);
+        source.setRatingCount(31L);
+        source.setJobsCompleted(28L);
+        source.setWalletBalance(1200L);
+        copier = PropertyCopier.of(Pro.class);
+    }
+
+    @Benchmark
+    public Pro propertyCopier() {
+        Pro target = new Pro();
+        copier.copyNonNull(source, target, IGNORED);
+        return target;
+    }
+
+    @Benchmark
+    public Pro beanWrapper() {
+        Pro target = new Pro();
+        BeanWrapper src = new BeanWrapperImpl(source);
+        BeanWrapper trg = new BeanWrapperImpl(target);
+        for (PropertyDescriptor descriptor : src.getPropertyDescriptors()) {
+            String name = descriptor.getName();
+            if ("class".equals(name) || IGNORED.contains(name)) {
+                continue;
+            }
+            Object value = src.getPropertyValue(name);
+            if (value != null) {
+                trg.setPropertyValue(name, value);
+            }
+        }
+        return target;
+    }
+}
@@ -0,0 +1,106 @@
+package com.sallahli.websocket;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sallahli.config.JacksonConfiguration;
+import com.sallahli.dto.sallahli.CategoryDTO;
+import com.sallahli.dto.sallahli.ClientDTO;
+import com.sallahli.dto.sallahli.CustomerRequestDTO;
+import com.sallahli.dto.sallahli.LeadOfferPushDTO;
+import com.sallahli.dto.sallahli.ProLocationDTO;
+import com.sallahli.model.Enum.LeadOfferStatus;
+import com.sallahli.model.Enum.RequestStatus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encode time and size of the two most frequent frames, a pro location update and a lead
+ * offer push, built with the application's {@code ObjectMapper}.
+ * <p>
+ * {@code serializeJson} is what every session pays today; {@code transcode} is the extra
+ * work {@link PayloadEncodingInterceptor} adds for a session on CBOR or Smile. The size of
+ * each frame in every encoding is printed once per trial, since JMH only reports times.
+ * <p>
+ * {@code ./gradlew jmh -PjmhIncludes=PayloadEncodingBenchmark}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PayloadEncodingBenchmark {
+
+    @Param({"location", "leadOffer"})
+    private String frame;
+
+    @Param({"CBOR", "SMILE"})
+    private PayloadEncoding encoding;
+
+    private final ObjectMapper objectMapper = new JacksonConfiguration().mapper();
+    private Object dto;
+    private byte[] json;
+
+    @Setup
+    public void setUp() throws IOException {
+        dto = "location".equals(frame) ? location() : leadOffer();
+        json = objectMapper.writeValueAsBytes(dto);
+        System.out.printf("%n%s: JSON %d bytes, %s %d bytes%n", frame, json.length, encoding,
+                PayloadEncodingInterceptor.transcode(json, encoding).length);
+    }
+
+    @Benchmark
+    public byte[] serializeJson() throws IOException {
+        return objectMapper.writeValueAsBytes(dto);
+    }
+
+    @Benchmark
+    public byte[] transcode() throws IOException {
+        return PayloadEncodingInterceptor.transcode(json, encoding);
+    }
+
+    private static ProLocationDTO location() {
+        return ProLocationDTO.builder()
+                .proId(1042L)
+                .latitude(18.0858)
+                .longitude(-15.9785)
+                .updatedAt(LocalDateTime.of(2024, 5, 1, 12, 0, 31))
+                .build();
+    }
+
+    private LeadOfferPushDTO leadOffer() throws IOException {
+        CustomerRequestDTO request = CustomerRequestDTO.builder()
+                .id(88213L)
+                .client(ClientDTO.builder().id(311L).tel("22334455").firstName("Aminetou").lastName("Sidi").build())
+                .category(CategoryDTO.builder().id(4L).code("PLUMBING").name("Plomberie").nameAr("سباكة").build())
+                .latitude(new BigDecimal("18.0791"))
+                .longitude(new BigDecimal("-15.9650"))
+                .addressText("Tevragh Zeina, ilot K")
+                .landmark("Near the Ould Mah mosque")
+                .descriptionText("Water leak under the kitchen sink, needs someone today")
+                .status(RequestStatus.BROADCASTED)
+                .urgent(true)
+                .broadcastedAt(LocalDateTime.of(2024, 5, 1, 12, 0))
+                .expiresAt(LocalDateTime.of(2024, 5, 1, 12, 15))
+                .nearbyProsCount(6)
+                .createdAt(LocalDateTime.of(2024, 5, 1, 11, 59, 48))
+                .build();
+        return LeadOfferPushDTO.builder()
+                .event(LeadOfferPushDTO.EVENT_LEAD_OFFER)
+                .offerId(551204L)
+                .proId(1042L)
+                .price(150L)
+                .status(LeadOfferStatus.OFFERED)
+                .offeredAt(LocalDateTime.of(2024, 5, 1, 12, 0))
+                .expiresAt(LocalDateTime.of(2024, 5, 1, 12, 15))
+                .request(objectMapper.writeValueAsString(request))
+                .build();
+    }
+}
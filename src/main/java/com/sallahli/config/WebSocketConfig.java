@@ -1,26 +1,161 @@
 package com.sallahli.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sallahli.service.ProPresenceService;
+import com.sallahli.websocket.LiveMapAccessInterceptor;
+import com.sallahli.websocket.OutboundBackpressureInterceptor;
+import com.sallahli.websocket.PayloadEncoding;
+import com.sallahli.websocket.PayloadEncodingInterceptor;
+import com.sallahli.websocket.UserTopicAccessInterceptor;
+import com.sallahli.websocket.WebSocketSessionRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.converter.MessageConverter;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+
+import java.util.List;
 
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    // Server and client heartbeat intervals (ms); presence relies on them to spot dead devices
+    private static final long[] HEARTBEAT = {10000, 10000};
+
+    private TaskScheduler messageBrokerTaskScheduler;
+
+    private ProPresenceService proPresenceService;
+
+    private WebSocketSessionRegistry sessionRegistry;
+
+    private OutboundBackpressureInterceptor backpressureInterceptor;
+
+    private PayloadEncodingInterceptor payloadEncodingInterceptor;
+
+    private LiveMapAccessInterceptor liveMapAccessInterceptor;
+
+    private UserTopicAccessInterceptor userTopicAccessInterceptor;
+
+    // Transport limits: a session that cannot take a frame within the time limit, or
+    // lets more than the buffer limit pile up, is closed instead of pinning a thread
+    @Value("${websocket.transport.send-time-limit-ms:10000}")
+    private int sendTimeLimit;
+
+    @Value("${websocket.transport.send-buffer-size-limit:524288}")
+    private int sendBufferSizeLimit;
+
+    @Value("${websocket.transport.message-size-limit:65536}")
+    private int messageSizeLimit;
+
+    @Value("${websocket.outbound.pool-size:8}")
+    private int outboundPoolSize;
+
+    @Value("${websocket.outbound.queue-capacity:10000}")
+    private int outboundQueueCapacity;
+
+    @Autowired
+    public void setMessageBrokerTaskScheduler(@Lazy TaskScheduler messageBrokerTaskScheduler) {
+        this.messageBrokerTaskScheduler = messageBrokerTaskScheduler;
+    }
+
+    @Autowired
+    public void setProPresenceService(@Lazy ProPresenceService proPresenceService) {
+        this.proPresenceService = proPresenceService;
+    }
+
+    @Autowired
+    public void setSessionRegistry(WebSocketSessionRegistry sessionRegistry) {
+        this.sessionRegistry = sessionRegistry;
+    }
+
+    @Autowired
+    public void setBackpressureInterceptor(OutboundBackpressureInterceptor backpressureInterceptor) {
+        this.backpressureInterceptor = backpressureInterceptor;
+    }
+
+    @Autowired
+    public void setPayloadEncodingInterceptor(PayloadEncodingInterceptor payloadEncodingInterceptor) {
+        this.payloadEncodingInterceptor = payloadEncodingInterceptor;
+    }
+
+    @Autowired
+    public void setLiveMapAccessInterceptor(LiveMapAccessInterceptor liveMapAccessInterceptor) {
+        this.liveMapAccessInterceptor = liveMapAccessInterceptor;
+    }
+
+    @Autowired
+    public void setUserTopicAccessInterceptor(UserTopicAccessInterceptor userTopicAccessInterceptor) {
+        this.userTopicAccessInterceptor = userTopicAccessInterceptor;
+    }
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
         // Enable a simple memory-based message broker to carry the messages back to the
         // client on destinations prefixed with "/topic"
-        config.enableSimpleBroker("/topic");
+        config.enableSimpleBroker("/topic")
+                .setHeartbeatValue(HEARTBEAT)
+                .setTaskScheduler(messageBrokerTaskScheduler);
 
         // Designates the prefix for messages that are bound for
         // @MessageMapping-annotated methods.
         config.setApplicationDestinationPrefixes("/app");
     }
 
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.setSendTimeLimit(sendTimeLimit)
+                .setSendBufferSizeLimit(sendBufferSizeLimit)
+                .setMessageSizeLimit(messageSizeLimit)
+                .addDecoratorFactory(sessionRegistry);
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor()
+                .corePoolSize(outboundPoolSize)
+                .maxPoolSize(outboundPoolSize)
+                .queueCapacity(outboundQueueCapacity);
+        // Backpressure runs first so dropped or conflated frames are never re-encoded
+        registration.interceptors(backpressureInterceptor, payloadEncodingInterceptor);
+    }
+
+    @Override
+    public boolean configureMessageConverters(List<MessageConverter> messageConverters) {
+        // Accept binary bodies from clients that negotiated CBOR or Smile; defaults stay registered
+        for (PayloadEncoding encoding : List.of(PayloadEncoding.CBOR, PayloadEncoding.SMILE)) {
+            MappingJackson2MessageConverter converter = new MappingJackson2MessageConverter(encoding.getMimeType());
+            converter.setObjectMapper(new ObjectMapper(encoding.getFactory()).findAndRegisterModules());
+            converter.setSerializedPayloadClass(byte[].class);
+            messageConverters.add(converter);
+        }
+        return true;
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        // Every inbound frame, heartbeats included, keeps the sender's presence fresh
+        registration.interceptors(liveMapAccessInterceptor, userTopicAccessInterceptor, new ChannelInterceptor() {
+            @Override
+            public Message<?> preSend(Message<?> message, MessageChannel channel) {
+                proPresenceService.touchSession(SimpMessageHeaderAccessor.getSessionId(message.getHeaders()));
+                return message;
+            }
+        });
+    }
+
     @Override
     public void registerStompEndpoints(StompEndpointRegistry registry) {
         // Registers the "/ws" endpoint, enabling SockJS fallback options so that
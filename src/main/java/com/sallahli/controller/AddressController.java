@@ -2,6 +2,7 @@ package com.sallahli.controller;
 
 import com.sallahli.dto.sallahli.AddressDTO;
 import com.sallahli.service.AddressService;
+import com.sallahli.service.crud.StreamedListing;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -9,10 +10,13 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -31,14 +35,27 @@ public class AddressController {
 
     @GetMapping("/all")
     @PreAuthorize("hasRole('ADMIN')")
-    @Operation(summary = "Get all addresses", description = "Returns all non-archived addresses (Admin only)")
+    @Operation(summary = "Get all addresses", description = "Streams all non-archived addresses as one JSON array (Admin only)")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Successfully retrieved addresses"),
             @ApiResponse(responseCode = "403", description = "Access denied")
     })
-    public ResponseEntity<List<AddressDTO>> findAll() {
+    public ResponseEntity<StreamingResponseBody> findAll() {
         log.debug("REST request to get all addresses");
-        return ResponseEntity.ok(addressService.findAll());
+        StreamedListing listing = addressService.streamAll();
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .headers(listing.headers())
+                .body(listing.body());
+    }
+
+    @GetMapping("/page")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Get a page of addresses", description = "Returns one page of addresses ordered by id, without total (Admin only)")
+    public ResponseEntity<Slice<AddressDTO>> findPage(@RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size) {
+        log.debug("REST request to get page {} of addresses", page);
+        return ResponseEntity.ok(addressService.findPage(page, size));
     }
 
     @GetMapping("/{id}")
@@ -120,9 +137,10 @@ public class AddressController {
     @PreAuthorize("hasAnyRole('CLIENT', 'PRO', 'ADMIN')")
     @Operation(summary = "Search addresses", description = "Search addresses by formatted address text")
     public ResponseEntity<List<AddressDTO>> search(
-            @Parameter(description = "Search query") @RequestParam String q) {
+            @Parameter(description = "Search query") @RequestParam String q,
+            @Parameter(description = "Maximum number of results") @RequestParam(required = false) Integer limit) {
         log.debug("REST request to search addresses with query: {}", q);
-        return ResponseEntity.ok(addressService.searchByFormattedAddress(q));
+        return ResponseEntity.ok(addressService.searchByFormattedAddress(q, limit));
     }
 
     @GetMapping("/geo")
@@ -77,6 +77,28 @@ public class CategoryController {
         return ResponseEntity.noContent().build();
     }
 
+    @PostMapping("/bulk")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @Operation(summary = "Create several categories")
+    public ResponseEntity<List<CategoryDTO>> createAll(@RequestBody List<CategoryDTO> categoryDTOs) {
+        return ResponseEntity.ok(categoryService.createAll(categoryDTOs));
+    }
+
+    @PutMapping("/bulk")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @Operation(summary = "Update several categories", description = "Each category is identified by its id")
+    public ResponseEntity<List<CategoryDTO>> updateAll(@RequestBody List<CategoryDTO> categoryDTOs) {
+        return ResponseEntity.ok(categoryService.updateAll(categoryDTOs));
+    }
+
+    @DeleteMapping("/bulk")
+    @PreAuthorize("hasAuthority('ADMIN')")
+    @Operation(summary = "Delete several categories")
+    public ResponseEntity<Void> deleteAll(@RequestParam List<Long> ids) {
+        categoryService.deleteAllByIds(ids);
+        return ResponseEntity.noContent().build();
+    }
+
     @PutMapping("/{id}/icon")
     @PreAuthorize("hasAuthority('ADMIN')")
     @Operation(summary = "Update category icon", description = "Upload or update the icon image for a category")
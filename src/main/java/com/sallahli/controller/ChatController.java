@@ -3,14 +3,23 @@ package com.sallahli.controller;
 import com.sallahli.dto.chat.ConversationByParticipantRequest;
 import com.sallahli.dto.chat.ConversationDto;
 import com.sallahli.dto.chat.MessageDto;
+import com.sallahli.dto.chat.MessageSearchHitDto;
+import com.sallahli.dto.chat.SupportQueueEntryDto;
 import com.sallahli.model.Enum.AppEnum;
+import com.sallahli.model.Enum.ConversationType;
+import com.sallahli.model.Enum.UserRoleEnum;
 import com.sallahli.service.ChatService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -40,17 +49,51 @@ public class ChatController {
         return ResponseEntity.ok(chatService.getMessages(conversationId, pageable));
     }
 
+    @GetMapping("/conversation/{conversationId}/messages/cursor")
+    public ResponseEntity<Slice<MessageDto>> getMessagesByCursor(
+            @PathVariable Long conversationId,
+            @RequestParam(required = false) Long before,
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "30") int size) {
+        return ResponseEntity.ok(chatService.getMessages(conversationId, before, after, size));
+    }
+
+    @GetMapping("/conversation/{conversationId}/messages/first-unread")
+    public ResponseEntity<Slice<MessageDto>> getMessagesFromFirstUnread(
+            @PathVariable Long conversationId,
+            @RequestParam(required = false) AppEnum app,
+            @RequestParam(defaultValue = "30") int size) {
+        return ResponseEntity.ok(chatService.getMessagesFromFirstUnread(conversationId, app, size));
+    }
+
+    @GetMapping("/messages/search")
+    @PreAuthorize("hasAnyRole('CLIENT', 'PRO', 'ADMIN', 'SUPER_ADMIN', 'CUSTOMER_SUPPORT_AGENT')")
+    public ResponseEntity<Slice<MessageSearchHitDto>> searchMessages(
+            @RequestParam String q,
+            @RequestParam(required = false) List<ConversationType> types,
+            @RequestParam(required = false) AppEnum app,
+            @RequestParam(required = false) Long participantId,
+            @RequestParam(required = false) UserRoleEnum participantRole,
+            @RequestParam(required = false) Float afterRank,
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(chatService.searchMessages(q, types, app, participantId, participantRole, afterRank, afterId, size));
+    }
+
     @PatchMapping("/conversation/{conversationId}/join")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN', 'CUSTOMER_SUPPORT_AGENT')")
     public ConversationDto joinConversation(@PathVariable Long conversationId) {
         return chatService.joinConversation(conversationId);
     }
 
     @PatchMapping("/conversation/{conversationId}/assign/{employeeId}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN', 'CUSTOMER_SUPPORT_AGENT')")
     public ConversationDto assign(@PathVariable Long conversationId, @PathVariable Long employeeId) {
         return chatService.assign(conversationId, employeeId);
     }
 
     @PatchMapping("/conversation/{conversationId}/close")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN', 'CUSTOMER_SUPPORT_AGENT')")
     public ResponseEntity<Void> markConversationAsClosed(@PathVariable Long conversationId) {
         chatService.markConversationAsClosed(conversationId);
         return ResponseEntity.noContent().build();
@@ -62,8 +105,9 @@ public class ChatController {
     }
 
     @PatchMapping("/message/{messageId}/read")
-    public ResponseEntity<Void> markMessageAsRead(@PathVariable Long messageId) {
-        chatService.markMessageAsRead(messageId);
+    public ResponseEntity<Void> markMessageAsRead(@PathVariable Long messageId,
+            @RequestParam(required = false) AppEnum app) {
+        chatService.markMessageAsRead(messageId, app);
         return ResponseEntity.noContent().build();
     }
 
@@ -79,6 +123,18 @@ public class ChatController {
         return ResponseEntity.ok(counts);
     }
 
+    @GetMapping("/support-queue")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN', 'CUSTOMER_SUPPORT_AGENT')")
+    public ResponseEntity<List<SupportQueueEntryDto>> getSupportQueue(@RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(chatService.getSupportQueue(limit));
+    }
+
+    @PostMapping("/support-queue/assign-next")
+    @PreAuthorize("hasAnyRole('ADMIN', 'SUPER_ADMIN', 'CUSTOMER_SUPPORT_AGENT')")
+    public ConversationDto assignNextQueuedConversation() {
+        return chatService.assignNextQueuedConversation();
+    }
+
     @GetMapping("/conversations/unread-for-me")
     public ResponseEntity<Page<ConversationDto>> getUnreadConversationsForConnectedUser(
             @RequestParam AppEnum app,
@@ -95,6 +151,15 @@ public class ChatController {
         return ResponseEntity.ok(conversations);
     }
 
+    @GetMapping("/conversations/for-me/inbox")
+    public ResponseEntity<Slice<ConversationDto>> getInboxForConnectedUser(
+            @RequestParam AppEnum app,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime beforeActivityAt,
+            @RequestParam(required = false) Long beforeId,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(chatService.getInboxForConnectedUser(app, beforeActivityAt, beforeId, size));
+    }
+
     @GetMapping("/message/unread-count-for-me")
     public ResponseEntity<Long> getUnreadMessagesCountForConnectedUser(@RequestParam AppEnum app) {
         Long count = chatService.getUnreadMessagesCountForConnectedUser(app);
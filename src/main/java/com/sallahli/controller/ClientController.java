@@ -1,20 +1,26 @@
 package com.sallahli.controller;
 
 import com.sallahli.dto.sallahli.ClientDTO;
+import com.sallahli.dto.search.Criteria;
 import com.sallahli.service.ClientAuthService;
 import com.sallahli.service.ClientService;
+import com.sallahli.service.crud.StreamedListing;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -30,10 +36,40 @@ public class ClientController {
 
     @GetMapping("/all")
     @PreAuthorize("hasRole('ADMIN')")
-    @Operation(summary = "Get all clients", description = "Returns all clients (Admin only)")
-    public ResponseEntity<List<ClientDTO>> findAll() {
+    @Operation(summary = "Get all clients", description = "Streams all clients as one JSON array (Admin only)")
+    public ResponseEntity<StreamingResponseBody> findAll() {
+        log.debug("REST request to get all clients");
+        StreamedListing listing = clientService.streamAll();
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .headers(listing.headers())
+                .body(listing.body());
+    }
+
+    @GetMapping("/page")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Get a page of clients", description = "Returns one page of clients ordered by id, without total (Admin only)")
+    public ResponseEntity<Slice<ClientDTO>> findPage(@RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size) {
+        log.debug("REST request to get page {} of clients", page);
+        return ResponseEntity.ok(clientService.findPage(page, size));
+    }
+
+    @PostMapping("/search")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Search clients by criteria", description = "Returns one page of the clients matching the criteria; countMode exact, slice or estimated chooses how the total is computed (Admin only)")
+    public ResponseEntity<Page<ClientDTO>> searchByCriteria(@RequestBody Criteria criteria) {
+        log.debug("REST request to search clients with count mode {}", criteria.getCountMode());
+        return ResponseEntity.ok(clientService.findByCriteria(criteria));
+    }
+
+    @GetMapping("/search")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Search clients", description = "Search clients by name, username, email or phone number (Admin only)")
+    public ResponseEntity<List<ClientDTO>> search(@RequestParam String q,
+            @RequestParam(required = false) Integer limit) {
 
-        return ResponseEntity.ok(clientService.findAll());
+        return ResponseEntity.ok(clientService.searchClients(q, limit));
     }
 
     @GetMapping("/{id}")
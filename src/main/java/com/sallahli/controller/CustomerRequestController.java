@@ -1,8 +1,12 @@
 package com.sallahli.controller;
 
 import com.sallahli.dto.sallahli.CustomerRequestDTO;
+import com.sallahli.dto.search.Criteria;
+import com.sallahli.dto.search.CursorPage;
+import com.sallahli.dto.search.ExportFormat;
 import com.sallahli.model.Enum.RequestStatus;
 import com.sallahli.service.CustomerRequestService;
+import com.sallahli.service.crud.StreamedListing;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -10,11 +14,16 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -33,10 +42,51 @@ public class CustomerRequestController {
 
     @GetMapping("/all")
     @PreAuthorize("hasRole('ADMIN')")
-    @Operation(summary = "Get all customer requests", description = "Returns all customer requests (Admin only)")
-    public ResponseEntity<List<CustomerRequestDTO>> findAll() {
+    @Operation(summary = "Get all customer requests", description = "Streams all customer requests as one JSON array (Admin only)")
+    public ResponseEntity<StreamingResponseBody> findAll() {
         log.debug("REST request to get all customer requests");
-        return ResponseEntity.ok(customerRequestService.findAll());
+        StreamedListing listing = customerRequestService.streamAll();
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .headers(listing.headers())
+                .body(listing.body());
+    }
+
+    @GetMapping("/page")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Get a page of customer requests", description = "Returns one page of customer requests ordered by id, without total (Admin only)")
+    public ResponseEntity<Slice<CustomerRequestDTO>> findPage(@RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size) {
+        log.debug("REST request to get page {} of customer requests", page);
+        return ResponseEntity.ok(customerRequestService.findPage(page, size));
+    }
+
+    @PostMapping("/search")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Search customer requests", description = "Returns one page of the customer requests matching the criteria; countMode exact, slice or estimated chooses how the total is computed (Admin only)")
+    public ResponseEntity<Page<CustomerRequestDTO>> search(@RequestBody Criteria criteria) {
+        log.debug("REST request to search customer requests with count mode {}", criteria.getCountMode());
+        return ResponseEntity.ok(customerRequestService.findByCriteria(criteria));
+    }
+
+    @PostMapping("/search/cursor")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Search customer requests by cursor", description = "Returns the customer requests matching the criteria after the given cursor, in sort field then id order (Admin only)")
+    public ResponseEntity<CursorPage<CustomerRequestDTO>> findByCursor(@RequestBody Criteria criteria) {
+        log.debug("REST request to search customer requests after cursor {}", criteria.getCursor());
+        return ResponseEntity.ok(customerRequestService.findByCursor(criteria));
+    }
+
+    @PostMapping("/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Export customer requests", description = "Streams the customer requests matching the criteria as CSV or NDJSON (Admin only)")
+    public ResponseEntity<StreamingResponseBody> export(@RequestBody Criteria criteria,
+            @RequestParam(defaultValue = "csv") ExportFormat format) {
+        log.debug("REST request to export customer requests with format {}", format);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"customer-requests." + format.name() + "\"")
+                .body(customerRequestService.export(criteria, format));
     }
 
     @GetMapping("/{id}")
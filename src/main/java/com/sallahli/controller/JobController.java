@@ -1,8 +1,12 @@
 package com.sallahli.controller;
 
 import com.sallahli.dto.sallahli.JobDTO;
+import com.sallahli.dto.search.Criteria;
+import com.sallahli.dto.search.CursorPage;
+import com.sallahli.dto.search.ExportFormat;
 import com.sallahli.model.Enum.JobStatus;
 import com.sallahli.service.JobService;
+import com.sallahli.service.crud.StreamedListing;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -10,11 +14,16 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -34,10 +43,51 @@ public class JobController {
 
     @GetMapping("/all")
     @PreAuthorize("hasRole('ADMIN')")
-    @Operation(summary = "Get all jobs", description = "Returns all jobs (Admin only)")
-    public ResponseEntity<List<JobDTO>> findAll() {
+    @Operation(summary = "Get all jobs", description = "Streams all jobs as one JSON array (Admin only)")
+    public ResponseEntity<StreamingResponseBody> findAll() {
         log.debug("REST request to get all jobs");
-        return ResponseEntity.ok(jobService.findAll());
+        StreamedListing listing = jobService.streamAll();
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .headers(listing.headers())
+                .body(listing.body());
+    }
+
+    @GetMapping("/page")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Get a page of jobs", description = "Returns one page of jobs ordered by id, without total (Admin only)")
+    public ResponseEntity<Slice<JobDTO>> findPage(@RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size) {
+        log.debug("REST request to get page {} of jobs", page);
+        return ResponseEntity.ok(jobService.findPage(page, size));
+    }
+
+    @PostMapping("/search")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Search jobs", description = "Returns one page of the jobs matching the criteria; countMode exact, slice or estimated chooses how the total is computed (Admin only)")
+    public ResponseEntity<Page<JobDTO>> search(@RequestBody Criteria criteria) {
+        log.debug("REST request to search jobs with count mode {}", criteria.getCountMode());
+        return ResponseEntity.ok(jobService.findByCriteria(criteria));
+    }
+
+    @PostMapping("/search/cursor")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Search jobs by cursor", description = "Returns the jobs matching the criteria after the given cursor, in sort field then id order (Admin only)")
+    public ResponseEntity<CursorPage<JobDTO>> findByCursor(@RequestBody Criteria criteria) {
+        log.debug("REST request to search jobs after cursor {}", criteria.getCursor());
+        return ResponseEntity.ok(jobService.findByCursor(criteria));
+    }
+
+    @PostMapping("/export")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Export jobs", description = "Streams the jobs matching the criteria as CSV or NDJSON (Admin only)")
+    public ResponseEntity<StreamingResponseBody> export(@RequestBody Criteria criteria,
+            @RequestParam(defaultValue = "csv") ExportFormat format) {
+        log.debug("REST request to export jobs with format {}", format);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"jobs." + format.name() + "\"")
+                .body(jobService.export(criteria, format));
     }
 
     @GetMapping("/{id}")
@@ -0,0 +1,38 @@
+package com.sallahli.controller;
+
+import com.sallahli.dto.sallahli.ViewportDTO;
+import com.sallahli.websocket.LiveMapViewportRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.stereotype.Controller;
+
+/**
+ * STOMP endpoints of the admin live map. The viewport itself is declared with headers on
+ * the {@value LiveMapViewportRegistry#DESTINATION} subscription; panning and zooming
+ * update it here without resubscribing.
+ */
+@Controller
+@Slf4j
+@RequiredArgsConstructor
+public class LiveMapController {
+
+    private final LiveMapViewportRegistry viewportRegistry;
+
+    @MessageMapping("/location/viewport")
+    public void updateViewport(@Payload ViewportDTO viewport, SimpMessageHeaderAccessor headerAccessor) {
+        if (viewport.getMinLat() == null || viewport.getMinLng() == null
+                || viewport.getMaxLat() == null || viewport.getMaxLng() == null) {
+            log.debug("Ignoring incomplete viewport from session {}", headerAccessor.getSessionId());
+            return;
+        }
+        try {
+            viewportRegistry.updateViewport(headerAccessor.getSessionId(), viewport.getSubscriptionId(),
+                    viewport.getMinLat(), viewport.getMinLng(), viewport.getMaxLat(), viewport.getMaxLng());
+        } catch (IllegalArgumentException e) {
+            log.debug("Ignoring viewport from session {}: {}", headerAccessor.getSessionId(), e.getMessage());
+        }
+    }
+}
@@ -1,8 +1,11 @@
 package com.sallahli.controller;
 
 import com.sallahli.dto.sallahli.ProDTO;
+import com.sallahli.dto.search.Criteria;
+import com.sallahli.exceptions.BadRequestException;
 import com.sallahli.model.Enum.KycStatus;
 import com.sallahli.service.ProService;
+import com.sallahli.service.crud.StreamedListing;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -10,12 +13,18 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import javax.json.JsonPatch;
 import java.util.List;
 
 @RestController
@@ -33,10 +42,31 @@ public class ProController {
 
     @GetMapping("/all")
     @PreAuthorize("hasRole('ADMIN')")
-    @Operation(summary = "Get all professionals", description = "Returns all professionals (Admin only)")
-    public ResponseEntity<List<ProDTO>> findAll() {
+    @Operation(summary = "Get all professionals", description = "Streams all professionals as one JSON array (Admin only)")
+    public ResponseEntity<StreamingResponseBody> findAll() {
         log.debug("REST request to get all pros");
-        return ResponseEntity.ok(proService.findAll());
+        StreamedListing listing = proService.streamAll();
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .headers(listing.headers())
+                .body(listing.body());
+    }
+
+    @GetMapping("/page")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Get a page of professionals", description = "Returns one page of professionals ordered by id, without total (Admin only)")
+    public ResponseEntity<Slice<ProDTO>> findPage(@RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer size) {
+        log.debug("REST request to get page {} of pros", page);
+        return ResponseEntity.ok(proService.findPage(page, size));
+    }
+
+    @PostMapping("/search")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Search professionals by criteria", description = "Returns one page of the professionals matching the criteria; countMode exact, slice or estimated chooses how the total is computed (Admin only)")
+    public ResponseEntity<Page<ProDTO>> searchByCriteria(@RequestBody Criteria criteria) {
+        log.debug("REST request to search pros with count mode {}", criteria.getCountMode());
+        return ResponseEntity.ok(proService.findByCriteria(criteria));
     }
 
     @GetMapping("/{id}")
@@ -68,6 +98,17 @@ public class ProController {
         return ResponseEntity.ok(proService.update(id, dto));
     }
 
+    @PatchMapping(value = "/{id}", consumes = "application/json-patch+json")
+    @PreAuthorize("hasAnyRole('PRO', 'ADMIN')")
+    @Operation(summary = "Patch a professional",
+            description = "Applies a JSON Patch (RFC 6902) to the profile; with If-Match the version must match")
+    public ResponseEntity<ProDTO> patch(@PathVariable Long id, @RequestBody JsonPatch patch,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        log.debug("REST request to patch pro {}: {}", id, patch);
+        ProDTO patched = proService.patch(id, patch, parseVersion(ifMatch));
+        return ResponseEntity.ok().eTag(String.valueOf(patched.getVersion())).body(patched);
+    }
+
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Archive a professional", description = "Soft deletes a professional (Admin only)")
@@ -202,9 +243,10 @@ public class ProController {
     @GetMapping("/search")
     @PreAuthorize("hasRole('ADMIN')")
     @Operation(summary = "Search professionals", description = "Search pros by name, username or phone number")
-    public ResponseEntity<List<ProDTO>> searchPros(@RequestParam String q) {
+    public ResponseEntity<List<ProDTO>> searchPros(@RequestParam String q,
+            @RequestParam(required = false) Integer limit) {
         log.debug("REST request to search pros with query: {}", q);
-        return ResponseEntity.ok(proService.searchPros(q));
+        return ResponseEntity.ok(proService.searchPros(q, limit));
     }
 
     // ========================================================================
@@ -369,4 +411,22 @@ public class ProController {
         log.debug("REST request to get average rating");
         return ResponseEntity.ok(proService.getAverageRating());
     }
+
+    /**
+     * Version from an If-Match ETag ({@code "3"} or {@code W/"3"}), or null without one.
+     */
+    private static Long parseVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || "*".equals(ifMatch.trim())) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        try {
+            return Long.parseLong(tag.replace("\"", ""));
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Invalid If-Match version: " + ifMatch);
+        }
+    }
 }
@@ -1,5 +1,7 @@
 package com.sallahli.controller;
 
+import com.sallahli.dto.search.Criteria;
+import com.sallahli.dto.search.ExportFormat;
 import com.sallahli.model.ProWalletTransaction;
 import com.sallahli.service.ProWalletService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -10,9 +12,12 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDateTime;
 import java.util.HashMap;
@@ -68,6 +73,20 @@ public class ProWalletController {
         return ResponseEntity.ok(proWalletService.getTransactionHistory(proId));
     }
 
+    @PostMapping("/transactions/export")
+    @PreAuthorize("hasAnyRole('PRO', 'ADMIN')")
+    @Operation(summary = "Export transactions", description = "Streams the pro's wallet transactions matching the criteria as CSV or NDJSON")
+    public ResponseEntity<StreamingResponseBody> exportTransactions(@PathVariable Long proId,
+            @RequestBody Criteria criteria,
+            @RequestParam(defaultValue = "csv") ExportFormat format) {
+        log.debug("REST request to export wallet transactions for pro {} with format {}", proId, format);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"wallet-transactions-" + proId + "." + format.name() + "\"")
+                .body(proWalletService.exportTransactions(proId, criteria, format));
+    }
+
     @GetMapping("/transactions/range")
     @PreAuthorize("hasAnyRole('PRO', 'ADMIN')")
     @Operation(summary = "Get transactions in date range", description = "Returns wallet transactions within date range")
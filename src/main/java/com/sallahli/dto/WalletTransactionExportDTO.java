@@ -0,0 +1,23 @@
+package com.sallahli.dto;
+
+import com.sallahli.model.Enum.WalletTransactionType;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WalletTransactionExportDTO {
+
+    private Long id;
+    private Long proId;
+    private WalletTransactionType type;
+    private Long amount;
+    private String reason;
+    private String referenceType;
+    private Long referenceId;
+    private Long balanceAfter;
+    private LocalDateTime createdAt;
+}
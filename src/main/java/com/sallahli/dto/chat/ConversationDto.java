@@ -21,4 +21,5 @@ public class ConversationDto {
     private List<MessageDto> messages;
     private MessageDto lastMessage;
     private Long unreadCount;
+    private LocalDateTime lastActivityAt;
 }
@@ -0,0 +1,22 @@
+package com.sallahli.dto.chat;
+
+import lombok.*;
+
+/**
+ * Pushed on the conversation's update topic when a message that was already delivered
+ * could not be stored: recipients discard it, the sender resends it with the same client
+ * message id.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MessageDroppedDto {
+
+    public static final String EVENT_DROPPED = "MESSAGE_DROPPED";
+
+    private String event;
+    private Long conversationId;
+    private Long messageId;
+    private String clientMessageId;
+}
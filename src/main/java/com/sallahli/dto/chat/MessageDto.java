@@ -22,6 +22,9 @@ public class MessageDto {
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
 
+    // Generated by the client, used to drop duplicates when it resends an unacknowledged message
+    private String clientMessageId;
+
     // Additional sender info
     private String senderFirstName;
     private String senderLastName;
@@ -0,0 +1,30 @@
+package com.sallahli.dto.chat;
+
+import com.sallahli.model.Enum.ConversationType;
+import com.sallahli.model.Enum.UserRoleEnum;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * A message matching a search. {@code headline} is the matching excerpt with the terms
+ * wrapped in {@code <mark>}; pass {@code rank} and {@code id} of the last hit to get the
+ * next page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MessageSearchHitDto {
+
+    private Long id;
+    private Long conversationId;
+    private ConversationType conversationType;
+    private Long senderId;
+    private UserRoleEnum senderRole;
+    private String senderFirstName;
+    private String senderLastName;
+    private LocalDateTime createdAt;
+    private String headline;
+    private Float rank;
+}
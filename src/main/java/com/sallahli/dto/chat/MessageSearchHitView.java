@@ -0,0 +1,25 @@
+package com.sallahli.dto.chat;
+
+import java.time.LocalDateTime;
+
+/**
+ * Row of the native message search query.
+ */
+public interface MessageSearchHitView {
+
+    Long getId();
+
+    Long getConversationId();
+
+    String getConversationType();
+
+    Long getSenderId();
+
+    String getSenderRole();
+
+    LocalDateTime getCreatedAt();
+
+    String getHeadline();
+
+    Float getRank();
+}
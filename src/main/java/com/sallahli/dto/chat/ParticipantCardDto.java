@@ -0,0 +1,20 @@
+package com.sallahli.dto.chat;
+
+import com.sallahli.service.ParticipantDirectoryService.ParticipantType;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Compact identity of a chat participant, cached by {@code ParticipantDirectoryService}.
+ */
+@Value
+@Builder
+public class ParticipantCardDto {
+
+    Long userId;
+    ParticipantType type;
+    String firstName;
+    String lastName;
+    String username;
+    String avatarUrl;
+}
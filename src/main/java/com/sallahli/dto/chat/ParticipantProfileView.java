@@ -0,0 +1,18 @@
+package com.sallahli.dto.chat;
+
+/**
+ * Projection of the profile columns a participant card needs, shared by the client,
+ * pro and admin repositories.
+ */
+public interface ParticipantProfileView {
+
+    Long getId();
+
+    String getFirstName();
+
+    String getLastName();
+
+    String getUsername();
+
+    String getAvatarUrl();
+}
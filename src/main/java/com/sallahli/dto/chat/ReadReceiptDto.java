@@ -0,0 +1,25 @@
+package com.sallahli.dto.chat;
+
+import com.sallahli.model.Enum.UserRoleEnum;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Pushed on the conversation's update topic when a participant's read watermark moves.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReadReceiptDto {
+
+    public static final String EVENT_READ = "READ";
+
+    private String event;
+    private Long conversationId;
+    private Long userId;
+    private UserRoleEnum role;
+    private Long lastReadMessageId;
+    private LocalDateTime readAt;
+}
@@ -0,0 +1,18 @@
+package com.sallahli.dto.chat;
+
+import com.sallahli.model.Enum.ConversationType;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder(toBuilder = true)
+public class SupportQueueEntryDto {
+    private Long conversationId;
+    private ConversationType conversationType;
+    private LocalDateTime waitingSince;
+    private int unreadCount;
+    private LocalDateTime lastMessageAt;
+}
@@ -0,0 +1,24 @@
+package com.sallahli.dto.chat;
+
+import lombok.*;
+
+/**
+ * Pushed on the support queue topic whenever a conversation enters, moves in or leaves
+ * the queue. {@code queueSize} is the size after the change.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SupportQueueEventDto {
+
+    public static final String EVENT_ENQUEUED = "ENQUEUED";
+    public static final String EVENT_UPDATED = "UPDATED";
+    public static final String EVENT_REMOVED = "REMOVED";
+
+    private String event;
+    private Long conversationId;
+    private SupportQueueEntryDto entry;
+    private Long assignedTo;
+    private int queueSize;
+}
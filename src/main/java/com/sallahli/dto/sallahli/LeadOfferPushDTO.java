@@ -0,0 +1,34 @@
+package com.sallahli.dto.sallahli;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import com.sallahli.model.Enum.LeadOfferStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Realtime frame pushed to a pro when a lead offer is created. The customer request
+ * is embedded as pre-serialized JSON shared by every pro receiving the same request.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeadOfferPushDTO {
+
+    public static final String EVENT_LEAD_OFFER = "LEAD_OFFER";
+
+    private String event;
+    private Long offerId;
+    private Long proId;
+    private Long price;
+    private LeadOfferStatus status;
+    private LocalDateTime offeredAt;
+    private LocalDateTime expiresAt;
+
+    @JsonRawValue
+    private String request;
+}
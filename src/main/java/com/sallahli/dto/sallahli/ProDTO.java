@@ -23,6 +23,7 @@ public class ProDTO extends UserDTO {
 
     private String fullName;
     private String profilePhoto;
+    private Long version;
     @Builder.Default
     private List<CategoryDTO> categories = new ArrayList<>();
     private ZoneDTO baseZone;
@@ -0,0 +1,20 @@
+package com.sallahli.dto.sallahli;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProLocationDTO {
+
+    private Long proId;
+    private Double latitude;
+    private Double longitude;
+    private LocalDateTime updatedAt;
+}
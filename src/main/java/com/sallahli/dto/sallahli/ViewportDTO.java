@@ -0,0 +1,23 @@
+package com.sallahli.dto.sallahli;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Bounding box of the admin live map. When {@code subscriptionId} is null the box
+ * applies to every viewport subscription of the session.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ViewportDTO {
+
+    private String subscriptionId;
+    private Double minLat;
+    private Double minLng;
+    private Double maxLat;
+    private Double maxLng;
+}
@@ -0,0 +1,14 @@
+package com.sallahli.dto.search;
+
+/**
+ * How {@link PaginatedSearchService#findByCriteria} computes the total of a page.
+ * <ul>
+ *     <li>{@code exact}: a full {@code COUNT(*)} (default)</li>
+ *     <li>{@code slice}: no count, pageSize + 1 rows tell whether a next page exists</li>
+ *     <li>{@code estimated}: planner estimate for unfiltered lists, a count capped at
+ *     {@code search.estimated-count.cap} otherwise</li>
+ * </ul>
+ */
+public enum CountMode {
+    exact, slice, estimated
+}
@@ -12,6 +12,9 @@ public class Criteria {
     private List<List<Filter>> orFilters;
     private String sortField;
     private Integer sortOrder;
+    private CountMode countMode;
+    // Opaque keyset cursor from a previous CursorPage, replaces page for findByCursor
+    private String cursor;
 }
 
 
@@ -0,0 +1,353 @@
+package com.sallahli.dto.search;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ser.PropertyWriter;
+import com.fasterxml.jackson.databind.ser.std.BeanSerializerBase;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Writes every row matching a {@link Criteria} as CSV, NDJSON or a JSON array, for exports
+ * and listings that would otherwise page through the search endpoint or load a whole table.
+ * <p>
+ * The specification runs once as a forward-only stream ({@code search.export.fetch-size}
+ * rows per round trip, no count). Rows are mapped by chunks of the same size, after which
+ * the persistence context is cleared and the output flushed, so the heap stays flat and a
+ * client disconnect fails the next flush and stops the query.
+ * <p>
+ * Rows that map by name onto their DTO can be read through a {@link DtoProjection}
+ * instead ({@link #exportProjected}), one id-ordered keyset query per chunk.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CriteriaExporter {
+
+    private static final TypeReference<LinkedHashMap<String, Object>> ROW_TYPE = new TypeReference<>() {
+    };
+
+    private final CriteriaSearchExecutor criteriaSearchExecutor;
+    private final EntityManager entityManager;
+    private final PlatformTransactionManager transactionManager;
+    private final ObjectMapper objectMapper;
+
+    @Value("${search.export.fetch-size:500}")
+    private int fetchSize;
+
+    /**
+     * @param scope       extra restriction ANDed with the criteria filters, or null
+     * @param fetchPaths  to-one associations fetched with the rows
+     * @param rowType     class of the exported rows, which gives the CSV columns
+     * @param chunkMapper maps a chunk of entities to the exported rows
+     */
+    public <T, R> StreamingResponseBody export(Class<T> type, Criteria criteria, Specification<T> scope,
+            List<String> fetchPaths, Class<R> rowType, Function<List<T>, List<R>> chunkMapper, ExportFormat format) {
+        return export(type, criteria, scope, fetchPaths, rowType, chunkMapper, format, 0);
+    }
+
+    /**
+     * Same export truncated to the first {@code maxRows} rows (no limit when 0).
+     */
+    public <T, R> StreamingResponseBody export(Class<T> type, Criteria criteria, Specification<T> scope,
+            List<String> fetchPaths, Class<R> rowType, Function<List<T>, List<R>> chunkMapper, ExportFormat format,
+            int maxRows) {
+        List<String> header = format == ExportFormat.csv ? csvHeader(rowType) : null;
+        Specification<T> specification = SallahliSpecification.fromCriteria(criteria);
+        if (scope != null) {
+            specification = specification != null ? scope.and(specification) : scope;
+        }
+        if (!fetchPaths.isEmpty()) {
+            specification = new FetchSpecification<T>(fetchPaths).and(specification);
+        }
+        Specification<T> exported = specification;
+        Sort sort = sortOf(criteria);
+
+        return outputStream -> {
+            TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+            transactionTemplate.setReadOnly(true);
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    try (Stream<T> rows = criteriaSearchExecutor.stream(type, exported, sort, fetchSize, maxRows)) {
+                        write(chunks(rows, chunkMapper), format, header, writer);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                log.info("Export of {} aborted: {}", type.getSimpleName(), e.getCause().getMessage());
+                throw e.getCause();
+            }
+            writer.flush();
+        };
+    }
+
+    /**
+     * Every row of the scope, in id order, read as {@code rowType} through a
+     * {@link DtoProjection} and truncated to the first {@code maxRows} rows (no limit when 0).
+     */
+    public <T, R> StreamingResponseBody exportProjected(Class<T> type, Specification<T> scope, Class<R> rowType,
+            ExportFormat format, int maxRows) {
+        List<String> header = format == ExportFormat.csv ? csvHeader(rowType) : null;
+
+        return outputStream -> {
+            TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+            transactionTemplate.setReadOnly(true);
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            try {
+                transactionTemplate.executeWithoutResult(status -> {
+                    try {
+                        write(projectedChunks(type, scope, rowType, maxRows), format, header, writer);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                log.info("Export of {} aborted: {}", type.getSimpleName(), e.getCause().getMessage());
+                throw e.getCause();
+            }
+            writer.flush();
+        };
+    }
+
+    /**
+     * Criteria sort then id, so the order is total; id alone by default.
+     */
+    private static Sort sortOf(Criteria criteria) {
+        String sortField = criteria.getSortField();
+        Sort.Direction direction = criteria.getSortOrder() != null && criteria.getSortOrder() == 1
+                ? Sort.Direction.DESC
+                : Sort.Direction.ASC;
+        if (sortField == null || KeysetSpecification.ID_ATTRIBUTE.equals(sortField)) {
+            return Sort.by(direction, KeysetSpecification.ID_ATTRIBUTE);
+        }
+        return Sort.by(direction, sortField, KeysetSpecification.ID_ATTRIBUTE);
+    }
+
+    /**
+     * The streamed entities by chunks of {@code fetchSize}, each mapped to rows.
+     */
+    private <T, R> Iterator<List<R>> chunks(Stream<T> rows, Function<List<T>, List<R>> chunkMapper) {
+        Iterator<T> iterator = rows.iterator();
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public List<R> next() {
+                List<T> chunk = new ArrayList<>(fetchSize);
+                while (chunk.size() < fetchSize && iterator.hasNext()) {
+                    chunk.add(iterator.next());
+                }
+                return chunkMapper.apply(chunk);
+            }
+        };
+    }
+
+    /**
+     * Projected rows by chunks of {@code fetchSize}, each chunk read after the last id of
+     * the previous one.
+     */
+    private <T, R> Iterator<List<R>> projectedChunks(Class<T> type, Specification<T> scope, Class<R> rowType,
+            int maxRows) {
+        return new Iterator<>() {
+            private List<R> next = read(null, limit(0));
+            private int read = next.size();
+
+            @Override
+            public boolean hasNext() {
+                return !next.isEmpty();
+            }
+
+            @Override
+            public List<R> next() {
+                List<R> chunk = next;
+                int limit = limit(read);
+                if (chunk.size() < fetchSize || limit == 0) {
+                    next = List.of();
+                } else {
+                    Long lastId = (Long) new BeanWrapperImpl(chunk.get(chunk.size() - 1))
+                            .getPropertyValue(KeysetSpecification.ID_ATTRIBUTE);
+                    next = read(lastId, limit);
+                    read += next.size();
+                }
+                return chunk;
+            }
+
+            private int limit(int alreadyRead) {
+                return maxRows > 0 ? Math.min(fetchSize, maxRows - alreadyRead) : fetchSize;
+            }
+
+            private List<R> read(Long afterId, int limit) {
+                Specification<T> specification = scope;
+                if (afterId != null) {
+                    Specification<T> after = new KeysetSpecification<>(
+                            new KeysetCursor(KeysetSpecification.ID_ATTRIBUTE, false, afterId, null));
+                    specification = specification != null ? specification.and(after) : after;
+                }
+                return criteriaSearchExecutor.findProjected(type, rowType, specification,
+                        PageRequest.of(0, limit, Sort.by(KeysetSpecification.ID_ATTRIBUTE)), false);
+            }
+        };
+    }
+
+    private <R> void write(Iterator<List<R>> chunks, ExportFormat format, List<String> header, Writer writer)
+            throws IOException {
+        boolean first = true;
+        if (format == ExportFormat.json) {
+            writer.write('[');
+        } else if (format == ExportFormat.csv) {
+            writeCsvLine(writer, new ArrayList<>(header));
+        }
+        while (chunks.hasNext()) {
+            for (Object row : chunks.next()) {
+                if (format == ExportFormat.ndjson) {
+                    writer.write(objectMapper.writeValueAsString(row));
+                    writer.write('\n');
+                } else if (format == ExportFormat.json) {
+                    if (!first) {
+                        writer.write(',');
+                    }
+                    writer.write(objectMapper.writeValueAsString(row));
+                    first = false;
+                } else {
+                    Map<String, Object> values = flatten(row);
+                    List<Object> line = new ArrayList<>(header.size());
+                    for (String column : header) {
+                        line.add(values.get(column));
+                    }
+                    writeCsvLine(writer, line);
+                }
+            }
+            // Rows of the chunk are written: the entities read for them are not needed anymore
+            entityManager.clear();
+            writer.flush();
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedIOException("Export interrupted");
+            }
+        }
+        if (format == ExportFormat.json) {
+            writer.write(']');
+        }
+    }
+
+    /**
+     * CSV columns of a row class, in the order Jackson writes its properties and named as
+     * {@link #flatten} names the values, so every export of a type has the same header
+     * whatever the first row holds, including an empty one.
+     */
+    private List<String> csvHeader(Class<?> rowType) {
+        JsonSerializer<Object> serializer;
+        try {
+            serializer = objectMapper.getSerializerProviderInstance().findValueSerializer(rowType);
+        } catch (JsonMappingException e) {
+            throw new IllegalArgumentException("Cannot export " + rowType.getSimpleName() + " as CSV", e);
+        }
+        if (!(serializer instanceof BeanSerializerBase)) {
+            throw new IllegalArgumentException("CSV export rows must be beans, not " + rowType.getSimpleName());
+        }
+        List<String> header = new ArrayList<>();
+        Iterator<PropertyWriter> properties = serializer.properties();
+        while (properties.hasNext()) {
+            PropertyWriter property = properties.next();
+            JavaType propertyType = property.getType();
+            if (propertyType.isCollectionLikeType() || propertyType.isArrayType()) {
+                continue;
+            }
+            header.add(isNested(propertyType) ? property.getName() + "Id" : property.getName());
+        }
+        return header;
+    }
+
+    private boolean isNested(JavaType propertyType) {
+        if (propertyType.isMapLikeType()) {
+            return true;
+        }
+        try {
+            return objectMapper.getSerializerProviderInstance().findValueSerializer(propertyType)
+                    instanceof BeanSerializerBase;
+        } catch (JsonMappingException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Top level values of the row as Jackson writes them; nested objects become their id
+     * ({@code client} → {@code clientId}) and collections are left out.
+     */
+    private Map<String, Object> flatten(Object row) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> entry : objectMapper.convertValue(row, ROW_TYPE).entrySet()) {
+            Object value = entry.getValue();
+            if (value instanceof Map<?, ?> nested) {
+                values.put(entry.getKey() + "Id", nested.get(KeysetSpecification.ID_ATTRIBUTE));
+            } else if (!(value instanceof Collection<?>)) {
+                values.put(entry.getKey(), value);
+            }
+        }
+        return values;
+    }
+
+    private static void writeCsvLine(Writer writer, List<Object> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            Object value = values.get(i);
+            if (value != null) {
+                writer.write(csvField(value instanceof String text ? withoutFormula(text) : value.toString()));
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    /**
+     * Text starting like a formula is prefixed with a quote so spreadsheets open it as text
+     * (CSV injection). Numbers are not text values here, so negative ones are left alone.
+     */
+    private static String withoutFormula(String value) {
+        if (!value.isEmpty() && "=+-@\t\r".indexOf(value.charAt(0)) >= 0) {
+            return "'" + value;
+        }
+        return value;
+    }
+
+    private static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
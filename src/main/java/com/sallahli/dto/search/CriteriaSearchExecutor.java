@@ -0,0 +1,274 @@
+package com.sallahli.dto.search;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.From;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.jpa.AvailableHints;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Runs criteria searches without the exact count a {@code Page} costs (pageSize + 1
+ * slices, row count estimates), reads DTO projections without loading entities and
+ * streams whole results for exports.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CriteriaSearchExecutor {
+
+    private final EntityManager entityManager;
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Map<Class<?>, String> tableNames = new ConcurrentHashMap<>();
+
+    @Value("${search.estimated-count.cap:10000}")
+    private int estimatedCountCap;
+
+    // Owner ids per collection query, well under the driver's bind parameter limit
+    @Value("${search.in-list.chunk-size:1000}")
+    private int inListChunkSize;
+
+    /**
+     * Rows of the requested page plus one, when there is a next page.
+     */
+    public <T> List<T> findSlice(Class<T> type, Specification<T> specification, Pageable pageable) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = criteriaBuilder.createQuery(type);
+        Root<T> root = query.from(type);
+        Predicate predicate = specification.toPredicate(root, query, criteriaBuilder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        if (pageable.getSort().isSorted()) {
+            query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, criteriaBuilder));
+        }
+        return entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize() + 1)
+                .getResultList();
+    }
+
+    /**
+     * Every matching row as a forward-only stream, read from the cursor {@code fetchSize}
+     * rows at a time. Must be consumed and closed inside the (read-only) transaction.
+     */
+    public <T> Stream<T> stream(Class<T> type, Specification<T> specification, Sort sort, int fetchSize) {
+        return stream(type, specification, sort, fetchSize, 0);
+    }
+
+    /**
+     * Same stream stopped by the database after {@code maxRows} rows (no limit when 0).
+     */
+    public <T> Stream<T> stream(Class<T> type, Specification<T> specification, Sort sort, int fetchSize,
+            int maxRows) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = criteriaBuilder.createQuery(type);
+        Root<T> root = query.from(type);
+        Predicate predicate = specification != null ? specification.toPredicate(root, query, criteriaBuilder) : null;
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        if (sort.isSorted()) {
+            query.orderBy(QueryUtils.toOrders(sort, root, criteriaBuilder));
+        }
+        TypedQuery<T> typedQuery = entityManager.createQuery(query)
+                .setHint(AvailableHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(AvailableHints.HINT_READ_ONLY, true);
+        if (maxRows > 0) {
+            typedQuery.setMaxResults(maxRows);
+        }
+        return typedQuery.getResultStream();
+    }
+
+    /**
+     * Unfiltered lists use the planner's row estimate ({@code pg_class.reltuples}); filtered
+     * ones count matching rows up to the cap, so the total is exact for small results and
+     * a lower bound past the cap.
+     */
+    public <T> long estimateCount(Class<T> type, Specification<T> specification, boolean filtered) {
+        if (!filtered) {
+            List<Long> estimate = jdbcTemplate.queryForList(
+                    "SELECT reltuples::bigint FROM pg_class WHERE oid = to_regclass(?)", Long.class, tableName(type));
+            // -1 until the table has been analyzed
+            if (!estimate.isEmpty() && estimate.get(0) != null && estimate.get(0) >= 0) {
+                return estimate.get(0);
+            }
+        }
+        return countUpTo(type, specification, estimatedCountCap);
+    }
+
+    /**
+     * Whether more than {@code limit} rows match: reads at most one row, past the limit.
+     */
+    public <T> boolean hasMoreThan(Class<T> type, Specification<T> specification, int limit) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Integer> query = criteriaBuilder.createQuery(Integer.class);
+        Root<T> root = query.from(type);
+        Predicate predicate = specification != null ? specification.toPredicate(root, query, criteriaBuilder) : null;
+        query.select(criteriaBuilder.literal(1));
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        return !entityManager.createQuery(query).setFirstResult(limit).setMaxResults(1).getResultList().isEmpty();
+    }
+
+    public <T> long count(Class<T> type, Specification<T> specification) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = criteriaBuilder.createQuery(Long.class);
+        Root<T> root = query.from(type);
+        Predicate predicate = specification.toPredicate(root, query, criteriaBuilder);
+        query.select(criteriaBuilder.count(root));
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    /**
+     * Value of an attribute (dotted path through to-one associations) of the row with this
+     * id, read from the tables: keyset cursors take their sort value from here, whether or
+     * not the DTO carries it.
+     */
+    public <T> Object findValue(Class<T> type, Long id, String path) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Object> query = criteriaBuilder.createQuery(Object.class);
+        Root<T> root = query.from(type);
+        FilterPlan plan = FilterPlanCompiler.planFor(root.getModel(), path, MatchMode.equals);
+        From<?, ?> from = root;
+        for (String join : plan.getJoins()) {
+            from = FilterPlan.sharedJoin(from, join);
+        }
+        query.select(from.get(plan.getAttribute()))
+                .where(criteriaBuilder.equal(root.get(KeysetSpecification.ID_ATTRIBUTE), id));
+        List<Object> values = entityManager.createQuery(query).setMaxResults(1).getResultList();
+        return values.isEmpty() ? null : values.get(0);
+    }
+
+    /**
+     * DTOs of the requested page read through a {@link DtoProjection}, plus one row when
+     * {@code extraRow} is set.
+     */
+    public <T, D> List<D> findProjected(Class<T> type, Class<D> dtoClass, Specification<T> specification,
+            Pageable pageable, boolean extraRow) {
+        return findProjected(type, dtoClass, specification, pageable.getSort(), (int) pageable.getOffset(),
+                pageable.getPageSize() + (extraRow ? 1 : 0));
+    }
+
+    private <T, D> List<D> findProjected(Class<T> type, Class<D> dtoClass, Specification<T> specification,
+            Sort sort, int offset, int limit) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = criteriaBuilder.createTupleQuery();
+        Root<T> root = query.from(type);
+        DtoProjection projection = DtoProjection.of(root.getModel(), dtoClass);
+
+        Predicate predicate = specification != null ? specification.toPredicate(root, query, criteriaBuilder) : null;
+        List<Selection<?>> selections = new ArrayList<>();
+        selections.add(root.get(KeysetSpecification.ID_ATTRIBUTE));
+        projection.getRoot().select(root, selections);
+        query.multiselect(selections);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        if (sort.isSorted()) {
+            query.orderBy(QueryUtils.toOrders(sort, root, criteriaBuilder));
+        }
+
+        TypedQuery<Tuple> typedQuery = entityManager.createQuery(query).setFirstResult(offset).setMaxResults(limit);
+
+        Map<Long, D> byId = new LinkedHashMap<>();
+        List<D> dtos = new ArrayList<>();
+        for (Tuple tuple : typedQuery.getResultList()) {
+            D dto = dtoClass.cast(projection.getRoot().read(tuple, new int[]{1}));
+            byId.put((Long) tuple.get(0), dto);
+            dtos.add(dto);
+        }
+        if (!byId.isEmpty()) {
+            for (DtoProjection.CollectionProperty collection : projection.getRoot().getCollections()) {
+                readCollection(type, collection, byId);
+            }
+        }
+        return dtos;
+    }
+
+    /**
+     * One query per collection and chunk of {@code search.in-list.chunk-size} owners (a
+     * single one for a page), rows keyed by owner id.
+     */
+    private <T> void readCollection(Class<T> type, DtoProjection.CollectionProperty collection, Map<Long, ?> owners) {
+        Map<Long, Collection<Object>> elements = new HashMap<>();
+        List<Long> ids = new ArrayList<>(owners.keySet());
+        for (int from = 0; from < ids.size(); from += inListChunkSize) {
+            List<Long> chunk = ids.subList(from, Math.min(from + inListChunkSize, ids.size()));
+
+            CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+            CriteriaQuery<Tuple> query = criteriaBuilder.createTupleQuery();
+            Root<T> root = query.from(type);
+            Path<Long> ownerId = root.get(KeysetSpecification.ID_ATTRIBUTE);
+
+            List<Selection<?>> selections = new ArrayList<>();
+            selections.add(ownerId);
+            collection.element().select(root.join(collection.attribute()), selections);
+            query.multiselect(selections).where(ownerId.in(chunk));
+
+            for (Tuple tuple : entityManager.createQuery(query).getResultList()) {
+                Object element = collection.element().read(tuple, new int[]{1});
+                if (element != null) {
+                    elements.computeIfAbsent((Long) tuple.get(0), id -> collection.newCollection()).add(element);
+                }
+            }
+        }
+        owners.forEach((id, owner) -> DtoProjection.set(collection.setter(), owner,
+                elements.getOrDefault(id, collection.newCollection())));
+    }
+
+    private <T> long countUpTo(Class<T> type, Specification<T> specification, int cap) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Integer> query = criteriaBuilder.createQuery(Integer.class);
+        Root<T> root = query.from(type);
+        Predicate predicate = specification.toPredicate(root, query, criteriaBuilder);
+        query.select(criteriaBuilder.literal(1));
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        return entityManager.createQuery(query).setMaxResults(cap).getResultList().size();
+    }
+
+    private String tableName(Class<?> type) {
+        return tableNames.computeIfAbsent(type, t -> {
+            EntityPersister persister = entityManager.getEntityManagerFactory()
+                    .unwrap(SessionFactoryImplementor.class)
+                    .getMappingMetamodel()
+                    .getEntityDescriptor(t);
+            return persister instanceof AbstractEntityPersister entityPersister
+                    ? entityPersister.getTableName()
+                    : persister.getEntityName();
+        });
+    }
+}
@@ -0,0 +1,19 @@
+package com.sallahli.dto.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One keyset page; {@code nextCursor} is null on the last page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<S> {
+    private List<S> content;
+    private String nextCursor;
+    private boolean hasNext;
+}
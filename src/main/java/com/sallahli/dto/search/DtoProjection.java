@@ -0,0 +1,181 @@
+package com.sallahli.dto.search;
+
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.From;
+import jakarta.persistence.criteria.Selection;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.ManagedType;
+import jakarta.persistence.metamodel.PluralAttribute;
+import jakarta.persistence.metamodel.SingularAttribute;
+import lombok.Getter;
+import org.springframework.beans.BeanUtils;
+import org.springframework.util.ClassUtils;
+
+import java.beans.PropertyDescriptor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Column projection of an entity onto a DTO class, derived once from the DTO's properties
+ * and the JPA metamodel the way the MapStruct mappers map them (same-name properties).
+ * <p>
+ * Basic attributes are selected as columns; to-one associations become left joins whose
+ * columns fill the nested DTO, down to {@link #MAX_DEPTH}; collections of the root are
+ * read by one extra query each, keyed by root id. Nothing is hydrated as an entity, so
+ * there are no lazy loads.
+ */
+public final class DtoProjection {
+
+    static final int MAX_DEPTH = 2;
+
+    private static final Map<List<Class<?>>, DtoProjection> PROJECTIONS = new ConcurrentHashMap<>();
+
+    @Getter
+    private final Node root;
+
+    private DtoProjection(Node root) {
+        this.root = root;
+    }
+
+    public static DtoProjection of(ManagedType<?> entityType, Class<?> dtoClass) {
+        return PROJECTIONS.computeIfAbsent(List.of(entityType.getJavaType(), dtoClass),
+                key -> new DtoProjection(Node.build(entityType, dtoClass, 0, true)));
+    }
+
+    /**
+     * Properties of one DTO class read from one entity (or joined association).
+     */
+    static final class Node {
+        private final Class<?> dtoClass;
+        private final List<Property> basics = new ArrayList<>();
+        private final List<Child> children = new ArrayList<>();
+        @Getter
+        private final List<CollectionProperty> collections = new ArrayList<>();
+
+        private Node(Class<?> dtoClass) {
+            this.dtoClass = dtoClass;
+        }
+
+        private static Node build(ManagedType<?> type, Class<?> dtoClass, int depth, boolean root) {
+            Node node = new Node(dtoClass);
+            for (PropertyDescriptor descriptor : BeanUtils.getPropertyDescriptors(dtoClass)) {
+                Method setter = descriptor.getWriteMethod();
+                Attribute<?, ?> attribute = setter != null ? findAttribute(type, descriptor.getName()) : null;
+                if (attribute == null) {
+                    continue;
+                }
+                Class<?> propertyType = descriptor.getPropertyType();
+
+                if (attribute instanceof SingularAttribute<?, ?> singular) {
+                    if (singular.getType() instanceof ManagedType<?> associated) {
+                        if (depth < MAX_DEPTH && isBean(propertyType)) {
+                            node.children.add(new Child(attribute.getName(), setter,
+                                    build(associated, propertyType, depth + 1, false)));
+                        }
+                    } else if (ClassUtils.isAssignable(propertyType, singular.getJavaType())) {
+                        node.basics.add(new Property(attribute.getName(), setter));
+                    }
+                } else if (root && attribute instanceof PluralAttribute<?, ?, ?> plural
+                        && plural.getElementType() instanceof ManagedType<?> elementType) {
+                    Class<?> elementDto = elementClass(setter);
+                    if (elementDto != null && isBean(elementDto) && Collection.class.isAssignableFrom(propertyType)) {
+                        node.collections.add(new CollectionProperty(attribute.getName(), setter,
+                                Set.class.isAssignableFrom(propertyType), build(elementType, elementDto, 1, false)));
+                    }
+                }
+            }
+            return node;
+        }
+
+        /**
+         * Appends this node's columns, joining associations from the given node.
+         */
+        void select(From<?, ?> from, List<Selection<?>> selections) {
+            for (Property basic : basics) {
+                selections.add(from.get(basic.attribute()));
+            }
+            for (Child child : children) {
+                child.node().select(FilterPlan.sharedJoin(from, child.attribute()), selections);
+            }
+        }
+
+        /**
+         * Builds the DTO from the tuple, starting at {@code position[0]} and moving it past
+         * this node's columns. Returns null when every column is null (absent association).
+         */
+        Object read(Tuple tuple, int[] position) {
+            Object dto = BeanUtils.instantiateClass(dtoClass);
+            boolean present = false;
+            for (Property basic : basics) {
+                Object value = tuple.get(position[0]++);
+                if (value != null) {
+                    set(basic.setter(), dto, value);
+                    present = true;
+                }
+            }
+            for (Child child : children) {
+                Object value = child.node().read(tuple, position);
+                if (value != null) {
+                    set(child.setter(), dto, value);
+                    present = true;
+                }
+            }
+            return present ? dto : null;
+        }
+
+        private static Attribute<?, ?> findAttribute(ManagedType<?> type, String name) {
+            for (Attribute<?, ?> attribute : type.getAttributes()) {
+                if (attribute.getName().equals(name)) {
+                    return attribute;
+                }
+            }
+            return null;
+        }
+
+        private static boolean isBean(Class<?> type) {
+            return !type.isPrimitive() && !type.isEnum() && !type.isArray()
+                    && !type.getName().startsWith("java.") && !Collection.class.isAssignableFrom(type)
+                    && !Map.class.isAssignableFrom(type);
+        }
+
+        private static Class<?> elementClass(Method setter) {
+            Type parameter = setter.getGenericParameterTypes()[0];
+            if (parameter instanceof ParameterizedType parameterized
+                    && parameterized.getActualTypeArguments()[0] instanceof Class<?> element) {
+                return element;
+            }
+            return null;
+        }
+    }
+
+    record Property(String attribute, Method setter) {
+    }
+
+    record Child(String attribute, Method setter, Node node) {
+    }
+
+    record CollectionProperty(String attribute, Method setter, boolean set, Node element) {
+
+        Collection<Object> newCollection() {
+            return set ? new LinkedHashSet<>() : new ArrayList<>();
+        }
+    }
+
+    static void set(Method setter, Object target, Object value) {
+        try {
+            setter.invoke(target, value);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException("Unable to set " + setter.getName() + " on "
+                    + target.getClass().getSimpleName(), e);
+        }
+    }
+}
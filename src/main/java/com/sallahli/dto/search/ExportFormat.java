@@ -0,0 +1,19 @@
+package com.sallahli.dto.search;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Output of {@link CriteriaExporter}: {@code csv} (header row, nested objects reduced to
+ * their id), {@code ndjson} (one full JSON document per line) or {@code json} (one JSON
+ * array, written element by element).
+ */
+@Getter
+@RequiredArgsConstructor
+public enum ExportFormat {
+    csv("text/csv"),
+    ndjson("application/x-ndjson"),
+    json("application/json");
+
+    private final String contentType;
+}
@@ -0,0 +1,65 @@
+package com.sallahli.dto.search;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Fetch;
+import jakarta.persistence.criteria.From;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.ManagedType;
+import jakarta.persistence.metamodel.SingularAttribute;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+/**
+ * Fetch joins the given to-one paths on the page query only; count queries get no
+ * fetch. Filters on the same paths reuse these joins (see {@link FilterPlan#sharedJoin}).
+ * Collections are not fetched here, as that would paginate in memory: they are left to
+ * batch fetching.
+ */
+@Slf4j
+public class FetchSpecification<T> implements Specification<T> {
+
+    private final List<String> paths;
+
+    public FetchSpecification(List<String> paths) {
+        this.paths = paths;
+    }
+
+    @Override
+    public Predicate toPredicate(Root<T> root, CriteriaQuery<?> query, CriteriaBuilder criteriaBuilder) {
+        // Count and projection queries select something else than the root: nothing to fetch
+        if (query.getResultType() != root.getJavaType()) {
+            return null;
+        }
+
+        for (String path : paths) {
+            From<?, ?> from = root;
+            ManagedType<?> type = root.getModel();
+            for (String segment : path.split("\\.")) {
+                Attribute<?, ?> attribute = type.getAttribute(segment);
+                if (attribute.isCollection()
+                        || !(((SingularAttribute<?, ?>) attribute).getType() instanceof ManagedType<?> next)) {
+                    log.warn("Not fetching {}: only to-one associations are fetch joined", path);
+                    break;
+                }
+                from = fetch(from, segment);
+                type = next;
+            }
+        }
+        return null;
+    }
+
+    private static From<?, ?> fetch(From<?, ?> from, String attribute) {
+        for (Fetch<?, ?> fetch : from.getFetches()) {
+            if (fetch.getAttribute().getName().equals(attribute) && fetch instanceof From<?, ?> fetched) {
+                return fetched;
+            }
+        }
+        return (From<?, ?>) from.fetch(attribute, JoinType.LEFT);
+    }
+}
@@ -0,0 +1,117 @@
+package com.sallahli.dto.search;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Fetch;
+import jakarta.persistence.criteria.From;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Resolved form of one (entity, filter key, match mode) combination, built once by
+ * {@link FilterPlanCompiler} and shared by every request using it.
+ * <p>
+ * A plan knows the joins to walk, the attribute type, how to turn the filter's raw string
+ * into a typed value and which predicate to build, so a request only binds its value.
+ * <p>
+ * To-one joins are shared with the other filters (and fetches) of the same query root.
+ * A path through a collection becomes an {@code EXISTS} subquery instead, so matching
+ * several children never multiplies the root rows and no {@code DISTINCT} is needed.
+ */
+@Getter
+public final class FilterPlan {
+
+    /**
+     * Converts the raw filter value; returns null when the value is not usable.
+     */
+    @FunctionalInterface
+    interface ValueBinder {
+        Object bind(String value);
+    }
+
+    @FunctionalInterface
+    interface PredicateFactory {
+        Predicate create(CriteriaBuilder criteriaBuilder, Path<?> path, Object value);
+    }
+
+    private final Class<?> entityType;
+    private final String key;
+    private final MatchMode matchMode;
+    private final List<String> joins;
+    private final boolean collectionPath;
+    private final String attribute;
+    private final Class<?> javaType;
+    private final boolean valueRequired;
+    private final ValueBinder binder;
+    private final PredicateFactory predicateFactory;
+
+    FilterPlan(Class<?> entityType, String key, MatchMode matchMode, List<String> joins, boolean collectionPath,
+            String attribute, Class<?> javaType, boolean valueRequired, ValueBinder binder,
+            PredicateFactory predicateFactory) {
+        this.entityType = entityType;
+        this.key = key;
+        this.matchMode = matchMode;
+        this.joins = List.copyOf(joins);
+        this.collectionPath = collectionPath;
+        this.attribute = attribute;
+        this.javaType = javaType;
+        this.valueRequired = valueRequired;
+        this.binder = binder;
+        this.predicateFactory = predicateFactory;
+    }
+
+    /**
+     * Typed value for the given raw filter value, or null when it cannot be used.
+     */
+    public Object bind(String value) {
+        return valueRequired ? binder.bind(value) : null;
+    }
+
+    public Predicate toPredicate(Root<?> root, CriteriaQuery<?> query, CriteriaBuilder criteriaBuilder,
+            Object boundValue) {
+        if (!collectionPath) {
+            From<?, ?> from = root;
+            for (String join : joins) {
+                from = sharedJoin(from, join);
+            }
+            return predicateFactory.create(criteriaBuilder, from.get(attribute), boundValue);
+        }
+
+        // Left joins inside the subquery keep the semantics of the former outer join
+        // (an empty collection still matches isNull)
+        Subquery<Integer> subquery = query.subquery(Integer.class);
+        From<?, ?> from = subquery.correlate(root);
+        for (String join : joins) {
+            from = from.join(join, JoinType.LEFT);
+        }
+        subquery.select(criteriaBuilder.literal(1))
+                .where(predicateFactory.create(criteriaBuilder, from.get(attribute), boundValue));
+        return criteriaBuilder.exists(subquery);
+    }
+
+    /**
+     * Left join of the attribute from the given node, reusing the join (or fetch) another
+     * filter already created: the query root's join tree is the registry.
+     */
+    static From<?, ?> sharedJoin(From<?, ?> from, String attribute) {
+        for (Fetch<?, ?> fetch : from.getFetches()) {
+            if (fetch instanceof From<?, ?> fetched && fetch.getJoinType() == JoinType.LEFT
+                    && fetch.getAttribute().getName().equals(attribute)) {
+                return fetched;
+            }
+        }
+        for (Join<?, ?> join : from.getJoins()) {
+            if (join.getJoinType() == JoinType.LEFT && join.getAttribute().getName().equals(attribute)) {
+                return join;
+            }
+        }
+        return from.join(attribute, JoinType.LEFT);
+    }
+}
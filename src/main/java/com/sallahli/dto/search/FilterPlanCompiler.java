@@ -0,0 +1,333 @@
+package com.sallahli.dto.search;
+
+import com.sallahli.dto.search.FilterPlan.PredicateFactory;
+import com.sallahli.dto.search.FilterPlan.ValueBinder;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.ManagedType;
+import jakarta.persistence.metamodel.PluralAttribute;
+import jakarta.persistence.metamodel.SingularAttribute;
+import jakarta.persistence.metamodel.Type;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Compiles and caches {@link FilterPlan}s.
+ * <p>
+ * Field paths are resolved against the JPA metamodel instead of the query paths, so a plan
+ * can be built once per (entity, key, match mode) and reused. Only paths that exist end
+ * up in the cache, which keeps it bounded by the model whatever keys clients send.
+ */
+@Slf4j
+public final class FilterPlanCompiler {
+
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd");
+
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMddHHmm");
+
+    private static final Map<PlanKey, FilterPlan> PLANS = new ConcurrentHashMap<>();
+
+    private FilterPlanCompiler() {
+    }
+
+    /**
+     * Cached plan for the filter on the given entity.
+     *
+     * @throws IllegalArgumentException when the key does not resolve or the match mode
+     *                                  does not apply to the attribute
+     */
+    public static FilterPlan planFor(ManagedType<?> entityType, String key, MatchMode matchMode) {
+        PlanKey planKey = new PlanKey(entityType.getJavaType(), key, matchMode);
+        FilterPlan plan = PLANS.get(planKey);
+        if (plan == null) {
+            plan = PLANS.computeIfAbsent(planKey, k -> compile(entityType, key, matchMode));
+        }
+        return plan;
+    }
+
+    /**
+     * Builds the plan without going through the cache; {@link #planFor} is the entry point.
+     */
+    static FilterPlan compile(ManagedType<?> entityType, String key, MatchMode matchMode) {
+        String[] segments = key.split("\\.");
+        ManagedType<?> type = entityType;
+        boolean collectionPath = false;
+        for (int i = 0; i < segments.length - 1; i++) {
+            Attribute<?, ?> join = type.getAttribute(segments[i]);
+            collectionPath |= join.isCollection();
+            type = managedTypeOf(join, key);
+        }
+        Attribute<?, ?> leaf = type.getAttribute(segments[segments.length - 1]);
+        Class<?> javaType = boxed(leaf.getJavaType());
+
+        List<String> joins = Arrays.asList(segments).subList(0, segments.length - 1);
+        String attribute = segments[segments.length - 1];
+
+        switch (matchMode) {
+            case isNull:
+                return plan(entityType, key, matchMode, joins, collectionPath, attribute, javaType, false, null,
+                        (cb, path, value) -> path.isNull());
+            case isNotNull:
+                return plan(entityType, key, matchMode, joins, collectionPath, attribute, javaType, false, null,
+                        (cb, path, value) -> path.isNotNull());
+            case startsWith:
+                return plan(entityType, key, matchMode, joins, collectionPath, attribute, javaType, true,
+                        value -> value.toLowerCase() + "%", FilterPlanCompiler::like);
+            case contains:
+                return plan(entityType, key, matchMode, joins, collectionPath, attribute, javaType, true,
+                        value -> "%" + value.toLowerCase() + "%", FilterPlanCompiler::like);
+            case endsWith:
+                return plan(entityType, key, matchMode, joins, collectionPath, attribute, javaType, true,
+                        value -> "%" + value.toLowerCase(), FilterPlanCompiler::like);
+            case notContains:
+                return plan(entityType, key, matchMode, joins, collectionPath, attribute, javaType, true,
+                        value -> "%" + value.toLowerCase() + "%",
+                        (cb, path, value) -> cb.notLike(cb.lower(path.as(String.class)), (String) value));
+            case equals:
+                if (javaType == String.class) {
+                    return plan(entityType, key, matchMode, joins, collectionPath, attribute, javaType, true,
+                            String::toLowerCase,
+                            (cb, path, value) -> cb.equal(cb.lower(path.as(String.class)), value));
+                }
+                return plan(entityType, key, matchMode, joins, collectionPath, attribute, javaType, true,
+                        scalarBinder(javaType), (cb, path, value) -> cb.equal(path, value));
+            case notEquals:
+                return plan(entityType, key, matchMode, joins, collectionPath, attribute, javaType, true,
+                        scalarBinder(javaType), (cb, path, value) -> cb.notEqual(path, value));
+            case in:
+                return plan(entityType, key, matchMode, joins, collectionPath, attribute, javaType, true,
+                        inBinder(javaType), (cb, path, value) -> path.in((List<?>) value));
+            case gt:
+            case gte:
+            case lt:
+            case lte:
+                requireComparable(javaType, key, matchMode);
+                return plan(entityType, key, matchMode, joins, collectionPath, attribute, javaType, true,
+                        comparableBinder(javaType), comparison(matchMode));
+            case dateIs:
+                return plan(entityType, key, matchMode, joins, collectionPath, attribute, javaType, true,
+                        value -> {
+                            LocalDate date = parse(value, v -> LocalDate.parse(v, DATE_FORMATTER));
+                            return date == null ? null : new Comparable<?>[]{date.atStartOfDay(), endOfDay(date)};
+                        },
+                        rangeFactory(LocalDateTime.class));
+            case dateAfter:
+                return plan(entityType, key, matchMode, joins, collectionPath, attribute, javaType, true,
+                        value -> parseDateBound(value, false),
+                        (cb, path, value) -> cb.greaterThanOrEqualTo(path.as(LocalDateTime.class), (LocalDateTime) value));
+            case dateBefore:
+                return plan(entityType, key, matchMode, joins, collectionPath, attribute, javaType, true,
+                        value -> parseDateBound(value, true),
+                        (cb, path, value) -> cb.lessThanOrEqualTo(path.as(LocalDateTime.class), (LocalDateTime) value));
+            case between:
+                return plan(entityType, key, matchMode, joins, collectionPath, attribute, javaType, true,
+                        betweenBinder(javaType), rangeFactory(betweenType(javaType)));
+            default:
+                throw new IllegalArgumentException("Unsupported match mode: " + matchMode);
+        }
+    }
+
+    private static FilterPlan plan(ManagedType<?> entityType, String key, MatchMode matchMode, List<String> joins,
+            boolean collectionPath, String attribute, Class<?> javaType, boolean valueRequired, ValueBinder binder,
+            PredicateFactory predicateFactory) {
+        return new FilterPlan(entityType.getJavaType(), key, matchMode, joins, collectionPath, attribute, javaType,
+                valueRequired, binder, predicateFactory);
+    }
+
+    // ==================== Path resolution ====================
+
+    private static ManagedType<?> managedTypeOf(Attribute<?, ?> attribute, String key) {
+        Type<?> type = attribute instanceof PluralAttribute<?, ?, ?> plural
+                ? plural.getElementType()
+                : ((SingularAttribute<?, ?>) attribute).getType();
+        if (type instanceof ManagedType<?> managedType) {
+            return managedType;
+        }
+        throw new IllegalArgumentException("'" + attribute.getName() + "' cannot be joined in filter key " + key);
+    }
+
+    private static Class<?> boxed(Class<?> type) {
+        if (!type.isPrimitive()) {
+            return type;
+        }
+        if (type == long.class) return Long.class;
+        if (type == int.class) return Integer.class;
+        if (type == double.class) return Double.class;
+        if (type == float.class) return Float.class;
+        if (type == boolean.class) return Boolean.class;
+        if (type == short.class) return Short.class;
+        if (type == byte.class) return Byte.class;
+        return Character.class;
+    }
+
+    private static void requireComparable(Class<?> javaType, String key, MatchMode matchMode) {
+        if (!Comparable.class.isAssignableFrom(javaType)) {
+            throw new IllegalArgumentException("Unsupported type " + javaType.getSimpleName() + " for "
+                    + matchMode + " on " + key);
+        }
+    }
+
+    // ==================== Value binders ====================
+
+    private static ValueBinder scalarBinder(Class<?> javaType) {
+        if (javaType == String.class) return value -> value;
+        if (javaType == Long.class) return value -> parse(value, Long::parseLong);
+        if (javaType == Integer.class) return value -> parse(value, Integer::parseInt);
+        if (javaType == Double.class) return value -> parse(value, Double::parseDouble);
+        if (javaType == Float.class) return value -> parse(value, Float::parseFloat);
+        if (javaType == Boolean.class) return Boolean::parseBoolean;
+        if (javaType.isEnum()) return value -> parseEnum(javaType, value);
+        return value -> value;
+    }
+
+    private static ValueBinder comparableBinder(Class<?> javaType) {
+        if (javaType == LocalDateTime.class) {
+            return value -> {
+                LocalDate date = parse(value, v -> LocalDate.parse(v, DATE_FORMATTER));
+                return date != null ? date.atStartOfDay() : parse(value, LocalDateTime::parse);
+            };
+        }
+        if (javaType == LocalDate.class) {
+            return value -> {
+                LocalDate date = parse(value, v -> LocalDate.parse(v, DATE_FORMATTER));
+                return date != null ? date : parse(value, LocalDate::parse);
+            };
+        }
+        return scalarBinder(javaType);
+    }
+
+    private static ValueBinder inBinder(Class<?> javaType) {
+        ValueBinder element = javaType.isEnum() || javaType == Long.class
+                ? scalarBinder(javaType)
+                : value -> value;
+        return value -> {
+            List<Object> values = new ArrayList<>();
+            for (String part : value.split(";")) {
+                Object bound = element.bind(part);
+                if (bound != null) {
+                    values.add(bound);
+                }
+            }
+            return values.isEmpty() ? null : values;
+        };
+    }
+
+    private static ValueBinder betweenBinder(Class<?> javaType) {
+        return value -> {
+            String[] elements = value.split(";");
+            if (elements.length != 2) {
+                log.warn("Between filter requires exactly 2 values separated by ';', got: {}", value);
+                return null;
+            }
+            if (javaType == LocalDateTime.class) {
+                LocalDate from = parse(elements[0], v -> LocalDate.parse(v, DATE_FORMATTER));
+                LocalDate to = parse(elements[1], v -> LocalDate.parse(v, DATE_FORMATTER));
+                return from == null || to == null ? null : new Comparable<?>[]{from.atStartOfDay(), endOfDay(to)};
+            }
+            Class<?> type = betweenType(javaType);
+            Comparable<?> from;
+            Comparable<?> to;
+            if (type == LocalDate.class) {
+                from = parse(elements[0], v -> LocalDate.parse(v, DATE_FORMATTER));
+                to = parse(elements[1], v -> LocalDate.parse(v, DATE_FORMATTER));
+            } else if (type == Double.class) {
+                from = parse(elements[0], Double::parseDouble);
+                to = parse(elements[1], Double::parseDouble);
+            } else if (type == Long.class) {
+                from = parse(elements[0], Long::parseLong);
+                to = parse(elements[1], Long::parseLong);
+            } else {
+                from = elements[0];
+                to = elements[1];
+            }
+            return from == null || to == null ? null : new Comparable<?>[]{from, to};
+        };
+    }
+
+    private static Class<?> betweenType(Class<?> javaType) {
+        if (javaType == LocalDateTime.class || javaType == LocalDate.class
+                || javaType == Double.class || javaType == Long.class) {
+            return javaType;
+        }
+        return String.class;
+    }
+
+    /**
+     * dateAfter / dateBefore bound: yyyyMMddHHmm as is, yyyyMMdd at the start (or end) of the day.
+     */
+    private static LocalDateTime parseDateBound(String value, boolean endOfDay) {
+        if (value.length() == 12) {
+            return parse(value, v -> LocalDateTime.parse(v, DATE_TIME_FORMATTER));
+        }
+        if (value.length() == 8) {
+            LocalDate date = parse(value, v -> LocalDate.parse(v, DATE_FORMATTER));
+            return date == null ? null : endOfDay ? endOfDay(date) : date.atStartOfDay();
+        }
+        return null;
+    }
+
+    private static LocalDateTime endOfDay(LocalDate date) {
+        return date.atTime(23, 59, 59, 999_999_999);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Object parseEnum(Class<?> enumType, String value) {
+        try {
+            return Enum.valueOf((Class<Enum>) enumType, value);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static <V> V parse(String value, Function<String, V> parser) {
+        try {
+            return parser.apply(value);
+        } catch (NumberFormatException | DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    // ==================== Predicate factories ====================
+
+    private static Predicate like(CriteriaBuilder cb, Path<?> path, Object value) {
+        return cb.like(cb.lower(path.as(String.class)), (String) value);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static PredicateFactory comparison(MatchMode matchMode) {
+        return (cb, path, value) -> {
+            Expression<Comparable> expression = (Expression<Comparable>) path;
+            Comparable bound = (Comparable) value;
+            return switch (matchMode) {
+                case gt -> cb.greaterThan(expression, bound);
+                case gte -> cb.greaterThanOrEqualTo(expression, bound);
+                case lt -> cb.lessThan(expression, bound);
+                default -> cb.lessThanOrEqualTo(expression, bound);
+            };
+        };
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static PredicateFactory rangeFactory(Class<?> type) {
+        return (cb, path, value) -> {
+            Comparable[] range = (Comparable[]) value;
+            return cb.between((Expression<Comparable>) path.as(type), range[0], range[1]);
+        };
+    }
+
+    private record PlanKey(Class<?> entityType, String key, MatchMode matchMode) {
+    }
+}
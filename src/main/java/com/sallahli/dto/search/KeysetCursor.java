@@ -0,0 +1,100 @@
+package com.sallahli.dto.search;
+
+import com.sallahli.exceptions.BadRequestException;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Position after the last row of a keyset page: the row's sort value and id, plus the
+ * sort it was taken under so a cursor cannot be replayed against another ordering.
+ * Serialized as an opaque URL-safe token.
+ */
+public record KeysetCursor(String sortField, boolean descending, Long id, String value) {
+
+    private static final String SEPARATOR = "|";
+
+    public String encode() {
+        String raw = sortField + SEPARATOR + (descending ? "d" : "a") + SEPARATOR + id
+                + (value != null ? SEPARATOR + value : "");
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor and checks it was issued for the given sort.
+     */
+    public static KeysetCursor decode(String token, String sortField, boolean descending) {
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("\\|", 4);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+        if (parts.length < 3 || !Objects.equals(parts[0], sortField) || !parts[1].equals(descending ? "d" : "a")) {
+            throw new BadRequestException("Cursor does not match the requested sort");
+        }
+        try {
+            return new KeysetCursor(sortField, descending, Long.parseLong(parts[2]), parts.length == 4 ? parts[3] : null);
+        } catch (NumberFormatException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+
+    /**
+     * Text of a sort value in the cursor, which {@link #parseValue} reads back to the same
+     * value: ISO-8601 for temporals, plain notation for decimals.
+     */
+    public static String formatValue(Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof BigDecimal decimal) {
+            return decimal.toPlainString();
+        }
+        if (value instanceof Enum<?> constant) {
+            return constant.name();
+        }
+        return value.toString();
+    }
+
+    /**
+     * Sort value of the cursor as the attribute's Java type (from the metamodel), so it
+     * compares with the column as the value it was read from.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public static Comparable<?> parseValue(String value, Class<?> javaType) {
+        try {
+            if (javaType == String.class) return value;
+            if (javaType == Long.class) return Long.valueOf(value);
+            if (javaType == Integer.class) return Integer.valueOf(value);
+            if (javaType == Short.class) return Short.valueOf(value);
+            if (javaType == Double.class) return Double.valueOf(value);
+            if (javaType == Float.class) return Float.valueOf(value);
+            if (javaType == BigDecimal.class) return new BigDecimal(value);
+            if (javaType == BigInteger.class) return new BigInteger(value);
+            if (javaType == Boolean.class) return Boolean.valueOf(value);
+            if (javaType == LocalDateTime.class) return LocalDateTime.parse(value);
+            if (javaType == LocalDate.class) return LocalDate.parse(value);
+            if (javaType == LocalTime.class) return LocalTime.parse(value);
+            if (javaType == Instant.class) return Instant.parse(value);
+            if (javaType == OffsetDateTime.class) return OffsetDateTime.parse(value);
+            if (javaType == ZonedDateTime.class) return ZonedDateTime.parse(value);
+            if (javaType == UUID.class) return UUID.fromString(value);
+            if (javaType.isEnum()) return Enum.valueOf((Class) javaType, value);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+        throw new BadRequestException("Unsupported sort field type for cursor pagination: " + javaType.getSimpleName());
+    }
+}
@@ -0,0 +1,71 @@
+package com.sallahli.dto.search;
+
+import com.sallahli.exceptions.BadRequestException;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.From;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Rows strictly after a {@link KeysetCursor} in (sort field, id) order.
+ * <p>
+ * Postgres puts nulls last in ascending order and first in descending order, so past a
+ * non-null value an ascending scan still has the null rows ahead, and past a null value
+ * a descending scan still has every non-null row ahead.
+ */
+public class KeysetSpecification<T> implements Specification<T> {
+
+    public static final String ID_ATTRIBUTE = "id";
+
+    private final KeysetCursor cursor;
+
+    public KeysetSpecification(KeysetCursor cursor) {
+        this.cursor = cursor;
+    }
+
+    @Override
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public Predicate toPredicate(Root<T> root, CriteriaQuery<?> query, CriteriaBuilder criteriaBuilder) {
+        boolean descending = cursor.descending();
+        Path<Long> id = root.get(ID_ATTRIBUTE);
+        Predicate idAfter = descending ? criteriaBuilder.lessThan(id, cursor.id()) : criteriaBuilder.greaterThan(id, cursor.id());
+        if (ID_ATTRIBUTE.equals(cursor.sortField())) {
+            return idAfter;
+        }
+
+        FilterPlan plan = sortPlan(root);
+        From<?, ?> from = root;
+        for (String join : plan.getJoins()) {
+            from = FilterPlan.sharedJoin(from, join);
+        }
+        Expression<Comparable> sortValue = from.get(plan.getAttribute());
+
+        if (cursor.value() == null) {
+            Predicate nullTail = criteriaBuilder.and(sortValue.isNull(), idAfter);
+            return descending ? criteriaBuilder.or(sortValue.isNotNull(), nullTail) : nullTail;
+        }
+
+        Comparable value = KeysetCursor.parseValue(cursor.value(), plan.getJavaType());
+        Predicate after = criteriaBuilder.or(
+                descending ? criteriaBuilder.lessThan(sortValue, value) : criteriaBuilder.greaterThan(sortValue, value),
+                criteriaBuilder.and(criteriaBuilder.equal(sortValue, value), idAfter));
+        return descending ? after : criteriaBuilder.or(after, sortValue.isNull());
+    }
+
+    private FilterPlan sortPlan(Root<T> root) {
+        FilterPlan plan;
+        try {
+            plan = FilterPlanCompiler.planFor(root.getModel(), cursor.sortField(), MatchMode.gt);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("Unsupported sort field for cursor pagination: " + cursor.sortField());
+        }
+        if (plan.isCollectionPath()) {
+            throw new BadRequestException("Unsupported sort field for cursor pagination: " + cursor.sortField());
+        }
+        return plan;
+    }
+}
@@ -1,5 +1,6 @@
 package com.sallahli.dto.search;
 
+import org.springframework.beans.BeanWrapperImpl;
 import org.springframework.data.domain.*;
 import org.springframework.data.jpa.domain.Specification;
 
@@ -8,77 +9,191 @@ import java.util.List;
 
 public interface PaginatedSearchService<S,T> {
 
-          default Page<S> findByCriteria(Criteria criteria){
-            // Main AND filters
-            Specification<T> specification = null;
-            if (criteria.getFilters() != null && !criteria.getFilters().isEmpty()) {
-                specification = new SallahliSpecification<>(criteria.getFilters());
+    default Page<S> findByCriteria(Criteria criteria) {
+        Specification<T> specification = toSpecification(criteria);
 
-            } else {
-                System.out.println("No main filters");
-            }
+        // Default specification
+        boolean filtered = specification != null;
+        if (specification == null) {
+            specification = (root, query, criteriaBuilder) -> criteriaBuilder.conjunction();
+        }
 
-            // OR filter groups
-            if (criteria.getOrFilters() != null && !criteria.getOrFilters().isEmpty()) {
-
-                List<Specification<T>> orSpecs = new ArrayList<>();
-
-                for (int groupIndex = 0; groupIndex < criteria.getOrFilters().size(); groupIndex++) {
-                    List<Filter> orFilterGroup = criteria.getOrFilters().get(groupIndex);
-                    if (orFilterGroup != null && !orFilterGroup.isEmpty()) {
-                        Specification<T> orGroupSpec = new SallahliSpecification<>(orFilterGroup);
-                        orSpecs.add(orGroupSpec);
-                    }
-                }
-
-                if (!orSpecs.isEmpty()) {
-                    Specification<T> orSpecification = orSpecs.get(0);
-                    // Add remaining And groups with or logic
-                    for (int i = 1; i < orSpecs.size(); i++) {
-                        orSpecification = orSpecification.or(orSpecs.get(i));
-                    }
-
-                    // Combine with main specification
-                    if (specification != null) {
-                        specification = specification.and(orSpecification);
-                    } else {
-                        specification = orSpecification;
-                    }
-                }
-            } else {
-                System.out.println("No OR filters");
-            }
+        // Fetch joins for the page query, applied first so filters reuse them
+        if (!fetchPaths().isEmpty()) {
+            specification = new FetchSpecification<T>(fetchPaths()).and(specification);
+        }
 
-            // Default specification
-            if (specification == null) {
-                specification = (root, query, criteriaBuilder) -> criteriaBuilder.conjunction();
-            }
+        // Sorting
+        String sortField = criteria.getSortField();
+        Sort sort = Sort.unsorted();
+        if (sortField != null) {
+            sort = criteria.getSortOrder() != null && criteria.getSortOrder() == 1
+                    ? Sort.by(sortField).descending()
+                    : Sort.by(sortField).ascending();
+        }
 
-            // Sorting
-            String sortField = criteria.getSortField();
-            Sort sort = Sort.unsorted();
-            if (sortField != null) {
-                sort = criteria.getSortOrder() != null && criteria.getSortOrder() == 1
-                        ? Sort.by(sortField).descending()
-                        : Sort.by(sortField).ascending();
-            }
+        // Pagination
+        Pageable pageable = PageRequest.of(criteria.getPage(), criteria.getPageSize(), sort);
 
-            // Pagination
-            Pageable pageable = PageRequest.of(criteria.getPage(), criteria.getPageSize(), sort);
+        CountMode countMode = criteria.getCountMode() != null ? criteria.getCountMode() : CountMode.exact;
+        long estimate = countMode == CountMode.estimated ? estimateCount(specification, filtered) : -1;
+        if (countMode == CountMode.exact || (countMode == CountMode.estimated && estimate < 0)) {
+            return findExactPage(specification, pageable);
+        }
 
-            Page<T> entities = findBySpecification(specification, pageable);
+        List<S> rows = findRows(specification, pageable);
+        if (rows == null) {
+            return findExactPage(specification, pageable);
+        }
 
-            List<S> dtos = mapData(entities.getContent());
+        // Without an exact count the total is the estimate, or just enough to show a next page
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        List<S> content = hasNext ? rows.subList(0, pageable.getPageSize()) : rows;
+        long seen = pageable.getOffset() + content.size();
+        long total = hasNext ? Math.max(estimate, seen + 1) : seen;
+
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    /**
+     * Keyset (search-after) pagination: rows are ordered by the sort field then id, in the
+     * sort order, and the next page starts after {@link Criteria#getCursor()}. Unlike
+     * {@link #findByCriteria} the cost does not grow with the page depth.
+     */
+    default CursorPage<S> findByCursor(Criteria criteria) {
+        String sortField = criteria.getSortField() != null ? criteria.getSortField() : KeysetSpecification.ID_ATTRIBUTE;
+        boolean descending = criteria.getSortOrder() != null && criteria.getSortOrder() == 1;
+
+        Specification<T> specification = toSpecification(criteria);
+        if (specification == null) {
+            specification = (root, query, criteriaBuilder) -> criteriaBuilder.conjunction();
+        }
+        if (!fetchPaths().isEmpty()) {
+            specification = new FetchSpecification<T>(fetchPaths()).and(specification);
+        }
+        if (criteria.getCursor() != null) {
+            specification = specification.and(
+                    new KeysetSpecification<>(KeysetCursor.decode(criteria.getCursor(), sortField, descending)));
+        }
 
-            return new PageImpl<>(dtos, pageable, entities.getTotalElements());
+        Sort.Direction direction = descending ? Sort.Direction.DESC : Sort.Direction.ASC;
+        Sort sort = KeysetSpecification.ID_ATTRIBUTE.equals(sortField)
+                ? Sort.by(direction, sortField)
+                : Sort.by(direction, sortField, KeysetSpecification.ID_ATTRIBUTE);
+        int pageSize = criteria.getPageSize();
+        Pageable pageable = PageRequest.of(0, pageSize, sort);
+
+        List<S> rows = findRows(specification, pageable);
+        if (rows == null) {
+            rows = mapData(findBySpecification(specification, PageRequest.of(0, pageSize + 1, sort)).getContent());
         }
 
+        boolean hasNext = rows.size() > pageSize;
+        List<S> content = hasNext ? rows.subList(0, pageSize) : rows;
+        String nextCursor = null;
+        if (hasNext) {
+            // The DTO may not carry the sort attribute (or a different value): read it from the entity
+            Long lastId = (Long) new BeanWrapperImpl(content.get(content.size() - 1))
+                    .getPropertyValue(KeysetSpecification.ID_ATTRIBUTE);
+            Object value = KeysetSpecification.ID_ATTRIBUTE.equals(sortField) ? lastId : findAttributeValue(lastId, sortField);
+            nextCursor = new KeysetCursor(sortField, descending, lastId, KeysetCursor.formatValue(value)).encode();
+        }
+        return new CursorPage<>(content, nextCursor, hasNext);
+    }
+
+    /**
+     * The page with its exact total, read through the projection when there is one.
+     */
+    private Page<S> findExactPage(Specification<T> specification, Pageable pageable) {
+        List<S> projected = findProjectedBySpecification(specification, pageable, false);
+        if (projected != null) {
+            // A short page (not past the end) already tells the total, as in Spring Data
+            long total = projected.size() < pageable.getPageSize() && (pageable.getOffset() == 0 || !projected.isEmpty())
+                    ? pageable.getOffset() + projected.size()
+                    : countBySpecification(specification);
+            if (total >= 0) {
+                return new PageImpl<>(projected, pageable, total);
+            }
+        }
+        Page<T> entities = findBySpecification(specification, pageable);
+        return new PageImpl<>(mapData(entities.getContent()), pageable, entities.getTotalElements());
+    }
+
+    /**
+     * The page plus one row when there is a next page, or null when neither the
+     * projection nor the slice query is supported.
+     */
+    private List<S> findRows(Specification<T> specification, Pageable pageable) {
+        List<S> projected = findProjectedBySpecification(specification, pageable, true);
+        if (projected != null) {
+            return projected;
+        }
+        List<T> slice = findSliceBySpecification(specification, pageable);
+        if (slice == null) {
+            return null;
+        }
+        // Map only what is returned; the extra row just tells there is a next page
+        List<S> dtos = new ArrayList<>(mapData(slice.subList(0, Math.min(slice.size(), pageable.getPageSize()))));
+        if (slice.size() > pageable.getPageSize()) {
+            dtos.add(null);
+        }
+        return dtos;
+    }
 
+    /**
+     * AND of the main filters and the OR groups, or null when the criteria has none.
+     */
+    default Specification<T> toSpecification(Criteria criteria) {
+        return SallahliSpecification.fromCriteria(criteria);
+    }
 
     Page<T> findBySpecification(Specification<T> specification, Pageable pageable);
 
+    /**
+     * Value of an entity attribute (dotted path) for the row with this id, for the keyset
+     * cursor of {@link #findByCursor}.
+     */
+    Object findAttributeValue(Long id, String attribute);
+
+    /**
+     * Rows of the page plus one when there is a next page, without counting; null when
+     * not supported, in which case the exact count is used.
+     */
+    default List<T> findSliceBySpecification(Specification<T> specification, Pageable pageable) {
+        return null;
+    }
+
+    /**
+     * Row count estimate for {@link CountMode#estimated}; negative when not supported, in
+     * which case the exact count is used.
+     */
+    default long estimateCount(Specification<T> specification, boolean filtered) {
+        return -1;
+    }
+
+    /**
+     * DTOs of the page (plus one row when {@code extraRow}) read straight from a column
+     * projection, skipping entities and {@link #mapData}; null when the service maps
+     * entities.
+     */
+    default List<S> findProjectedBySpecification(Specification<T> specification, Pageable pageable,
+            boolean extraRow) {
+        return null;
+    }
+
+    /**
+     * Exact count for projected pages; negative when not supported.
+     */
+    default long countBySpecification(Specification<T> specification) {
+        return -1;
+    }
+
+    /**
+     * To-one associations fetched with the page (dotted paths); none by default.
+     */
+    default List<String> fetchPaths() {
+        return List.of();
+    }
+
     List<S> mapData(List<T> data);
 }
-
-
-
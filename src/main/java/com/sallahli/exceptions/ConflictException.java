@@ -0,0 +1,7 @@
+package com.sallahli.exceptions;
+
+public class ConflictException extends RuntimeException {
+    public ConflictException(String msg) {
+        super(msg);
+    }
+}
@@ -1,5 +1,6 @@
 package com.sallahli.exceptions;
 
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -69,4 +70,16 @@ public class GlobalExceptionHandler extends ResponseEntityExceptionHandler {
 
         return new ResponseEntity<>(message, HttpStatus.FORBIDDEN);
     }
+
+    @ExceptionHandler({ConflictException.class, OptimisticLockingFailureException.class})
+    public ResponseEntity<ErrorMessage> conflictException(RuntimeException ex, WebRequest request) {
+        ErrorMessage message = ErrorMessage.builder()
+                .status(HttpStatus.CONFLICT.value())
+                .error(ErrorType.GENERIC_ERROR.name())
+                .message(ex instanceof ConflictException ? ex.getMessage() : "Resource was modified concurrently")
+                .path(request.getDescription(false))
+                .build();
+
+        return new ResponseEntity<>(message, HttpStatus.CONFLICT);
+    }
 }
@@ -14,6 +14,7 @@ public interface ConversationMapper extends com.sallahli.mapper.Mapper<Conversat
     @Mapping(target = "messages", ignore = true)
     @Mapping(target = "lastMessage", ignore = true)
     @Mapping(target = "unreadCount", ignore = true)
+    @Mapping(target = "lastActivityAt", ignore = true)
     ConversationDto toDto(Conversation model);
 
     @Named("toLightDto")
@@ -21,5 +22,6 @@ public interface ConversationMapper extends com.sallahli.mapper.Mapper<Conversat
     @Mapping(target = "messages", ignore = true)
     @Mapping(target = "lastMessage", ignore = true)
     @Mapping(target = "unreadCount", ignore = true)
+    @Mapping(target = "lastActivityAt", ignore = true)
     ConversationDto toLightDto(Conversation model);
 }
@@ -14,6 +14,7 @@ public interface MessageMapper extends Mapper<Message, MessageDto> {
     @Mapping(target = "senderLastName", ignore = true)
     @Mapping(target = "senderUsername", ignore = true)
     @Mapping(target = "senderLogo", ignore = true)
+    @Mapping(target = "read", ignore = true)
     MessageDto toDto(Message model);
 
     @Named("toDtoWithoutConversation")
@@ -23,5 +24,6 @@ public interface MessageMapper extends Mapper<Message, MessageDto> {
     @Mapping(target = "senderLastName", ignore = true)
     @Mapping(target = "senderUsername", ignore = true)
     @Mapping(target = "senderLogo", ignore = true)
+    @Mapping(target = "read", ignore = true)
     MessageDto toDtoWithoutConversation(Message model);
 }
@@ -24,7 +24,7 @@ public class Address extends HasTimestamps implements Archivable {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "address_id_seq")
-    @SequenceGenerator(name = "address_id_seq", sequenceName = "address_id_seq", allocationSize = 1)
+    @SequenceGenerator(name = "address_id_seq", sequenceName = "address_id_seq", allocationSize = 50)
     private Long id;
 
     private String name;
@@ -1,6 +1,7 @@
 package com.sallahli.model;
 
 import com.sallahli.model.Enum.AdminRole;
+import com.sallahli.service.ParticipantProfileListener;
 import jakarta.persistence.*;
 import lombok.*;
 import lombok.experimental.SuperBuilder;
@@ -8,6 +9,7 @@ import lombok.experimental.SuperBuilder;
 import java.time.LocalDateTime;
 
 @Entity
+@EntityListeners(ParticipantProfileListener.class)
 @Table(name = "admin")
 @Data
 @SuperBuilder
@@ -18,7 +20,7 @@ public class Admin extends User implements Archivable {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "admin_id_seq")
-    @SequenceGenerator(name = "admin_id_seq", sequenceName = "admin_id_seq", allocationSize = 1)
+    @SequenceGenerator(name = "admin_id_seq", sequenceName = "admin_id_seq", allocationSize = 50)
     private Long id;
 
     private String profilePhoto;
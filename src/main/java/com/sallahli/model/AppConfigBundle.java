@@ -25,7 +25,7 @@ public class AppConfigBundle extends HasTimestamps implements Serializable {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "app_config_id_seq")
-    @SequenceGenerator(name = "app_config_id_seq", sequenceName = "app_config_id_seq", allocationSize = 1)
+    @SequenceGenerator(name = "app_config_id_seq", sequenceName = "app_config_id_seq", allocationSize = 50)
     private Long id;
 
     @Enumerated(EnumType.STRING)
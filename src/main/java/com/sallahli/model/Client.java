@@ -1,15 +1,19 @@
 package com.sallahli.model;
 
 import com.sallahli.utils.HasTimestamps;
+import com.sallahli.service.ParticipantProfileListener;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.DynamicUpdate;
 import org.hibernate.annotations.Where;
 
 import java.time.LocalDate;
 import java.util.List;
 
 @Entity
+@EntityListeners(ParticipantProfileListener.class)
 @Table(name = "client")
+@DynamicUpdate
 @Data
 @Builder
 @NoArgsConstructor
@@ -19,7 +23,7 @@ public class Client extends HasTimestamps implements Archivable {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "client_id_seq")
-    @SequenceGenerator(name = "client_id_seq", sequenceName = "client_id_seq", allocationSize = 1)
+    @SequenceGenerator(name = "client_id_seq", sequenceName = "client_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
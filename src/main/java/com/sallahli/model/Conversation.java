@@ -1,12 +1,15 @@
 package com.sallahli.model;
 
 import com.sallahli.model.Enum.ConversationType;
+import com.sallahli.model.Enum.UserRoleEnum;
 import com.sallahli.utils.HasTimestamps;
 import jakarta.persistence.*;
 import lombok.*;
 import lombok.experimental.SuperBuilder;
+import org.hibernate.annotations.BatchSize;
 
 import java.io.Serial;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
@@ -30,7 +33,19 @@ public class Conversation extends HasTimestamps {
     @Column(name = "is_closed")
     private boolean closed = false;
 
+    // Summary of the latest message, maintained by ChatService.sendMessage
+    private Long lastMessageId;
 
+    private String lastMessagePreview;
+
+    private LocalDateTime lastMessageAt;
+
+    private Long lastMessageSenderId;
+
+    @Enumerated(EnumType.STRING)
+    private UserRoleEnum lastMessageSenderRole;
+
+    @BatchSize(size = 50)
     @OneToMany(mappedBy = "conversation", orphanRemoval = true, cascade = CascadeType.ALL)
     private List<ConversationParticipant> participants;
 
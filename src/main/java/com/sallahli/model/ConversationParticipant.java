@@ -4,6 +4,8 @@ import com.sallahli.model.Enum.UserRoleEnum;
 import jakarta.persistence.*;
 import lombok.*;
 
+import java.time.LocalDateTime;
+
 @Entity
 @Data
 @NoArgsConstructor
@@ -24,4 +26,21 @@ public class ConversationParticipant {
     @Id
     @Enumerated(EnumType.STRING)
     private UserRoleEnum role;
+
+    // Read watermark: every message up to this id has been read by the participant
+    private Long lastReadMessageId;
+
+    // Unread messages for this participant, maintained alongside the conversation summary
+    @Builder.Default
+    private int unreadCount = 0;
+
+    // Copy of the conversation's last activity so a user's inbox is one index range scan
+    private LocalDateTime lastActivityAt;
+
+    @PrePersist
+    void initLastActivityAt() {
+        if (lastActivityAt == null) {
+            lastActivityAt = LocalDateTime.now();
+        }
+    }
 }
@@ -19,7 +19,7 @@ public class CustomerRequest extends HasTimestamps implements Archivable {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "customer_request_id_seq")
-    @SequenceGenerator(name = "customer_request_id_seq", sequenceName = "customer_request_id_seq", allocationSize = 1)
+    @SequenceGenerator(name = "customer_request_id_seq", sequenceName = "customer_request_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
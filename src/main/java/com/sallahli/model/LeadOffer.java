@@ -19,7 +19,7 @@ public class LeadOffer extends HasTimestamps {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "lead_offer_id_seq")
-    @SequenceGenerator(name = "lead_offer_id_seq", sequenceName = "lead_offer_id_seq", allocationSize = 1)
+    @SequenceGenerator(name = "lead_offer_id_seq", sequenceName = "lead_offer_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
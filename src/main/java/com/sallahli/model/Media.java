@@ -21,7 +21,7 @@ import java.util.Objects;
 public class Media extends HasTimestamps implements Archivable {
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "media_id_seq")
-    @SequenceGenerator(name = "media_id_seq", sequenceName = "media_id_seq",  allocationSize=1)
+    @SequenceGenerator(name = "media_id_seq", sequenceName = "media_id_seq",  allocationSize = 50)
     private Long id;
     @Enumerated(EnumType.STRING)
     private MediaEnum type;
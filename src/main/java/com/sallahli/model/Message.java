@@ -20,8 +20,10 @@ public class Message extends HasTimestamps {
     @Serial
     private static final long serialVersionUID = -7006724478861651760L;
 
+    // Same blocks of message_id_seq as the write-behind inserts (pooled-lo: nextval is the first id)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "message_id_seq")
+    @SequenceGenerator(name = "message_id_seq", sequenceName = "message_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -39,5 +41,5 @@ public class Message extends HasTimestamps {
     @JoinColumn(name = "media_id")
     private Media media;
 
-    private boolean isRead = false;
+    private String clientMessageId;
 }
@@ -18,7 +18,7 @@ public class Notification extends HasTimestamps {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "notification_id_seq")
-    @SequenceGenerator(name = "notification_id_seq", sequenceName = "notification_id_seq", allocationSize = 1)
+    @SequenceGenerator(name = "notification_id_seq", sequenceName = "notification_id_seq", allocationSize = 50)
     private Long id;
 
     private LocalDateTime readAt;
@@ -15,7 +15,7 @@ public class NotificationAttribute extends HasTimestamps {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "notification_attribute_id_seq")
-    @SequenceGenerator(name = "notification_attribute_id_seq", sequenceName = "notification_attribute_id_seq", allocationSize = 1)
+    @SequenceGenerator(name = "notification_attribute_id_seq", sequenceName = "notification_attribute_id_seq", allocationSize = 50)
     private Long id;
 
     private String key;
@@ -1,16 +1,20 @@
 package com.sallahli.model;
 
 import com.sallahli.model.Enum.KycStatus;
+import com.sallahli.service.ParticipantProfileListener;
 import jakarta.persistence.*;
 import lombok.*;
 import lombok.experimental.SuperBuilder;
+import org.hibernate.annotations.DynamicUpdate;
 
 import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Set;
 
 @Entity
+@EntityListeners(ParticipantProfileListener.class)
 @Table(name = "pro")
+@DynamicUpdate
 @Data
 @SuperBuilder
 @NoArgsConstructor
@@ -20,7 +24,7 @@ public class Pro extends User implements Archivable {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "pro_id_seq")
-    @SequenceGenerator(name = "pro_id_seq", sequenceName = "pro_id_seq", allocationSize = 1)
+    @SequenceGenerator(name = "pro_id_seq", sequenceName = "pro_id_seq", allocationSize = 50)
     private Long id;
 
     private String fullName;
@@ -80,6 +84,12 @@ public class Pro extends User implements Archivable {
     @Builder.Default
     private Boolean online = false;
 
+    // Availability the pro chose in the app; online is derived from it and their sessions.
+    // Only written by ProPresenceService
+    @Builder.Default
+    @Column(insertable = false, updatable = false)
+    private Boolean available = false;
+
     @Builder.Default
     private Double ratingAvg = 5.00;
 
@@ -116,4 +126,8 @@ public class Pro extends User implements Archivable {
 
     @Builder.Default
     private Boolean archived = false;
+
+    // Optimistic lock, also checked by JSON Patch requests sent with If-Match
+    @Version
+    private Long version;
 }
@@ -16,7 +16,7 @@ public class ProWalletTransaction extends HasTimestamps {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "pro_wallet_tx_id_seq")
-    @SequenceGenerator(name = "pro_wallet_tx_id_seq", sequenceName = "pro_wallet_tx_id_seq", allocationSize = 1)
+    @SequenceGenerator(name = "pro_wallet_tx_id_seq", sequenceName = "pro_wallet_tx_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
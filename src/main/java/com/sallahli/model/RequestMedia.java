@@ -15,7 +15,7 @@ public class RequestMedia extends HasTimestamps {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "request_media_id_seq")
-    @SequenceGenerator(name = "request_media_id_seq", sequenceName = "request_media_id_seq", allocationSize = 1)
+    @SequenceGenerator(name = "request_media_id_seq", sequenceName = "request_media_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -0,0 +1,34 @@
+package com.sallahli.model;
+
+import com.sallahli.model.Enum.ConversationType;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * An open conversation waiting for a support agent. Rows are removed as soon as an
+ * agent joins or is assigned, so the table only ever holds the current backlog.
+ */
+@Entity
+@Table(name = "support_queue_entry")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SupportQueueEntry {
+
+    @Id
+    private Long conversationId;
+
+    @Enumerated(EnumType.STRING)
+    private ConversationType conversationType;
+
+    private LocalDateTime waitingSince;
+
+    // Messages sent by the customer while the conversation was waiting
+    @Builder.Default
+    private int unreadCount = 0;
+
+    private LocalDateTime lastMessageAt;
+}
@@ -15,7 +15,7 @@ public class TranslationValues extends HasTimestamps {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "translation_seq_id")
-    @SequenceGenerator(name = "translation_seq_id", sequenceName = "translation_seq_id", allocationSize = 1)
+    @SequenceGenerator(name = "translation_seq_id", sequenceName = "translation_seq_id", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -17,7 +17,7 @@ public class UserDevice extends HasTimestamps {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_device_id_seq")
-    @SequenceGenerator(name = "user_device_id_seq", sequenceName = "user_device_id_seq", allocationSize = 1)
+    @SequenceGenerator(name = "user_device_id_seq", sequenceName = "user_device_id_seq", allocationSize = 50)
     private Long id;
 
     private String token; // Device token for push notifications
@@ -18,7 +18,7 @@ public class UserOtpExpiration extends HasTimestamps {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_otp_expiration_id_seq")
-    @SequenceGenerator(name = "user_otp_expiration_id_seq", sequenceName = "user_otp_expiration_id_seq", allocationSize = 1)
+    @SequenceGenerator(name = "user_otp_expiration_id_seq", sequenceName = "user_otp_expiration_id_seq", allocationSize = 50)
     private Long id;
 
     private String username; // Phone number or email
@@ -15,7 +15,7 @@ public class Zone extends HasTimestamps implements Archivable {
 
     @Id
     @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "zone_id_seq")
-    @SequenceGenerator(name = "zone_id_seq", sequenceName = "zone_id_seq", allocationSize = 1)
+    @SequenceGenerator(name = "zone_id_seq", sequenceName = "zone_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, unique = true)
@@ -28,7 +28,13 @@ public interface AddressRepository extends GenericRepository<Address> {
         List<Address> findByClientIdAndArchivedFalse(@Param("clientId") Long clientId);
 
         
-        List<Address> findByFormattedAddressContainingIgnoreCaseAndArchivedFalse(String formattedAddress);
+        @Query(value = "SELECT a.* FROM address a " +
+                        "WHERE a.archived = false " +
+                        "AND (a.search_text LIKE '%' || search_normalize(:term) || '%' " +
+                        "OR search_normalize(:term) <% a.search_text) " +
+                        "ORDER BY word_similarity(search_normalize(:term), a.search_text) DESC, a.id " +
+                        "LIMIT :limit", nativeQuery = true)
+        List<Address> searchByText(@Param("term") String term, @Param("limit") int limit);
 
         
         @Query("SELECT a FROM Address a WHERE a.archived = false " +
@@ -1,5 +1,6 @@
 package com.sallahli.repository;
 
+import com.sallahli.dto.chat.ParticipantProfileView;
 import com.sallahli.model.Admin;
 import com.sallahli.model.Enum.AdminRole;
 import com.sallahli.repository.generic.GenericRepository;
@@ -7,6 +8,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -32,4 +34,8 @@ public interface AdminRepository extends GenericRepository<Admin> {
             "OR LOWER(a.email) LIKE LOWER(CONCAT('%', :query, '%')) " +
             "OR a.tel LIKE CONCAT('%', :query, '%')")
     List<Admin> searchAdmins(@Param("query") String query);
+
+    @Query("SELECT a.id AS id, a.firstName AS firstName, a.lastName AS lastName, a.username AS username, " +
+            "a.profilePhoto AS avatarUrl FROM Admin a WHERE a.id IN :ids")
+    List<ParticipantProfileView> findParticipantProfiles(@Param("ids") Collection<Long> ids);
 }
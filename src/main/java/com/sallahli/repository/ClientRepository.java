@@ -1,5 +1,6 @@
 package com.sallahli.repository;
 
+import com.sallahli.dto.chat.ParticipantProfileView;
 import com.sallahli.model.Client;
 import com.sallahli.repository.generic.GenericRepository;
 import jakarta.validation.constraints.Email;
@@ -9,6 +10,8 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -29,4 +32,22 @@ public interface ClientRepository extends GenericRepository<Client> {
 
     @Query("SELECT COUNT(c) FROM Client c WHERE c.createdAt >= :startDate")
     Long countNewClientsSince(@Param("startDate") LocalDateTime startDate);
+
+    @Query("SELECT c.id AS id, c.firstName AS firstName, c.lastName AS lastName, c.username AS username, " +
+            "l.link AS avatarUrl FROM Client c LEFT JOIN c.logo l WHERE c.id IN :ids")
+    List<ParticipantProfileView> findParticipantProfiles(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Same matching and ranking as {@link ProRepository#searchByNameOrTel}, deleted clients excluded.
+     */
+    @Query(value = "SELECT c.* FROM client c " +
+            "WHERE c.is_deleted IS NOT TRUE " +
+            "AND (c.search_text LIKE '%' || search_normalize(:term) || '%' " +
+            "OR search_normalize(:term) <% c.search_text " +
+            "OR c.search_tel LIKE '%' || CAST(:digits AS TEXT) || '%') " +
+            "ORDER BY c.search_text LIKE search_normalize(:term) || '%' DESC, " +
+            "word_similarity(search_normalize(:term), c.search_text) DESC, c.id " +
+            "LIMIT :limit", nativeQuery = true)
+    List<Client> searchByNameOrTel(@Param("term") String term, @Param("digits") String digits,
+            @Param("limit") int limit);
 }
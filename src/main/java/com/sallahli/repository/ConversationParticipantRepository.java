@@ -2,9 +2,81 @@ package com.sallahli.repository;
 
 import com.sallahli.model.ConversationParticipant;
 import com.sallahli.model.ConversationParticipantId;
+import com.sallahli.model.Enum.UserRoleEnum;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface ConversationParticipantRepository extends JpaRepository<ConversationParticipant, ConversationParticipantId> {
+
+    /**
+     * Bumps the inbox position of every participant and their unread count, except for
+     * the sender who has read up to their own message. Messages persisted after a
+     * participant already read past them (write-behind) are not counted.
+     */
+    @Modifying
+    @Query("UPDATE ConversationParticipant p SET p.lastActivityAt = :sentAt, " +
+            "p.unreadCount = CASE WHEN p.userId = :senderId AND p.role = :senderRole THEN 0 " +
+            "WHEN p.lastReadMessageId >= :messageId THEN p.unreadCount ELSE p.unreadCount + 1 END, " +
+            "p.lastReadMessageId = CASE WHEN p.userId = :senderId AND p.role = :senderRole " +
+            "AND (p.lastReadMessageId IS NULL OR p.lastReadMessageId < :messageId) THEN :messageId ELSE p.lastReadMessageId END " +
+            "WHERE p.conversation.id = :conversationId")
+    int recordMessage(@Param("conversationId") Long conversationId,
+                      @Param("messageId") Long messageId,
+                      @Param("senderId") Long senderId,
+                      @Param("senderRole") UserRoleEnum senderRole,
+                      @Param("sentAt") LocalDateTime sentAt);
+
+    /**
+     * Moves a participant's read watermark forward (never back) and recounts their unread
+     * messages past it, in one statement so concurrent reads cannot regress either column.
+     */
+    @Modifying
+    @Query(value = "UPDATE conversation_participant p " +
+            "SET last_read_message_id = GREATEST(COALESCE(p.last_read_message_id, 0), :messageId), " +
+            "unread_count = (SELECT COUNT(*) FROM message m WHERE m.conversation_id = p.conversation_id " +
+            "AND m.id > GREATEST(COALESCE(p.last_read_message_id, 0), :messageId) " +
+            "AND NOT (m.sender_id = p.user_id AND m.sender_role = p.role)) " +
+            "WHERE p.conversation_id = :conversationId AND p.user_id = :userId AND p.role = :role " +
+            "AND (p.last_read_message_id IS NULL OR p.last_read_message_id < :messageId)",
+            nativeQuery = true)
+    int advanceReadWatermark(@Param("conversationId") Long conversationId,
+                             @Param("userId") Long userId,
+                             @Param("role") String role,
+                             @Param("messageId") Long messageId);
+
+    List<ConversationParticipant> findByConversationId(Long conversationId);
+
+    // Inbox keyset queries, served by idx_conversation_participant_inbox
+    @Query("SELECT p FROM ConversationParticipant p JOIN FETCH p.conversation c " +
+            "WHERE p.userId = :userId AND p.role = :role " +
+            "ORDER BY p.lastActivityAt DESC, c.id DESC")
+    List<ConversationParticipant> findInbox(@Param("userId") Long userId,
+                                            @Param("role") UserRoleEnum role,
+                                            Pageable pageable);
+
+    @Query("SELECT p FROM ConversationParticipant p JOIN FETCH p.conversation c " +
+            "WHERE p.userId = :userId AND p.role = :role " +
+            "AND (p.lastActivityAt < :beforeActivityAt OR (p.lastActivityAt = :beforeActivityAt AND c.id < :beforeId)) " +
+            "ORDER BY p.lastActivityAt DESC, c.id DESC")
+    List<ConversationParticipant> findInboxBefore(@Param("userId") Long userId,
+                                                  @Param("role") UserRoleEnum role,
+                                                  @Param("beforeActivityAt") LocalDateTime beforeActivityAt,
+                                                  @Param("beforeId") Long beforeId,
+                                                  Pageable pageable);
+
+    List<ConversationParticipant> findByConversationIdIn(Collection<Long> conversationIds);
+
+    // Open conversations per support participant: rows of [userId, count]
+    @Query("SELECT p.userId, COUNT(p) FROM ConversationParticipant p " +
+            "WHERE p.role IN :roles AND p.conversation.closed = false GROUP BY p.userId")
+    List<Object[]> countOpenConversationsByUser(@Param("roles") Collection<UserRoleEnum> roles);
 }
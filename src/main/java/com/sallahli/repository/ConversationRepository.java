@@ -6,10 +6,12 @@ import com.sallahli.model.Enum.UserRoleEnum;
 import com.sallahli.repository.generic.GenericRepository;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
@@ -50,44 +52,51 @@ public interface ConversationRepository
                         @Param("role") UserRoleEnum role,
                         Pageable pageable);
 
-        @Query("SELECT c FROM Conversation c JOIN c.participants p JOIN c.messages m " +
-                        "WHERE p.userId = :userId AND p.role = :role " +
-                        "AND m.senderRole IN :senderRoles AND m.isRead = false")
+        @Query("SELECT c FROM Conversation c JOIN c.participants p " +
+                        "WHERE p.userId = :userId AND p.role = :role AND EXISTS (" +
+                        "SELECT m.id FROM Message m WHERE m.conversation = c " +
+                        "AND m.senderRole IN :senderRoles AND m.id > COALESCE(p.lastReadMessageId, 0))")
         Page<Conversation> findUnreadConversationsForUser(
                         @Param("userId") Long userId,
                         @Param("role") UserRoleEnum role,
                         @Param("senderRoles") List<UserRoleEnum> senderRoles,
                         Pageable pageable);
 
-        @Query("SELECT COUNT(c) FROM Conversation c JOIN c.participants p " +
-                        "WHERE p.role IN :employeeRoles AND c.id NOT IN " +
-                        "(SELECT c2.id FROM Conversation c2 JOIN c2.participants p2 WHERE p2.role IN :employeeRoles)")
-        Long countConversationsWithoutAdminParticipants(
-                        @Param("employeeRoles") List<UserRoleEnum> employeeRoles);
-
+        // Messages from the given roles nobody on the other side has read yet
         @Query("SELECT COUNT(m) FROM Message m JOIN m.conversation c " +
-                        "WHERE c.type IN :types AND m.senderRole IN :senderRoles AND m.isRead = false")
+                        "WHERE c.type IN :types AND m.senderRole IN :senderRoles " +
+                        "AND m.id > COALESCE((SELECT MAX(p.lastReadMessageId) FROM ConversationParticipant p " +
+                        "WHERE p.conversation = c AND p.role NOT IN :senderRoles), 0)")
         Long countUnreadMessagesFromParticipantByType(
                         @Param("types") List<ConversationType> types,
                         @Param("senderRoles") List<UserRoleEnum> senderRoles);
 
         @Query("SELECT COUNT(m) FROM Message m JOIN m.conversation c JOIN c.participants p " +
                         "WHERE c.type IN :types AND p.userId = :userId AND p.role = :role " +
-                        "AND m.senderRole IN :senderRoles AND m.isRead = false")
+                        "AND m.senderRole IN :senderRoles AND m.id > COALESCE(p.lastReadMessageId, 0)")
         Long countUnreadMessagesForEmployee(
                         @Param("types") List<ConversationType> types,
                         @Param("userId") Long userId,
                         @Param("role") UserRoleEnum role,
                         @Param("senderRoles") List<UserRoleEnum> senderRoles);
 
-        @Query("SELECT COUNT(m) FROM Message m WHERE m.conversation.id = :conversationId AND m.senderId != :userId AND m.isRead = false")
-        Long countUnreadMessagesForParticipantInConversation(
-                        @Param("conversationId") Long conversationId,
-                        @Param("userId") Long userId);
-
         @Query("SELECT COUNT(m) FROM Message m JOIN m.conversation c JOIN c.participants p " +
-                        "WHERE p.userId = :userId AND m.senderRole IN :senderRoles AND m.isRead = false")
+                        "WHERE p.userId = :userId AND m.senderRole IN :senderRoles " +
+                        "AND m.id > COALESCE(p.lastReadMessageId, 0)")
         Long countUnreadMessagesForUser(
                         @Param("userId") Long userId,
                         @Param("senderRoles") List<UserRoleEnum> senderRoles);
+
+        @Modifying
+        @Query("UPDATE Conversation c SET c.lastMessageId = :messageId, c.lastMessagePreview = :preview, " +
+                        "c.lastMessageAt = :sentAt, c.lastMessageSenderId = :senderId, " +
+                        "c.lastMessageSenderRole = :senderRole, c.updatedAt = :sentAt " +
+                        "WHERE c.id = :conversationId AND (c.lastMessageId IS NULL OR c.lastMessageId < :messageId)")
+        int updateLastMessage(
+                        @Param("conversationId") Long conversationId,
+                        @Param("messageId") Long messageId,
+                        @Param("preview") String preview,
+                        @Param("sentAt") LocalDateTime sentAt,
+                        @Param("senderId") Long senderId,
+                        @Param("senderRole") UserRoleEnum senderRole);
 }
@@ -1,14 +1,18 @@
 package com.sallahli.repository;
 
+import com.sallahli.dto.chat.MessageSearchHitView;
+import com.sallahli.model.Enum.UserRoleEnum;
 import com.sallahli.model.Message;
 import com.sallahli.repository.generic.GenericRepository;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -16,15 +20,60 @@ public interface MessageRepository extends GenericRepository<Message> {
 
     Page<Message> findByConversationIdOrderByCreatedAtDesc(Long conversationId, Pageable pageable);
 
+    // Cursor pagination over idx_message_conversation_id (conversation_id, id): no count query
+    @EntityGraph(attributePaths = "media")
+    List<Message> findByConversationIdOrderByIdDesc(Long conversationId, Pageable pageable);
+
+    @EntityGraph(attributePaths = "media")
+    List<Message> findByConversationIdAndIdLessThanOrderByIdDesc(Long conversationId, Long beforeId, Pageable pageable);
+
+    @EntityGraph(attributePaths = "media")
+    List<Message> findByConversationIdAndIdGreaterThanOrderByIdAsc(Long conversationId, Long afterId, Pageable pageable);
+
+    // Resent messages: uq_message_client_message_id (conversation_id, client_message_id)
+    @EntityGraph(attributePaths = "media")
+    Optional<Message> findByConversationIdAndClientMessageId(Long conversationId, String clientMessageId);
+
     @Query("SELECT m FROM Message m WHERE m.conversation.id = :conversationId ORDER BY m.createdAt DESC LIMIT 1")
     Optional<Message> findTopByConversationIdOrderByCreatedAtDesc(@Param("conversationId") Long conversationId);
 
-    @Modifying
-    @Query("UPDATE Message m SET m.isRead = true WHERE m.conversation.id = :conversationId")
-    void markMessagesAsReadInConversation(@Param("conversationId") Long conversationId);
-
-    @Query("SELECT COUNT(m) FROM Message m WHERE m.conversation.id = :conversationId AND m.senderId != :userId AND m.isRead = false")
+    // Unread messages of a participant: everything after their watermark not sent by themselves
+    @Query("SELECT COUNT(m) FROM Message m WHERE m.conversation.id = :conversationId AND m.id > :afterMessageId " +
+            "AND NOT (m.senderId = :userId AND m.senderRole = :role)")
     Long countUnreadMessagesForParticipantInConversation(
             @Param("conversationId") Long conversationId,
-            @Param("userId") Long userId);
+            @Param("userId") Long userId,
+            @Param("role") UserRoleEnum role,
+            @Param("afterMessageId") Long afterMessageId);
+
+    /**
+     * Ranked full-text search over idx_message_content_tsv. Hits are ordered by rank then
+     * id, both descending; the (afterRank, afterId) pair of the last hit is the cursor.
+     * Headlines are only built for the returned page.
+     */
+    @Query(value = "WITH q AS (SELECT websearch_to_tsquery('simple', :query) || websearch_to_tsquery('french', :query) AS query), " +
+            "hits AS (SELECT m.id, ts_rank_cd(m.content_tsv, q.query) AS rank " +
+            "  FROM message m JOIN conversation c ON c.id = m.conversation_id, q " +
+            "  WHERE m.content_tsv @@ q.query AND c.type IN (:types) " +
+            "  AND (CAST(:userId AS BIGINT) IS NULL OR EXISTS (SELECT 1 FROM conversation_participant p " +
+            "       WHERE p.conversation_id = m.conversation_id AND p.user_id = CAST(:userId AS BIGINT) " +
+            "       AND p.role = CAST(:role AS VARCHAR)))), " +
+            "page AS (SELECT id, rank FROM hits " +
+            "  WHERE CAST(:afterRank AS REAL) IS NULL OR rank < CAST(:afterRank AS REAL) " +
+            "  OR (rank = CAST(:afterRank AS REAL) AND id < CAST(:afterId AS BIGINT)) " +
+            "  ORDER BY rank DESC, id DESC LIMIT :limit) " +
+            "SELECT m.id AS id, m.conversation_id AS conversationId, c.type AS conversationType, " +
+            "m.sender_id AS senderId, m.sender_role AS senderRole, m.created_at AS createdAt, " +
+            "ts_headline('french', m.content, q.query, 'StartSel=<mark>, StopSel=</mark>, MaxFragments=2, MaxWords=20, MinWords=5') AS headline, " +
+            "page.rank AS rank " +
+            "FROM page JOIN message m ON m.id = page.id JOIN conversation c ON c.id = m.conversation_id, q " +
+            "ORDER BY page.rank DESC, page.id DESC",
+            nativeQuery = true)
+    List<MessageSearchHitView> search(@Param("query") String query,
+                                      @Param("types") Collection<String> types,
+                                      @Param("userId") Long userId,
+                                      @Param("role") String role,
+                                      @Param("afterRank") Float afterRank,
+                                      @Param("afterId") Long afterId,
+                                      @Param("limit") int limit);
 }
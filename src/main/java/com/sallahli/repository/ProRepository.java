@@ -1,12 +1,17 @@
 package com.sallahli.repository;
 
+import com.sallahli.dto.chat.ParticipantProfileView;
 import com.sallahli.model.Enum.KycStatus;
 import com.sallahli.model.Pro;
 import com.sallahli.repository.generic.GenericRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -38,15 +43,85 @@ public interface ProRepository extends GenericRepository<Pro> {
        List<Pro> findAvailableProsByCategory(@Param("categoryId") Long categoryId,
                      @Param("minBalance") Long minBalance);
 
-       @Query("SELECT p FROM Pro p WHERE LOWER(p.firstName) LIKE LOWER(CONCAT('%', :query, '%')) " +
-                     "OR LOWER(p.lastName) LIKE LOWER(CONCAT('%', :query, '%')) " +
-                     "OR p.tel LIKE CONCAT('%', :query, '%') " +
-                     "OR LOWER(p.username) LIKE LOWER(CONCAT('%', :query, '%'))")
-       List<Pro> searchByNameOrTel(@Param("query") String query);
+       @Query("SELECT p FROM Pro p JOIN p.categories c WHERE p.id IN :proIds AND p.isActive = true AND p.archived = false "
+                     + "AND p.kycStatus = 'APPROVED' "
+                     +
+                     "AND c.id = :categoryId AND p.walletBalance >= :minBalance " +
+                     "ORDER BY p.ratingAvg DESC, p.ratingCount DESC")
+       List<Pro> findAvailableProsByCategoryAmong(@Param("categoryId") Long categoryId,
+                     @Param("minBalance") Long minBalance,
+                     @Param("proIds") Collection<Long> proIds);
+
+       @Query("SELECT p.id FROM Pro p WHERE p.tel = :tel")
+       Optional<Long> findIdByTel(@Param("tel") String tel);
+
+       @Query("SELECT p.id FROM Pro p WHERE p.tel = :tel AND p.isActive = true AND p.archived = false")
+       Optional<Long> findPresenceCandidateIdByTel(@Param("tel") String tel);
+
+       @Query("SELECT p.id FROM Pro p WHERE p.available = true")
+       List<Long> findAvailableProIds();
+
+       @Transactional
+       @Modifying
+       @Query("UPDATE Pro p SET p.available = :available WHERE p.id = :proId")
+       int updateAvailable(@Param("proId") Long proId, @Param("available") boolean available);
+
+       @Transactional
+       @Modifying
+       @Query("UPDATE Pro p SET p.online = :online WHERE p.id IN :proIds")
+       int updateOnlineStatus(@Param("proIds") Collection<Long> proIds, @Param("online") boolean online);
+
+       /**
+        * Substring or close (word similarity) matches on the normalized names, or a substring
+        * of the phone digits, served by the trigram indexes; prefix matches rank first.
+        */
+       @Query(value = "SELECT p.* FROM pro p " +
+                     "WHERE p.search_text LIKE '%' || search_normalize(:term) || '%' " +
+                     "OR search_normalize(:term) <% p.search_text " +
+                     "OR p.search_tel LIKE '%' || CAST(:digits AS TEXT) || '%' " +
+                     "ORDER BY p.search_text LIKE search_normalize(:term) || '%' DESC, " +
+                     "word_similarity(search_normalize(:term), p.search_text) DESC, p.id " +
+                     "LIMIT :limit", nativeQuery = true)
+       List<Pro> searchByNameOrTel(@Param("term") String term, @Param("digits") String digits,
+                     @Param("limit") int limit);
 
        @Query("SELECT COUNT(p) FROM Pro p WHERE p.kycStatus = 'APPROVED' AND p.isActive = true")
        Long countApprovedActivePros();
 
        @Query("SELECT AVG(p.ratingAvg) FROM Pro p WHERE p.ratingCount > 0")
        Double getAverageRating();
+
+       @Query("SELECT p.id AS id, COALESCE(p.firstName, p.fullName) AS firstName, p.lastName AS lastName, " +
+                     "p.username AS username, p.profilePhoto AS avatarUrl FROM Pro p WHERE p.id IN :ids")
+       List<ParticipantProfileView> findParticipantProfiles(@Param("ids") Collection<Long> ids);
+
+       // Atomic writes: these columns change concurrently with profile edits, so they bypass
+       // the entity @Version instead of failing on it
+
+       /**
+        * Adds the (possibly negative) amount to the wallet unless the balance would go below
+        * zero. Returns 0 when the pro does not exist or the balance is insufficient.
+        */
+       @Transactional
+       @Modifying
+       @Query("UPDATE Pro p SET p.walletBalance = p.walletBalance + :amount " +
+                     "WHERE p.id = :proId AND p.walletBalance + :amount >= 0")
+       int addToWalletBalance(@Param("proId") Long proId, @Param("amount") Long amount);
+
+       @Query("SELECT p.walletBalance FROM Pro p WHERE p.id = :proId")
+       Optional<Long> findWalletBalance(@Param("proId") Long proId);
+
+       @Transactional
+       @Modifying
+       @Query("UPDATE Pro p SET p.currentLatitude = :latitude, p.currentLongitude = :longitude, " +
+                     "p.locationUpdatedAt = :updatedAt WHERE p.id = :proId")
+       int updateLocation(@Param("proId") Long proId, @Param("latitude") Double latitude,
+                     @Param("longitude") Double longitude, @Param("updatedAt") LocalDateTime updatedAt);
+
+       @Transactional
+       @Modifying
+       @Query("UPDATE Pro p SET p.jobsCompleted = :jobsCompleted, p.ratingAvg = COALESCE(:ratingAvg, p.ratingAvg) " +
+                     "WHERE p.id = :proId")
+       int updateStatistics(@Param("proId") Long proId, @Param("jobsCompleted") Long jobsCompleted,
+                     @Param("ratingAvg") Double ratingAvg);
 }
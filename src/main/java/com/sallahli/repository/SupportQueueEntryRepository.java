@@ -0,0 +1,34 @@
+package com.sallahli.repository;
+
+import com.sallahli.model.SupportQueueEntry;
+import com.sallahli.repository.generic.GenericRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface SupportQueueEntryRepository extends GenericRepository<SupportQueueEntry> {
+
+    @Modifying
+    @Query("UPDATE SupportQueueEntry e SET e.unreadCount = e.unreadCount + 1, e.lastMessageAt = :sentAt " +
+            "WHERE e.conversationId = :conversationId")
+    int recordCustomerMessage(@Param("conversationId") Long conversationId,
+                              @Param("sentAt") LocalDateTime sentAt);
+
+    /**
+     * Highest priority waiting conversation, in the order of the in-memory queue, whose row
+     * no other transaction holds; the row stays locked until the caller commits.
+     */
+    @Query(value = "SELECT e.conversation_id FROM support_queue_entry e " +
+            "ORDER BY EXTRACT(EPOCH FROM e.waiting_since) - e.unread_count * :unreadWeightSeconds, e.conversation_id " +
+            "LIMIT 1 FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    Optional<Long> lockNextEntry(@Param("unreadWeightSeconds") long unreadWeightSeconds);
+
+    @Modifying
+    @Query("DELETE FROM SupportQueueEntry e WHERE e.conversationId = :conversationId")
+    int removeEntry(@Param("conversationId") Long conversationId);
+}
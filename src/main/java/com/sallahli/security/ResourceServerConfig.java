@@ -58,6 +58,8 @@ public class ResourceServerConfig {
                             ).permitAll()
                             .requestMatchers(authorizedPatternUri).permitAll()
                             .requestMatchers(HttpMethod.OPTIONS).permitAll()
+                            // actuator endpoints other than the health probes above
+                            .requestMatchers("/management/**").hasRole("ADMIN")
                             .requestMatchers("/**").authenticated()
                 ).cors(conf -> conf.configurationSource(source))
                 .addFilterAfter(new AuthorizationFilter(tokenParser, authorizedClientIds, authorizedPatternUri), AbstractPreAuthenticatedProcessingFilter.class)
@@ -8,7 +8,9 @@ import com.sallahli.model.Client;
 import com.sallahli.repository.AddressRepository;
 import com.sallahli.repository.ClientRepository;
 import com.sallahli.service.crud.AbstractCrudService;
+import com.sallahli.utils.FuzzySearchUtils;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -43,6 +45,11 @@ public class AddressService extends AbstractCrudService<Address, AddressDTO> {
         return addressMapper.toDtos(addressRepository.findByArchivedFalse());
     }
 
+    @Override
+    protected Specification<Address> listScope() {
+        return (root, query, criteriaBuilder) -> criteriaBuilder.isFalse(root.get("archived"));
+    }
+
     
     @Override
     @Transactional(readOnly = true)
@@ -129,12 +136,19 @@ public class AddressService extends AbstractCrudService<Address, AddressDTO> {
     @Override
     @Transactional
     public void delete(Long id) {
-        Address address = addressRepository.findByIdAndArchivedFalse(id)
-                .orElseThrow(() -> new NotFoundException("Address not found with id: " + id));
+        deleteEntity(addressRepository.findByIdAndArchivedFalse(id)
+                .orElseThrow(() -> new NotFoundException("Address not found with id: " + id)));
+    }
+
+    @Override
+    protected void deleteEntity(Address address) {
+        if (Boolean.TRUE.equals(address.getArchived())) {
+            throw new NotFoundException("Address not found with id: " + address.getId());
+        }
 
         address.setArchived(true);
         addressRepository.save(address);
-        log.info("Archived address {}", id);
+        log.info("Archived address {}", address.getId());
     }
 
     
@@ -160,8 +174,12 @@ public class AddressService extends AbstractCrudService<Address, AddressDTO> {
 
     
     @Transactional(readOnly = true)
-    public List<AddressDTO> searchByFormattedAddress(String query) {
-        List<Address> addresses = addressRepository.findByFormattedAddressContainingIgnoreCaseAndArchivedFalse(query);
+    public List<AddressDTO> searchByFormattedAddress(String query, Integer limit) {
+        String term = FuzzySearchUtils.term(query);
+        if (term == null) {
+            return List.of();
+        }
+        List<Address> addresses = addressRepository.searchByText(term, FuzzySearchUtils.limit(limit));
         return addressMapper.toDtos(addresses);
     }
 
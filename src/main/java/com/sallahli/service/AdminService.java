@@ -82,12 +82,16 @@ public class AdminService extends AbstractCrudService<Admin, AdminDTO> {
     @Override
     @Transactional
     public void delete(Long id) {
-        Admin admin = adminRepository.findById(id)
-                .orElseThrow(() -> new NotFoundException("Admin not found with id: " + id));
+        deleteEntity(adminRepository.findById(id)
+                .orElseThrow(() -> new NotFoundException("Admin not found with id: " + id)));
+    }
+
+    @Override
+    protected void deleteEntity(Admin admin) {
         admin.setArchived(true);
         admin.setIsActive(false);
         adminRepository.save(admin);
-        log.info("Archived admin {}", id);
+        log.info("Archived admin {}", admin.getId());
     }
 
     @Transactional
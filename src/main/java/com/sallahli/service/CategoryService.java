@@ -187,8 +187,15 @@ public class CategoryService extends AbstractCrudService<Category, CategoryDTO>
     @Override
     @Transactional
     public void delete(Long id) {
-        Category category = categoryRepository.findByIdAndArchivedFalse(id)
-                .orElseThrow(() -> new NotFoundException("Category not found with id: " + id));
+        deleteEntity(categoryRepository.findByIdAndArchivedFalse(id)
+                .orElseThrow(() -> new NotFoundException("Category not found with id: " + id)));
+    }
+
+    @Override
+    protected void deleteEntity(Category category) {
+        if (Boolean.TRUE.equals(category.getArchived())) {
+            throw new NotFoundException("Category not found with id: " + category.getId());
+        }
 
         category.setArchived(true);
         category.setActive(false);
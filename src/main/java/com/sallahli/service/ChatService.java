@@ -4,12 +4,23 @@ import com.sallahli.dto.chat.ConversationByParticipantRequest;
 import com.sallahli.dto.chat.ConversationDto;
 import com.sallahli.dto.chat.ConversationParticipantDto;
 import com.sallahli.dto.chat.MessageDto;
+import com.sallahli.dto.chat.MessageSearchHitDto;
+import com.sallahli.dto.chat.MessageSearchHitView;
+import com.sallahli.dto.chat.ParticipantCardDto;
+import com.sallahli.dto.chat.ReadReceiptDto;
+import com.sallahli.dto.chat.SupportQueueEntryDto;
+import com.sallahli.dto.search.CriteriaSearchExecutor;
 import com.sallahli.dto.search.PaginatedSearchService;
+import com.sallahli.exceptions.AccessDeniedException;
+import com.sallahli.exceptions.BadRequestException;
+import com.sallahli.exceptions.ConflictException;
+import com.sallahli.exceptions.NotFoundException;
 import com.sallahli.mapper.ConversationMapper;
 import com.sallahli.mapper.ConversationParticipantsMapper;
 import com.sallahli.mapper.MessageMapper;
 import com.sallahli.model.Conversation;
 import com.sallahli.model.ConversationParticipant;
+import com.sallahli.model.ConversationParticipantId;
 import com.sallahli.model.Enum.AppEnum;
 import com.sallahli.model.Enum.ConversationType;
 import com.sallahli.model.Enum.UserRoleEnum;
@@ -17,12 +28,15 @@ import com.sallahli.model.Message;
 import com.sallahli.repository.ConversationParticipantRepository;
 import com.sallahli.repository.ConversationRepository;
 import com.sallahli.repository.MessageRepository;
+import com.sallahli.service.ParticipantDirectoryService.ParticipantKey;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -32,6 +46,8 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -44,6 +60,15 @@ public class ChatService implements PaginatedSearchService<ConversationDto, Conv
     private final ConversationMapper conversationMapper;
     private final ConversationParticipantsMapper participantsMapper;
     private final MessageMapper messageMapper;
+    private final WebSocketService webSocketService;
+    private final MessageWriteBehindService messageWriteBehindService;
+    private final ParticipantDirectoryService participantDirectoryService;
+    private final SupportQueueService supportQueueService;
+    private final CriteriaSearchExecutor criteriaSearchExecutor;
+
+    private static final int MAX_INBOX_PAGE_SIZE = 100;
+    private static final int MAX_MESSAGE_PAGE_SIZE = 100;
+    private static final int MAX_SEARCH_PAGE_SIZE = 50;
 
     private final List<UserRoleEnum> externalRoles = List.of(UserRoleEnum.CLIENT, UserRoleEnum.DRIVER,
             UserRoleEnum.PARTNER_MANAGER, UserRoleEnum.PARTNER_OWNER, UserRoleEnum.EMPLOYE);
@@ -54,38 +79,193 @@ public class ChatService implements PaginatedSearchService<ConversationDto, Conv
         return toEnrichedConversationDto(conv);
     }
 
-    @Transactional
+    /**
+     * Pushes the message to the conversation topic right away and hands it to the
+     * write-behind queue for persistence. Resending with the same client message id
+     * returns the message accepted the first time.
+     * <p>
+     * The sender is the authenticated user, as the role the app asks for, and must be a
+     * participant of the open conversation.
+     */
     public MessageDto sendMessage(Long conversationId, MessageDto messageDto) {
-        Conversation conv = conversationRepository.findById(conversationId)
-                .orElseThrow(() -> new RuntimeException("Conversation not found"));
+        Conversation conversation = conversationRepository.findById(conversationId)
+                .orElseThrow(() -> new NotFoundException("Conversation not found"));
+        if (conversation.isClosed()) {
+            throw new ConflictException("Conversation is closed");
+        }
 
-        // Get connected user - simplified for now
-        // TODO: Implement proper user authentication context
-        Long senderId = getCurrentUserId(messageDto.getSenderRole());
+        UserRoleEnum senderRole = participantDirectoryService.currentRole(messageDto.getSenderRole());
+        Long senderId = getCurrentUserId(senderRole);
+        if (!participantRepository.existsById(new ConversationParticipantId(conversationId, senderId, senderRole))) {
+            throw new AccessDeniedException("You are not a participant of this conversation");
+        }
+        messageDto.setSenderRole(senderRole);
         messageDto.setSenderId(senderId);
+        messageDto.setRead(false);
 
-        Message msg = messageMapper.toModel(messageDto);
-        msg.setConversation(conv);
-        conv.setUpdatedAt(LocalDateTime.now());
-        conversationRepository.save(conv);
-
-        messageDto = messageMapper.toDtoWithoutConversation(messageRepository.save(msg));
-        // TODO: publishChatMessage(msg);
-        return messageDto;
+        MessageDto accepted = messageWriteBehindService.accept(conversationId, messageDto);
+        enrichSenders(List.of(accepted));
+        webSocketService.sendChatMessageToConversation(conversationId, accepted);
+        if (!SupportQueueService.SUPPORT_ROLES.contains(accepted.getSenderRole())) {
+            supportQueueService.recordCustomerMessage(conversationId, accepted.getCreatedAt());
+        }
+        return accepted;
     }
 
     public Page<MessageDto> getMessages(Long conversationId, Pageable pageable) {
         Page<Message> messages = messageRepository.findByConversationIdOrderByCreatedAtDesc(conversationId, pageable);
-        List<MessageDto> messagesDto = messages.get().toList().stream().map(this::toEnrichedMessageDto).toList();
+        List<ConversationParticipant> participants = participantRepository.findByConversationId(conversationId);
+        List<MessageDto> messagesDto = enrichSenders(messages.get()
+                .map(message -> withReadState(toMessageDto(message), participants))
+                .toList());
         return new PageImpl<>(messagesDto, pageable, messages.getTotalElements());
     }
 
+    /**
+     * Message history by id cursor. With {@code beforeId} (or no cursor) returns older
+     * messages newest first; with {@code afterId} returns newer messages oldest first.
+     * Only participants, admins and support agents may read it.
+     */
+    @Transactional(readOnly = true)
+    public Slice<MessageDto> getMessages(Long conversationId, Long beforeId, Long afterId, int size) {
+        checkCanRead(conversationId);
+        int pageSize = Math.max(1, Math.min(size, MAX_MESSAGE_PAGE_SIZE));
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+
+        List<Message> messages;
+        if (afterId != null) {
+            messages = messageRepository.findByConversationIdAndIdGreaterThanOrderByIdAsc(conversationId, afterId, limit);
+        } else if (beforeId != null) {
+            messages = messageRepository.findByConversationIdAndIdLessThanOrderByIdDesc(conversationId, beforeId, limit);
+        } else {
+            messages = messageRepository.findByConversationIdOrderByIdDesc(conversationId, limit);
+        }
+        return toMessageSlice(conversationId, messages, pageSize);
+    }
+
+    /**
+     * Anchor for "jump to first unread": the messages right after the connected user's
+     * read watermark, oldest first. Page backwards from the first one for context.
+     */
+    @Transactional(readOnly = true)
+    public Slice<MessageDto> getMessagesFromFirstUnread(Long conversationId, AppEnum app, int size) {
+        UserRoleEnum role = getCurrentRole(app);
+        Long userId = getCurrentUserId(role);
+        Long watermark = participantRepository.findById(new ConversationParticipantId(conversationId, userId, role))
+                .map(ConversationParticipant::getLastReadMessageId)
+                .orElse(null);
+        return getMessages(conversationId, null, watermark != null ? watermark : 0L, size);
+    }
+
+    private void checkCanRead(Long conversationId) {
+        Set<UserRoleEnum> roles = participantDirectoryService.currentRoles();
+        if (roles.contains(UserRoleEnum.CUSTOMER_SUPPORT_AGENT)) {
+            return;
+        }
+        for (UserRoleEnum role : roles) {
+            if (participantRepository.existsById(
+                    new ConversationParticipantId(conversationId, getCurrentUserId(role), role))) {
+                return;
+            }
+        }
+        throw new AccessDeniedException("You are not a participant of this conversation");
+    }
+
+    private Slice<MessageDto> toMessageSlice(Long conversationId, List<Message> messages, int pageSize) {
+        boolean hasNext = messages.size() > pageSize;
+        if (hasNext) {
+            messages = messages.subList(0, pageSize);
+        }
+        List<ConversationParticipant> participants = participantRepository.findByConversationId(conversationId);
+        List<MessageDto> content = enrichSenders(messages.stream()
+                .map(message -> withReadState(toMessageDto(message), participants))
+                .toList());
+        return new SliceImpl<>(content, PageRequest.of(0, pageSize), hasNext);
+    }
+
+    /**
+     * Ranked full-text search over message contents, optionally restricted to conversation
+     * types. Admins search every conversation, or those of the given participant; anyone
+     * else only their own (as the role of {@code app}). Keyset paginated on (rank, id).
+     */
+    @Transactional(readOnly = true)
+    public Slice<MessageSearchHitDto> searchMessages(String query, List<ConversationType> types, AppEnum app,
+            Long participantId, UserRoleEnum participantRole, Float afterRank, Long afterId, int size) {
+        if (query == null || query.isBlank()) {
+            throw new BadRequestException("Search query cannot be empty");
+        }
+        if (!participantDirectoryService.currentUserIsAdmin()) {
+            UserRoleEnum role = getCurrentRole(app);
+            Long userId = getCurrentUserId(role);
+            boolean self = participantId == null
+                    || (participantId.equals(userId) && (participantRole == null || participantRole == role));
+            if (!self) {
+                throw new AccessDeniedException("You can only search your own conversations");
+            }
+            participantId = userId;
+            participantRole = role;
+        }
+        if (participantId != null && participantRole == null) {
+            throw new BadRequestException("Participant role is required with a participant id");
+        }
+        int pageSize = Math.max(1, Math.min(size, MAX_SEARCH_PAGE_SIZE));
+        List<String> typeNames = (types == null || types.isEmpty() ? List.of(ConversationType.values()) : types)
+                .stream()
+                .map(Enum::name)
+                .toList();
+
+        List<MessageSearchHitView> rows = messageRepository.search(query.trim(), typeNames, participantId,
+                participantRole != null ? participantRole.name() : null,
+                afterId != null ? afterRank : null, afterId, pageSize + 1);
+        boolean hasNext = rows.size() > pageSize;
+        if (hasNext) {
+            rows = rows.subList(0, pageSize);
+        }
+
+        List<MessageSearchHitDto> hits = rows.stream().map(row -> MessageSearchHitDto.builder()
+                .id(row.getId())
+                .conversationId(row.getConversationId())
+                .conversationType(row.getConversationType() != null ? ConversationType.valueOf(row.getConversationType()) : null)
+                .senderId(row.getSenderId())
+                .senderRole(row.getSenderRole() != null ? UserRoleEnum.valueOf(row.getSenderRole()) : null)
+                .createdAt(row.getCreatedAt())
+                .headline(row.getHeadline())
+                .rank(row.getRank())
+                .build()).toList();
+
+        Map<ParticipantKey, ParticipantCardDto> cards = participantDirectoryService.resolve(hits.stream()
+                .filter(hit -> hit.getSenderRole() != null && hit.getSenderId() != null)
+                .map(hit -> ParticipantKey.of(hit.getSenderRole(), hit.getSenderId()))
+                .toList());
+        hits.forEach(hit -> {
+            ParticipantCardDto card = hit.getSenderRole() != null
+                    ? cards.get(ParticipantKey.of(hit.getSenderRole(), hit.getSenderId()))
+                    : null;
+            if (card != null) {
+                hit.setSenderFirstName(card.getFirstName());
+                hit.setSenderLastName(card.getLastName());
+            }
+        });
+        return new SliceImpl<>(hits, PageRequest.of(0, pageSize), hasNext);
+    }
+
+    /**
+     * A message is read once a participant other than its sender has a watermark at or past it.
+     */
+    private MessageDto withReadState(MessageDto messageDto, List<ConversationParticipant> participants) {
+        messageDto.setRead(participants.stream()
+                .filter(p -> !(p.getUserId().equals(messageDto.getSenderId()) && p.getRole() == messageDto.getSenderRole()))
+                .anyMatch(p -> p.getLastReadMessageId() != null && p.getLastReadMessageId() >= messageDto.getId()));
+        return messageDto;
+    }
+
     @Transactional
     public void markConversationAsClosed(Long conversationId) {
         Conversation conv = conversationRepository.findById(conversationId)
                 .orElseThrow(() -> new RuntimeException("Conversation not found"));
         conv.setClosed(true);
         conversationRepository.save(conv);
+        supportQueueService.closed(conversationId, supportAgentIds(conv));
     }
 
     @Transactional
@@ -98,8 +278,6 @@ public class ChatService implements PaginatedSearchService<ConversationDto, Conv
             currentParticipants = new ArrayList<>();
             conv.setParticipants(currentParticipants);
         }
-
-        // TODO: Get current user properly
         Long userId = getCurrentUserId(UserRoleEnum.CUSTOMER_SUPPORT_AGENT);
 
         ConversationParticipant newParticipant = ConversationParticipant
@@ -110,19 +288,63 @@ public class ChatService implements PaginatedSearchService<ConversationDto, Conv
                 .build();
         currentParticipants.add(newParticipant);
 
-        return toEnrichedConversationDto(conversationRepository.save(conv));
+        conv = conversationRepository.save(conv);
+        supportQueueService.assigned(conversationId, userId, List.of());
+        return toEnrichedConversationDto(conv);
     }
 
+    @Transactional
     public ConversationDto assign(Long conversationId, long employeeId) {
         Conversation conv = assignSupportParticipant(conversationId, employeeId);
         return toEnrichedConversationDto(conversationRepository.save(conv));
     }
 
+    /**
+     * Assigns the highest priority waiting conversation to the least loaded support agent.
+     * The conversation is claimed in this transaction, so two concurrent calls never assign
+     * the same one.
+     */
     @Transactional
-    public void markMessageAsRead(Long messageId) {
-        Message msg = messageRepository.findById(messageId)
-                .orElseThrow(() -> new RuntimeException("Message not found"));
-        messageRepository.markMessagesAsReadInConversation(msg.getConversation().getId());
+    public ConversationDto assignNextQueuedConversation() {
+        Long agentId = supportQueueService.leastLoadedAgent()
+                .orElseThrow(() -> new BadRequestException("No support agent available"));
+        Long conversationId = supportQueueService.claimNext()
+                .orElseThrow(() -> new NotFoundException("Support queue is empty"));
+        return assign(conversationId, agentId);
+    }
+
+    public List<SupportQueueEntryDto> getSupportQueue(int limit) {
+        return supportQueueService.snapshot(Math.min(Math.max(limit, 1), MAX_INBOX_PAGE_SIZE));
+    }
+
+    /**
+     * Moves the connected user's read watermark up to the given message and pushes a
+     * read receipt to the conversation. Older messages never move the watermark back.
+     */
+    @Transactional
+    public void markMessageAsRead(Long messageId, AppEnum app) {
+        // The message may still be waiting in the write-behind queue
+        Long conversationId = messageWriteBehindService.findPendingConversationId(messageId)
+                .orElseGet(() -> messageRepository.findById(messageId)
+                        .orElseThrow(() -> new RuntimeException("Message not found"))
+                        .getConversation().getId());
+        UserRoleEnum role = getCurrentRole(app);
+        Long userId = getCurrentUserId(role);
+
+        int updated = participantRepository.advanceReadWatermark(conversationId, userId, role.name(), messageId);
+        if (updated == 0) {
+            return;
+        }
+
+        ReadReceiptDto receipt = ReadReceiptDto.builder()
+                .event(ReadReceiptDto.EVENT_READ)
+                .conversationId(conversationId)
+                .userId(userId)
+                .role(role)
+                .lastReadMessageId(messageId)
+                .readAt(LocalDateTime.now())
+                .build();
+        webSocketService.afterCommit(() -> webSocketService.sendConversationUpdate(conversationId, receipt));
     }
 
     @Transactional
@@ -131,7 +353,6 @@ public class ChatService implements PaginatedSearchService<ConversationDto, Conv
 
         // Check for existing GENERAL_CLIENT_SUPPORT conversation
         if (type == ConversationType.GENERAL_CLIENT_SUPPORT) {
-            // TODO: Get connected client
             Long clientId = getCurrentUserId(UserRoleEnum.CLIENT);
 
             Page<Conversation> existing = conversationRepository.findOpenByTypeAndParticipant(
@@ -150,7 +371,6 @@ public class ChatService implements PaginatedSearchService<ConversationDto, Conv
 
         // Check for existing GENERAL_PRO_SUPPORT conversation
         if (type == ConversationType.GENERAL_PRO_SUPPORT) {
-            // TODO: Get connected pro
             Long proId = getCurrentUserId(UserRoleEnum.DRIVER); // Using DRIVER role for Pro users
 
             var existing = conversationRepository.findOpenByTypeAndParticipant(
@@ -169,7 +389,6 @@ public class ChatService implements PaginatedSearchService<ConversationDto, Conv
 
         // For general support conversations, check if one already exists
         if (type == ConversationType.GENERAL_CLIENT_SUPPORT) {
-            // TODO: Get connected client
             Long clientId = getCurrentUserId(UserRoleEnum.CLIENT);
 
             Page<Conversation> existing = conversationRepository.findOpenByTypeAndParticipant(
@@ -187,7 +406,6 @@ public class ChatService implements PaginatedSearchService<ConversationDto, Conv
         }
 
         if (type == ConversationType.GENERAL_PRO_SUPPORT) {
-            // TODO: Get connected pro
             Long proId = getCurrentUserId(UserRoleEnum.DRIVER); // Using DRIVER role for Pro users
 
             var existing = conversationRepository.findOpenByTypeAndParticipant(
@@ -211,10 +429,11 @@ public class ChatService implements PaginatedSearchService<ConversationDto, Conv
         // Initialize participants based on conversation type
         initParticipantsForType(conv);
 
-        // Assign to employee if specified
+        // Assign to employee if specified, otherwise wait in the support queue
         if (employeeId != null) {
             return assign(conv.getId(), employeeId);
         }
+        supportQueueService.enqueue(conv);
 
         return conversationMapper.toDto(conv);
     }
@@ -251,7 +470,6 @@ public class ChatService implements PaginatedSearchService<ConversationDto, Conv
     }
 
     public Page<ConversationDto> findByParticipantAndType(ConversationByParticipantRequest request, Pageable pageable) {
-        // TODO: Implement proper user authentication
         UserRoleEnum role = UserRoleEnum.CUSTOMER_SUPPORT_AGENT;
         Long userId = getCurrentUserId(role);
 
@@ -262,7 +480,7 @@ public class ChatService implements PaginatedSearchService<ConversationDto, Conv
                         userId,
                         request.isClosed(),
                         pageable);
-        List<ConversationDto> content = conversations.stream().map(this::toEnrichedConversationDto).toList();
+        List<ConversationDto> content = toEnrichedConversationDtos(conversations.getContent());
 
         return new PageImpl<>(content, pageable, conversations.getTotalElements());
     }
@@ -270,13 +488,14 @@ public class ChatService implements PaginatedSearchService<ConversationDto, Conv
     @Transactional
     private Conversation assignSupportParticipant(Long conversationId, long employeeId) {
         Conversation conv = conversationRepository.findById(conversationId)
-                .orElseThrow(() -> new com.sallahli.exceptions.NotFoundException("Conversation not found"));
+                .orElseThrow(() -> new NotFoundException("Conversation not found"));
 
         if (conv.getParticipants() == null) {
             conv.setParticipants(new ArrayList<>());
         }
 
         // Remove existing support agents
+        List<Long> previousAgentIds = supportAgentIds(conv);
         conv.getParticipants()
                 .removeIf(p -> List.of(UserRoleEnum.ADMIN, UserRoleEnum.CUSTOMER_SUPPORT_AGENT).contains(p.getRole()));
 
@@ -289,7 +508,19 @@ public class ChatService implements PaginatedSearchService<ConversationDto, Conv
 
         conv.getParticipants().add(supportParticipant);
 
-        return conversationRepository.save(conv);
+        conv = conversationRepository.save(conv);
+        supportQueueService.assigned(conversationId, employeeId, previousAgentIds);
+        return conv;
+    }
+
+    private List<Long> supportAgentIds(Conversation conv) {
+        if (conv.getParticipants() == null) {
+            return List.of();
+        }
+        return conv.getParticipants().stream()
+                .filter(p -> SupportQueueService.SUPPORT_ROLES.contains(p.getRole()))
+                .map(ConversationParticipant::getUserId)
+                .toList();
     }
 
     public Map<String, Long> getUnreadMessagesCount() {
@@ -302,8 +533,6 @@ public class ChatService implements PaginatedSearchService<ConversationDto, Conv
         counts.put("pro", conversationRepository.countUnreadMessagesFromParticipantByType(
                 List.of(ConversationType.GENERAL_PRO_SUPPORT),
                 externalRoles));
-
-        // TODO: Implement proper user authentication
         Long userId = getCurrentUserId(UserRoleEnum.CUSTOMER_SUPPORT_AGENT);
 
         counts.put("myMessages", conversationRepository.countUnreadMessagesForEmployee(
@@ -319,12 +548,7 @@ public class ChatService implements PaginatedSearchService<ConversationDto, Conv
     }
 
     public Long conversationsWithoutAdminParticipantsCount() {
-        List<UserRoleEnum> employeeRoles = List.of(
-                UserRoleEnum.ADMIN,
-                UserRoleEnum.CUSTOMER_SUPPORT_AGENT,
-                UserRoleEnum.ADMIN_PARTNER_MANAGER);
-
-        return conversationRepository.countConversationsWithoutAdminParticipants(employeeRoles);
+        return (long) supportQueueService.size();
     }
 
     public Page<ConversationDto> getConversationsForConnectedUser(AppEnum app, Pageable pageable) {
@@ -336,9 +560,7 @@ public class ChatService implements PaginatedSearchService<ConversationDto, Conv
                 userRole,
                 pageable);
 
-        List<ConversationDto> content = conversations.stream()
-                .map(this::toEnrichedConversationDto)
-                .toList();
+        List<ConversationDto> content = toEnrichedConversationDtos(conversations.getContent());
 
         return new PageImpl<>(content, pageable, conversations.getTotalElements());
     }
@@ -354,50 +576,101 @@ public class ChatService implements PaginatedSearchService<ConversationDto, Conv
                 senderRoles,
                 pageable);
 
-        List<ConversationDto> content = conversations.stream()
-                .map(this::toEnrichedConversationDto)
-                .toList();
+        List<ConversationDto> content = toEnrichedConversationDtos(conversations.getContent());
 
         return new PageImpl<>(content, pageable, conversations.getTotalElements());
     }
 
+    /**
+     * Inbox of the connected user, newest activity first. Pass the {@code lastActivityAt}
+     * and {@code id} of the last conversation received to get the next slice.
+     */
+    @Transactional(readOnly = true)
+    public Slice<ConversationDto> getInboxForConnectedUser(AppEnum app, LocalDateTime beforeActivityAt, Long beforeId,
+            int size) {
+        UserRoleEnum userRole = getUserRoleForApp(app);
+        Long userId = getCurrentUserId(userRole);
+        int pageSize = Math.max(1, Math.min(size, MAX_INBOX_PAGE_SIZE));
+        Pageable limit = PageRequest.of(0, pageSize + 1);
+
+        List<ConversationParticipant> rows = beforeActivityAt != null && beforeId != null
+                ? participantRepository.findInboxBefore(userId, userRole, beforeActivityAt, beforeId, limit)
+                : participantRepository.findInbox(userId, userRole, limit);
+        boolean hasNext = rows.size() > pageSize;
+        if (hasNext) {
+            rows = rows.subList(0, pageSize);
+        }
+
+        Map<Long, List<ConversationParticipant>> participantsByConversation = rows.isEmpty()
+                ? Map.of()
+                : participantRepository.findByConversationIdIn(
+                                rows.stream().map(row -> row.getConversation().getId()).toList())
+                        .stream()
+                        .collect(Collectors.groupingBy(participant -> participant.getConversation().getId()));
+
+        List<ConversationDto> content = rows.stream().map(row -> {
+            Conversation conversation = row.getConversation();
+            ConversationDto dto = conversationMapper.toLightDto(conversation);
+            dto.setLastMessage(toLastMessageDto(conversation));
+            dto.setParticipants(participantsByConversation.getOrDefault(conversation.getId(), List.of()).stream()
+                    .map(this::toParticipantDto)
+                    .toList());
+            dto.setUnreadCount((long) row.getUnreadCount());
+            dto.setLastActivityAt(row.getLastActivityAt());
+            return dto;
+        }).toList();
+
+        return new SliceImpl<>(enrichConversations(content), PageRequest.of(0, pageSize), hasNext);
+    }
+
     @Override
     public Page<Conversation> findBySpecification(Specification<Conversation> specification, Pageable pageable) {
         return conversationRepository.findAll(specification, pageable);
     }
 
     @Override
-    public List<ConversationDto> mapData(List<Conversation> data) {
-        return data.stream().map(this::toEnrichedConversationDto).toList();
+    public Object findAttributeValue(Long id, String attribute) {
+        return criteriaSearchExecutor.findValue(Conversation.class, id, attribute);
     }
 
-    private ConversationDto toEnrichedConversationDto(Conversation conversation) {
-        ConversationDto dto = conversationMapper.toLightDto(conversation);
+    @Override
+    public List<Conversation> findSliceBySpecification(Specification<Conversation> specification, Pageable pageable) {
+        return criteriaSearchExecutor.findSlice(Conversation.class, specification, pageable);
+    }
 
-        Message lastMessage = messageRepository
-                .findTopByConversationIdOrderByCreatedAtDesc(conversation.getId())
-                .orElse(null);
+    @Override
+    public long estimateCount(Specification<Conversation> specification, boolean filtered) {
+        return criteriaSearchExecutor.estimateCount(Conversation.class, specification, filtered);
+    }
 
-        dto.setLastMessage(toEnrichedMessageDto(lastMessage));
+    @Override
+    public List<ConversationDto> mapData(List<Conversation> data) {
+        return toEnrichedConversationDtos(data);
+    }
 
-        if (conversation.getParticipants() != null) {
-            dto.setParticipants(conversation.getParticipants().stream()
-                    .map(this::toEnrichedParticipantDto)
-                    .toList());
-        }
+    private ConversationDto toEnrichedConversationDto(Conversation conversation) {
+        return toEnrichedConversationDtos(List.of(conversation)).get(0);
+    }
 
-        return dto;
+    private List<ConversationDto> toEnrichedConversationDtos(List<Conversation> conversations) {
+        return enrichConversations(conversations.stream().map(conversation -> {
+            ConversationDto dto = conversationMapper.toLightDto(conversation);
+            dto.setLastMessage(toLastMessageDto(conversation));
+            if (conversation.getParticipants() != null) {
+                dto.setParticipants(conversation.getParticipants().stream()
+                        .map(this::toParticipantDto)
+                        .toList());
+            }
+            return dto;
+        }).toList());
     }
 
     private Long getCurrentUserId(UserRoleEnum role) {
-        // TODO: Implement proper user authentication context
-        // For now, return placeholder IDs
-        return switch (role) {
-            case CLIENT -> 1L;
-            case DRIVER -> 2L;
-            case ADMIN, CUSTOMER_SUPPORT_AGENT, ADMIN_PARTNER_MANAGER -> 3L;
-            default -> 1L;
-        };
+        return participantDirectoryService.currentUserId(role);
+    }
+
+    private UserRoleEnum getCurrentRole(AppEnum app) {
+        return participantDirectoryService.currentRole(app != null ? getUserRoleForApp(app) : null);
     }
 
     private UserRoleEnum getUserRoleForApp(AppEnum app) {
@@ -418,57 +691,92 @@ public class ChatService implements PaginatedSearchService<ConversationDto, Conv
         };
     }
 
-    private MessageDto toEnrichedMessageDto(Message message) {
+    /**
+     * Last message as kept in the conversation summary; content holds the preview.
+     */
+    private MessageDto toLastMessageDto(Conversation conversation) {
+        if (conversation.getLastMessageId() == null)
+            return null;
+
+        MessageDto messageDto = MessageDto.builder()
+                .id(conversation.getLastMessageId())
+                .conversationId(conversation.getId())
+                .senderId(conversation.getLastMessageSenderId())
+                .senderRole(conversation.getLastMessageSenderRole())
+                .content(conversation.getLastMessagePreview())
+                .createdAt(conversation.getLastMessageAt())
+                .build();
+        return messageDto;
+    }
+
+    private MessageDto toMessageDto(Message message) {
         if (message == null)
             return null;
 
-        MessageDto messageDto = messageMapper.toDtoWithoutConversation(message);
+        return messageMapper.toDtoWithoutConversation(message);
+    }
 
-        switch (message.getSenderRole()) {
-            case CLIENT -> {
-                messageDto.setSenderFirstName("Client");
-                messageDto.setSenderLastName("Name");
-                messageDto.setSenderUsername("client_username");
-            }
-            case DRIVER -> {
-                messageDto.setSenderFirstName("Pro");
-                messageDto.setSenderLastName("User");
-                messageDto.setSenderUsername("pro_username");
-            }
-            default -> {
-                // Admin/Support
-                messageDto.setSenderFirstName("Support");
-                messageDto.setSenderLastName("Agent");
-                messageDto.setSenderUsername("support_username");
-            }
-        }
+    /**
+     * Fills sender names and avatars for a whole page of messages with one directory lookup.
+     */
+    private List<MessageDto> enrichSenders(List<MessageDto> messages) {
+        Map<ParticipantKey, ParticipantCardDto> cards = participantDirectoryService.resolve(messages.stream()
+                .filter(message -> message.getSenderRole() != null && message.getSenderId() != null)
+                .map(message -> ParticipantKey.of(message.getSenderRole(), message.getSenderId()))
+                .toList());
+        messages.forEach(message -> applySenderCard(message, cards));
+        return messages;
+    }
 
-        return messageDto;
+    private void applySenderCard(MessageDto messageDto, Map<ParticipantKey, ParticipantCardDto> cards) {
+        if (messageDto == null || messageDto.getSenderRole() == null || messageDto.getSenderId() == null)
+            return;
+
+        ParticipantCardDto card = cards.get(ParticipantKey.of(messageDto.getSenderRole(), messageDto.getSenderId()));
+        if (card != null) {
+            messageDto.setSenderFirstName(card.getFirstName());
+            messageDto.setSenderLastName(card.getLastName());
+            messageDto.setSenderUsername(card.getUsername());
+            messageDto.setSenderLogo(card.getAvatarUrl());
+        }
     }
 
-    private ConversationParticipantDto toEnrichedParticipantDto(ConversationParticipant participant) {
-        ConversationParticipantDto participantDto = participantsMapper.toDtoWithoutConversation(participant);
+    private ConversationParticipantDto toParticipantDto(ConversationParticipant participant) {
+        return participantsMapper.toDtoWithoutConversation(participant);
+    }
 
-        // TODO: Enrich with user information based on role
-        switch (participant.getRole()) {
-            case CLIENT -> {
-                participantDto.setFirstName("Client");
-                participantDto.setLastName("Name");
-                participantDto.setUsername("client_username");
+    /**
+     * Fills participant and last message sender identities of a page of conversations
+     * with one directory lookup.
+     */
+    private List<ConversationDto> enrichConversations(List<ConversationDto> conversations) {
+        List<ParticipantKey> keys = new ArrayList<>();
+        for (ConversationDto conversation : conversations) {
+            if (conversation.getParticipants() != null) {
+                conversation.getParticipants().forEach(p -> keys.add(ParticipantKey.of(p.getRole(), p.getUserId())));
             }
-            case DRIVER -> {
-                participantDto.setFirstName("Pro");
-                participantDto.setLastName("User");
-                participantDto.setUsername("pro_username");
-            }
-            default -> {
-                participantDto.setFirstName("Support");
-                participantDto.setLastName("Agent");
-                participantDto.setUsername("support_username");
+            MessageDto lastMessage = conversation.getLastMessage();
+            if (lastMessage != null && lastMessage.getSenderRole() != null) {
+                keys.add(ParticipantKey.of(lastMessage.getSenderRole(), lastMessage.getSenderId()));
             }
         }
 
-        return participantDto;
+        Map<ParticipantKey, ParticipantCardDto> cards = participantDirectoryService.resolve(keys);
+        for (ConversationDto conversation : conversations) {
+            if (conversation.getParticipants() != null) {
+                for (ConversationParticipantDto participant : conversation.getParticipants()) {
+                    ParticipantCardDto card = cards.get(ParticipantKey.of(participant.getRole(), participant.getUserId()));
+                    if (card != null) {
+                        participant.setFirstName(card.getFirstName());
+                        participant.setLastName(card.getLastName());
+                        participant.setUsername(card.getUsername());
+                        participant.setLogo(card.getAvatarUrl());
+                    }
+                }
+            }
+            applySenderCard(conversation.getLastMessage(), cards);
+        }
+        return conversations;
     }
 
     public Long getUnreadMessagesCountForConnectedUser(AppEnum app) {
@@ -10,6 +10,7 @@ import com.sallahli.model.Enum.MediaEnum;
 import com.sallahli.model.Media;
 import com.sallahli.repository.ClientRepository;
 import com.sallahli.service.crud.AbstractCrudService;
+import com.sallahli.utils.FuzzySearchUtils;
 import lombok.extern.slf4j.Slf4j;
 import org.keycloak.admin.client.Keycloak;
 import org.keycloak.admin.client.resource.UsersResource;
@@ -52,10 +53,21 @@ public class ClientService extends AbstractCrudService<Client, ClientDTO> {
     // Core CRUD overrides
     // ========================================================================
 
+    // ClientDTO mirrors Client by property name, so listings and searches select its columns only
     @Override
+    protected boolean readsProjections() {
+        return true;
+    }
+
     @Transactional(readOnly = true)
-    public List<ClientDTO> findAll() {
-        return getMapper().toDtos(clientRepository.findAll());
+    public List<ClientDTO> searchClients(String query, Integer limit) {
+        String term = FuzzySearchUtils.term(query);
+        if (term == null) {
+            return List.of();
+        }
+        List<Client> clients = clientRepository.searchByNameOrTel(term, FuzzySearchUtils.phoneDigits(term),
+                FuzzySearchUtils.limit(limit));
+        return getMapper().toDtos(clients);
     }
 
     @Override
@@ -218,10 +230,14 @@ public class ClientService extends AbstractCrudService<Client, ClientDTO> {
     @Override
     @Transactional
     public void delete(Long id) {
-        Client client = findClientById(id);
+        deleteEntity(findClientById(id));
+    }
+
+    @Override
+    protected void deleteEntity(Client client) {
         client.setArchived(true);
         clientRepository.save(client);
-        log.info("Archived client {}", id);
+        log.info("Archived client {}", client.getId());
     }
 
     // ========================================================================
@@ -51,6 +51,15 @@ public class CustomerRequestService extends AbstractCrudService<CustomerRequest,
         this.notificationService = notificationService;
     }
 
+    /**
+     * Associations the DTO maps, fetched with the listing, search and export rows instead
+     * of one lazy load each.
+     */
+    @Override
+    public List<String> fetchPaths() {
+        return List.of("client", "category", "address", "voiceNoteMedia");
+    }
+
     // ========================================================================
     // Core CRUD overrides
     // ========================================================================
@@ -43,6 +43,15 @@ public class JobService extends AbstractCrudService<Job, JobDTO> {
         this.clientRepository = clientRepository;
     }
 
+    /**
+     * Associations the DTO maps, fetched with the listing, search and export rows instead
+     * of one lazy load each.
+     */
+    @Override
+    public List<String> fetchPaths() {
+        return List.of("request", "leadOffer", "pro", "client");
+    }
+
     // ========================================================================
     // Job Creation
     // ========================================================================
@@ -219,18 +228,13 @@ public class JobService extends AbstractCrudService<Job, JobDTO> {
 
     @Transactional
     protected void updateProStatistics(Long proId) {
-        Pro pro = proRepository.findById(proId)
-                .orElseThrow(() -> new NotFoundException("Pro not found with id: " + proId));
-
         Long completedJobs = jobRepository.countCompletedJobsByPro(proId);
         Double avgRating = jobRepository.getAverageRatingByPro(proId);
 
-        pro.setJobsCompleted(completedJobs != null ? completedJobs : 0L);
-        if (avgRating != null) {
-            pro.setRatingAvg(avgRating);
+        // Written in place so it never conflicts with the pro's own profile edits
+        if (proRepository.updateStatistics(proId, completedJobs != null ? completedJobs : 0L, avgRating) == 0) {
+            throw new NotFoundException("Pro not found with id: " + proId);
         }
-
-        proRepository.save(pro);
         log.debug("Updated pro {} statistics: jobs={}, rating={}", proId, completedJobs, avgRating);
     }
 
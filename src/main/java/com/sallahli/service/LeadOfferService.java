@@ -1,8 +1,12 @@
 package com.sallahli.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.sallahli.dto.sallahli.LeadOfferDTO;
+import com.sallahli.dto.sallahli.LeadOfferPushDTO;
 import com.sallahli.exceptions.BadRequestException;
 import com.sallahli.exceptions.NotFoundException;
+import com.sallahli.mapper.CustomerRequestMapper;
 import com.sallahli.mapper.LeadOfferMapper;
 import com.sallahli.model.*;
 import com.sallahli.model.Enum.LeadOfferStatus;
@@ -15,7 +19,10 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 @Slf4j
@@ -27,13 +34,21 @@ public class LeadOfferService extends AbstractCrudService<LeadOffer, LeadOfferDT
     private final CustomerRequestRepository customerRequestRepository;
     private final ProWalletService proWalletService;
     private final JobService jobService;
+    private final CustomerRequestMapper customerRequestMapper;
+    private final WebSocketService webSocketService;
+    private final ObjectMapper objectMapper;
+    private final ProPresenceService proPresenceService;
 
     public LeadOfferService(LeadOfferRepository leadOfferRepository,
             LeadOfferMapper leadOfferMapper,
             ProRepository proRepository,
             CustomerRequestRepository customerRequestRepository,
             ProWalletService proWalletService,
-            @Lazy JobService jobService) {
+            @Lazy JobService jobService,
+            CustomerRequestMapper customerRequestMapper,
+            WebSocketService webSocketService,
+            ObjectMapper objectMapper,
+            ProPresenceService proPresenceService) {
         super(leadOfferRepository, leadOfferMapper);
         this.leadOfferRepository = leadOfferRepository;
         this.leadOfferMapper = leadOfferMapper;
@@ -41,6 +56,10 @@ public class LeadOfferService extends AbstractCrudService<LeadOffer, LeadOfferDT
         this.customerRequestRepository = customerRequestRepository;
         this.proWalletService = proWalletService;
         this.jobService = jobService;
+        this.customerRequestMapper = customerRequestMapper;
+        this.webSocketService = webSocketService;
+        this.objectMapper = objectMapper;
+        this.proPresenceService = proPresenceService;
     }
 
     // ========================================================================
@@ -54,8 +73,11 @@ public class LeadOfferService extends AbstractCrudService<LeadOffer, LeadOfferDT
         WorkflowType workflowType = category.getWorkflowType();
         Integer matchLimit = category.getMatchLimit();
 
-        // Find available pros with sufficient wallet balance
-        List<Pro> availablePros = proRepository.findAvailableProsByCategory(category.getId(), leadCost);
+        // Find available pros with sufficient wallet balance among those currently present
+        Set<Long> onlineProIds = proPresenceService.getOnlineProIds();
+        List<Pro> availablePros = onlineProIds.isEmpty()
+                ? List.of()
+                : proRepository.findAvailableProsByCategoryAmong(category.getId(), leadCost, onlineProIds);
 
         // Limit the number of offers based on category setting
         List<Pro> selectedPros = availablePros.stream()
@@ -66,23 +88,23 @@ public class LeadOfferService extends AbstractCrudService<LeadOffer, LeadOfferDT
         int expirationMinutes = workflowType == WorkflowType.FIRST_CLICK ? 2 : 15;
         LocalDateTime expiresAt = LocalDateTime.now().plusMinutes(expirationMinutes);
 
-        List<LeadOffer> offers = selectedPros.stream()
-                .map(pro -> {
-                    LeadOffer offer = LeadOffer.builder()
-                            .request(request)
-                            .pro(pro)
-                            .price(leadCost)
-                            .status(LeadOfferStatus.OFFERED)
-                            .offeredAt(LocalDateTime.now())
-                            .expiresAt(expiresAt)
-                            .build();
-                    return leadOfferRepository.save(offer);
-                })
-                .toList();
+        // Saved together so the inserts go out as one JDBC batch
+        List<LeadOffer> offers = leadOfferRepository.saveAll(selectedPros.stream()
+                .map(pro -> LeadOffer.builder()
+                        .request(request)
+                        .pro(pro)
+                        .price(leadCost)
+                        .status(LeadOfferStatus.OFFERED)
+                        .offeredAt(LocalDateTime.now())
+                        .expiresAt(expiresAt)
+                        .build())
+                .toList());
 
         log.info("Created {} lead offers for request {} with workflow type {}",
                 offers.size(), request.getId(), workflowType);
 
+        pushOffersToPros(request, offers);
+
         return getMapper().toDtos(offers);
     }
 
@@ -114,6 +136,8 @@ public class LeadOfferService extends AbstractCrudService<LeadOffer, LeadOfferDT
         LeadOffer saved = leadOfferRepository.save(offer);
         log.info("Created lead offer {} for request {} and pro {}", saved.getId(), requestId, proId);
 
+        pushOffersToPros(request, List.of(saved));
+
         return getMapper().toDto(saved);
     }
 
@@ -340,6 +364,44 @@ public class LeadOfferService extends AbstractCrudService<LeadOffer, LeadOfferDT
         return expired.size();
     }
 
+    // ========================================================================
+    // Realtime push
+    // ========================================================================
+
+    /**
+     * Serializes the request once and reuses it in every pro's frame. Frames are built
+     * inside the transaction (lazy associations are still reachable) and sent after commit.
+     */
+    private void pushOffersToPros(CustomerRequest request, List<LeadOffer> offers) {
+        if (offers.isEmpty()) {
+            return;
+        }
+
+        Map<Long, byte[]> framesByPro = new LinkedHashMap<>();
+        try {
+            String requestJson = objectMapper.writeValueAsString(customerRequestMapper.toDto(request));
+            for (LeadOffer offer : offers) {
+                LeadOfferPushDTO frame = LeadOfferPushDTO.builder()
+                        .event(LeadOfferPushDTO.EVENT_LEAD_OFFER)
+                        .offerId(offer.getId())
+                        .proId(offer.getPro().getId())
+                        .price(offer.getPrice())
+                        .status(offer.getStatus())
+                        .offeredAt(offer.getOfferedAt())
+                        .expiresAt(offer.getExpiresAt())
+                        .request(requestJson)
+                        .build();
+                framesByPro.put(offer.getPro().getId(), objectMapper.writeValueAsBytes(frame));
+            }
+        } catch (JsonProcessingException e) {
+            // Pros can still fetch their offers through the REST endpoints
+            log.warn("Unable to serialize lead offers for request {}: {}", request.getId(), e.getMessage());
+            return;
+        }
+
+        webSocketService.afterCommit(() -> framesByPro.forEach(webSocketService::sendLeadOfferToPro));
+    }
+
     // ========================================================================
     // Helper methods
     // ========================================================================
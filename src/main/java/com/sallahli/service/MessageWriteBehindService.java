@@ -0,0 +1,356 @@
+package com.sallahli.service;
+
+import com.sallahli.dto.chat.MessageDroppedDto;
+import com.sallahli.dto.chat.MessageDto;
+import com.sallahli.mapper.MessageMapper;
+import com.sallahli.model.Enum.UserRoleEnum;
+import com.sallahli.repository.ConversationParticipantRepository;
+import com.sallahli.repository.ConversationRepository;
+import com.sallahli.repository.MessageRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingDeque;
+
+/**
+ * Write-behind persistence for chat messages.
+ * <p>
+ * Messages get their id up front from {@code message_id_seq} (reserved in blocks of
+ * {@value #ID_BLOCK_SIZE} starting at the value drawn, as Hibernate's pooled-lo optimizer
+ * does for {@code Message}), so they can be pushed to the conversation before they are
+ * stored. Queued messages are inserted in batches, one multi-row statement each; a failed
+ * batch is retried message by message, and inserts are idempotent ({@code ON CONFLICT DO
+ * NOTHING} on the id and on the client message id), so retries never count a message twice.
+ * <p>
+ * A message is retried up to {@code chat.write-behind.max-attempts} times. If it still
+ * cannot be stored it is dropped and a {@link MessageDroppedDto} goes to the conversation:
+ * recipients discard the message they were pushed and the sender resends it.
+ * <p>
+ * The queue is drained on shutdown; clients resend messages whose echo they never got,
+ * with the same client message id. A resend is answered with the message accepted first,
+ * from memory while it is recent or pending, from the database afterwards.
+ */
+@Service
+@Slf4j
+public class MessageWriteBehindService {
+
+    // Must match INCREMENT BY of message_id_seq and the allocationSize of Message.id
+    private static final int ID_BLOCK_SIZE = 50;
+    private static final int LAST_MESSAGE_PREVIEW_LENGTH = 255;
+
+    // One statement per batch, returning the ids actually inserted (JDBC batch counts are
+    // not per row once the driver rewrites batched inserts)
+    private static final String INSERT_MESSAGES = "INSERT INTO message "
+            + "(id, conversation_id, sender_id, sender_role, content, media_id, client_message_id, created_at, updated_at) "
+            + "SELECT m.id, m.conversation_id, m.sender_id, m.sender_role, m.content, m.media_id, m.client_message_id, "
+            + "m.created_at, m.created_at "
+            + "FROM unnest(?::bigint[], ?::bigint[], ?::bigint[], ?::text[], ?::text[], ?::bigint[], ?::text[], "
+            + "?::timestamp[]) AS m(id, conversation_id, sender_id, sender_role, content, media_id, client_message_id, "
+            + "created_at) "
+            + "ON CONFLICT DO NOTHING RETURNING id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ConversationRepository conversationRepository;
+    private final ConversationParticipantRepository participantRepository;
+    private final MessageRepository messageRepository;
+    private final MessageMapper messageMapper;
+    private final WebSocketService webSocketService;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final long dedupRetentionMillis;
+
+    private final BlockingDeque<PendingMessage> queue;
+    private final Map<Long, PendingMessage> pendingById = new ConcurrentHashMap<>();
+    private final Map<String, RecentMessage> recentByClientId = new ConcurrentHashMap<>();
+
+    private long nextId;
+    private long maxId = -1;
+
+    public MessageWriteBehindService(JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            ConversationRepository conversationRepository,
+            ConversationParticipantRepository participantRepository,
+            MessageRepository messageRepository,
+            MessageMapper messageMapper,
+            WebSocketService webSocketService,
+            @Value("${chat.write-behind.batch-size:200}") int batchSize,
+            @Value("${chat.write-behind.queue-capacity:10000}") int queueCapacity,
+            @Value("${chat.write-behind.max-attempts:5}") int maxAttempts,
+            @Value("${chat.write-behind.dedup-retention-seconds:600}") long dedupRetentionSeconds) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.conversationRepository = conversationRepository;
+        this.participantRepository = participantRepository;
+        this.messageRepository = messageRepository;
+        this.messageMapper = messageMapper;
+        this.webSocketService = webSocketService;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.dedupRetentionMillis = dedupRetentionSeconds * 1000;
+        this.queue = new LinkedBlockingDeque<>(queueCapacity);
+    }
+
+    // ========================================================================
+    // Accepting messages
+    // ========================================================================
+
+    /**
+     * Assigns an id and timestamps to the message and queues it for persistence. A message
+     * already accepted with the same client message id is returned as-is instead.
+     */
+    public MessageDto accept(Long conversationId, MessageDto messageDto) {
+        String clientKey = messageDto.getClientMessageId() != null
+                ? conversationId + ":" + messageDto.getClientMessageId()
+                : null;
+        if (clientKey != null) {
+            RecentMessage recent = recentByClientId.get(clientKey);
+            if (recent != null) {
+                return recent.message();
+            }
+            // Accepted before a restart or before the entry was evicted: already stored
+            Optional<MessageDto> stored = findStored(conversationId, messageDto.getClientMessageId());
+            if (stored.isPresent()) {
+                return stored.get();
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        messageDto.setId(allocateId());
+        messageDto.setConversationId(conversationId);
+        messageDto.setCreatedAt(now);
+        messageDto.setUpdatedAt(now);
+
+        if (clientKey != null) {
+            RecentMessage previous = recentByClientId.putIfAbsent(clientKey, new RecentMessage(messageDto, System.currentTimeMillis()));
+            if (previous != null) {
+                return previous.message();
+            }
+        }
+
+        PendingMessage pending = new PendingMessage(messageDto.getId(), conversationId, messageDto.getSenderId(),
+                messageDto.getSenderRole(), messageDto.getContent(),
+                messageDto.getMedia() != null ? messageDto.getMedia().getId() : null,
+                messageDto.getClientMessageId(), now);
+        pendingById.put(pending.id, pending);
+        if (!queue.offerLast(pending)) {
+            // Queue full: the database is not keeping up, persist on the caller's thread
+            log.warn("Chat write-behind queue full, persisting message {} synchronously", pending.id);
+            if (!persistOne(pending)) {
+                requeue(pending);
+            }
+        }
+        return messageDto;
+    }
+
+    private Optional<MessageDto> findStored(Long conversationId, String clientMessageId) {
+        return messageRepository.findByConversationIdAndClientMessageId(conversationId, clientMessageId)
+                .map(message -> {
+                    MessageDto stored = messageMapper.toDtoWithoutConversation(message);
+                    stored.setConversationId(conversationId);
+                    return stored;
+                });
+    }
+
+    /**
+     * Conversation of a message still waiting to be persisted.
+     */
+    public Optional<Long> findPendingConversationId(Long messageId) {
+        PendingMessage pending = pendingById.get(messageId);
+        return pending != null ? Optional.of(pending.conversationId) : Optional.empty();
+    }
+
+    private synchronized long allocateId() {
+        if (nextId > maxId) {
+            Long blockStart = jdbcTemplate.queryForObject("SELECT nextval('message_id_seq')", Long.class);
+            nextId = blockStart;
+            maxId = blockStart + ID_BLOCK_SIZE - 1;
+        }
+        return nextId++;
+    }
+
+    // ========================================================================
+    // Flushing
+    // ========================================================================
+
+    @Scheduled(fixedDelayString = "${chat.write-behind.flush-interval-ms:200}")
+    public void flush() {
+        List<PendingMessage> batch = new ArrayList<>(batchSize);
+        List<PendingMessage> retries = new ArrayList<>();
+        while (queue.drainTo(batch, batchSize) > 0) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> persist(batch));
+                batch.forEach(pending -> pendingById.remove(pending.id));
+            } catch (RuntimeException e) {
+                log.warn("Chat write-behind batch of {} failed, retrying one by one: {}", batch.size(), e.getMessage());
+                for (PendingMessage pending : batch) {
+                    if (!persistOne(pending)) {
+                        retries.add(pending);
+                    }
+                }
+            }
+            batch.clear();
+        }
+        // Failed messages wait for the next flush instead of spinning in this one
+        retries.forEach(this::requeue);
+    }
+
+    /**
+     * Persists a single message; false when it failed and should be retried later.
+     */
+    private boolean persistOne(PendingMessage pending) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> persist(List.of(pending)));
+            pendingById.remove(pending.id);
+            return true;
+        } catch (RuntimeException e) {
+            if (++pending.attempts < maxAttempts) {
+                return false;
+            }
+            log.error("Dropping chat message {} of conversation {} after {} attempts: {}",
+                    pending.id, pending.conversationId, pending.attempts, e.getMessage());
+            drop(pending);
+            return true;
+        }
+    }
+
+    private void requeue(PendingMessage pending) {
+        if (!queue.offerLast(pending)) {
+            log.error("Dropping chat message {} of conversation {}: write-behind queue full",
+                    pending.id, pending.conversationId);
+            drop(pending);
+        }
+    }
+
+    /**
+     * Gives up on a message that was already pushed to the conversation: tells its
+     * participants, and forgets its client message id so the sender's resend is accepted
+     * as a new message.
+     */
+    private void drop(PendingMessage pending) {
+        pendingById.remove(pending.id);
+        if (pending.clientMessageId != null) {
+            recentByClientId.remove(pending.conversationId + ":" + pending.clientMessageId);
+        }
+        webSocketService.sendConversationUpdate(pending.conversationId, MessageDroppedDto.builder()
+                .event(MessageDroppedDto.EVENT_DROPPED)
+                .conversationId(pending.conversationId)
+                .messageId(pending.id)
+                .clientMessageId(pending.clientMessageId)
+                .build());
+    }
+
+    private void persist(List<PendingMessage> batch) {
+        int size = batch.size();
+        Long[] ids = new Long[size];
+        Long[] conversationIds = new Long[size];
+        Long[] senderIds = new Long[size];
+        String[] senderRoles = new String[size];
+        String[] contents = new String[size];
+        Long[] mediaIds = new Long[size];
+        String[] clientMessageIds = new String[size];
+        Timestamp[] createdAts = new Timestamp[size];
+        for (int i = 0; i < size; i++) {
+            PendingMessage pending = batch.get(i);
+            ids[i] = pending.id;
+            conversationIds[i] = pending.conversationId;
+            senderIds[i] = pending.senderId;
+            senderRoles[i] = pending.senderRole != null ? pending.senderRole.name() : null;
+            contents[i] = pending.content;
+            mediaIds[i] = pending.mediaId;
+            clientMessageIds[i] = pending.clientMessageId;
+            createdAts[i] = Timestamp.valueOf(pending.createdAt);
+        }
+
+        List<Long> insertedIds = jdbcTemplate.query(connection -> {
+            PreparedStatement ps = connection.prepareStatement(INSERT_MESSAGES);
+            ps.setArray(1, connection.createArrayOf("bigint", ids));
+            ps.setArray(2, connection.createArrayOf("bigint", conversationIds));
+            ps.setArray(3, connection.createArrayOf("bigint", senderIds));
+            ps.setArray(4, connection.createArrayOf("text", senderRoles));
+            ps.setArray(5, connection.createArrayOf("text", contents));
+            ps.setArray(6, connection.createArrayOf("bigint", mediaIds));
+            ps.setArray(7, connection.createArrayOf("text", clientMessageIds));
+            ps.setArray(8, connection.createArrayOf("timestamp", createdAts));
+            return ps;
+        }, (rs, rowNum) -> rs.getLong(1));
+
+        // Only rows actually inserted move the summary and unread counters, so retries are harmless
+        Set<Long> inserted = new HashSet<>(insertedIds);
+        for (PendingMessage pending : batch) {
+            if (inserted.contains(pending.id)) {
+                recordLastMessage(pending);
+            }
+        }
+    }
+
+    private void recordLastMessage(PendingMessage message) {
+        String preview = message.content;
+        if (preview != null && preview.length() > LAST_MESSAGE_PREVIEW_LENGTH) {
+            preview = preview.substring(0, LAST_MESSAGE_PREVIEW_LENGTH);
+        }
+        conversationRepository.updateLastMessage(message.conversationId, message.id, preview, message.createdAt,
+                message.senderId, message.senderRole);
+        participantRepository.recordMessage(message.conversationId, message.id, message.senderId,
+                message.senderRole, message.createdAt);
+    }
+
+    @Scheduled(fixedDelayString = "${chat.write-behind.dedup-eviction-interval-ms:60000}")
+    public void evictRecentClientIds() {
+        long threshold = System.currentTimeMillis() - dedupRetentionMillis;
+        // Entries of messages still queued stay: the database cannot answer for them yet
+        recentByClientId.values().removeIf(recent -> recent.acceptedAt() < threshold
+                && !pendingById.containsKey(recent.message().getId()));
+    }
+
+    @PreDestroy
+    public void drainOnShutdown() {
+        if (!queue.isEmpty()) {
+            log.info("Flushing {} queued chat messages before shutdown", queue.size());
+            flush();
+        }
+    }
+
+    private static final class PendingMessage {
+        private final Long id;
+        private final Long conversationId;
+        private final Long senderId;
+        private final UserRoleEnum senderRole;
+        private final String content;
+        private final Long mediaId;
+        private final String clientMessageId;
+        private final LocalDateTime createdAt;
+        private int attempts;
+
+        private PendingMessage(Long id, Long conversationId, Long senderId, UserRoleEnum senderRole, String content,
+                Long mediaId, String clientMessageId, LocalDateTime createdAt) {
+            this.id = id;
+            this.conversationId = conversationId;
+            this.senderId = senderId;
+            this.senderRole = senderRole;
+            this.content = content;
+            this.mediaId = mediaId;
+            this.clientMessageId = clientMessageId;
+            this.createdAt = createdAt;
+        }
+    }
+
+    private record RecentMessage(MessageDto message, long acceptedAt) {
+    }
+}
@@ -0,0 +1,264 @@
+package com.sallahli.service;
+
+import com.sallahli.dto.chat.ParticipantCardDto;
+import com.sallahli.dto.chat.ParticipantProfileView;
+import com.sallahli.exceptions.AccessDeniedException;
+import com.sallahli.model.Admin;
+import com.sallahli.model.Client;
+import com.sallahli.model.Enum.UserRoleEnum;
+import com.sallahli.repository.AdminRepository;
+import com.sallahli.repository.ClientRepository;
+import com.sallahli.repository.ProRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Resolves chat participants (clients, pros, admins) to compact cards.
+ * <p>
+ * Cards are kept in an LRU; misses for a whole page are loaded with one {@code IN} query
+ * per participant type, so rendering a page costs at most three lookups. Entries are
+ * evicted when the underlying profile changes (see {@link ParticipantProfileListener}).
+ */
+@Service
+@Slf4j
+public class ParticipantDirectoryService {
+
+    public enum ParticipantType {
+        CLIENT, PRO, ADMIN;
+
+        public static ParticipantType fromRole(UserRoleEnum role) {
+            return switch (role) {
+                case CLIENT -> CLIENT;
+                case PRO, DRIVER -> PRO;
+                default -> ADMIN;
+            };
+        }
+    }
+
+    public record ParticipantKey(ParticipantType type, Long id) {
+
+        public static ParticipantKey of(UserRoleEnum role, Long id) {
+            return new ParticipantKey(ParticipantType.fromRole(role), id);
+        }
+    }
+
+    private final ClientRepository clientRepository;
+    private final ProRepository proRepository;
+    private final AdminRepository adminRepository;
+
+    private final Map<ParticipantKey, ParticipantCardDto> cards;
+    private final Map<ParticipantType, Map<String, Long>> idsByUsername = new EnumMap<>(ParticipantType.class);
+
+    public ParticipantDirectoryService(ClientRepository clientRepository,
+            ProRepository proRepository,
+            AdminRepository adminRepository,
+            @Value("${chat.directory.cache-size:5000}") int cacheSize) {
+        this.clientRepository = clientRepository;
+        this.proRepository = proRepository;
+        this.adminRepository = adminRepository;
+        this.cards = new LinkedHashMap<>(Math.min(cacheSize, 1024), 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<ParticipantKey, ParticipantCardDto> eldest) {
+                return size() > cacheSize;
+            }
+        };
+        for (ParticipantType type : ParticipantType.values()) {
+            idsByUsername.put(type, new ConcurrentHashMap<>());
+        }
+    }
+
+    // ========================================================================
+    // Cards
+    // ========================================================================
+
+    /**
+     * Cards for the given participants; unknown ids are left out of the result.
+     */
+    public Map<ParticipantKey, ParticipantCardDto> resolve(Collection<ParticipantKey> keys) {
+        Map<ParticipantKey, ParticipantCardDto> resolved = new HashMap<>();
+        Map<ParticipantType, List<Long>> missing = new EnumMap<>(ParticipantType.class);
+
+        synchronized (cards) {
+            for (ParticipantKey key : keys) {
+                if (key == null || key.id() == null || resolved.containsKey(key)) {
+                    continue;
+                }
+                ParticipantCardDto card = cards.get(key);
+                if (card != null) {
+                    resolved.put(key, card);
+                } else {
+                    missing.computeIfAbsent(key.type(), type -> new ArrayList<>()).add(key.id());
+                }
+            }
+        }
+
+        missing.forEach((type, ids) -> {
+            List<ParticipantCardDto> loaded = load(type, ids.stream().distinct().toList()).stream()
+                    .map(view -> toCard(type, view))
+                    .toList();
+            synchronized (cards) {
+                loaded.forEach(card -> cards.put(new ParticipantKey(type, card.getUserId()), card));
+            }
+            loaded.forEach(card -> resolved.put(new ParticipantKey(type, card.getUserId()), card));
+        });
+        return resolved;
+    }
+
+    public Optional<ParticipantCardDto> resolve(UserRoleEnum role, Long id) {
+        ParticipantKey key = ParticipantKey.of(role, id);
+        return Optional.ofNullable(resolve(List.of(key)).get(key));
+    }
+
+    /**
+     * Drops a cached card, again once the current transaction commits so a concurrent
+     * reader cannot put the pre-update profile back.
+     */
+    public void evict(ParticipantType type, Long id) {
+        ParticipantKey key = new ParticipantKey(type, id);
+        synchronized (cards) {
+            cards.remove(key);
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    synchronized (cards) {
+                        cards.remove(key);
+                    }
+                }
+            });
+        }
+    }
+
+    private List<ParticipantProfileView> load(ParticipantType type, List<Long> ids) {
+        return switch (type) {
+            case CLIENT -> clientRepository.findParticipantProfiles(ids);
+            case PRO -> proRepository.findParticipantProfiles(ids);
+            case ADMIN -> adminRepository.findParticipantProfiles(ids);
+        };
+    }
+
+    private static ParticipantCardDto toCard(ParticipantType type, ParticipantProfileView view) {
+        return ParticipantCardDto.builder()
+                .userId(view.getId())
+                .type(type)
+                .firstName(view.getFirstName())
+                .lastName(view.getLastName())
+                .username(view.getUsername())
+                .avatarUrl(view.getAvatarUrl())
+                .build();
+    }
+
+    // ========================================================================
+    // Connected user
+    // ========================================================================
+
+    /**
+     * Chat role of the authenticated user, taken from their realm roles. The requested role
+     * (from the calling app) only picks among the roles the token carries; without one the
+     * user must hold exactly one chat role. Pros chat as {@link UserRoleEnum#DRIVER}.
+     */
+    public UserRoleEnum currentRole(UserRoleEnum requested) {
+        Set<UserRoleEnum> held = currentRoles();
+        if (requested != null) {
+            if (!held.contains(requested)) {
+                throw new AccessDeniedException("Not allowed to act as " + requested.name().toLowerCase());
+            }
+            return requested;
+        }
+        if (held.size() != 1) {
+            throw new AccessDeniedException(held.isEmpty()
+                    ? "No chat role for the authenticated user"
+                    : "The app is required for users with several chat roles");
+        }
+        return held.iterator().next();
+    }
+
+    /**
+     * Every chat role the authenticated user holds: admins and support agents all chat as
+     * {@link UserRoleEnum#CUSTOMER_SUPPORT_AGENT}.
+     */
+    public Set<UserRoleEnum> currentRoles() {
+        Set<String> authorities = currentAuthorities();
+        Set<UserRoleEnum> held = EnumSet.noneOf(UserRoleEnum.class);
+        if (authorities.contains("ROLE_CLIENT")) {
+            held.add(UserRoleEnum.CLIENT);
+        }
+        if (authorities.contains("ROLE_PRO")) {
+            held.add(UserRoleEnum.DRIVER);
+        }
+        if (authorities.contains("ROLE_ADMIN") || authorities.contains("ROLE_SUPER_ADMIN")
+                || authorities.contains("ROLE_CUSTOMER_SUPPORT_AGENT")) {
+            held.add(UserRoleEnum.CUSTOMER_SUPPORT_AGENT);
+        }
+        return held;
+    }
+
+    /**
+     * Whether the authenticated user is an admin, who sees every conversation.
+     */
+    public boolean currentUserIsAdmin() {
+        Set<String> authorities = currentAuthorities();
+        return authorities.contains("ROLE_ADMIN") || authorities.contains("ROLE_SUPER_ADMIN");
+    }
+
+    private static Set<String> currentAuthorities() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null) {
+            throw new AccessDeniedException("No authenticated user");
+        }
+        return authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.toSet());
+    }
+
+    /**
+     * Id of the authenticated user in the table matching the role. Pros authenticate
+     * with their phone number, clients with their username or phone number.
+     */
+    public Long currentUserId(UserRoleEnum role) {
+        return userId(SecurityContextHolder.getContext().getAuthentication(), role);
+    }
+
+    /**
+     * Same as {@link #currentUserId} for an authentication that is not the current one,
+     * such as the principal of a STOMP frame.
+     */
+    public Long userId(Authentication authentication, UserRoleEnum role) {
+        if (authentication == null || authentication.getName() == null) {
+            throw new AccessDeniedException("No authenticated user");
+        }
+        String username = authentication.getName();
+        ParticipantType type = ParticipantType.fromRole(role);
+
+        Long id = idsByUsername.get(type).get(username);
+        if (id == null) {
+            id = (switch (type) {
+                case CLIENT -> clientRepository.findByUsernameOrTel(username, username).map(Client::getId);
+                case PRO -> proRepository.findIdByTel(username);
+                case ADMIN -> adminRepository.findByUsername(username).map(Admin::getId);
+            }).orElseThrow(() -> new AccessDeniedException("No " + type.name().toLowerCase() + " account for " + username));
+            idsByUsername.get(type).put(username, id);
+        }
+        return id;
+    }
+}
@@ -0,0 +1,60 @@
+package com.sallahli.service;
+
+import com.sallahli.model.Admin;
+import com.sallahli.model.Client;
+import com.sallahli.model.Pro;
+import com.sallahli.service.ParticipantDirectoryService.ParticipantType;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+/**
+ * JPA listener on client, pro and admin entities evicting their chat participant card
+ * whenever the row is updated or deleted, whichever service made the change. For pros it
+ * also drops the presence resolution of their tel, so a new or reactivated pro is picked
+ * up on their next session.
+ */
+@Component
+public class ParticipantProfileListener {
+
+    private ParticipantDirectoryService participantDirectoryService;
+    private ProPresenceService proPresenceService;
+
+    @Autowired
+    public void setParticipantDirectoryService(@Lazy ParticipantDirectoryService participantDirectoryService) {
+        this.participantDirectoryService = participantDirectoryService;
+    }
+
+    @Autowired
+    public void setProPresenceService(@Lazy ProPresenceService proPresenceService) {
+        this.proPresenceService = proPresenceService;
+    }
+
+    @PostPersist
+    public void onProfileCreated(Object entity) {
+        if (entity instanceof Pro pro && proPresenceService != null) {
+            proPresenceService.evictResolution(pro.getTel());
+        }
+    }
+
+    @PostUpdate
+    @PostRemove
+    public void onProfileChange(Object entity) {
+        if (participantDirectoryService == null) {
+            return;
+        }
+        if (entity instanceof Client client) {
+            participantDirectoryService.evict(ParticipantType.CLIENT, client.getId());
+        } else if (entity instanceof Pro pro) {
+            participantDirectoryService.evict(ParticipantType.PRO, pro.getId());
+            if (proPresenceService != null) {
+                proPresenceService.evictResolution(pro.getTel());
+            }
+        } else if (entity instanceof Admin admin) {
+            participantDirectoryService.evict(ParticipantType.ADMIN, admin.getId());
+        }
+    }
+}
@@ -0,0 +1,277 @@
+package com.sallahli.service;
+
+import com.sallahli.repository.ProRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.messaging.SessionConnectedEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory presence of pros, driven by their STOMP sessions on "/ws".
+ * <p>
+ * A pro is online when they asked to be available and either hold a live session
+ * (seen within the heartbeat timeout) or lost their last session less than the grace
+ * period ago. The choice is written to {@code pro.available} as it is made and reloaded at
+ * startup; only online/offline transitions are written to {@code pro.online}, in batches.
+ * <p>
+ * Sessions are only known to the instance holding them, so the backend runs as a single
+ * instance (one replica, recreated rather than rolled on deploy).
+ * Sessions count only for active, non-archived pros; a user that is not one is re-checked
+ * after {@code presence.negative-cache-seconds}, or as soon as a pro is saved with their tel.
+ */
+@Service
+@Slf4j
+public class ProPresenceService {
+
+    private static final int FLUSH_BATCH_SIZE = 500;
+
+    private final ProRepository proRepository;
+    private final long disconnectGraceMillis;
+    private final long heartbeatTimeoutMillis;
+    private final long negativeCacheMillis;
+
+    private final Map<Long, Presence> presences = new ConcurrentHashMap<>();
+    private final Map<String, Long> proIdBySession = new ConcurrentHashMap<>();
+    private final Map<String, Resolution> resolutionsByUsername = new ConcurrentHashMap<>();
+    private final Map<Long, Boolean> pendingTransitions = new ConcurrentHashMap<>();
+
+    public ProPresenceService(ProRepository proRepository,
+            @Value("${presence.disconnect-grace-seconds:30}") long disconnectGraceSeconds,
+            @Value("${presence.heartbeat-timeout-seconds:60}") long heartbeatTimeoutSeconds,
+            @Value("${presence.negative-cache-seconds:60}") long negativeCacheSeconds) {
+        this.proRepository = proRepository;
+        this.disconnectGraceMillis = disconnectGraceSeconds * 1000;
+        this.heartbeatTimeoutMillis = heartbeatTimeoutSeconds * 1000;
+        this.negativeCacheMillis = negativeCacheSeconds * 1000;
+    }
+
+    // ========================================================================
+    // Availability intent (app toggle)
+    // ========================================================================
+
+    public void setAvailable(Long proId, boolean available) {
+        proRepository.updateAvailable(proId, available);
+        Presence presence = presences.computeIfAbsent(proId, id -> new Presence(false));
+        synchronized (presence) {
+            presence.available = available;
+            presence.touch(System.currentTimeMillis());
+        }
+        evaluate(proId, presence, System.currentTimeMillis());
+    }
+
+    public boolean isOnline(Long proId) {
+        Presence presence = presences.get(proId);
+        return presence != null && presence.isOnline(System.currentTimeMillis(), disconnectGraceMillis,
+                heartbeatTimeoutMillis);
+    }
+
+    public Set<Long> getOnlineProIds() {
+        long now = System.currentTimeMillis();
+        Set<Long> online = new HashSet<>();
+        presences.forEach((proId, presence) -> {
+            if (presence.isOnline(now, disconnectGraceMillis, heartbeatTimeoutMillis)) {
+                online.add(proId);
+            }
+        });
+        return online;
+    }
+
+    // ========================================================================
+    // STOMP session lifecycle
+    // ========================================================================
+
+    @EventListener
+    public void onSessionConnected(SessionConnectedEvent event) {
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(event.getMessage().getHeaders());
+        Long proId = resolveProId(event.getUser());
+        if (sessionId == null || proId == null) {
+            return;
+        }
+
+        proIdBySession.put(sessionId, proId);
+        Presence presence = presences.computeIfAbsent(proId, id -> new Presence(false));
+        synchronized (presence) {
+            presence.sessionIds.add(sessionId);
+            presence.touch(System.currentTimeMillis());
+        }
+        log.debug("Pro {} connected with session {}", proId, sessionId);
+    }
+
+    @EventListener
+    public void onSessionDisconnect(SessionDisconnectEvent event) {
+        Long proId = proIdBySession.remove(event.getSessionId());
+        if (proId == null) {
+            return;
+        }
+
+        Presence presence = presences.get(proId);
+        if (presence != null) {
+            synchronized (presence) {
+                presence.sessionIds.remove(event.getSessionId());
+                if (presence.sessionIds.isEmpty()) {
+                    presence.disconnectedAt = System.currentTimeMillis();
+                }
+            }
+        }
+        log.debug("Pro {} disconnected session {}", proId, event.getSessionId());
+    }
+
+    /**
+     * Records activity on a session; called for every inbound frame, heartbeats included.
+     */
+    public void touchSession(String sessionId) {
+        if (sessionId == null) {
+            return;
+        }
+        Long proId = proIdBySession.get(sessionId);
+        if (proId == null) {
+            return;
+        }
+        Presence presence = presences.get(proId);
+        if (presence != null) {
+            synchronized (presence) {
+                presence.lastSeen = System.currentTimeMillis();
+            }
+        }
+    }
+
+    // ========================================================================
+    // Startup & persistence of transitions
+    // ========================================================================
+
+    /**
+     * Pros available before a restart keep their availability but must reconnect within
+     * the grace period, otherwise the next sweep marks them offline.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void restoreFromDatabase() {
+        long now = System.currentTimeMillis();
+        for (Long proId : proRepository.findAvailableProIds()) {
+            Presence presence = presences.computeIfAbsent(proId, id -> new Presence(true));
+            synchronized (presence) {
+                presence.available = true;
+                presence.touch(now);
+            }
+        }
+        log.info("Restored presence for {} available pros", presences.size());
+    }
+
+    @Scheduled(fixedDelayString = "${presence.sweep-interval-ms:5000}")
+    public void sweep() {
+        long now = System.currentTimeMillis();
+        presences.forEach((proId, presence) -> evaluate(proId, presence, now));
+        flushTransitions();
+    }
+
+    private void evaluate(Long proId, Presence presence, long now) {
+        synchronized (presence) {
+            boolean online = presence.isOnline(now, disconnectGraceMillis, heartbeatTimeoutMillis);
+            if (online != presence.persistedOnline) {
+                presence.persistedOnline = online;
+                pendingTransitions.put(proId, online);
+            }
+        }
+    }
+
+    private void flushTransitions() {
+        if (pendingTransitions.isEmpty()) {
+            return;
+        }
+
+        Map<Boolean, List<Long>> idsByState = new HashMap<>();
+        for (Long proId : new ArrayList<>(pendingTransitions.keySet())) {
+            Boolean online = pendingTransitions.remove(proId);
+            if (online != null) {
+                idsByState.computeIfAbsent(online, state -> new ArrayList<>()).add(proId);
+            }
+        }
+
+        idsByState.forEach((online, proIds) -> {
+            for (int from = 0; from < proIds.size(); from += FLUSH_BATCH_SIZE) {
+                List<Long> batch = proIds.subList(from, Math.min(from + FLUSH_BATCH_SIZE, proIds.size()));
+                try {
+                    proRepository.updateOnlineStatus(batch, online);
+                } catch (Exception e) {
+                    log.warn("Unable to persist presence of {} pros, will retry: {}", batch.size(), e.getMessage());
+                    batch.forEach(proId -> pendingTransitions.putIfAbsent(proId, online));
+                }
+            }
+            log.debug("Persisted {} pros as {}", proIds.size(), online ? "online" : "offline");
+        });
+    }
+
+    /**
+     * Forgets how a username resolved, e.g. once a pro is created or changes status with
+     * that tel; the next session resolves it again.
+     */
+    public void evictResolution(String username) {
+        if (username != null) {
+            resolutionsByUsername.remove(username);
+        }
+    }
+
+    private Long resolveProId(Principal user) {
+        if (user == null || user.getName() == null) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        Resolution resolution = resolutionsByUsername.compute(user.getName(), (username, cached) ->
+                cached != null && cached.isValid(now)
+                        ? cached
+                        : new Resolution(proRepository.findPresenceCandidateIdByTel(username).orElse(null),
+                                now + negativeCacheMillis));
+        return resolution.proId();
+    }
+
+    /**
+     * Pro id of a username; a miss (no active pro) is only trusted until {@code expiresAt}.
+     */
+    private record Resolution(Long proId, long expiresAt) {
+        private boolean isValid(long now) {
+            return proId != null || now < expiresAt;
+        }
+    }
+
+    private static final class Presence {
+        private final Set<String> sessionIds = new HashSet<>();
+        private boolean available;
+        private boolean persistedOnline;
+        private long lastSeen;
+        private long disconnectedAt;
+
+        private Presence(boolean persistedOnline) {
+            this.persistedOnline = persistedOnline;
+        }
+
+        private void touch(long now) {
+            lastSeen = now;
+            if (sessionIds.isEmpty()) {
+                disconnectedAt = now;
+            }
+        }
+
+        private synchronized boolean isOnline(long now, long graceMillis, long heartbeatTimeoutMillis) {
+            if (!available) {
+                return false;
+            }
+            if (!sessionIds.isEmpty()) {
+                return now - lastSeen <= heartbeatTimeoutMillis;
+            }
+            return now - disconnectedAt <= graceMillis;
+        }
+    }
+}
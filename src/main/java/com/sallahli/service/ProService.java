@@ -1,6 +1,8 @@
 package com.sallahli.service;
 
 import com.sallahli.dto.sallahli.ProDTO;
+import com.sallahli.dto.sallahli.ProLocationDTO;
+import com.sallahli.exceptions.AccessDeniedException;
 import com.sallahli.exceptions.BadRequestException;
 import com.sallahli.exceptions.NotFoundException;
 import com.sallahli.mapper.ProMapper;
@@ -16,11 +18,15 @@ import com.sallahli.repository.MediaRepository;
 import com.sallahli.repository.ProRepository;
 import com.sallahli.repository.ZoneRepository;
 import com.sallahli.service.crud.AbstractCrudService;
+import com.sallahli.utils.FuzzySearchUtils;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.sallahli.dto.sallahli.CategoryDTO;
+import javax.json.JsonPatch;
 import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.List;
@@ -36,29 +42,35 @@ public class ProService extends AbstractCrudService<Pro, ProDTO> {
     private final ZoneRepository zoneRepository;
     private final MediaRepository mediaRepository;
     private final AdminRepository adminRepository;
+    private final ProPresenceService proPresenceService;
+    private final WebSocketService webSocketService;
 
     public ProService(ProRepository proRepository,
             ProMapper proMapper,
             CategoryRepository categoryRepository,
             ZoneRepository zoneRepository,
             MediaRepository mediaRepository,
-            AdminRepository adminRepository) {
+            AdminRepository adminRepository,
+            ProPresenceService proPresenceService,
+            WebSocketService webSocketService) {
         super(proRepository, proMapper);
         this.proRepository = proRepository;
         this.categoryRepository = categoryRepository;
         this.zoneRepository = zoneRepository;
         this.mediaRepository = mediaRepository;
         this.adminRepository = adminRepository;
+        this.proPresenceService = proPresenceService;
+        this.webSocketService = webSocketService;
     }
 
     // ========================================================================
     // Core CRUD overrides
     // ========================================================================
 
+    // ProDTO mirrors Pro by property name, so listings and searches select its columns only
     @Override
-    @Transactional(readOnly = true)
-    public List<ProDTO> findAll() {
-        return getMapper().toDtos(proRepository.findAll());
+    protected boolean readsProjections() {
+        return true;
     }
 
     @Override
@@ -69,6 +81,22 @@ public class ProService extends AbstractCrudService<Pro, ProDTO> {
         return getMapper().toDto(pro);
     }
 
+    /**
+     * A pro can only patch their own profile; admins can patch any.
+     */
+    @Override
+    @Transactional
+    public ProDTO patch(Long id, JsonPatch patch, Long expectedVersion) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        boolean isAdmin = authentication != null && authentication.getAuthorities().stream()
+                .anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"));
+        if (!isAdmin && (authentication == null
+                || !proRepository.findIdByTel(authentication.getName()).map(id::equals).orElse(false))) {
+            throw new AccessDeniedException("You can only update your own profile");
+        }
+        return super.patch(id, patch, expectedVersion);
+    }
+
     // ========================================================================
     // Pro Registration & Profile
     // ========================================================================
@@ -124,8 +152,13 @@ public class ProService extends AbstractCrudService<Pro, ProDTO> {
     // ========================================================================
 
     @Transactional(readOnly = true)
-    public List<ProDTO> searchPros(String query) {
-        List<Pro> pros = proRepository.searchByNameOrTel(query);
+    public List<ProDTO> searchPros(String query, Integer limit) {
+        String term = FuzzySearchUtils.term(query);
+        if (term == null) {
+            return List.of();
+        }
+        List<Pro> pros = proRepository.searchByNameOrTel(term, FuzzySearchUtils.phoneDigits(term),
+                FuzzySearchUtils.limit(limit));
         return getMapper().toDtos(pros);
     }
 
@@ -241,13 +274,19 @@ public class ProService extends AbstractCrudService<Pro, ProDTO> {
 
     @Transactional
     public ProDTO updateLocation(Long proId, Double latitude, Double longitude) {
-        Pro pro = findProById(proId);
-
-        pro.setCurrentLatitude(latitude);
-        pro.setCurrentLongitude(longitude);
-        pro.setLocationUpdatedAt(LocalDateTime.now());
-
-        Pro saved = proRepository.save(pro);
+        // Frequent write racing profile edits: a plain UPDATE that leaves the version alone
+        LocalDateTime updatedAt = LocalDateTime.now();
+        if (proRepository.updateLocation(proId, latitude, longitude, updatedAt) == 0) {
+            throw new NotFoundException("Pro not found with id: " + proId);
+        }
+        Pro saved = findProById(proId);
+        ProLocationDTO location = ProLocationDTO.builder()
+                .proId(proId)
+                .latitude(latitude)
+                .longitude(longitude)
+                .updatedAt(updatedAt)
+                .build();
+        webSocketService.afterCommit(() -> webSocketService.sendLocationUpdate(location));
         log.debug("Pro {} updated location to ({}, {})", proId, latitude, longitude);
         return getMapper().toDto(saved);
     }
@@ -361,12 +400,14 @@ public class ProService extends AbstractCrudService<Pro, ProDTO> {
             throw new BadRequestException("Pro account is not active");
         }
 
-        pro.setOnline(online);
-        Pro saved = proRepository.save(pro);
+        // Presence stores the choice and owns the online flag, persisted on transitions only
+        proPresenceService.setAvailable(proId, online);
 
         log.info("Pro {} is now {}", proId, online ? "online" : "offline");
 
-        return getMapper().toDto(saved);
+        ProDTO dto = getMapper().toDto(pro);
+        dto.setOnline(proPresenceService.isOnline(proId));
+        return dto;
     }
 
     @Transactional(readOnly = true)
@@ -405,6 +446,7 @@ public class ProService extends AbstractCrudService<Pro, ProDTO> {
         Pro pro = findProById(proId);
         pro.setIsActive(false);
         pro.setOnline(false); // Also set offline
+        proPresenceService.setAvailable(proId, false);
         Pro saved = proRepository.save(pro);
         log.info("Deactivated pro account {}", proId);
         return getMapper().toDto(saved);
@@ -413,12 +455,17 @@ public class ProService extends AbstractCrudService<Pro, ProDTO> {
     @Override
     @Transactional
     public void delete(Long id) {
-        Pro pro = findProById(id);
+        deleteEntity(findProById(id));
+    }
+
+    @Override
+    protected void deleteEntity(Pro pro) {
         pro.setArchived(true);
         pro.setIsActive(false);
         pro.setOnline(false);
+        proPresenceService.setAvailable(pro.getId(), false);
         proRepository.save(pro);
-        log.info("Archived pro {}", id);
+        log.info("Archived pro {}", pro.getId());
     }
 
     @Transactional(readOnly = true)
@@ -451,7 +498,7 @@ public class ProService extends AbstractCrudService<Pro, ProDTO> {
         if (dto.getIsActive() != null)
             pro.setIsActive(dto.getIsActive());
         if (dto.getOnline() != null)
-            pro.setOnline(dto.getOnline());
+            proPresenceService.setAvailable(proId, dto.getOnline());
 
         if (dto.getCategories() != null) {
             Set<Category> categories = dto.getCategories().stream()
@@ -535,6 +582,12 @@ public class ProService extends AbstractCrudService<Pro, ProDTO> {
 
     }
 
+    // Profile fields only: wallet, rating, KYC, status and thresholds have their own flows
+    @Override
+    protected Set<String> getPatchableProperties() {
+        return Set.of("firstName", "lastName", "fullName", "email", "profilePhoto", "baseZone");
+    }
+
     @Override
     protected void beforePersist(Pro entity, ProDTO dto, boolean isNew) {
         // Set defaults for new pros
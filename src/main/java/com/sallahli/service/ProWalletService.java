@@ -1,5 +1,10 @@
 package com.sallahli.service;
 
+import com.sallahli.dto.WalletTransactionExportDTO;
+import com.sallahli.dto.search.Criteria;
+import com.sallahli.dto.search.CriteriaExporter;
+import com.sallahli.dto.search.ExportFormat;
+import com.sallahli.exceptions.AccessDeniedException;
 import com.sallahli.exceptions.BadRequestException;
 import com.sallahli.exceptions.NotFoundException;
 import com.sallahli.model.Enum.WalletTransactionType;
@@ -9,11 +14,16 @@ import com.sallahli.repository.ProRepository;
 import com.sallahli.repository.ProWalletTransactionRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 
 @Service
@@ -23,6 +33,7 @@ public class ProWalletService {
 
     private final ProRepository proRepository;
     private final ProWalletTransactionRepository walletTransactionRepository;
+    private final CriteriaExporter criteriaExporter;
 
     // ========================================================================
     // Wallet Operations
@@ -36,9 +47,8 @@ public class ProWalletService {
         }
 
         Pro pro = findPro(proId);
-        Long newBalance = pro.getWalletBalance() + amount;
-        pro.setWalletBalance(newBalance);
-        proRepository.save(pro);
+        Long newBalance = addToBalance(proId, amount)
+                .orElseThrow(() -> new BadRequestException("Credit would result in negative balance"));
 
         ProWalletTransaction transaction = createTransaction(
                 pro, WalletTransactionType.CREDIT, amount, reason, referenceType, referenceId, newBalance);
@@ -68,15 +78,9 @@ public class ProWalletService {
         }
 
         Pro pro = findPro(proId);
-
-        if (pro.getWalletBalance() < amount) {
-            throw new BadRequestException("Insufficient wallet balance. Required: " + amount +
-                    ", Available: " + pro.getWalletBalance());
-        }
-
-        Long newBalance = pro.getWalletBalance() - amount;
-        pro.setWalletBalance(newBalance);
-        proRepository.save(pro);
+        Long newBalance = addToBalance(proId, -amount)
+                .orElseThrow(() -> new BadRequestException("Insufficient wallet balance. Required: " + amount +
+                        ", Available: " + getBalance(proId)));
 
         ProWalletTransaction transaction = createTransaction(
                 pro, WalletTransactionType.DEBIT, amount, reason, referenceType, referenceId, newBalance);
@@ -107,9 +111,8 @@ public class ProWalletService {
         }
 
         Pro pro = findPro(proId);
-        Long newBalance = pro.getWalletBalance() + amount;
-        pro.setWalletBalance(newBalance);
-        proRepository.save(pro);
+        Long newBalance = addToBalance(proId, amount)
+                .orElseThrow(() -> new BadRequestException("Refund would result in negative balance"));
 
         ProWalletTransaction transaction = createTransaction(
                 pro, WalletTransactionType.REFUND, amount, reason, referenceType, referenceId, newBalance);
@@ -129,14 +132,8 @@ public class ProWalletService {
     @Transactional
     public ProWalletTransaction adjustment(Long proId, Long amount, String reason) {
         Pro pro = findPro(proId);
-        Long newBalance = pro.getWalletBalance() + amount;
-
-        if (newBalance < 0) {
-            throw new BadRequestException("Adjustment would result in negative balance");
-        }
-
-        pro.setWalletBalance(newBalance);
-        proRepository.save(pro);
+        Long newBalance = addToBalance(proId, amount)
+                .orElseThrow(() -> new BadRequestException("Adjustment would result in negative balance"));
 
         ProWalletTransaction transaction = createTransaction(
                 pro, WalletTransactionType.ADJUSTMENT, Math.abs(amount), reason, "ADMIN", null, newBalance);
@@ -153,15 +150,14 @@ public class ProWalletService {
     
     @Transactional(readOnly = true)
     public Long getBalance(Long proId) {
-        Pro pro = findPro(proId);
-        return pro.getWalletBalance();
+        return proRepository.findWalletBalance(proId)
+                .orElseThrow(() -> new NotFoundException("Pro not found with id: " + proId));
     }
 
     
     @Transactional(readOnly = true)
     public boolean hasSufficientBalance(Long proId, Long requiredAmount) {
-        Pro pro = findPro(proId);
-        return pro.getWalletBalance() >= requiredAmount;
+        return getBalance(proId) >= requiredAmount;
     }
 
     
@@ -170,6 +166,23 @@ public class ProWalletService {
         return walletTransactionRepository.findByProIdOrderByCreatedAtDesc(proId);
     }
 
+    /**
+     * A pro can only export their own transactions; admins can export any pro's.
+     */
+    public StreamingResponseBody exportTransactions(Long proId, Criteria criteria, ExportFormat format) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        boolean isAdmin = authentication != null && authentication.getAuthorities().stream()
+                .anyMatch(a -> a.getAuthority().equals("ROLE_ADMIN"));
+        if (!isAdmin && (authentication == null
+                || !proRepository.findIdByTel(authentication.getName()).map(proId::equals).orElse(false))) {
+            throw new AccessDeniedException("You can only export your own transactions");
+        }
+        findPro(proId);
+        Specification<ProWalletTransaction> ofPro = (root, query, cb) -> cb.equal(root.get("pro").get("id"), proId);
+        return criteriaExporter.export(ProWalletTransaction.class, criteria, ofPro, List.of(),
+                WalletTransactionExportDTO.class, chunk -> chunk.stream().map(this::toExportRow).toList(), format);
+    }
+
     
     @Transactional(readOnly = true)
     public List<ProWalletTransaction> getTransactionsInDateRange(Long proId, LocalDateTime startDate,
@@ -195,6 +208,33 @@ public class ProWalletService {
     // Helper methods
     // ========================================================================
 
+    // The pro is referenced by id only, it is never loaded
+    private WalletTransactionExportDTO toExportRow(ProWalletTransaction transaction) {
+        return WalletTransactionExportDTO.builder()
+                .id(transaction.getId())
+                .proId(transaction.getPro().getId())
+                .type(transaction.getType())
+                .amount(transaction.getAmount())
+                .reason(transaction.getReason())
+                .referenceType(transaction.getReferenceType())
+                .referenceId(transaction.getReferenceId())
+                .balanceAfter(transaction.getBalanceAfter())
+                .createdAt(transaction.getCreatedAt())
+                .build();
+    }
+
+    /**
+     * Moves the balance in a single conditional UPDATE, so concurrent operations neither
+     * overwrite each other nor overdraw the wallet, and do not bump the pro version. Empty
+     * when the balance would go negative. The loaded Pro is left untouched.
+     */
+    private Optional<Long> addToBalance(Long proId, Long amount) {
+        if (proRepository.addToWalletBalance(proId, amount) == 0) {
+            return Optional.empty();
+        }
+        return proRepository.findWalletBalance(proId);
+    }
+
     private Pro findPro(Long proId) {
         return proRepository.findById(proId)
                 .orElseThrow(() -> new NotFoundException("Pro not found with id: " + proId));
@@ -0,0 +1,297 @@
+package com.sallahli.service;
+
+import com.sallahli.dto.chat.SupportQueueEntryDto;
+import com.sallahli.dto.chat.SupportQueueEventDto;
+import com.sallahli.model.Admin;
+import com.sallahli.model.Conversation;
+import com.sallahli.model.Enum.AdminRole;
+import com.sallahli.model.Enum.UserRoleEnum;
+import com.sallahli.model.SupportQueueEntry;
+import com.sallahli.repository.AdminRepository;
+import com.sallahli.repository.ConversationParticipantRepository;
+import com.sallahli.repository.SupportQueueEntryRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Queue of open conversations no support agent has joined yet.
+ * <p>
+ * The queue lives in memory, ordered by priority, and is mirrored in the
+ * {@code support_queue_entry} table so it survives restarts. Priority is the waiting time
+ * plus a bonus per unread customer message, expressed as a fixed score (waiting since,
+ * minus the bonus) so the order only changes when an entry does. Every change is applied
+ * after the transaction commits and pushed on {@link #TOPIC}, which only staff may
+ * subscribe to (see {@link com.sallahli.websocket.UserTopicAccessInterceptor}).
+ * <p>
+ * Per-agent load (open conversations they participate in) is kept alongside, for
+ * least-loaded assignment.
+ */
+@Service
+@Slf4j
+public class SupportQueueService {
+
+    public static final String TOPIC = "/topic/support/queue";
+
+    // Participant roles that take a conversation out of the queue
+    public static final List<UserRoleEnum> SUPPORT_ROLES = List.of(
+            UserRoleEnum.ADMIN,
+            UserRoleEnum.CUSTOMER_SUPPORT_AGENT,
+            UserRoleEnum.ADMIN_PARTNER_MANAGER);
+
+    private static final Set<AdminRole> ASSIGNABLE_ADMIN_ROLES = Set.of(
+            AdminRole.CUSTOMER_SUPPORT_AGENT,
+            AdminRole.AGENT);
+
+    private final SupportQueueEntryRepository entryRepository;
+    private final ConversationParticipantRepository participantRepository;
+    private final AdminRepository adminRepository;
+    private final WebSocketService webSocketService;
+    private final long unreadWeightSeconds;
+    private final int maxOpenPerAgent;
+
+    // Guarded by this
+    private final Map<Long, SupportQueueEntryDto> entries = new HashMap<>();
+    private final TreeSet<SupportQueueEntryDto> ordered = new TreeSet<>(
+            Comparator.comparingLong(this::score).thenComparing(SupportQueueEntryDto::getConversationId));
+    private final Map<Long, Integer> agentLoads = new HashMap<>();
+
+    public SupportQueueService(SupportQueueEntryRepository entryRepository,
+            ConversationParticipantRepository participantRepository,
+            AdminRepository adminRepository,
+            WebSocketService webSocketService,
+            @Value("${support.queue.unread-weight-seconds:120}") long unreadWeightSeconds,
+            @Value("${support.queue.max-open-per-agent:20}") int maxOpenPerAgent) {
+        this.entryRepository = entryRepository;
+        this.participantRepository = participantRepository;
+        this.adminRepository = adminRepository;
+        this.webSocketService = webSocketService;
+        this.unreadWeightSeconds = unreadWeightSeconds;
+        this.maxOpenPerAgent = maxOpenPerAgent;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public synchronized void load() {
+        entries.clear();
+        ordered.clear();
+        agentLoads.clear();
+        for (SupportQueueEntry entry : entryRepository.findAll()) {
+            put(toDto(entry));
+        }
+        for (Object[] row : participantRepository.countOpenConversationsByUser(SUPPORT_ROLES)) {
+            agentLoads.put((Long) row[0], ((Long) row[1]).intValue());
+        }
+        log.info("Support queue loaded: {} waiting conversations, {} agents with open conversations",
+                entries.size(), agentLoads.size());
+    }
+
+    // ==================== Queue changes ====================
+
+    @Transactional
+    public void enqueue(Conversation conversation) {
+        LocalDateTime now = LocalDateTime.now();
+        SupportQueueEntry entry = entryRepository.save(SupportQueueEntry.builder()
+                .conversationId(conversation.getId())
+                .conversationType(conversation.getType())
+                .waitingSince(conversation.getCreatedAt() != null ? conversation.getCreatedAt() : now)
+                .build());
+        SupportQueueEntryDto dto = toDto(entry);
+
+        webSocketService.afterCommit(() -> {
+            int size;
+            synchronized (this) {
+                put(dto);
+                size = entries.size();
+            }
+            push(SupportQueueEventDto.EVENT_ENQUEUED, dto.getConversationId(), dto, null, size);
+        });
+    }
+
+    /**
+     * Counts a customer message on a waiting conversation; no-op once an agent took it.
+     */
+    @Transactional
+    public void recordCustomerMessage(Long conversationId, LocalDateTime sentAt) {
+        if (!isQueued(conversationId) || entryRepository.recordCustomerMessage(conversationId, sentAt) == 0) {
+            return;
+        }
+
+        webSocketService.afterCommit(() -> {
+            SupportQueueEntryDto updated;
+            int size;
+            synchronized (this) {
+                SupportQueueEntryDto current = entries.get(conversationId);
+                if (current == null) {
+                    return;
+                }
+                updated = current.toBuilder()
+                        .unreadCount(current.getUnreadCount() + 1)
+                        .lastMessageAt(sentAt)
+                        .build();
+                put(updated);
+                size = entries.size();
+            }
+            push(SupportQueueEventDto.EVENT_UPDATED, conversationId, updated, null, size);
+        });
+    }
+
+    /**
+     * An agent joined or was assigned the conversation: it leaves the queue and counts
+     * towards the agent's load, while agents it was taken from are released.
+     */
+    @Transactional
+    public void assigned(Long conversationId, Long agentId, Collection<Long> releasedAgentIds) {
+        entryRepository.removeEntry(conversationId);
+
+        webSocketService.afterCommit(() -> {
+            boolean removed;
+            int size;
+            synchronized (this) {
+                removed = remove(conversationId);
+                releasedAgentIds.forEach(this::release);
+                agentLoads.merge(agentId, 1, Integer::sum);
+                size = entries.size();
+            }
+            if (removed) {
+                push(SupportQueueEventDto.EVENT_REMOVED, conversationId, null, agentId, size);
+            }
+        });
+    }
+
+    @Transactional
+    public void closed(Long conversationId, Collection<Long> agentIds) {
+        entryRepository.removeEntry(conversationId);
+
+        webSocketService.afterCommit(() -> {
+            boolean removed;
+            int size;
+            synchronized (this) {
+                removed = remove(conversationId);
+                agentIds.forEach(this::release);
+                size = entries.size();
+            }
+            if (removed) {
+                push(SupportQueueEventDto.EVENT_REMOVED, conversationId, null, null, size);
+            }
+        });
+    }
+
+    // ==================== Reads ====================
+
+    public synchronized boolean isQueued(Long conversationId) {
+        return entries.containsKey(conversationId);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * Waiting conversations, highest priority first.
+     */
+    public synchronized List<SupportQueueEntryDto> snapshot(int limit) {
+        List<SupportQueueEntryDto> snapshot = new ArrayList<>(Math.min(limit, entries.size()));
+        for (SupportQueueEntryDto entry : ordered) {
+            if (snapshot.size() >= limit) {
+                break;
+            }
+            snapshot.add(entry);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Claims the highest priority waiting conversation for the current transaction. Its
+     * queue row is locked (SKIP LOCKED), so concurrent claims, on this instance or another,
+     * each get a different conversation; {@link #assigned} then removes it on commit.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Optional<Long> claimNext() {
+        return entryRepository.lockNextEntry(unreadWeightSeconds);
+    }
+
+    /**
+     * Active support admin with the fewest open conversations, below the per-agent cap.
+     */
+    public Optional<Long> leastLoadedAgent() {
+        List<Long> candidates = adminRepository.findByIsActiveTrue().stream()
+                .filter(admin -> ASSIGNABLE_ADMIN_ROLES.contains(admin.getRole()))
+                .map(Admin::getId)
+                .toList();
+        synchronized (this) {
+            return candidates.stream()
+                    .filter(id -> agentLoads.getOrDefault(id, 0) < maxOpenPerAgent)
+                    .min(Comparator.<Long>comparingInt(id -> agentLoads.getOrDefault(id, 0))
+                            .thenComparing(Comparator.naturalOrder()));
+        }
+    }
+
+    public synchronized Map<Long, Integer> agentLoads() {
+        return Map.copyOf(agentLoads);
+    }
+
+    // ==================== Helpers ====================
+
+    private void put(SupportQueueEntryDto entry) {
+        SupportQueueEntryDto previous = entries.put(entry.getConversationId(), entry);
+        if (previous != null) {
+            ordered.remove(previous);
+        }
+        ordered.add(entry);
+    }
+
+    private boolean remove(Long conversationId) {
+        SupportQueueEntryDto previous = entries.remove(conversationId);
+        if (previous == null) {
+            return false;
+        }
+        ordered.remove(previous);
+        return true;
+    }
+
+    private void release(Long agentId) {
+        agentLoads.computeIfPresent(agentId, (id, load) -> load > 1 ? load - 1 : null);
+    }
+
+    // Lower is served first: older conversations, pulled forward by unread messages
+    private long score(SupportQueueEntryDto entry) {
+        return entry.getWaitingSince().toEpochSecond(ZoneOffset.UTC) - entry.getUnreadCount() * unreadWeightSeconds;
+    }
+
+    private void push(String event, Long conversationId, SupportQueueEntryDto entry, Long assignedTo, int size) {
+        webSocketService.sendSupportQueueUpdate(SupportQueueEventDto.builder()
+                .event(event)
+                .conversationId(conversationId)
+                .entry(entry)
+                .assignedTo(assignedTo)
+                .queueSize(size)
+                .build());
+    }
+
+    private static SupportQueueEntryDto toDto(SupportQueueEntry entry) {
+        return SupportQueueEntryDto.builder()
+                .conversationId(entry.getConversationId())
+                .conversationType(entry.getConversationType())
+                .waitingSince(entry.getWaitingSince())
+                .unreadCount(entry.getUnreadCount())
+                .lastMessageAt(entry.getLastMessageAt())
+                .build();
+    }
+}
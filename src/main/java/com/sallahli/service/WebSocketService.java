@@ -1,9 +1,19 @@
 package com.sallahli.service;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sallahli.dto.sallahli.ProLocationDTO;
+import com.sallahli.websocket.LiveMapViewportRegistry;
+import com.sallahli.websocket.RealtimeEventBuffer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.MimeTypeUtils;
 
 @Service
 @Slf4j
@@ -11,6 +21,9 @@ import org.springframework.stereotype.Service;
 public class WebSocketService {
 
     private final SimpMessagingTemplate messagingTemplate;
+    private final RealtimeEventBuffer eventBuffer;
+    private final LiveMapViewportRegistry viewportRegistry;
+    private final ObjectMapper objectMapper;
 
     // Topics for different types of real-time updates
     private static final String TOPIC_LEADS = "/topic/leads";
@@ -18,86 +31,163 @@ public class WebSocketService {
     private static final String TOPIC_JOBS = "/topic/jobs";
     private static final String TOPIC_NOTIFICATIONS = "/topic/notifications";
 
-    
+
     public void broadcastLeadOffers(String tradeCode, Object leadOfferData) {
         String topic = TOPIC_LEADS + "/" + tradeCode;
         messagingTemplate.convertAndSend(topic, leadOfferData);
         log.debug("Broadcasted lead offer to trade: {}", tradeCode);
     }
 
-    
+    /**
+     * Pushes an already serialized lead offer frame to the pro's job topic.
+     * The frame is sent as-is, so callers fanning out one request to many pros
+     * only pay for serialization once.
+     */
+    public void sendLeadOfferToPro(Long proId, byte[] leadOfferFrame) {
+        String topic = TOPIC_JOBS + "/pro/" + proId;
+        publishSerialized(topic, leadOfferFrame);
+        log.debug("Sent lead offer to pro: {}", proId);
+    }
+
+
     public void sendRequestUpdateToClient(Long clientId, Object requestUpdate) {
         String topic = TOPIC_REQUESTS + "/client/" + clientId;
-        messagingTemplate.convertAndSend(topic, requestUpdate);
+        publish(topic, requestUpdate);
         log.debug("Sent request update to client: {}", clientId);
     }
 
-    
+
     public void sendJobUpdateToPro(Long proId, Object jobUpdate) {
         String topic = TOPIC_JOBS + "/pro/" + proId;
-        messagingTemplate.convertAndSend(topic, jobUpdate);
+        publish(topic, jobUpdate);
         log.debug("Sent job update to pro: {}", proId);
     }
 
-    
+
     public void sendNotificationToUser(Long userId, String userType, Object notification) {
         String topic = TOPIC_NOTIFICATIONS + "/" + userType.toLowerCase() + "/" + userId;
-        messagingTemplate.convertAndSend(topic, notification);
+        publish(topic, notification);
         log.debug("Sent notification to {}: {}", userType, userId);
     }
 
-    
+
     public void sendWalletUpdateToPro(Long proId, Object walletUpdate) {
         String topic = "/topic/wallet/pro/" + proId;
-        messagingTemplate.convertAndSend(topic, walletUpdate);
+        publish(topic, walletUpdate);
         log.debug("Sent wallet update to pro: {}", proId);
     }
 
-    
+
     public void broadcastAnnouncement(Object announcement) {
         messagingTemplate.convertAndSend("/topic/announcements", announcement);
         log.debug("Broadcasted announcement to all users");
     }
 
-    
-    public void sendLocationUpdate(Long proId, Object locationData) {
-        String topic = "/topic/location/pro/" + proId;
-        messagingTemplate.convertAndSend(topic, locationData);
-        log.debug("Sent location update for pro: {}", proId);
+
+    /**
+     * Publishes a pro position on the pro's own topic and to the live map viewports that
+     * contain it (or contained its previous position).
+     */
+    public void sendLocationUpdate(ProLocationDTO location) {
+        byte[] frame;
+        try {
+            frame = objectMapper.writeValueAsBytes(location);
+        } catch (JsonProcessingException e) {
+            log.warn("Unable to serialize location of pro {}: {}", location.getProId(), e.getMessage());
+            return;
+        }
+        sendSerializedJson("/topic/location/pro/" + location.getProId(), frame);
+        viewportRegistry.route(location.getProId(), location.getLatitude(), location.getLongitude(), frame);
+        log.debug("Sent location update for pro: {}", location.getProId());
     }
 
-    
+
     public void sendChatMessage(Long senderId, Long receiverId, String senderType, String receiverType, Object message) {
         // Send to receiver
         String receiverTopic = "/topic/chat/" + receiverType.toLowerCase() + "/" + receiverId;
-        messagingTemplate.convertAndSend(receiverTopic, message);
+        publish(receiverTopic, message);
 
         // Also send back to sender for confirmation
         String senderTopic = "/topic/chat/" + senderType.toLowerCase() + "/" + senderId;
-        messagingTemplate.convertAndSend(senderTopic, message);
+        publish(senderTopic, message);
 
         log.debug("Sent chat message from {} {} to {} {}", senderType, senderId, receiverType, receiverId);
     }
 
-    
+
     public void sendChatMessageToConversation(Long conversationId, Object message) {
         String conversationTopic = "/topic/conversation/" + conversationId;
-        messagingTemplate.convertAndSend(conversationTopic, message);
+        publish(conversationTopic, message);
         log.debug("Sent chat message to conversation {}", conversationId);
     }
 
-    
+
     public void sendChatNotification(Long userId, String userType, Object notification) {
         String topic = "/topic/notifications/chat/" + userType.toLowerCase() + "/" + userId;
-        messagingTemplate.convertAndSend(topic, notification);
+        publish(topic, notification);
         log.debug("Sent chat notification to {}: {}", userType, userId);
     }
 
-    
+
     public void sendConversationUpdate(Long conversationId, Object update) {
         String topic = "/topic/conversation/" + conversationId + "/updates";
-        messagingTemplate.convertAndSend(topic, update);
+        publish(topic, update);
         log.debug("Sent conversation update to conversation {}", conversationId);
     }
-}
 
+
+    public void sendSupportQueueUpdate(Object update) {
+        publish(SupportQueueService.TOPIC, update);
+        log.debug("Sent support queue update");
+    }
+
+    /**
+     * Serializes and sends a user-scoped event, keeping it in the replay buffer so
+     * reconnecting clients can catch up from their last sequence number.
+     */
+    private void publish(String destination, Object payload) {
+        try {
+            publishSerialized(destination, objectMapper.writeValueAsBytes(payload));
+        } catch (JsonProcessingException e) {
+            log.warn("Unable to serialize realtime event for {}: {}", destination, e.getMessage());
+        }
+    }
+
+    private void publishSerialized(String destination, byte[] json) {
+        long seq = eventBuffer.append(destination, json);
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create();
+        accessor.setNativeHeader(RealtimeEventBuffer.SEQ_HEADER, String.valueOf(seq));
+        accessor.setNativeHeader(RealtimeEventBuffer.EPOCH_HEADER, eventBuffer.getEpoch());
+        sendSerializedJson(destination, json, accessor);
+    }
+
+    /**
+     * Sends a JSON body that was serialized upstream, bypassing the message converters.
+     */
+    public void sendSerializedJson(String destination, byte[] json) {
+        sendSerializedJson(destination, json, SimpMessageHeaderAccessor.create());
+    }
+
+    private void sendSerializedJson(String destination, byte[] json, SimpMessageHeaderAccessor accessor) {
+        accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        accessor.setLeaveMutable(true);
+        messagingTemplate.send(destination, MessageBuilder.createMessage(json, accessor.getMessageHeaders()));
+    }
+
+    /**
+     * Runs the given publication once the current transaction commits, or right away
+     * when no transaction is active, so clients are never told about rolled back rows.
+     */
+    public void afterCommit(Runnable publication) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publication.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                publication.run();
+            }
+        });
+    }
+}
@@ -1,22 +1,61 @@
 package com.sallahli.service.crud;
 
+import com.sallahli.dto.search.Criteria;
+import com.sallahli.dto.search.CriteriaExporter;
+import com.sallahli.dto.search.CriteriaSearchExecutor;
+import com.sallahli.dto.search.CursorPage;
+import com.sallahli.dto.search.ExportFormat;
+import com.sallahli.dto.search.FetchSpecification;
+import com.sallahli.dto.search.KeysetSpecification;
+import com.sallahli.dto.search.PaginatedSearchService;
+import com.sallahli.exceptions.BadRequestException;
 import com.sallahli.exceptions.NotFoundException;
 import com.sallahli.mapper.Mapper;
-import org.springframework.beans.BeanWrapper;
-import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.GenericTypeResolver;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import javax.json.JsonPatch;
 import java.beans.PropertyDescriptor;
-import java.util.Arrays;
-import java.util.HashSet;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
-public abstract class AbstractCrudService<M, D> implements CrudService<D> {
+public abstract class AbstractCrudService<M, D> implements CrudService<D>, PaginatedSearchService<D, M> {
 
     private final org.springframework.data.jpa.repository.JpaRepository<M, Long> repository;
     private final Mapper<M, D> mapper;
+    private CriteriaSearchExecutor criteriaSearchExecutor;
+    private CriteriaExporter criteriaExporter;
+    private EntityPatcher entityPatcher;
+    private Set<String> ignoredProperties;
+
+    @Value("${crud.page.default-size:20}")
+    private int defaultPageSize;
+
+    @Value("${crud.page.max-size:100}")
+    private int maxPageSize;
+
+    @Value("${crud.stream.max-rows:100000}")
+    private int maxStreamRows;
+    private Method dtoIdGetter;
 
     protected AbstractCrudService(org.springframework.data.jpa.repository.JpaRepository<M, Long> repository,
                                   Mapper<M, D> mapper) {
@@ -26,12 +65,166 @@ public abstract class AbstractCrudService<M, D> implements CrudService<D> {
         this.mapper = mapper;
     }
 
+    /**
+     * Every row in one list; endpoints use {@link #findPage} or {@link #streamAll} instead.
+     */
     @Override
     @Transactional(readOnly = true)
     public List<D> findAll() {
         return mapper.toDtos(repository.findAll());
     }
 
+    /**
+     * One page of the listing by id, without a count query. The size defaults to
+     * {@code crud.page.default-size} and is capped at {@code crud.page.max-size}.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<D> findPage(Integer page, Integer size) {
+        int pageNumber = page != null ? page : 0;
+        int pageSize = size != null ? size : defaultPageSize;
+        if (pageNumber < 0 || pageSize < 1) {
+            throw new BadRequestException("Invalid page " + pageNumber + " of size " + pageSize);
+        }
+        Pageable pageable = PageRequest.of(pageNumber, Math.min(pageSize, maxPageSize),
+                Sort.by(KeysetSpecification.ID_ATTRIBUTE));
+        Specification<M> specification = listScope();
+        if (specification == null) {
+            specification = (root, query, criteriaBuilder) -> criteriaBuilder.conjunction();
+        }
+        if (readsProjections()) {
+            List<D> rows = criteriaSearchExecutor.findProjected(getModelClass(), getDtoClass(), specification,
+                    pageable, true);
+            boolean hasNext = rows.size() > pageable.getPageSize();
+            return new SliceImpl<>(hasNext ? rows.subList(0, pageable.getPageSize()) : rows, pageable, hasNext);
+        }
+        if (!fetchPaths().isEmpty()) {
+            specification = new FetchSpecification<M>(fetchPaths()).and(specification);
+        }
+        List<M> rows = criteriaSearchExecutor.findSlice(getModelClass(), specification, pageable);
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        return new SliceImpl<>(mapper.toDtos(hasNext ? rows.subList(0, pageable.getPageSize()) : rows),
+                pageable, hasNext);
+    }
+
+    /**
+     * The whole listing as one JSON array, read and mapped chunk by chunk (see
+     * {@link CriteriaExporter}) and stopped after {@code crud.stream.max-rows} rows. Whether
+     * rows were left out is checked first, so it can go in the response headers.
+     */
+    public StreamedListing streamAll() {
+        Specification<M> scope = listScope();
+        boolean truncated = criteriaSearchExecutor.hasMoreThan(getModelClass(), scope, maxStreamRows);
+        StreamingResponseBody body = readsProjections()
+                ? criteriaExporter.exportProjected(getModelClass(), scope, getDtoClass(), ExportFormat.json,
+                        maxStreamRows)
+                : criteriaExporter.export(getModelClass(), new Criteria(), scope, fetchPaths(), getDtoClass(),
+                        chunk -> mapper.toDtos(chunk), ExportFormat.json, maxStreamRows);
+        return new StreamedListing(body, truncated, maxStreamRows);
+    }
+
+    /**
+     * Restriction of {@link #findPage} and {@link #streamAll} (e.g. not archived); none by default.
+     */
+    protected Specification<M> listScope() {
+        return null;
+    }
+
+    /**
+     * Whether {@link #findPage}, {@link #streamAll} and the criteria searches read the DTOs
+     * from a column projection (see {@link com.sallahli.dto.search.DtoProjection}) instead of
+     * mapping entities, so no lazy load runs per row. Only for DTOs the mapper fills by
+     * property name, down to two association levels; off by default.
+     */
+    protected boolean readsProjections() {
+        return false;
+    }
+
+    /**
+     * Every entity matching the criteria filters, mapped to DTOs chunk by chunk and written
+     * as the response body (see {@link CriteriaExporter}).
+     */
+    public StreamingResponseBody export(Criteria criteria, ExportFormat format) {
+        return criteriaExporter.export(getModelClass(), criteria, null, fetchPaths(),
+                getDtoClass(), chunk -> mapper.toDtos(chunk), format);
+    }
+
+    /**
+     * Page of the entities matching the criteria filters, with the total its
+     * {@link Criteria#getCountMode() count mode} asks for (see
+     * {@link PaginatedSearchService#findByCriteria}), sized as {@link #findPage}.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Page<D> findByCriteria(Criteria criteria) {
+        int page = criteria.getPage() != null ? criteria.getPage() : 0;
+        if (page < 0) {
+            throw new BadRequestException("Invalid page " + page);
+        }
+        criteria.setPage(page);
+        criteria.setPageSize(searchPageSize(criteria));
+        return PaginatedSearchService.super.findByCriteria(criteria);
+    }
+
+    /**
+     * Keyset page of the entities matching the criteria filters (see
+     * {@link PaginatedSearchService#findByCursor}), sized as {@link #findPage}.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public CursorPage<D> findByCursor(Criteria criteria) {
+        criteria.setPageSize(searchPageSize(criteria));
+        return PaginatedSearchService.super.findByCursor(criteria);
+    }
+
+    private int searchPageSize(Criteria criteria) {
+        int pageSize = criteria.getPageSize() != null ? criteria.getPageSize() : defaultPageSize;
+        if (pageSize < 1) {
+            throw new BadRequestException("Invalid page size " + pageSize);
+        }
+        return Math.min(pageSize, maxPageSize);
+    }
+
+    @Override
+    public Page<M> findBySpecification(Specification<M> specification, Pageable pageable) {
+        List<M> rows = findSliceBySpecification(specification, pageable);
+        return PageableExecutionUtils.getPage(rows.subList(0, Math.min(rows.size(), pageable.getPageSize())),
+                pageable, () -> criteriaSearchExecutor.count(getModelClass(), specification));
+    }
+
+    @Override
+    public List<M> findSliceBySpecification(Specification<M> specification, Pageable pageable) {
+        return criteriaSearchExecutor.findSlice(getModelClass(), specification, pageable);
+    }
+
+    @Override
+    public List<D> findProjectedBySpecification(Specification<M> specification, Pageable pageable,
+            boolean extraRow) {
+        return readsProjections()
+                ? criteriaSearchExecutor.findProjected(getModelClass(), getDtoClass(), specification, pageable, extraRow)
+                : null;
+    }
+
+    @Override
+    public long countBySpecification(Specification<M> specification) {
+        return criteriaSearchExecutor.count(getModelClass(), specification);
+    }
+
+    @Override
+    public long estimateCount(Specification<M> specification, boolean filtered) {
+        return criteriaSearchExecutor.estimateCount(getModelClass(), specification, filtered);
+    }
+
+    @Override
+    public Object findAttributeValue(Long id, String attribute) {
+        return criteriaSearchExecutor.findValue(getModelClass(), id, attribute);
+    }
+
+    @Override
+    public List<D> mapData(List<M> data) {
+        return mapper.toDtos(data);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public D findById(Long id) {
@@ -69,16 +262,115 @@ public abstract class AbstractCrudService<M, D> implements CrudService<D> {
     @Override
     @Transactional
     public void delete(Long id) {
-        if (!repository.existsById(id)) {
-            throw new NotFoundException("Resource not found with id: " + id);
+        deleteEntity(findEntity(id));
+    }
+
+    /**
+     * Applies a JSON Patch to the entity itself (see {@link EntityPatcher}); only the
+     * patched attributes are written, and only the {@link #getPatchableProperties()} can be.
+     * With {@code expectedVersion} the entity must still be at that version.
+     */
+    @Transactional
+    public D patch(Long id, JsonPatch patch, Long expectedVersion) {
+        Assert.notNull(patch, "Patch must not be null");
+        M entity = findEntity(id);
+        if (expectedVersion != null) {
+            entityPatcher.checkVersion(entity, getModelClass(), expectedVersion);
+        }
+        entityPatcher.apply(entity, getModelClass(), patch, getPatchableProperties());
+        // Flushed here so the returned DTO carries the new version
+        return mapper.toDto(repository.saveAndFlush(entity));
+    }
+
+    // ==================== Bulk operations ====================
+    // One transaction for the whole list: with pooled sequences the inserts (and the
+    // updates, deletes) are queued until flush and sent as JDBC batches
+
+    /**
+     * Creates every DTO through {@link #create}, so service specific creation still applies.
+     */
+    @Override
+    @Transactional
+    public List<D> createAll(List<D> dtos) {
+        Assert.notNull(dtos, "DTOs must not be null");
+        requireBulkSize(dtos.size());
+        List<D> created = new ArrayList<>(dtos.size());
+        for (D dto : dtos) {
+            created.add(create(dto));
+        }
+        return created;
+    }
+
+    /**
+     * Updates every DTO, identified by its id, through {@link #update}. The entities are
+     * loaded with one query beforehand.
+     */
+    @Override
+    @Transactional
+    public List<D> updateAll(List<D> dtos) {
+        Assert.notNull(dtos, "DTOs must not be null");
+        requireBulkSize(dtos.size());
+        List<Long> ids = new ArrayList<>(dtos.size());
+        for (D dto : dtos) {
+            Long id = getDtoId(dto);
+            if (id == null) {
+                throw new BadRequestException("Id is required for a bulk update");
+            }
+            ids.add(id);
+        }
+        repository.findAllById(ids);
+
+        List<D> updated = new ArrayList<>(dtos.size());
+        for (int i = 0; i < dtos.size(); i++) {
+            updated.add(update(ids.get(i), dtos.get(i)));
+        }
+        return updated;
+    }
+
+    /**
+     * Deletes every id through {@link #deleteEntity}, so soft deletes still apply. The
+     * entities are loaded with one query and every id must be among them.
+     */
+    @Override
+    @Transactional
+    public void deleteAllByIds(List<Long> ids) {
+        Assert.notNull(ids, "Ids must not be null");
+        requireBulkSize(ids.size());
+        PropertyCopier<M> properties = PropertyCopier.of(getModelClass());
+        Map<Long, M> entities = new HashMap<>();
+        for (M entity : repository.findAllById(ids)) {
+            entities.put((Long) properties.get(entity, KeysetSpecification.ID_ATTRIBUTE), entity);
+        }
+        for (Long id : ids) {
+            M entity = entities.get(id);
+            if (entity == null) {
+                throw new NotFoundException("Resource not found with id: " + id);
+            }
+            deleteEntity(entity);
         }
-        repository.deleteById(id);
     }
 
     protected M findEntity(Long id) {
         return repository.findById(id).orElseThrow(() -> new NotFoundException("Resource not found with id: " + id));
     }
 
+    /**
+     * Deletes a loaded entity, for {@link #delete} and {@link #deleteAllByIds}. Services
+     * that archive instead of deleting override this.
+     */
+    protected void deleteEntity(M entity) {
+        repository.delete(entity);
+    }
+
+    /**
+     * Bulk lists are capped at {@code crud.page.max-size}, like the pages.
+     */
+    private void requireBulkSize(int size) {
+        if (size > maxPageSize) {
+            throw new BadRequestException("At most " + maxPageSize + " items per bulk request, got " + size);
+        }
+    }
+
     protected void applyRelationships(M entity, D dto) {
         // default no-op
     }
@@ -91,6 +383,45 @@ public abstract class AbstractCrudService<M, D> implements CrudService<D> {
         // hook for subclasses
     }
 
+    @Autowired
+    public void setCriteriaSearchExecutor(CriteriaSearchExecutor criteriaSearchExecutor) {
+        this.criteriaSearchExecutor = criteriaSearchExecutor;
+    }
+
+    @Autowired
+    public void setCriteriaExporter(CriteriaExporter criteriaExporter) {
+        this.criteriaExporter = criteriaExporter;
+    }
+
+    @Autowired
+    public void setEntityPatcher(EntityPatcher entityPatcher) {
+        this.entityPatcher = entityPatcher;
+    }
+
+    @SuppressWarnings("unchecked")
+    protected Class<M> getModelClass() {
+        return (Class<M>) typeArguments()[0];
+    }
+
+    @SuppressWarnings("unchecked")
+    protected Class<D> getDtoClass() {
+        return (Class<D>) typeArguments()[1];
+    }
+
+    private Class<?>[] typeArguments() {
+        return GenericTypeResolver.resolveTypeArguments(ClassUtils.getUserClass(getClass()), AbstractCrudService.class);
+    }
+
+    private Long getDtoId(D dto) {
+        if (dtoIdGetter == null) {
+            PropertyDescriptor descriptor = BeanUtils.getPropertyDescriptor(getDtoClass(), KeysetSpecification.ID_ATTRIBUTE);
+            Assert.state(descriptor != null && descriptor.getReadMethod() != null,
+                    () -> getDtoClass().getSimpleName() + " has no id property");
+            dtoIdGetter = descriptor.getReadMethod();
+        }
+        return (Long) ReflectionUtils.invokeMethod(dtoIdGetter, dto);
+    }
+
     protected Mapper<M, D> getMapper() {
         return mapper;
     }
@@ -99,28 +430,33 @@ public abstract class AbstractCrudService<M, D> implements CrudService<D> {
         return repository;
     }
 
+    /**
+     * Attributes a JSON Patch may write; none by default, so patching is opt-in per service.
+     */
+    protected Set<String> getPatchableProperties() {
+        return Set.of();
+    }
+
     protected String[] getIgnoredProperties() {
-        return new String[]{"id", "createdAt", "updatedAt"};
+        return new String[]{"id", "createdAt", "updatedAt", "version"};
     }
 
-    protected void copyNonNullProperties(M source, M target) {
+    /**
+     * Copies the non-null properties of {@code source} onto {@code target}, except the
+     * ignored ones, and returns the names of the properties whose value changed.
+     */
+    protected Set<String> copyNonNullProperties(M source, M target) {
         if (source == null || target == null) {
-            return;
+            return Set.of();
         }
-        Set<String> ignored = new HashSet<>(Arrays.asList(getIgnoredProperties()));
-        BeanWrapper src = new BeanWrapperImpl(source);
-        BeanWrapper trg = new BeanWrapperImpl(target);
+        return PropertyCopier.of(getModelClass()).copyNonNull(source, target, ignoredProperties());
+    }
 
-        for (PropertyDescriptor descriptor : src.getPropertyDescriptors()) {
-            String propertyName = descriptor.getName();
-            if ("class".equals(propertyName) || ignored.contains(propertyName)) {
-                continue;
-            }
-            Object value = src.getPropertyValue(propertyName);
-            if (value != null) {
-                trg.setPropertyValue(propertyName, value);
-            }
+    private Set<String> ignoredProperties() {
+        if (ignoredProperties == null) {
+            ignoredProperties = Set.of(getIgnoredProperties());
         }
+        return ignoredProperties;
     }
 }
 
@@ -1,11 +1,15 @@
 package com.sallahli.service.crud;
 
+import org.springframework.data.domain.Slice;
+
 import java.util.List;
 
 public interface CrudService<D> {
 
     List<D> findAll();
 
+    Slice<D> findPage(Integer page, Integer size);
+
     D findById(Long id);
 
     D create(D dto);
@@ -13,6 +17,12 @@ public interface CrudService<D> {
     D update(Long id, D dto);
 
     void delete(Long id);
+
+    List<D> createAll(List<D> dtos);
+
+    List<D> updateAll(List<D> dtos);
+
+    void deleteAllByIds(List<Long> ids);
 }
 
 
@@ -0,0 +1,219 @@
+package com.sallahli.service.crud;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sallahli.exceptions.BadRequestException;
+import com.sallahli.exceptions.ConflictException;
+import com.sallahli.exceptions.NotFoundException;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.EntityType;
+import jakarta.persistence.metamodel.IdentifiableType;
+import jakarta.persistence.metamodel.ManagedType;
+import jakarta.persistence.metamodel.SingularAttribute;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import javax.json.JsonNumber;
+import javax.json.JsonObject;
+import javax.json.JsonPatch;
+import javax.json.JsonString;
+import javax.json.JsonValue;
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Applies an RFC 6902 JSON Patch straight to a managed entity, attribute by attribute,
+ * without the entity → DTO → entity round trip of a full update.
+ * <p>
+ * Paths name singular attributes of the JPA metamodel ({@code /firstName}); a to-one
+ * association is set from an id ({@code /baseZone} with {@code 3} or {@code {"id": 3}}, or
+ * {@code /baseZone/id}). Only the allowed attributes can be written or tested, the
+ * version can only be tested. Only the touched attributes become dirty, so with
+ * {@code @DynamicUpdate} the UPDATE only contains their columns.
+ */
+@Component
+@RequiredArgsConstructor
+public class EntityPatcher {
+
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Applies every operation in order and returns the names of the attributes written.
+     * A failed {@code test} operation fails the whole patch (the transaction rolls back).
+     */
+    public <M> Set<String> apply(M entity, Class<M> type, JsonPatch patch, Set<String> allowed) {
+        EntityType<M> entityType = entityManager.getMetamodel().entity(type);
+        PropertyCopier<M> properties = PropertyCopier.of(type);
+        Set<String> written = new LinkedHashSet<>();
+
+        for (JsonValue value : patch.toJsonArray()) {
+            JsonObject operation = value.asJsonObject();
+            String op = operation.getString("op", null);
+            if (op == null) {
+                throw new BadRequestException("Patch operation without op");
+            }
+            Target target = target(entityType, operation.getString("path", null), allowed, "test".equals(op));
+
+            switch (op) {
+                case "add", "replace" -> {
+                    properties.set(entity, target.name(), read(target, operation.get("value")));
+                    written.add(target.name());
+                }
+                case "remove" -> {
+                    if (!target.attribute().isOptional()) {
+                        throw new BadRequestException("Attribute " + target.name() + " is required");
+                    }
+                    properties.set(entity, target.name(), null);
+                    written.add(target.name());
+                }
+                case "test" -> {
+                    Object expected = testValue(target, operation.get("value"));
+                    Object actual = comparable(target, properties.get(entity, target.name()));
+                    if (!Objects.equals(expected, actual)) {
+                        throw new ConflictException("Test failed on " + target.name());
+                    }
+                }
+                case "copy", "move" -> {
+                    Target from = target(entityType, operation.getString("from", null), allowed, false);
+                    if (from.attribute().getJavaType() != target.attribute().getJavaType()) {
+                        throw new BadRequestException("Cannot " + op + " " + from.name() + " to " + target.name());
+                    }
+                    properties.set(entity, target.name(), properties.get(entity, from.name()));
+                    written.add(target.name());
+                    if ("move".equals(op) && !from.name().equals(target.name())) {
+                        properties.set(entity, from.name(), null);
+                        written.add(from.name());
+                    }
+                }
+                default -> throw new BadRequestException("Unsupported patch operation " + op);
+            }
+        }
+        return written;
+    }
+
+    /**
+     * Fails with a conflict when the entity's version is not the expected one.
+     */
+    public <M> void checkVersion(M entity, Class<M> type, long expectedVersion) {
+        IdentifiableType<M> entityType = entityManager.getMetamodel().entity(type);
+        if (!entityType.hasVersionAttribute()) {
+            throw new BadRequestException(type.getSimpleName() + " is not versioned");
+        }
+        String version = versionAttribute(entityType).getName();
+        Object current = PropertyCopier.of(type).get(entity, version);
+        if (current == null || ((Number) current).longValue() != expectedVersion) {
+            throw new ConflictException(type.getSimpleName() + " was modified (version " + current + ")");
+        }
+    }
+
+    private record Target(String name, SingularAttribute<?, ?> attribute, boolean association) {
+    }
+
+    private Target target(EntityType<?> entityType, String path, Set<String> allowed, boolean test) {
+        if (path == null || !path.startsWith("/")) {
+            throw new BadRequestException("Invalid patch path " + path);
+        }
+        String[] segments = path.substring(1).split("/");
+        String name = unescape(segments[0]);
+
+        Attribute<?, ?> attribute = findAttribute(entityType, name);
+        if (!(attribute instanceof SingularAttribute<?, ?> singular)) {
+            throw new BadRequestException("Attribute " + name + " cannot be patched");
+        }
+        boolean association = singular.getType() instanceof ManagedType<?>;
+        if (segments.length > 2 || (segments.length == 2 && !(association && "id".equals(unescape(segments[1]))))) {
+            throw new BadRequestException("Invalid patch path " + path);
+        }
+        if (singular.isVersion() ? !test : singular.isId() || !allowed.contains(name)) {
+            throw new BadRequestException("Attribute " + name + " cannot be patched");
+        }
+        return new Target(name, singular, association);
+    }
+
+    private Object read(Target target, JsonValue value) {
+        if (value == null) {
+            throw new BadRequestException("Missing value for " + target.name());
+        }
+        if (value.getValueType() == JsonValue.ValueType.NULL) {
+            if (!target.attribute().isOptional()) {
+                throw new BadRequestException("Attribute " + target.name() + " is required");
+            }
+            return null;
+        }
+        if (target.association()) {
+            Object id = associationId(target, value);
+            Object associated = entityManager.find(target.attribute().getJavaType(), id);
+            if (associated == null) {
+                throw new NotFoundException(target.attribute().getJavaType().getSimpleName() + " not found with id: " + id);
+            }
+            return associated;
+        }
+        try {
+            return objectMapper.readValue(value.toString(), target.attribute().getJavaType());
+        } catch (JsonProcessingException e) {
+            throw new BadRequestException("Invalid value for " + target.name() + ": " + value);
+        }
+    }
+
+    /**
+     * The value a {@code test} compares: the converted value, or the id for an association.
+     */
+    private Object testValue(Target target, JsonValue value) {
+        if (value == null || value.getValueType() == JsonValue.ValueType.NULL) {
+            return null;
+        }
+        if (target.association()) {
+            return ((Number) associationId(target, value)).longValue();
+        }
+        return read(target, value);
+    }
+
+    private Object comparable(Target target, Object current) {
+        if (current == null || !target.association()) {
+            return current;
+        }
+        Object id = entityManager.getEntityManagerFactory().getPersistenceUnitUtil().getIdentifier(current);
+        return id instanceof Number number ? number.longValue() : id;
+    }
+
+    private static Object associationId(Target target, JsonValue value) {
+        JsonValue id = value instanceof JsonObject object ? object.get("id") : value;
+        if (id instanceof JsonNumber number) {
+            return number.longValue();
+        }
+        if (id instanceof JsonString string) {
+            try {
+                return Long.parseLong(string.getString());
+            } catch (NumberFormatException e) {
+                // falls through to the error below
+            }
+        }
+        throw new BadRequestException("Invalid id for " + target.name() + ": " + value);
+    }
+
+    private static SingularAttribute<?, ?> versionAttribute(IdentifiableType<?> type) {
+        for (SingularAttribute<?, ?> attribute : type.getSingularAttributes()) {
+            if (attribute.isVersion()) {
+                return attribute;
+            }
+        }
+        throw new IllegalStateException(type.getJavaType().getSimpleName() + " has no version attribute");
+    }
+
+    private static Attribute<?, ?> findAttribute(ManagedType<?> type, String name) {
+        for (Attribute<?, ?> attribute : type.getAttributes()) {
+            if (attribute.getName().equals(name)) {
+                return attribute;
+            }
+        }
+        throw new BadRequestException("Unknown attribute " + name);
+    }
+
+    // JSON Pointer escapes (RFC 6901)
+    private static String unescape(String segment) {
+        return segment.replace("~1", "/").replace("~0", "~");
+    }
+}
@@ -0,0 +1,170 @@
+package com.sallahli.service.crud;
+
+import org.springframework.beans.BeanUtils;
+
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Copies the non-null properties of one instance onto another, for
+ * {@link AbstractCrudService#copyNonNullProperties}, and reads or writes single properties
+ * by name for {@link EntityPatcher}.
+ * <p>
+ * The accessor table of a class is built once: every read/write property gets a getter
+ * and a setter spun by {@link LambdaMetafactory}, so a copy is plain interface calls with
+ * no introspection, no {@code BeanWrapper} and no reflective invoke.
+ */
+final class PropertyCopier<T> {
+
+    private static final Map<Class<?>, PropertyCopier<?>> COPIERS = new ConcurrentHashMap<>();
+
+    private final List<Accessor> accessors;
+    private final Map<String, Accessor> accessorsByName = new HashMap<>();
+
+    private PropertyCopier(List<Accessor> accessors) {
+        this.accessors = accessors;
+        for (Accessor accessor : accessors) {
+            accessorsByName.put(accessor.name(), accessor);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> PropertyCopier<T> of(Class<T> type) {
+        return (PropertyCopier<T>) COPIERS.computeIfAbsent(type, PropertyCopier::build);
+    }
+
+    /**
+     * Sets every non-null, non-ignored property of the source on the target and returns
+     * the names of those whose value changed.
+     * <p>
+     * Values of JDK types (strings, numbers, dates, enums) are compared with
+     * {@code equals}; associations and collections by reference only, so that comparing
+     * never initializes a lazy proxy or collection.
+     */
+    Set<String> copyNonNull(T source, T target, Set<String> ignored) {
+        Set<String> changed = new LinkedHashSet<>();
+        for (Accessor accessor : accessors) {
+            if (ignored.contains(accessor.name())) {
+                continue;
+            }
+            Object value = accessor.getter().apply(source);
+            if (value == null) {
+                continue;
+            }
+            Object current = accessor.getter().apply(target);
+            if (accessor.comparable() ? !Objects.equals(value, current) : value != current) {
+                accessor.setter().accept(target, value);
+                changed.add(accessor.name());
+            }
+        }
+        return changed;
+    }
+
+    Object get(T source, String property) {
+        return accessor(property).getter().apply(source);
+    }
+
+    void set(T target, String property, Object value) {
+        accessor(property).setter().accept(target, value);
+    }
+
+    private Accessor accessor(String property) {
+        Accessor accessor = accessorsByName.get(property);
+        if (accessor == null) {
+            throw new IllegalArgumentException("No read/write property " + property);
+        }
+        return accessor;
+    }
+
+    private record Accessor(String name, Function<Object, Object> getter, BiConsumer<Object, Object> setter,
+            boolean comparable) {
+    }
+
+    private static PropertyCopier<?> build(Class<?> type) {
+        List<Accessor> accessors = new ArrayList<>();
+        for (PropertyDescriptor descriptor : BeanUtils.getPropertyDescriptors(type)) {
+            Method read = descriptor.getReadMethod();
+            Method write = descriptor.getWriteMethod();
+            if (read == null || write == null) {
+                continue;
+            }
+            Class<?> propertyType = descriptor.getPropertyType();
+            accessors.add(new Accessor(descriptor.getName(), getter(read), setter(write), isComparable(propertyType)));
+        }
+        return new PropertyCopier<>(List.copyOf(accessors));
+    }
+
+    private static boolean isComparable(Class<?> type) {
+        return type.isPrimitive() || type.isEnum()
+                || (type.getName().startsWith("java.") && !Collection.class.isAssignableFrom(type)
+                && !Map.class.isAssignableFrom(type));
+    }
+
+    // ==================== Accessor generation ====================
+
+    @SuppressWarnings("unchecked")
+    private static Function<Object, Object> getter(Method method) {
+        try {
+            MethodHandles.Lookup lookup = lookup(method);
+            MethodHandle handle = lookup.unreflect(method);
+            CallSite site = LambdaMetafactory.metafactory(lookup, "apply",
+                    MethodType.methodType(Function.class),
+                    MethodType.methodType(Object.class, Object.class),
+                    handle,
+                    MethodType.methodType(box(method.getReturnType()), method.getDeclaringClass()));
+            return (Function<Object, Object>) site.getTarget().invokeExact();
+        } catch (Throwable e) {
+            // Not expressible as a lambda (e.g. bridge or inaccessible method): plain reflection
+            return target -> invoke(method, target);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static BiConsumer<Object, Object> setter(Method method) {
+        try {
+            MethodHandles.Lookup lookup = lookup(method);
+            MethodHandle handle = lookup.unreflect(method);
+            CallSite site = LambdaMetafactory.metafactory(lookup, "accept",
+                    MethodType.methodType(BiConsumer.class),
+                    MethodType.methodType(void.class, Object.class, Object.class),
+                    handle,
+                    MethodType.methodType(void.class, method.getDeclaringClass(), box(method.getParameterTypes()[0])));
+            return (BiConsumer<Object, Object>) site.getTarget().invokeExact();
+        } catch (Throwable e) {
+            return (target, value) -> invoke(method, target, value);
+        }
+    }
+
+    private static MethodHandles.Lookup lookup(Method method) throws IllegalAccessException {
+        return MethodHandles.privateLookupIn(method.getDeclaringClass(), MethodHandles.lookup());
+    }
+
+    private static Class<?> box(Class<?> type) {
+        return type.isPrimitive() ? MethodType.methodType(type).wrap().returnType() : type;
+    }
+
+    private static Object invoke(Method method, Object target, Object... args) {
+        try {
+            return method.invoke(target, args);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Unable to call " + method.getName() + " on "
+                    + target.getClass().getSimpleName(), e);
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package com.sallahli.service.crud;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * A listing written by {@link AbstractCrudService#streamAll}: the JSON array body, and
+ * whether rows past the {@code crud.stream.max-rows} cap were left out of it, which the
+ * {@link #headers()} tell the client before the body starts.
+ */
+public record StreamedListing(StreamingResponseBody body, boolean truncated, int maxRows) {
+
+    public static final String TRUNCATED_HEADER = "X-Result-Truncated";
+    public static final String MAX_ROWS_HEADER = "X-Result-Max-Rows";
+
+    public HttpHeaders headers() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(TRUNCATED_HEADER, String.valueOf(truncated));
+        headers.set(MAX_ROWS_HEADER, String.valueOf(maxRows));
+        return headers;
+    }
+}
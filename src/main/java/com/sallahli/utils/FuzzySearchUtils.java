@@ -0,0 +1,41 @@
+package com.sallahli.utils;
+
+/**
+ * Query side of the trigram searches (see the {@code search_text} / {@code search_tel}
+ * columns): the text itself is normalized in SQL by {@code search_normalize}, the same
+ * function that fills the indexed columns.
+ */
+public class FuzzySearchUtils {
+
+    public static final int DEFAULT_LIMIT = 20;
+    public static final int MAX_LIMIT = 100;
+
+    // Below this a phone fragment matches too many numbers to be useful
+    private static final int MIN_PHONE_DIGITS = 3;
+
+    /**
+     * The trimmed query without LIKE wildcards, or null when nothing is left to search.
+     */
+    public static String term(String query) {
+        if (query == null) {
+            return null;
+        }
+        String term = query.replaceAll("[%_\\\\]", " ").trim();
+        return term.isEmpty() ? null : term;
+    }
+
+    /**
+     * Digits of the query to match phone numbers, or null when too few to search on.
+     */
+    public static String phoneDigits(String query) {
+        String digits = query.replaceAll("\\D", "");
+        return digits.length() >= MIN_PHONE_DIGITS ? digits : null;
+    }
+
+    public static int limit(Integer limit) {
+        if (limit == null || limit <= 0) {
+            return DEFAULT_LIMIT;
+        }
+        return Math.min(limit, MAX_LIMIT);
+    }
+}
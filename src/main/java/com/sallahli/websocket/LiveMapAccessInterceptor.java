@@ -0,0 +1,38 @@
+package com.sallahli.websocket;
+
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the admin live map to staff (the admin, super admin and support agent roles, as
+ * for the support endpoints): a SUBSCRIBE to {@value LiveMapViewportRegistry#DESTINATION}
+ * or a SEND to the viewport update endpoint from any other session is rejected, and the
+ * client gets an ERROR frame.
+ */
+@Component
+public class LiveMapAccessInterceptor implements ChannelInterceptor {
+
+    private static final String VIEWPORT_ENDPOINT = "/app/location/viewport";
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null) {
+            accessor = StompHeaderAccessor.wrap(message);
+        }
+        StompCommand command = accessor.getCommand();
+        String destination = accessor.getDestination();
+        boolean liveMap = (command == StompCommand.SUBSCRIBE && LiveMapViewportRegistry.DESTINATION.equals(destination))
+                || (command == StompCommand.SEND && VIEWPORT_ENDPOINT.equals(destination));
+        if (liveMap && !UserTopicAccessInterceptor.isStaff(accessor.getUser())) {
+            throw new AccessDeniedException("The live map is restricted to admins and support agents");
+        }
+        return message;
+    }
+}
@@ -0,0 +1,316 @@
+package com.sallahli.websocket;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Spatial index of live map subscriptions.
+ * <p>
+ * Admins subscribe to {@value #DESTINATION} with {@code min-lat}, {@code min-lng},
+ * {@code max-lat} and {@code max-lng} headers. Viewports are indexed on a fixed lat/lng
+ * grid, so a location update only looks at the viewports covering its cell and is only
+ * sent to sessions that can see it. A pro leaving a viewport gets one last frame there
+ * so the client can drop the marker. Very large viewports (zoomed out past
+ * {@code max-cells}) are kept in a separate list and checked on every update.
+ * <p>
+ * Only admins and support agents can subscribe (see {@link LiveMapAccessInterceptor}). Viewports go away with
+ * their subscription or session; a periodic sweep also drops those of sessions that are
+ * no longer open (e.g. a subscribe event handled after the disconnect) and the positions
+ * of pros that stopped reporting.
+ */
+@Component
+@Slf4j
+public class LiveMapViewportRegistry {
+
+    public static final String DESTINATION = "/topic/location/viewport";
+
+    private static final String MIN_LAT_HEADER = "min-lat";
+    private static final String MIN_LNG_HEADER = "min-lng";
+    private static final String MAX_LAT_HEADER = "max-lat";
+    private static final String MAX_LNG_HEADER = "max-lng";
+
+    private final MessageChannel clientOutboundChannel;
+    private final WebSocketSessionRegistry sessionRegistry;
+    private final double cellDegrees;
+    private final int maxCells;
+    private final long positionTtlMillis;
+
+    private final Map<String, Map<String, Viewport>> viewportsBySession = new ConcurrentHashMap<>();
+    private final Map<Long, Set<Viewport>> viewportsByCell = new ConcurrentHashMap<>();
+    private final Set<Viewport> wideViewports = ConcurrentHashMap.newKeySet();
+    private final Map<Long, Position> lastPositions = new ConcurrentHashMap<>();
+
+    public LiveMapViewportRegistry(@Qualifier("clientOutboundChannel") MessageChannel clientOutboundChannel,
+            WebSocketSessionRegistry sessionRegistry,
+            @Value("${websocket.live-map.cell-degrees:0.5}") double cellDegrees,
+            @Value("${websocket.live-map.max-cells:400}") int maxCells,
+            @Value("${websocket.live-map.position-ttl-seconds:900}") long positionTtlSeconds) {
+        this.clientOutboundChannel = clientOutboundChannel;
+        this.sessionRegistry = sessionRegistry;
+        this.cellDegrees = cellDegrees;
+        this.maxCells = maxCells;
+        this.positionTtlMillis = positionTtlSeconds * 1000;
+    }
+
+    // ========================================================================
+    // Routing
+    // ========================================================================
+
+    /**
+     * Sends a serialized location frame to every viewport containing the pro's new
+     * position, or its previous one.
+     */
+    public void route(Long proId, double latitude, double longitude, byte[] frame) {
+        Position previous = lastPositions.put(proId,
+                new Position(latitude, longitude, frame, System.currentTimeMillis()));
+        if (viewportsBySession.isEmpty()) {
+            return;
+        }
+
+        Set<Viewport> targets = new HashSet<>();
+        collect(latitude, longitude, targets);
+        if (previous != null) {
+            collect(previous.latitude(), previous.longitude(), targets);
+        }
+        for (Viewport viewport : targets) {
+            send(viewport, proId, frame);
+        }
+    }
+
+    private void collect(double latitude, double longitude, Set<Viewport> targets) {
+        Set<Viewport> candidates = viewportsByCell.get(cellKey(latitude, longitude));
+        if (candidates != null) {
+            for (Viewport viewport : candidates) {
+                if (viewport.contains(latitude, longitude)) {
+                    targets.add(viewport);
+                }
+            }
+        }
+        for (Viewport viewport : wideViewports) {
+            if (viewport.contains(latitude, longitude)) {
+                targets.add(viewport);
+            }
+        }
+    }
+
+    private void send(Viewport viewport, Long proId, byte[] frame) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setSessionId(viewport.sessionId());
+        accessor.setSubscriptionId(viewport.subscriptionId());
+        accessor.setDestination(DESTINATION);
+        accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        // Conflate per pro, not per destination: every pro shares the viewport destination
+        accessor.setHeader(OutboundBackpressureInterceptor.CONFLATION_KEY_HEADER, DESTINATION + "/" + proId);
+        clientOutboundChannel.send(MessageBuilder.createMessage(frame, accessor.getMessageHeaders()));
+    }
+
+    // ========================================================================
+    // Subscriptions
+    // ========================================================================
+
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        if (!DESTINATION.equals(accessor.getDestination())) {
+            return;
+        }
+        if (!UserTopicAccessInterceptor.isStaff(event.getUser())) {
+            log.debug("Ignoring live map subscription of non staff session {}", accessor.getSessionId());
+            return;
+        }
+        try {
+            setViewport(accessor.getSessionId(), accessor.getSubscriptionId(),
+                    parse(accessor, MIN_LAT_HEADER), parse(accessor, MIN_LNG_HEADER),
+                    parse(accessor, MAX_LAT_HEADER), parse(accessor, MAX_LNG_HEADER));
+        } catch (IllegalArgumentException e) {
+            log.debug("Ignoring live map subscription {} of session {}: {}",
+                    accessor.getSubscriptionId(), accessor.getSessionId(), e.getMessage());
+        }
+    }
+
+    @EventListener
+    public void onUnsubscribe(SessionUnsubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        Map<String, Viewport> viewports = viewportsBySession.get(accessor.getSessionId());
+        if (viewports != null) {
+            unindex(viewports.remove(accessor.getSubscriptionId()));
+        }
+    }
+
+    @EventListener
+    public void onSessionDisconnect(SessionDisconnectEvent event) {
+        removeSession(event.getSessionId());
+    }
+
+    @Scheduled(fixedDelayString = "${websocket.live-map.sweep-interval-ms:60000}")
+    public void sweep() {
+        for (String sessionId : new ArrayList<>(viewportsBySession.keySet())) {
+            if (!sessionRegistry.isOpen(sessionId)) {
+                removeSession(sessionId);
+            }
+        }
+        long threshold = System.currentTimeMillis() - positionTtlMillis;
+        lastPositions.values().removeIf(position -> position.reportedAt() < threshold);
+    }
+
+    private void removeSession(String sessionId) {
+        Map<String, Viewport> viewports = viewportsBySession.remove(sessionId);
+        if (viewports != null) {
+            viewports.values().forEach(this::unindex);
+            log.debug("Removed {} live map viewports of session {}", viewports.size(), sessionId);
+        }
+    }
+
+    /**
+     * Moves the viewports of a session (or one of them) to a new bounding box, then sends
+     * the last known position of every pro that just became visible.
+     */
+    public void updateViewport(String sessionId, String subscriptionId, double minLat, double minLng,
+            double maxLat, double maxLng) {
+        Map<String, Viewport> viewports = viewportsBySession.get(sessionId);
+        if (viewports == null) {
+            return;
+        }
+        List<String> subscriptionIds = subscriptionId != null
+                ? List.of(subscriptionId)
+                : new ArrayList<>(viewports.keySet());
+        for (String id : subscriptionIds) {
+            if (viewports.containsKey(id)) {
+                setViewport(sessionId, id, minLat, minLng, maxLat, maxLng);
+            }
+        }
+    }
+
+    private void setViewport(String sessionId, String subscriptionId, double minLat, double minLng,
+            double maxLat, double maxLng) {
+        if (sessionId == null || subscriptionId == null) {
+            throw new IllegalArgumentException("missing session or subscription id");
+        }
+        if (minLat > maxLat || minLat < -90 || maxLat > 90 || minLng < -180 || maxLng > 180) {
+            throw new IllegalArgumentException("invalid bounding box");
+        }
+
+        Viewport viewport = new Viewport(sessionId, subscriptionId, minLat, minLng, maxLat, maxLng);
+        Viewport previous = viewportsBySession
+                .computeIfAbsent(sessionId, id -> new ConcurrentHashMap<>())
+                .put(subscriptionId, viewport);
+        unindex(previous);
+        index(viewport);
+
+        lastPositions.forEach((proId, position) -> {
+            if (viewport.contains(position.latitude(), position.longitude())
+                    && (previous == null || !previous.contains(position.latitude(), position.longitude()))) {
+                send(viewport, proId, position.frame());
+            }
+        });
+    }
+
+    private void index(Viewport viewport) {
+        List<Long> cells = cells(viewport);
+        if (cells == null) {
+            wideViewports.add(viewport);
+            return;
+        }
+        for (Long cell : cells) {
+            viewportsByCell.computeIfAbsent(cell, key -> ConcurrentHashMap.newKeySet()).add(viewport);
+        }
+    }
+
+    private void unindex(Viewport viewport) {
+        if (viewport == null) {
+            return;
+        }
+        List<Long> cells = cells(viewport);
+        if (cells == null) {
+            wideViewports.remove(viewport);
+            return;
+        }
+        for (Long cell : cells) {
+            viewportsByCell.computeIfPresent(cell, (key, viewports) -> {
+                viewports.remove(viewport);
+                return viewports.isEmpty() ? null : viewports;
+            });
+        }
+    }
+
+    /**
+     * Grid cells covered by the viewport, or null when it is too large (or crosses the
+     * antimeridian) and belongs in the wide list.
+     */
+    private List<Long> cells(Viewport viewport) {
+        if (viewport.minLng() > viewport.maxLng()) {
+            return null;
+        }
+        int minRow = row(viewport.minLat());
+        int maxRow = row(viewport.maxLat());
+        int minCol = column(viewport.minLng());
+        int maxCol = column(viewport.maxLng());
+        if ((long) (maxRow - minRow + 1) * (maxCol - minCol + 1) > maxCells) {
+            return null;
+        }
+        List<Long> cells = new ArrayList<>();
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int col = minCol; col <= maxCol; col++) {
+                cells.add(((long) row << 32) | col);
+            }
+        }
+        return cells;
+    }
+
+    private long cellKey(double latitude, double longitude) {
+        return ((long) row(latitude) << 32) | column(longitude);
+    }
+
+    private int row(double latitude) {
+        return (int) Math.floor((latitude + 90) / cellDegrees);
+    }
+
+    private int column(double longitude) {
+        return (int) Math.floor((longitude + 180) / cellDegrees);
+    }
+
+    private static double parse(StompHeaderAccessor accessor, String header) {
+        String value = accessor.getFirstNativeHeader(header);
+        if (value == null) {
+            throw new IllegalArgumentException("missing " + header + " header");
+        }
+        return Double.parseDouble(value);
+    }
+
+    private record Viewport(String sessionId, String subscriptionId, double minLat, double minLng,
+            double maxLat, double maxLng) {
+
+        boolean contains(double latitude, double longitude) {
+            if (latitude < minLat || latitude > maxLat) {
+                return false;
+            }
+            // A viewport with minLng > maxLng wraps around the antimeridian
+            return minLng <= maxLng
+                    ? longitude >= minLng && longitude <= maxLng
+                    : longitude >= minLng || longitude <= maxLng;
+        }
+    }
+
+    private record Position(double latitude, double longitude, byte[] frame, long reportedAt) {
+    }
+}
@@ -0,0 +1,189 @@
+package com.sallahli.websocket;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Per-session backpressure on the client outbound channel.
+ * <p>
+ * Every session has a queue depth (frames accepted but not yet written). Location frames
+ * are conflated: only the latest frame per destination (or conflation key) is written, and they are dropped
+ * outright once the session is past the soft limit. Other frames (chat, jobs, wallet...)
+ * are never dropped; a session that keeps going past the hard limit is disconnected.
+ */
+@Component
+@Slf4j
+public class OutboundBackpressureInterceptor implements ExecutorChannelInterceptor {
+
+    /**
+     * Optional (non-native) message header overriding the destination as conflation key,
+     * for frames of several sources sharing one destination.
+     */
+    public static final String CONFLATION_KEY_HEADER = "conflationKey";
+
+    private static final String LOCATION_PREFIX = "/topic/location/";
+
+    private final WebSocketSessionRegistry sessionRegistry;
+    private final int softLimit;
+    private final int hardLimit;
+    private final int maxStrikes;
+
+    private final Map<String, SessionQueue> queues = new ConcurrentHashMap<>();
+    private final Counter droppedCounter;
+    private final Counter conflatedCounter;
+    private final Counter slowDisconnectCounter;
+
+    public OutboundBackpressureInterceptor(WebSocketSessionRegistry sessionRegistry,
+            MeterRegistry meterRegistry,
+            @Value("${websocket.outbound.soft-limit:50}") int softLimit,
+            @Value("${websocket.outbound.hard-limit:200}") int hardLimit,
+            @Value("${websocket.outbound.max-strikes:3}") int maxStrikes) {
+        this.sessionRegistry = sessionRegistry;
+        this.softLimit = softLimit;
+        this.hardLimit = hardLimit;
+        this.maxStrikes = maxStrikes;
+
+        this.droppedCounter = meterRegistry.counter("websocket.outbound.dropped");
+        this.conflatedCounter = meterRegistry.counter("websocket.outbound.conflated");
+        this.slowDisconnectCounter = meterRegistry.counter("websocket.outbound.slow.disconnects");
+        Gauge.builder("websocket.outbound.queued", this, OutboundBackpressureInterceptor::totalDepth)
+                .register(meterRegistry);
+        Gauge.builder("websocket.outbound.max.session.depth", this, OutboundBackpressureInterceptor::maxDepth)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+        if (sessionId == null) {
+            return message;
+        }
+
+        SessionQueue queue = queues.computeIfAbsent(sessionId, id -> new SessionQueue());
+        String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+        boolean conflatable = destination != null && destination.startsWith(LOCATION_PREFIX);
+        int depth = queue.depth.get();
+
+        if (conflatable && depth >= softLimit) {
+            queue.dropped.incrementAndGet();
+            droppedCounter.increment();
+            return null;
+        }
+
+        if (depth >= hardLimit && queue.strikes.incrementAndGet() >= maxStrikes) {
+            log.warn("Disconnecting slow WebSocket consumer {} ({} frames pending)", sessionId, depth);
+            slowDisconnectCounter.increment();
+            sessionRegistry.close(sessionId, CloseStatus.SESSION_NOT_RELIABLE);
+            return null;
+        }
+        if (depth < softLimit) {
+            queue.strikes.set(0);
+        }
+
+        if (conflatable) {
+            queue.latestByKey.put(conflationKey(message, destination), message.getHeaders().getId());
+        }
+        queue.depth.incrementAndGet();
+        return message;
+    }
+
+    @Override
+    public void afterSendCompletion(Message<?> message, MessageChannel channel, boolean sent, Exception ex) {
+        // Counted in preSend but never queued: a later interceptor dropped it or the executor rejected it
+        if (sent && ex == null) {
+            return;
+        }
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+        SessionQueue queue = sessionId != null ? queues.get(sessionId) : null;
+        if (queue != null) {
+            queue.depth.decrementAndGet();
+        }
+    }
+
+    @Override
+    public Message<?> beforeHandle(Message<?> message, MessageChannel channel, MessageHandler handler) {
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+        String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+        SessionQueue queue = sessionId != null ? queues.get(sessionId) : null;
+        if (queue == null || destination == null || !destination.startsWith(LOCATION_PREFIX)) {
+            return message;
+        }
+
+        // A newer frame for the same destination is already queued: skip this one
+        UUID latest = queue.latestByKey.get(conflationKey(message, destination));
+        if (latest != null && !latest.equals(message.getHeaders().getId())) {
+            queue.depth.decrementAndGet();
+            queue.conflated.incrementAndGet();
+            conflatedCounter.increment();
+            return null;
+        }
+        return message;
+    }
+
+    @Override
+    public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler,
+            Exception ex) {
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+        SessionQueue queue = sessionId != null ? queues.get(sessionId) : null;
+        if (queue != null) {
+            queue.depth.decrementAndGet();
+        }
+    }
+
+    private static String conflationKey(Message<?> message, String destination) {
+        Object key = message.getHeaders().get(CONFLATION_KEY_HEADER);
+        return key != null ? key.toString() : destination;
+    }
+
+    @EventListener
+    public void onSessionDisconnect(SessionDisconnectEvent event) {
+        queues.remove(event.getSessionId());
+    }
+
+    /**
+     * Snapshot of per-session queue state, exposed through the actuator.
+     */
+    public Map<String, Map<String, Integer>> snapshot() {
+        Map<String, Map<String, Integer>> snapshot = new LinkedHashMap<>();
+        queues.forEach((sessionId, queue) -> snapshot.put(sessionId, Map.of(
+                "depth", queue.depth.get(),
+                "dropped", queue.dropped.get(),
+                "conflated", queue.conflated.get(),
+                "strikes", queue.strikes.get())));
+        return snapshot;
+    }
+
+    private double totalDepth() {
+        return queues.values().stream().mapToInt(queue -> queue.depth.get()).sum();
+    }
+
+    private double maxDepth() {
+        return queues.values().stream().mapToInt(queue -> queue.depth.get()).max().orElse(0);
+    }
+
+    private static final class SessionQueue {
+        private final AtomicInteger depth = new AtomicInteger();
+        private final AtomicInteger dropped = new AtomicInteger();
+        private final AtomicInteger conflated = new AtomicInteger();
+        private final AtomicInteger strikes = new AtomicInteger();
+        private final Map<String, UUID> latestByKey = new ConcurrentHashMap<>();
+    }
+}
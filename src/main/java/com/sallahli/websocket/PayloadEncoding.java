@@ -0,0 +1,52 @@
+package com.sallahli.websocket;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+
+/**
+ * Body encodings a STOMP session can negotiate with the {@code payload-encoding} CONNECT
+ * header. Outbound binary frames repeat the same header; the MIME types identify binary
+ * bodies sent by clients.
+ */
+public enum PayloadEncoding {
+
+    JSON(MimeTypeUtils.APPLICATION_JSON, new JsonFactory()),
+    CBOR(new MimeType("application", "cbor"), new CBORFactory()),
+    SMILE(new MimeType("application", "x-jackson-smile"), new SmileFactory());
+
+    public static final String CONNECT_HEADER = "payload-encoding";
+
+    private final MimeType mimeType;
+    private final JsonFactory factory;
+
+    PayloadEncoding(MimeType mimeType, JsonFactory factory) {
+        this.mimeType = mimeType;
+        this.factory = factory;
+    }
+
+    public MimeType getMimeType() {
+        return mimeType;
+    }
+
+    public JsonFactory getFactory() {
+        return factory;
+    }
+
+    /**
+     * Resolves the header value sent by the client, falling back to JSON when absent or unknown.
+     */
+    public static PayloadEncoding fromHeader(String value) {
+        if (value == null) {
+            return JSON;
+        }
+        for (PayloadEncoding encoding : values()) {
+            if (encoding.name().equalsIgnoreCase(value.trim())) {
+                return encoding;
+            }
+        }
+        return JSON;
+    }
+}
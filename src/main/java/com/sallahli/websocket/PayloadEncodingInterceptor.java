@@ -0,0 +1,125 @@
+package com.sallahli.websocket;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.socket.messaging.SessionConnectEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Re-encodes outbound JSON frames as CBOR or Smile for sessions that asked for it.
+ * <p>
+ * Clients opt in with a {@code payload-encoding: cbor|smile} header on CONNECT. Encoded
+ * MESSAGE frames are sent with {@code content-type: application/octet-stream}, the only
+ * type {@code StompSubProtocolHandler} writes as a binary WebSocket message, and a
+ * {@code payload-encoding} header telling which encoding was applied. SockJS sessions
+ * cannot carry binary frames, so the header is ignored for them and they stay on JSON.
+ * Everything upstream (services, broker, replay buffer) keeps producing JSON, and the
+ * transcoding streams tokens without building an object tree.
+ */
+@Component
+@Slf4j
+public class PayloadEncodingInterceptor implements ExecutorChannelInterceptor {
+
+    private final Map<String, PayloadEncoding> encodingBySession = new ConcurrentHashMap<>();
+    private final WebSocketSessionRegistry sessionRegistry;
+    private final Counter binaryFrames;
+    private final Counter bytesSaved;
+
+    public PayloadEncodingInterceptor(WebSocketSessionRegistry sessionRegistry, MeterRegistry meterRegistry) {
+        this.sessionRegistry = sessionRegistry;
+        this.binaryFrames = meterRegistry.counter("websocket.outbound.binary.frames");
+        this.bytesSaved = meterRegistry.counter("websocket.outbound.binary.bytes.saved");
+    }
+
+    @EventListener
+    public void onSessionConnect(SessionConnectEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        PayloadEncoding encoding = PayloadEncoding.fromHeader(
+                accessor.getFirstNativeHeader(PayloadEncoding.CONNECT_HEADER));
+        if (encoding == PayloadEncoding.JSON || accessor.getSessionId() == null) {
+            return;
+        }
+        if (!sessionRegistry.supportsBinary(accessor.getSessionId())) {
+            log.debug("Session {} asked for {} over a text-only transport, keeping JSON",
+                    accessor.getSessionId(), encoding);
+            return;
+        }
+        encodingBySession.put(accessor.getSessionId(), encoding);
+    }
+
+    @EventListener
+    public void onSessionDisconnect(SessionDisconnectEvent event) {
+        encodingBySession.remove(event.getSessionId());
+    }
+
+    public PayloadEncoding getEncoding(String sessionId) {
+        return sessionId != null ? encodingBySession.getOrDefault(sessionId, PayloadEncoding.JSON) : PayloadEncoding.JSON;
+    }
+
+    @Override
+    public Message<?> beforeHandle(Message<?> message, MessageChannel channel, MessageHandler handler) {
+        if (encodingBySession.isEmpty()
+                || SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) != SimpMessageType.MESSAGE
+                || !(message.getPayload() instanceof byte[] json)
+                || json.length == 0) {
+            return message;
+        }
+        PayloadEncoding encoding = getEncoding(SimpMessageHeaderAccessor.getSessionId(message.getHeaders()));
+        if (encoding == PayloadEncoding.JSON || !isJson(message)) {
+            return message;
+        }
+
+        byte[] encoded;
+        try {
+            encoded = transcode(json, encoding);
+        } catch (IOException e) {
+            log.warn("Unable to encode frame as {}, sending JSON: {}", encoding, e.getMessage());
+            return message;
+        }
+        binaryFrames.increment();
+        bytesSaved.increment(json.length - encoded.length);
+
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(message);
+        accessor.setContentType(MimeTypeUtils.APPLICATION_OCTET_STREAM);
+        accessor.setNativeHeader(PayloadEncoding.CONNECT_HEADER, encoding.name().toLowerCase());
+        return MessageBuilder.createMessage(encoded, accessor.getMessageHeaders());
+    }
+
+    private boolean isJson(Message<?> message) {
+        Object contentType = message.getHeaders().get(SimpMessageHeaderAccessor.CONTENT_TYPE);
+        MimeType mimeType = contentType instanceof MimeType type ? type
+                : contentType != null ? MimeTypeUtils.parseMimeType(contentType.toString()) : null;
+        return mimeType == null || MimeTypeUtils.APPLICATION_JSON.isCompatibleWith(mimeType);
+    }
+
+    static byte[] transcode(byte[] json, PayloadEncoding encoding) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(json.length);
+        try (JsonParser parser = PayloadEncoding.JSON.getFactory().createParser(json);
+             JsonGenerator generator = encoding.getFactory().createGenerator(out)) {
+            while (parser.nextToken() != null) {
+                generator.copyCurrentEvent(parser);
+            }
+        }
+        return out.toByteArray();
+    }
+}
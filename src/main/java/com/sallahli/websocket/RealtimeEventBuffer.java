@@ -0,0 +1,204 @@
+package com.sallahli.websocket;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded ring buffer of recent realtime events per user-scoped destination.
+ * <p>
+ * Every buffered frame carries a {@code seq} header (monotonically increasing) and a
+ * {@code seq-epoch} header identifying this server run. A client resubscribing with
+ * {@code last-seq} and {@code seq-epoch} headers gets only the frames it missed; when the
+ * gap is no longer covered by the buffer it gets a single {@code replay: reset} frame
+ * and should refresh over REST.
+ * <p>
+ * A stream emptied by retention is kept as a tombstone holding its floor for another
+ * retention period, so the gap check stays exact; once it is gone a resubscribe with a
+ * {@code last-seq} on that destination always resets.
+ * <p>
+ * Replays answer the {@link SessionSubscribeEvent}, which is only published once the
+ * inbound channel accepted the SUBSCRIBE, that is after {@link UserTopicAccessInterceptor}
+ * checked the principal may read the destination.
+ */
+@Component
+@Slf4j
+public class RealtimeEventBuffer {
+
+    public static final String SEQ_HEADER = "seq";
+    public static final String EPOCH_HEADER = "seq-epoch";
+    public static final String LAST_SEQ_HEADER = "last-seq";
+    public static final String REPLAY_HEADER = "replay";
+
+    private final MessageChannel clientOutboundChannel;
+    private final int capacity;
+    private final long retentionMillis;
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+
+    private final AtomicLong sequence = new AtomicLong();
+    private final Map<String, EventStream> streams = new ConcurrentHashMap<>();
+
+    public RealtimeEventBuffer(@Qualifier("clientOutboundChannel") MessageChannel clientOutboundChannel,
+            @Value("${websocket.replay.capacity:100}") int capacity,
+            @Value("${websocket.replay.retention-seconds:600}") long retentionSeconds) {
+        this.clientOutboundChannel = clientOutboundChannel;
+        this.capacity = capacity;
+        this.retentionMillis = retentionSeconds * 1000;
+    }
+
+    public String getEpoch() {
+        return epoch;
+    }
+
+    /**
+     * Buffers a serialized frame and returns its sequence number.
+     */
+    public long append(String destination, byte[] payload) {
+        long[] seq = new long[1];
+        streams.compute(destination, (d, existing) -> {
+            // A new stream has seen nothing before the current sequence
+            EventStream stream = existing != null ? existing : new EventStream(sequence.get());
+            synchronized (stream) {
+                stream.emptiedAt = 0;
+                seq[0] = sequence.incrementAndGet();
+                stream.events.addLast(new BufferedEvent(seq[0], System.currentTimeMillis(), payload));
+                if (stream.events.size() > capacity) {
+                    stream.floor = stream.events.removeFirst().seq();
+                }
+            }
+            return stream;
+        });
+        return seq[0];
+    }
+
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        String lastSeqHeader = accessor.getFirstNativeHeader(LAST_SEQ_HEADER);
+        String destination = accessor.getDestination();
+        if (lastSeqHeader == null || destination == null) {
+            return;
+        }
+
+        long lastSeq;
+        try {
+            lastSeq = Long.parseLong(lastSeqHeader);
+        } catch (NumberFormatException e) {
+            log.debug("Ignoring invalid last-seq header '{}' on {}", lastSeqHeader, destination);
+            return;
+        }
+
+        String sessionId = accessor.getSessionId();
+        String subscriptionId = accessor.getSubscriptionId();
+        List<BufferedEvent> missed = epoch.equals(accessor.getFirstNativeHeader(EPOCH_HEADER))
+                ? since(destination, lastSeq)
+                : null;
+
+        if (missed == null) {
+            send(sessionId, subscriptionId, destination, new byte[0], null, "reset");
+            log.debug("Replay gap on {} for session {}, client must refresh", destination, sessionId);
+            return;
+        }
+        for (BufferedEvent missedEvent : missed) {
+            send(sessionId, subscriptionId, destination, missedEvent.payload(), missedEvent.seq(), "true");
+        }
+        if (!missed.isEmpty()) {
+            log.debug("Replayed {} events on {} for session {}", missed.size(), destination, sessionId);
+        }
+    }
+
+    /**
+     * Events after {@code lastSeq}, or null when some of them are no longer buffered.
+     */
+    private List<BufferedEvent> since(String destination, long lastSeq) {
+        if (lastSeq > sequence.get()) {
+            return null;
+        }
+        EventStream stream = streams.get(destination);
+        if (stream == null) {
+            return null;
+        }
+        synchronized (stream) {
+            // Frames up to the floor were dropped or predate the stream
+            if (lastSeq < stream.floor) {
+                return null;
+            }
+            List<BufferedEvent> missed = new ArrayList<>();
+            for (BufferedEvent bufferedEvent : stream.events) {
+                if (bufferedEvent.seq() > lastSeq) {
+                    missed.add(bufferedEvent);
+                }
+            }
+            return missed;
+        }
+    }
+
+    private void send(String sessionId, String subscriptionId, String destination, byte[] payload, Long seq,
+            String replay) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setSessionId(sessionId);
+        accessor.setSubscriptionId(subscriptionId);
+        accessor.setDestination(destination);
+        accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        accessor.setNativeHeader(EPOCH_HEADER, epoch);
+        accessor.setNativeHeader(REPLAY_HEADER, replay);
+        if (seq != null) {
+            accessor.setNativeHeader(SEQ_HEADER, String.valueOf(seq));
+        }
+        clientOutboundChannel.send(MessageBuilder.createMessage(payload, accessor.getMessageHeaders()));
+    }
+
+    @Scheduled(fixedDelayString = "${websocket.replay.eviction-interval-ms:60000}")
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        long threshold = now - retentionMillis;
+        for (String destination : streams.keySet()) {
+            streams.computeIfPresent(destination, (d, stream) -> {
+                synchronized (stream) {
+                    while (!stream.events.isEmpty() && stream.events.peekFirst().timestamp() < threshold) {
+                        stream.floor = stream.events.removeFirst().seq();
+                    }
+                    if (!stream.events.isEmpty()) {
+                        return stream;
+                    }
+                    // Tombstone: keeps the floor until it expires in turn
+                    if (stream.emptiedAt == 0) {
+                        stream.emptiedAt = now;
+                    }
+                    return stream.emptiedAt < threshold ? null : stream;
+                }
+            });
+        }
+    }
+
+    private static final class EventStream {
+        private final Deque<BufferedEvent> events = new ArrayDeque<>();
+        private long floor;
+        private long emptiedAt;
+
+        private EventStream(long floor) {
+            this.floor = floor;
+        }
+    }
+
+    private record BufferedEvent(long seq, long timestamp, byte[] payload) {
+    }
+}
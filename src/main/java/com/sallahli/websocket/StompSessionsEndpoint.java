@@ -0,0 +1,29 @@
+package com.sallahli.websocket;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Actuator endpoint ({@code /management/stompsessions}) listing outbound queue depth per STOMP session.
+ */
+@Component
+@Endpoint(id = "stompsessions")
+@RequiredArgsConstructor
+public class StompSessionsEndpoint {
+
+    private final WebSocketSessionRegistry sessionRegistry;
+    private final OutboundBackpressureInterceptor backpressureInterceptor;
+
+    @ReadOperation
+    public Map<String, Object> sessions() {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("openSessions", sessionRegistry.size());
+        body.put("queues", backpressureInterceptor.snapshot());
+        return body;
+    }
+}
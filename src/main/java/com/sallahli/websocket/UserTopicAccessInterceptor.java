@@ -0,0 +1,138 @@
+package com.sallahli.websocket;
+
+import com.sallahli.model.ConversationParticipantId;
+import com.sallahli.model.Enum.UserRoleEnum;
+import com.sallahli.repository.ConversationParticipantRepository;
+import com.sallahli.service.ParticipantDirectoryService;
+import com.sallahli.service.SupportQueueService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+import java.security.Principal;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps user-scoped topics to their user: a SUBSCRIBE to a pro's wallet or jobs topic, a
+ * client's requests topic or a conversation topic is rejected unless the principal is
+ * that pro, that client or a participant of the conversation. Staff (admins and support
+ * agents) may subscribe to any of them, and only they may follow the support queue
+ * ({@value SupportQueueService#TOPIC}).
+ * <p>
+ * Pattern subscriptions ({@code *}, {@code **}) would match these topics too, so only
+ * staff may use them. A rejected SUBSCRIBE never reaches the broker and no
+ * {@code SessionSubscribeEvent} is published for it, so {@link RealtimeEventBuffer} only
+ * replays after this check.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class UserTopicAccessInterceptor implements ChannelInterceptor {
+
+    private static final Set<String> STAFF_AUTHORITIES =
+            Set.of("ROLE_ADMIN", "ROLE_SUPER_ADMIN", "ROLE_CUSTOMER_SUPPORT_AGENT");
+
+    private static final Pattern PRO_TOPIC = Pattern.compile("/topic/(?:wallet|jobs)/pro/(\\d+)");
+    private static final Pattern CLIENT_TOPIC = Pattern.compile("/topic/requests/client/(\\d+)");
+    private static final Pattern CONVERSATION_TOPIC = Pattern.compile("/topic/conversation/(\\d+)(?:/updates)?");
+    private static final Pattern USER_SCOPED = Pattern.compile(
+            "/topic/(?:(?:wallet|jobs)/pro|requests/client|conversation)/.*");
+
+    private final ParticipantDirectoryService participantDirectoryService;
+    private final ConversationParticipantRepository participantRepository;
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null) {
+            accessor = StompHeaderAccessor.wrap(message);
+        }
+        String destination = accessor.getDestination();
+        if (accessor.getCommand() != StompCommand.SUBSCRIBE || destination == null
+                || isStaff(accessor.getUser())) {
+            return message;
+        }
+        if (destination.contains("*") || SupportQueueService.TOPIC.equals(destination)
+                || (USER_SCOPED.matcher(destination).matches()
+                && !canSubscribe(accessor.getUser(), destination))) {
+            log.debug("Rejected subscription of {} to {}", name(accessor.getUser()), destination);
+            throw new AccessDeniedException("Not allowed to subscribe to " + destination);
+        }
+        return message;
+    }
+
+    /**
+     * Admins, super admins and support agents: the roles of the support endpoints.
+     */
+    public static boolean isStaff(Principal user) {
+        return user instanceof Authentication authentication
+                && authentication.getAuthorities().stream()
+                .anyMatch(authority -> STAFF_AUTHORITIES.contains(authority.getAuthority()));
+    }
+
+    private boolean canSubscribe(Principal user, String destination) {
+        if (!(user instanceof Authentication authentication)) {
+            return false;
+        }
+        Matcher matcher = PRO_TOPIC.matcher(destination);
+        if (matcher.matches()) {
+            return hasAuthority(authentication, "ROLE_PRO")
+                    && isUser(authentication, UserRoleEnum.DRIVER, Long.valueOf(matcher.group(1)));
+        }
+        matcher = CLIENT_TOPIC.matcher(destination);
+        if (matcher.matches()) {
+            return hasAuthority(authentication, "ROLE_CLIENT")
+                    && isUser(authentication, UserRoleEnum.CLIENT, Long.valueOf(matcher.group(1)));
+        }
+        matcher = CONVERSATION_TOPIC.matcher(destination);
+        if (matcher.matches()) {
+            Long conversationId = Long.valueOf(matcher.group(1));
+            return (hasAuthority(authentication, "ROLE_PRO")
+                    && isParticipant(authentication, conversationId, UserRoleEnum.DRIVER))
+                    || (hasAuthority(authentication, "ROLE_CLIENT")
+                    && isParticipant(authentication, conversationId, UserRoleEnum.CLIENT));
+        }
+        return false;
+    }
+
+    private boolean isUser(Authentication authentication, UserRoleEnum role, Long id) {
+        Long userId = userId(authentication, role);
+        return userId != null && userId.equals(id);
+    }
+
+    private boolean isParticipant(Authentication authentication, Long conversationId, UserRoleEnum role) {
+        Long userId = userId(authentication, role);
+        return userId != null
+                && participantRepository.existsById(new ConversationParticipantId(conversationId, userId, role));
+    }
+
+    /**
+     * Id of the principal in the role's table, or null when they have no account there.
+     */
+    private Long userId(Authentication authentication, UserRoleEnum role) {
+        try {
+            return participantDirectoryService.userId(authentication, role);
+        } catch (com.sallahli.exceptions.AccessDeniedException e) {
+            return null;
+        }
+    }
+
+    private static boolean hasAuthority(Authentication authentication, String authority) {
+        return authentication.getAuthorities().stream()
+                .anyMatch(granted -> authority.equals(granted.getAuthority()));
+    }
+
+    private static String name(Principal user) {
+        return user != null ? user.getName() : "anonymous session";
+    }
+}
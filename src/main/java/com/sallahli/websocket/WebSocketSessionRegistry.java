@@ -0,0 +1,72 @@
+package com.sallahli.websocket;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketHandlerDecoratorFactory;
+import org.springframework.web.socket.sockjs.transport.SockJsSession;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps a handle on open WebSocket sessions so the server can close them on its own
+ * initiative (e.g. chronically slow consumers).
+ */
+@Component
+@Slf4j
+public class WebSocketSessionRegistry implements WebSocketHandlerDecoratorFactory {
+
+    private final Map<String, WebSocketSession> sessions = new ConcurrentHashMap<>();
+
+    @Override
+    public WebSocketHandler decorate(WebSocketHandler handler) {
+        return new WebSocketHandlerDecorator(handler) {
+            @Override
+            public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+                sessions.put(session.getId(), session);
+                super.afterConnectionEstablished(session);
+            }
+
+            @Override
+            public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+                sessions.remove(session.getId());
+                super.afterConnectionClosed(session, closeStatus);
+            }
+        };
+    }
+
+    public int size() {
+        return sessions.size();
+    }
+
+    public boolean isOpen(String sessionId) {
+        WebSocketSession session = sessionId != null ? sessions.get(sessionId) : null;
+        return session != null && session.isOpen();
+    }
+
+    /**
+     * Whether STOMP frames can reach the session as binary WebSocket messages; SockJS
+     * sessions (any of its transports) only carry text.
+     */
+    public boolean supportsBinary(String sessionId) {
+        WebSocketSession session = sessionId != null ? sessions.get(sessionId) : null;
+        return session != null && !(session instanceof SockJsSession);
+    }
+
+    public void close(String sessionId, CloseStatus status) {
+        WebSocketSession session = sessions.get(sessionId);
+        if (session == null || !session.isOpen()) {
+            return;
+        }
+        try {
+            session.close(status);
+        } catch (IOException e) {
+            log.warn("Failed to close WebSocket session {}: {}", sessionId, e.getMessage());
+        }
+    }
+}
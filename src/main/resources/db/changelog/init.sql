@@ -727,4 +727,208 @@ ALTER TABLE lead_offer ADD COLUMN IF NOT EXISTS proposed_price BIGINT;
 
 ALTER TABLE customer_request ALTER COLUMN status SET DEFAULT 'BROADCASTED';
 
-UPDATE customer_request SET status = 'EXPIRED' WHERE status = 'OPEN';
\ No newline at end of file
+UPDATE customer_request SET status = 'EXPIRED' WHERE status = 'OPEN';
+
+--changeset mohamdi:init-sql/17
+CREATE TABLE IF NOT EXISTS conversation (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    type        VARCHAR(50),
+    is_closed   BOOLEAN DEFAULT FALSE,
+    created_at  TIMESTAMP,
+    updated_at  TIMESTAMP
+);
+
+CREATE TABLE IF NOT EXISTS conversation_participant (
+    conversation_id BIGINT NOT NULL,
+    user_id         BIGINT NOT NULL,
+    role            VARCHAR(50) NOT NULL,
+    PRIMARY KEY (conversation_id, user_id, role),
+    CONSTRAINT fk_conversation_participant_conversation FOREIGN KEY (conversation_id) REFERENCES conversation(id) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS message (
+    id              BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    conversation_id BIGINT NOT NULL,
+    sender_id       BIGINT,
+    sender_role     VARCHAR(50),
+    content         TEXT,
+    media_id        BIGINT,
+    is_read         BOOLEAN DEFAULT FALSE,
+    created_at      TIMESTAMP,
+    updated_at      TIMESTAMP,
+    CONSTRAINT fk_message_conversation FOREIGN KEY (conversation_id) REFERENCES conversation(id) ON DELETE CASCADE
+);
+
+ALTER TABLE conversation ADD COLUMN IF NOT EXISTS last_message_id BIGINT;
+ALTER TABLE conversation ADD COLUMN IF NOT EXISTS last_message_preview VARCHAR(255);
+ALTER TABLE conversation ADD COLUMN IF NOT EXISTS last_message_at TIMESTAMP;
+ALTER TABLE conversation ADD COLUMN IF NOT EXISTS last_message_sender_id BIGINT;
+ALTER TABLE conversation ADD COLUMN IF NOT EXISTS last_message_sender_role VARCHAR(50);
+
+ALTER TABLE conversation_participant ADD COLUMN IF NOT EXISTS unread_count INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE conversation_participant ADD COLUMN IF NOT EXISTS last_activity_at TIMESTAMP;
+
+UPDATE conversation c
+SET last_message_id          = m.id,
+    last_message_preview     = LEFT(m.content, 255),
+    last_message_at          = m.created_at,
+    last_message_sender_id   = m.sender_id,
+    last_message_sender_role = m.sender_role
+FROM (SELECT DISTINCT ON (conversation_id) id, conversation_id, content, created_at, sender_id, sender_role
+      FROM message
+      ORDER BY conversation_id, created_at DESC, id DESC) m
+WHERE m.conversation_id = c.id;
+
+UPDATE conversation_participant p
+SET last_activity_at = COALESCE(c.last_message_at, c.created_at, NOW()),
+    unread_count     = (SELECT COUNT(*) FROM message m
+                        WHERE m.conversation_id = p.conversation_id
+                          AND m.is_read = FALSE
+                          AND m.sender_id IS DISTINCT FROM p.user_id)
+FROM conversation c
+WHERE c.id = p.conversation_id;
+
+CREATE INDEX IF NOT EXISTS idx_conversation_participant_inbox
+    ON conversation_participant(user_id, role, last_activity_at DESC, conversation_id DESC);
+
+--changeset mohamdi:init-sql/18
+ALTER TABLE conversation_participant ADD COLUMN IF NOT EXISTS last_read_message_id BIGINT;
+
+-- Carry over the old per-message flags: a participant has read up to the newest
+-- read message not sent by themselves, or their own latest message
+UPDATE conversation_participant p
+SET last_read_message_id = (SELECT MAX(m.id) FROM message m
+                            WHERE m.conversation_id = p.conversation_id
+                              AND (m.is_read = TRUE OR (m.sender_id = p.user_id AND m.sender_role = p.role)));
+
+ALTER TABLE message DROP COLUMN IF EXISTS is_read;
+
+CREATE INDEX IF NOT EXISTS idx_message_conversation_id ON message(conversation_id, id);
+
+--changeset mohamdi:init-sql/19
+-- Message ids are reserved by the application in blocks of 50 (write-behind chat)
+CREATE SEQUENCE IF NOT EXISTS message_id_seq START WITH 1 INCREMENT BY 50;
+ALTER TABLE message ALTER COLUMN id DROP IDENTITY IF EXISTS;
+SELECT setval('message_id_seq', COALESCE((SELECT MAX(id) FROM message), 0) + 1, false);
+ALTER TABLE message ALTER COLUMN id SET DEFAULT nextval('message_id_seq');
+
+ALTER TABLE message ADD COLUMN IF NOT EXISTS client_message_id VARCHAR(64);
+CREATE UNIQUE INDEX IF NOT EXISTS uq_message_client_message_id ON message(conversation_id, client_message_id);
+
+--changeset mohamdi:init-sql/20
+-- Chat search: messages mix Arabic and French, so index both the raw tokens ('simple',
+-- works for Arabic and exact words) and French stems
+ALTER TABLE message ADD COLUMN IF NOT EXISTS content_tsv tsvector
+    GENERATED ALWAYS AS (to_tsvector('simple', COALESCE(content, '')) || to_tsvector('french', COALESCE(content, ''))) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_message_content_tsv ON message USING GIN (content_tsv);
+
+--changeset mohamdi:init-sql/21
+-- Support queue: open conversations no support agent has joined yet
+CREATE TABLE IF NOT EXISTS support_queue_entry (
+    conversation_id   BIGINT PRIMARY KEY,
+    conversation_type VARCHAR(50),
+    waiting_since     TIMESTAMP NOT NULL,
+    unread_count      INTEGER NOT NULL DEFAULT 0,
+    last_message_at   TIMESTAMP,
+    CONSTRAINT fk_support_queue_entry_conversation FOREIGN KEY (conversation_id) REFERENCES conversation(id) ON DELETE CASCADE
+);
+
+INSERT INTO support_queue_entry (conversation_id, conversation_type, waiting_since, unread_count, last_message_at)
+SELECT c.id,
+       c.type,
+       COALESCE(c.created_at, NOW()),
+       (SELECT COUNT(*) FROM message m
+        WHERE m.conversation_id = c.id
+          AND m.sender_role NOT IN ('ADMIN', 'CUSTOMER_SUPPORT_AGENT', 'ADMIN_PARTNER_MANAGER')),
+       c.last_message_at
+FROM conversation c
+WHERE c.is_closed = FALSE
+  AND NOT EXISTS (SELECT 1 FROM conversation_participant p
+                  WHERE p.conversation_id = c.id
+                    AND p.role IN ('ADMIN', 'CUSTOMER_SUPPORT_AGENT', 'ADMIN_PARTNER_MANAGER'))
+ON CONFLICT (conversation_id) DO NOTHING;
+
+--changeset mohamdi:init-sql/22
+-- Keyset pagination on the admin lists: (created_at, id) serves the default sort in both
+-- directions and supersedes the single column indexes
+CREATE INDEX IF NOT EXISTS idx_customer_request_created_at_id ON customer_request(created_at, id);
+CREATE INDEX IF NOT EXISTS idx_lead_offer_created_at_id ON lead_offer(created_at, id);
+CREATE INDEX IF NOT EXISTS idx_pro_wallet_tx_created_at_id ON pro_wallet_transaction(created_at, id);
+DROP INDEX IF EXISTS idx_customer_request_created_at;
+DROP INDEX IF EXISTS idx_pro_wallet_tx_created_at;
+
+--changeset mohamdi:init-sql/23 splitStatements:false
+-- Fuzzy search: trigram and unaccent extensions, and the text normalization shared by the
+-- generated search columns and the search queries (lower case, no Latin accents, no Arabic
+-- diacritics or tatweel, alef/teh marbuta/alef maksura folded, single spaces)
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE EXTENSION IF NOT EXISTS unaccent;
+
+CREATE OR REPLACE FUNCTION search_normalize(value TEXT) RETURNS TEXT
+    LANGUAGE sql IMMUTABLE PARALLEL SAFE AS $$
+SELECT btrim(regexp_replace(
+        lower(translate(
+                regexp_replace(public.unaccent('public.unaccent'::regdictionary, coalesce(value, '')),
+                               '[\u064B-\u0652\u0670\u0640]', '', 'g'),
+                'أإآٱةى', 'ااااهي')),
+        '\s+', ' ', 'g'))
+$$;
+
+--changeset mohamdi:init-sql/24
+-- Generated search columns with trigram GIN indexes; substring (LIKE '%q%') and word
+-- similarity matches on them are index scans
+ALTER TABLE pro ADD COLUMN IF NOT EXISTS search_text TEXT GENERATED ALWAYS AS (
+    search_normalize(coalesce(first_name, '') || ' ' || coalesce(last_name, '') || ' ' ||
+                     coalesce(full_name, '') || ' ' || coalesce(username, ''))) STORED;
+ALTER TABLE pro ADD COLUMN IF NOT EXISTS search_tel TEXT GENERATED ALWAYS AS (
+    regexp_replace(coalesce(tel, ''), '\D', '', 'g')) STORED;
+CREATE INDEX IF NOT EXISTS idx_pro_search_text_trgm ON pro USING gin (search_text gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_pro_search_tel_trgm ON pro USING gin (search_tel gin_trgm_ops);
+
+ALTER TABLE client ADD COLUMN IF NOT EXISTS search_text TEXT GENERATED ALWAYS AS (
+    search_normalize(coalesce(first_name, '') || ' ' || coalesce(last_name, '') || ' ' ||
+                     coalesce(username, '') || ' ' || coalesce(email, ''))) STORED;
+ALTER TABLE client ADD COLUMN IF NOT EXISTS search_tel TEXT GENERATED ALWAYS AS (
+    regexp_replace(coalesce(tel, ''), '\D', '', 'g')) STORED;
+CREATE INDEX IF NOT EXISTS idx_client_search_text_trgm ON client USING gin (search_text gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_client_search_tel_trgm ON client USING gin (search_tel gin_trgm_ops);
+
+ALTER TABLE address ADD COLUMN IF NOT EXISTS search_text TEXT GENERATED ALWAYS AS (
+    search_normalize(coalesce(name, '') || ' ' || coalesce(title, '') || ' ' ||
+                     coalesce(formatted_address, '') || ' ' || coalesce(custom_locality, '') || ' ' ||
+                     coalesce(route, '') || ' ' || coalesce(building_name, ''))) STORED;
+CREATE INDEX IF NOT EXISTS idx_address_search_text_trgm ON address USING gin (search_text gin_trgm_ops);
+
+--changeset mohamdi:init-sql/25
+-- Entity sequences hand out blocks of 50 ids (allocationSize = 50, pooled-lo optimizer): one
+-- nextval per 50 inserts, so inserts can be sent as JDBC batches
+ALTER SEQUENCE address_id_seq INCREMENT BY 50;
+ALTER SEQUENCE admin_id_seq INCREMENT BY 50;
+ALTER SEQUENCE app_config_id_seq INCREMENT BY 50;
+ALTER SEQUENCE category_id_seq INCREMENT BY 50;
+ALTER SEQUENCE client_id_seq INCREMENT BY 50;
+ALTER SEQUENCE customer_request_id_seq INCREMENT BY 50;
+ALTER SEQUENCE job_id_seq INCREMENT BY 50;
+ALTER SEQUENCE lead_offer_id_seq INCREMENT BY 50;
+ALTER SEQUENCE media_id_seq INCREMENT BY 50;
+ALTER SEQUENCE notification_attribute_id_seq INCREMENT BY 50;
+ALTER SEQUENCE notification_id_seq INCREMENT BY 50;
+ALTER SEQUENCE pro_id_seq INCREMENT BY 50;
+ALTER SEQUENCE pro_wallet_tx_id_seq INCREMENT BY 50;
+ALTER SEQUENCE rating_id_seq INCREMENT BY 50;
+ALTER SEQUENCE request_media_id_seq INCREMENT BY 50;
+ALTER SEQUENCE translation_seq_id INCREMENT BY 50;
+ALTER SEQUENCE user_device_id_seq INCREMENT BY 50;
+ALTER SEQUENCE user_otp_expiration_id_seq INCREMENT BY 50;
+ALTER SEQUENCE zone_id_seq INCREMENT BY 50;
+
+--changeset mohamdi:init-sql/26
+-- Optimistic lock version of pros (JSON Patch with If-Match)
+ALTER TABLE pro ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+--changeset mohamdi:init-sql/27
+-- Availability chosen by the pro, kept apart from the presence-derived online flag so it
+-- survives restarts; pros online at migration time are taken as having chosen it
+ALTER TABLE pro ADD COLUMN IF NOT EXISTS available BOOLEAN NOT NULL DEFAULT FALSE;
+UPDATE pro SET available = online;
@@ -0,0 +1,139 @@
+package com.sallahli.controller;
+
+import com.sallahli.config.JsonPatchHttpMessageConverter;
+import com.sallahli.dto.sallahli.ProDTO;
+import com.sallahli.exceptions.ConflictException;
+import com.sallahli.exceptions.GlobalExceptionHandler;
+import com.sallahli.service.ProService;
+import com.sallahli.service.crud.StreamedListing;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * HTTP contract of the pro endpoints, on a standalone MockMvc with the app's converters
+ * and exception handler (security annotations are not applied here).
+ */
+class ProControllerTest {
+
+    private static final String PATCH = "[{\"op\":\"replace\",\"path\":\"/firstName\",\"value\":\"Mohamed\"}]";
+
+    private final ProService proService = mock(ProService.class);
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(new ProController(proService))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .setMessageConverters(new JsonPatchHttpMessageConverter(), new MappingJackson2HttpMessageConverter())
+                .build();
+    }
+
+    @Test
+    void patchWithIfMatchReturnsTheNewVersionAsETag() throws Exception {
+        ProDTO patched = new ProDTO();
+        patched.setId(7L);
+        patched.setFirstName("Mohamed");
+        patched.setVersion(4L);
+        when(proService.patch(eq(7L), any(), eq(3L))).thenReturn(patched);
+
+        mockMvc.perform(patch("/pros/7")
+                        .contentType("application/json-patch+json")
+                        .header(HttpHeaders.IF_MATCH, "W/\"3\"")
+                        .content(PATCH))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, "\"4\""))
+                .andExpect(jsonPath("$.firstName").value("Mohamed"));
+        verify(proService).patch(eq(7L), any(), eq(3L));
+    }
+
+    @Test
+    void patchWithStaleIfMatchIsAConflict() throws Exception {
+        when(proService.patch(eq(7L), any(), eq(2L))).thenThrow(new ConflictException("Pro was modified (version 3)"));
+
+        mockMvc.perform(patch("/pros/7")
+                        .contentType("application/json-patch+json")
+                        .header(HttpHeaders.IF_MATCH, "\"2\"")
+                        .content(PATCH))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void patchWithoutIfMatchSkipsTheVersionCheck() throws Exception {
+        ProDTO patched = new ProDTO();
+        patched.setVersion(4L);
+        when(proService.patch(eq(7L), any(), eq(null))).thenReturn(patched);
+
+        mockMvc.perform(patch("/pros/7")
+                        .contentType("application/json-patch+json")
+                        .content(PATCH))
+                .andExpect(status().isOk());
+        verify(proService).patch(eq(7L), any(), eq(null));
+    }
+
+    @Test
+    void allStreamsOneJsonArrayAndSignalsTruncation() throws Exception {
+        when(proService.streamAll()).thenReturn(new StreamedListing(
+                out -> out.write("[{\"id\":1},{\"id\":2}]".getBytes(StandardCharsets.UTF_8)), true, 2));
+
+        MvcResult started = mockMvc.perform(get("/pros/all"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string(StreamedListing.TRUNCATED_HEADER, "true"))
+                .andExpect(header().string(StreamedListing.MAX_ROWS_HEADER, "2"))
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[1].id").value(2));
+    }
+
+    @Test
+    void allUnderTheCapIsNotTruncated() throws Exception {
+        when(proService.streamAll()).thenReturn(new StreamedListing(
+                out -> out.write("[]".getBytes(StandardCharsets.UTF_8)), false, 100000));
+
+        MvcResult started = mockMvc.perform(get("/pros/all"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string(StreamedListing.TRUNCATED_HEADER, "false"))
+                .andExpect(content().json("[]"));
+    }
+
+    @Test
+    void pageReturnsTheSliceWithoutTotal() throws Exception {
+        ProDTO pro = new ProDTO();
+        pro.setId(7L);
+        when(proService.findPage(0, 1)).thenReturn(new SliceImpl<>(List.of(pro), PageRequest.of(0, 1), true));
+
+        mockMvc.perform(get("/pros/page").param("page", "0").param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(7))
+                .andExpect(jsonPath("$.last").value(false))
+                .andExpect(jsonPath("$.totalElements").doesNotExist());
+    }
+}
@@ -0,0 +1,178 @@
+package com.sallahli.dto.search;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * What each export format writes for a stream of rows, with the query and the transaction
+ * stubbed out.
+ */
+class CriteriaExporterTest {
+
+    private final CriteriaSearchExecutor criteriaSearchExecutor = mock(CriteriaSearchExecutor.class);
+    private final EntityManager entityManager = mock(EntityManager.class);
+    private CriteriaExporter criteriaExporter;
+
+    @BeforeEach
+    void setUp() {
+        criteriaExporter = new CriteriaExporter(criteriaSearchExecutor, entityManager,
+                mock(PlatformTransactionManager.class), new ObjectMapper());
+        ReflectionTestUtils.setField(criteriaExporter, "fetchSize", 2);
+    }
+
+    @Test
+    void csvHeaderComesFromTheRowTypeNotTheFirstRow() throws IOException {
+        // The first row omits score (NON_NULL) and has no client: the header must still list both
+        givenRows(new Entity(1L), new Entity(2L), new Entity(3L));
+
+        String csv = export(ExportFormat.csv, entity -> entity.id == 1L
+                ? new Row(1L, "plain", null, null, List.of("a"))
+                : new Row(entity.id, "with, comma and \"quote\"", new Ref(9L), 5, List.of()));
+
+        assertThat(csv).isEqualTo("id,name,clientId,score\r\n"
+                + "1,plain,,\r\n"
+                + "2,\"with, comma and \"\"quote\"\"\",9,5\r\n"
+                + "3,\"with, comma and \"\"quote\"\"\",9,5\r\n");
+    }
+
+    @Test
+    void csvTextStartingLikeAFormulaIsQuoted() throws IOException {
+        givenRows(new Entity(1L), new Entity(2L), new Entity(3L));
+
+        String csv = export(ExportFormat.csv, entity -> switch (entity.id.intValue()) {
+            case 1 -> new Row(1L, "=HYPERLINK(\"http://evil\")", null, -5, List.of());
+            case 2 -> new Row(2L, "@SUM(A1)", null, null, List.of());
+            default -> new Row(3L, "\t-1+2", null, null, List.of());
+        });
+
+        assertThat(csv).isEqualTo("id,name,clientId,score\r\n"
+                + "1,\"'=HYPERLINK(\"\"http://evil\"\")\",,-5\r\n"
+                + "2,'@SUM(A1),,\r\n"
+                + "3,'\t-1+2,,\r\n");
+    }
+
+    @Test
+    void emptyCsvExportStillHasItsHeader() throws IOException {
+        givenRows();
+
+        assertThat(export(ExportFormat.csv, entity -> null)).isEqualTo("id,name,clientId,score\r\n");
+    }
+
+    @Test
+    void ndjsonWritesOneObjectPerLine() throws IOException {
+        givenRows(new Entity(1L), new Entity(2L));
+
+        String ndjson = export(ExportFormat.ndjson, entity -> new Row(entity.id, "n" + entity.id, null, null, null));
+
+        assertThat(ndjson).isEqualTo("{\"id\":1,\"name\":\"n1\"}\n{\"id\":2,\"name\":\"n2\"}\n");
+    }
+
+    @Test
+    void jsonWritesOneArrayAcrossChunks() throws IOException {
+        givenRows(new Entity(1L), new Entity(2L), new Entity(3L));
+
+        String json = export(ExportFormat.json, entity -> new Row(entity.id, null, null, null, null));
+
+        assertThat(json).isEqualTo("[{\"id\":1},{\"id\":2},{\"id\":3}]");
+        // Two chunks of fetchSize 2, each followed by a clear of the persistence context
+        verify(entityManager, times(2)).clear();
+    }
+
+    @Test
+    void emptyJsonExportIsAnEmptyArray() throws IOException {
+        givenRows();
+
+        assertThat(export(ExportFormat.json, entity -> null)).isEqualTo("[]");
+    }
+
+    private void givenRows(Entity... entities) {
+        when(criteriaSearchExecutor.stream(eq(Entity.class), any(), any(), anyInt(), anyInt()))
+                .thenReturn(List.of(entities).stream());
+    }
+
+    private String export(ExportFormat format, Function<Entity, Row> toRow) throws IOException {
+        StreamingResponseBody body = criteriaExporter.export(Entity.class, new Criteria(), null, List.of(),
+                Row.class, chunk -> chunk.stream().map(toRow).toList(), format);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        body.writeTo(out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    static class Entity {
+        private final Long id;
+
+        Entity(Long id) {
+            this.id = id;
+        }
+    }
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Row {
+        private final Long id;
+        private final String name;
+        private final Ref client;
+        private final Integer score;
+        private final List<String> tags;
+
+        Row(Long id, String name, Ref client, Integer score, List<String> tags) {
+            this.id = id;
+            this.name = name;
+            this.client = client;
+            this.score = score;
+            this.tags = tags;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Ref getClient() {
+            return client;
+        }
+
+        public Integer getScore() {
+            return score;
+        }
+
+        public List<String> getTags() {
+            return tags;
+        }
+    }
+
+    public static class Ref {
+        private final Long id;
+
+        Ref(Long id) {
+            this.id = id;
+        }
+
+        public Long getId() {
+            return id;
+        }
+    }
+}
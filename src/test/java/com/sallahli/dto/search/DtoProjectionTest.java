@@ -0,0 +1,195 @@
+package com.sallahli.dto.search;
+
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.From;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Selection;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.BasicType;
+import jakarta.persistence.metamodel.ManagedType;
+import jakarta.persistence.metamodel.SingularAttribute;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * The projection derived from a stub metamodel: which columns are selected, in which
+ * order, and how a tuple of those columns becomes the DTO.
+ */
+class DtoProjectionTest {
+
+    @Test
+    void selectsSameNamePropertiesAndJoinsToOneAssociations() {
+        DtoProjection projection = DtoProjection.of(proEntityType(), ProDto.class);
+
+        From<?, ?> root = mock(From.class);
+        Join<?, ?> zoneJoin = mock(Join.class);
+        Path<?> firstName = mock(Path.class);
+        Path<?> id = mock(Path.class);
+        Path<?> zoneId = mock(Path.class);
+        Path<?> zoneName = mock(Path.class);
+        doReturn(firstName).when(root).get("firstName");
+        doReturn(id).when(root).get("id");
+        doReturn(Set.of()).when(root).getFetches();
+        doReturn(Set.of()).when(root).getJoins();
+        doReturn(zoneJoin).when(root).join("baseZone", JoinType.LEFT);
+        doReturn(zoneId).when(zoneJoin).get("id");
+        doReturn(zoneName).when(zoneJoin).get("name");
+
+        List<Selection<?>> selections = new ArrayList<>();
+        projection.getRoot().select(root, selections);
+
+        // Properties in name order; ratingAvg (Integer vs Double) and notMapped are skipped
+        assertThat(selections).containsExactly(firstName, id, zoneId, zoneName);
+    }
+
+    @Test
+    void readsTheTupleIntoNestedDtos() {
+        DtoProjection projection = DtoProjection.of(proEntityType(), ProDto.class);
+
+        ProDto dto = (ProDto) projection.getRoot().read(tuple(99L, "Sidi", 7L, 3L, "Tevragh Zeina"), new int[]{1});
+
+        assertThat(dto.getFirstName()).isEqualTo("Sidi");
+        assertThat(dto.getId()).isEqualTo(7L);
+        assertThat(dto.getRatingAvg()).isNull();
+        assertThat(dto.getBaseZone().getId()).isEqualTo(3L);
+        assertThat(dto.getBaseZone().getName()).isEqualTo("Tevragh Zeina");
+    }
+
+    @Test
+    void absentAssociationLeavesTheNestedDtoNull() {
+        DtoProjection projection = DtoProjection.of(proEntityType(), ProDto.class);
+        int[] position = {1};
+
+        ProDto dto = (ProDto) projection.getRoot().read(tuple(99L, "Sidi", 7L, null, null), position);
+
+        assertThat(dto.getBaseZone()).isNull();
+        assertThat(position[0]).isEqualTo(5);
+    }
+
+    private static Tuple tuple(Object... values) {
+        Tuple tuple = mock(Tuple.class);
+        for (int i = 0; i < values.length; i++) {
+            when(tuple.get(i)).thenReturn(values[i]);
+        }
+        return tuple;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ManagedType<?> proEntityType() {
+        ManagedType<ZoneEntity> zoneType = mock(ManagedType.class);
+        doReturn(ZoneEntity.class).when(zoneType).getJavaType();
+        doReturn(attributes(basic("id", Long.class), basic("name", String.class))).when(zoneType).getAttributes();
+
+        SingularAttribute<?, ?> baseZone = mock(SingularAttribute.class);
+        when(baseZone.getName()).thenReturn("baseZone");
+        doReturn(ZoneEntity.class).when(baseZone).getJavaType();
+        doReturn(zoneType).when(baseZone).getType();
+
+        ManagedType<ProEntity> proType = mock(ManagedType.class);
+        doReturn(ProEntity.class).when(proType).getJavaType();
+        doReturn(attributes(basic("id", Long.class), basic("firstName", String.class),
+                basic("ratingAvg", Double.class), baseZone)).when(proType).getAttributes();
+        return proType;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static SingularAttribute<?, ?> basic(String name, Class<?> javaType) {
+        SingularAttribute<?, ?> attribute = mock(SingularAttribute.class);
+        when(attribute.getName()).thenReturn(name);
+        doReturn(javaType).when(attribute).getJavaType();
+        doReturn(mock(BasicType.class)).when(attribute).getType();
+        return attribute;
+    }
+
+    private static Set<Attribute<?, ?>> attributes(Attribute<?, ?>... attributes) {
+        return new LinkedHashSet<>(Arrays.asList(attributes));
+    }
+
+    // Entity classes only name the projection cache key; the metamodel stub describes them
+    static class ProEntity {
+    }
+
+    static class ZoneEntity {
+    }
+
+    public static class ProDto {
+        private Long id;
+        private String firstName;
+        private Integer ratingAvg;
+        private ZoneDto baseZone;
+        private String notMapped;
+
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long id) {
+            this.id = id;
+        }
+
+        public String getFirstName() {
+            return firstName;
+        }
+
+        public void setFirstName(String firstName) {
+            this.firstName = firstName;
+        }
+
+        public Integer getRatingAvg() {
+            return ratingAvg;
+        }
+
+        public void setRatingAvg(Integer ratingAvg) {
+            this.ratingAvg = ratingAvg;
+        }
+
+        public ZoneDto getBaseZone() {
+            return baseZone;
+        }
+
+        public void setBaseZone(ZoneDto baseZone) {
+            this.baseZone = baseZone;
+        }
+
+        public String getNotMapped() {
+            return notMapped;
+        }
+
+        public void setNotMapped(String notMapped) {
+            this.notMapped = notMapped;
+        }
+    }
+
+    public static class ZoneDto {
+        private Long id;
+        private String name;
+
+        public Long getId() {
+            return id;
+        }
+
+        public void setId(Long id) {
+            this.id = id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+}
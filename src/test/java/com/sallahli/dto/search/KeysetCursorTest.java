@@ -0,0 +1,71 @@
+package com.sallahli.dto.search;
+
+import com.sallahli.exceptions.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Sort values survive the cursor token as their attribute type.
+ */
+class KeysetCursorTest {
+
+    @Test
+    void valuesRoundTripAsTheirAttributeType() {
+        assertRoundTrip(new BigDecimal("12.50"), BigDecimal.class);
+        assertRoundTrip(LocalDateTime.of(2024, 3, 1, 10, 0), LocalDateTime.class);
+        assertRoundTrip(LocalDateTime.of(2024, 3, 1, 10, 0, 5, 123_456_000), LocalDateTime.class);
+        assertRoundTrip(LocalDate.of(2024, 3, 1), LocalDate.class);
+        assertRoundTrip(Instant.parse("2024-03-01T10:00:00.123Z"), Instant.class);
+        assertRoundTrip(42L, Long.class);
+        assertRoundTrip(Status.DONE, Status.class);
+        assertRoundTrip("a|b", String.class);
+    }
+
+    @Test
+    void decimalsAreWrittenInPlainNotation() {
+        assertThat(KeysetCursor.formatValue(new BigDecimal("1E+3"))).isEqualTo("1000");
+    }
+
+    @Test
+    void valueOfTheWrongTypeIsAnInvalidCursor() {
+        assertThatThrownBy(() -> KeysetCursor.parseValue("2024-03-01", LocalDateTime.class))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> KeysetCursor.parseValue("abc", BigDecimal.class))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> KeysetCursor.parseValue("UNKNOWN", Status.class))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    @Test
+    void cursorIsBoundToItsSort() {
+        String token = new KeysetCursor("createdAt", true, 7L, "2024-03-01T10:00").encode();
+
+        KeysetCursor cursor = KeysetCursor.decode(token, "createdAt", true);
+
+        assertThat(cursor.id()).isEqualTo(7L);
+        assertThat(cursor.value()).isEqualTo("2024-03-01T10:00");
+        assertThatThrownBy(() -> KeysetCursor.decode(token, "createdAt", false))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    private static void assertRoundTrip(Object value, Class<?> javaType) {
+        String token = new KeysetCursor("field", false, 1L, KeysetCursor.formatValue(value)).encode();
+        String decoded = KeysetCursor.decode(token, "field", false).value();
+
+        Object parsed = KeysetCursor.parseValue(decoded, javaType);
+
+        assertThat(parsed).isInstanceOf(javaType);
+        assertThat(parsed).isEqualTo(value);
+    }
+
+    enum Status {
+        OPEN, DONE
+    }
+}
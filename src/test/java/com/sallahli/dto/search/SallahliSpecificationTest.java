@@ -0,0 +1,198 @@
+package com.sallahli.dto.search;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.metamodel.Attribute;
+import jakarta.persistence.metamodel.BasicType;
+import jakarta.persistence.metamodel.EntityType;
+import jakarta.persistence.metamodel.ManagedType;
+import jakarta.persistence.metamodel.SingularAttribute;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Filters compiled into {@link FilterPlan}s build the same predicates, with the same typed
+ * values, as the specification resolved them per query before plans: case-insensitive
+ * text matches, typed comparisons, dropped invalid list items, and filters whose key or
+ * value does not resolve skipped rather than failing the search.
+ */
+@SuppressWarnings({"unchecked", "rawtypes"})
+class SallahliSpecificationTest {
+
+    private final CriteriaBuilder criteriaBuilder = mock(CriteriaBuilder.class);
+    private final CriteriaQuery<?> query = mock(CriteriaQuery.class);
+    private final Root<Item> root = mock(Root.class);
+    private final Path name = mock(Path.class);
+    private final Path price = mock(Path.class);
+    private final Path quantity = mock(Path.class);
+    private final Path status = mock(Path.class);
+    private final Path createdAt = mock(Path.class);
+    private final Path clientId = mock(Path.class);
+    private final Expression lowerName = mock(Expression.class);
+
+    @BeforeEach
+    void setUp() {
+        doReturn(itemType()).when(root).getModel();
+        doReturn(name).when(root).get("name");
+        doReturn(price).when(root).get("price");
+        doReturn(quantity).when(root).get("quantity");
+        doReturn(status).when(root).get("status");
+        doReturn(createdAt).when(root).get("createdAt");
+        doReturn(Set.of()).when(root).getFetches();
+        doReturn(Set.of()).when(root).getJoins();
+        Join client = mock(Join.class);
+        doReturn(client).when(root).join("client", JoinType.LEFT);
+        doReturn(clientId).when(client).get("id");
+
+        doReturn(name).when(name).as(String.class);
+        doReturn(lowerName).when(criteriaBuilder).lower(name);
+        doReturn(createdAt).when(createdAt).as(LocalDateTime.class);
+        doReturn(price).when(price).as(Double.class);
+    }
+
+    @Test
+    void textEqualsIgnoresCase() {
+        toPredicate(filter("name", MatchMode.equals, "SiDi"));
+
+        verify(criteriaBuilder).equal(lowerName, "sidi");
+    }
+
+    @Test
+    void containsIsACaseInsensitiveLike() {
+        toPredicate(filter("name", MatchMode.contains, "AbC"));
+
+        verify(criteriaBuilder).like(lowerName, "%abc%");
+    }
+
+    @Test
+    void comparisonsBindTheAttributeType() {
+        toPredicate(filter("quantity", MatchMode.gt, "5"), filter("price", MatchMode.lte, "2.5"));
+
+        verify(criteriaBuilder).greaterThan((Expression) quantity, (Comparable) 5L);
+        verify(criteriaBuilder).lessThanOrEqualTo((Expression) price, (Comparable) 2.5);
+    }
+
+    @Test
+    void dateComparisonsTakeADayOrAnIsoDateTime() {
+        toPredicate(filter("createdAt", MatchMode.gte, "20240301"),
+                filter("createdAt", MatchMode.lt, "2024-03-05T10:15"));
+
+        verify(criteriaBuilder).greaterThanOrEqualTo((Expression) createdAt,
+                (Comparable) LocalDateTime.of(2024, 3, 1, 0, 0));
+        verify(criteriaBuilder).lessThan((Expression) createdAt, (Comparable) LocalDateTime.of(2024, 3, 5, 10, 15));
+    }
+
+    @Test
+    void dateBeforeADayIncludesTheWholeDay() {
+        toPredicate(filter("createdAt", MatchMode.dateBefore, "20240301"));
+
+        verify(criteriaBuilder).lessThanOrEqualTo(createdAt,
+                LocalDate.of(2024, 3, 1).atTime(23, 59, 59, 999_999_999));
+    }
+
+    @Test
+    void betweenBindsBothBoundsAsTheAttributeType() {
+        toPredicate(filter("price", MatchMode.between, "1.5;2.5"));
+
+        verify(criteriaBuilder).between((Expression) price, (Comparable) 1.5, (Comparable) 2.5);
+    }
+
+    @Test
+    void inListsDropValuesThatDoNotParse() {
+        toPredicate(filter("status", MatchMode.in, "OPEN;BOGUS;DONE"), filter("quantity", MatchMode.in, "1;x;3"));
+
+        verify(status).in(List.of(Status.OPEN, Status.DONE));
+        verify(quantity).in(List.of(1L, 3L));
+    }
+
+    @Test
+    void nestedKeysFilterThroughALeftJoin() {
+        toPredicate(filter("client.id", MatchMode.equals, "7"));
+
+        verify(root).join("client", JoinType.LEFT);
+        verify(criteriaBuilder).equal(clientId, 7L);
+    }
+
+    @Test
+    void isNullNeedsNoValue() {
+        toPredicate(filter("name", MatchMode.isNull, null));
+
+        verify(name).isNull();
+    }
+
+    @Test
+    void unresolvableFiltersAreSkipped() {
+        toPredicate(filter("quantity", MatchMode.gt, "abc"), filter("unknown", MatchMode.equals, "1"),
+                filter("name", MatchMode.gt, null));
+
+        verify(criteriaBuilder).conjunction();
+        verify(criteriaBuilder, never()).greaterThan(any(Expression.class), any(Comparable.class));
+        verify(criteriaBuilder, never()).equal(any(), any(Object.class));
+    }
+
+    private void toPredicate(Filter... filters) {
+        new SallahliSpecification<Item>(List.of(filters)).toPredicate(root, query, criteriaBuilder);
+    }
+
+    private static Filter filter(String key, MatchMode matchMode, String value) {
+        return new Filter(key, value, matchMode);
+    }
+
+    private static EntityType<Item> itemType() {
+        ManagedType<Client> clientType = mock(ManagedType.class);
+        doReturn(Client.class).when(clientType).getJavaType();
+        Attribute id = basic("id", Long.class);
+        doReturn(id).when(clientType).getAttribute("id");
+
+        SingularAttribute client = mock(SingularAttribute.class);
+        when(client.getName()).thenReturn("client");
+        doReturn(Client.class).when(client).getJavaType();
+        doReturn(clientType).when(client).getType();
+
+        EntityType<Item> itemType = mock(EntityType.class);
+        doReturn(Item.class).when(itemType).getJavaType();
+        for (Attribute attribute : List.of(basic("name", String.class), basic("price", Double.class),
+                basic("quantity", long.class), basic("status", Status.class),
+                basic("createdAt", LocalDateTime.class), client)) {
+            doReturn(attribute).when(itemType).getAttribute(attribute.getName());
+        }
+        when(itemType.getAttribute("unknown")).thenThrow(new IllegalArgumentException("No attribute unknown"));
+        return itemType;
+    }
+
+    private static SingularAttribute<?, ?> basic(String name, Class<?> javaType) {
+        SingularAttribute attribute = mock(SingularAttribute.class);
+        when(attribute.getName()).thenReturn(name);
+        doReturn(javaType).when(attribute).getJavaType();
+        doReturn(mock(BasicType.class)).when(attribute).getType();
+        return attribute;
+    }
+
+    // Entity classes only name the plan cache key; the metamodel stub describes them
+    static class Item {
+    }
+
+    static class Client {
+    }
+
+    enum Status {
+        OPEN, DONE
+    }
+}
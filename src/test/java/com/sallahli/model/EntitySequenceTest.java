@@ -0,0 +1,74 @@
+package com.sallahli.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.SequenceGenerator;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.type.filter.AnnotationTypeFilter;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Pooled-lo ids: each entity takes blocks of {@code allocationSize} ids from one nextval, so
+ * the database sequence must step by the same amount or two blocks would overlap.
+ */
+class EntitySequenceTest {
+
+    private static final int ALLOCATION_SIZE = 50;
+
+    @Test
+    void everySequenceStepsByTheAllocationSize() throws IOException {
+        String changelog = new ClassPathResource("db/changelog/init.sql").getContentAsString(StandardCharsets.UTF_8);
+
+        List<SequenceGenerator> generators = sequenceGenerators();
+
+        assertThat(generators).isNotEmpty();
+        for (SequenceGenerator generator : generators) {
+            assertThat(generator.allocationSize()).as(generator.sequenceName()).isEqualTo(ALLOCATION_SIZE);
+            assertThat(lastIncrement(changelog, generator.sequenceName())).as(generator.sequenceName())
+                    .isEqualTo(ALLOCATION_SIZE);
+        }
+    }
+
+    private static List<SequenceGenerator> sequenceGenerators() {
+        ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+        scanner.addIncludeFilter(new AnnotationTypeFilter(Entity.class));
+
+        List<SequenceGenerator> generators = new ArrayList<>();
+        for (BeanDefinition definition : scanner.findCandidateComponents(
+                EntitySequenceTest.class.getPackageName())) {
+            Class<?> entityType = ClassUtils.resolveClassName(definition.getBeanClassName(), null);
+            ReflectionUtils.doWithFields(entityType, field -> {
+                SequenceGenerator generator = field.getAnnotation(SequenceGenerator.class);
+                if (generator != null) {
+                    generators.add(generator);
+                }
+            });
+        }
+        return generators;
+    }
+
+    /**
+     * INCREMENT BY of the last changeset that creates or alters the sequence.
+     */
+    private static Integer lastIncrement(String changelog, String sequenceName) {
+        Matcher matcher = Pattern.compile("SEQUENCE\\s+(?:IF NOT EXISTS\\s+)?" + Pattern.quote(sequenceName)
+                + "\\b[^;]*?INCREMENT BY (\\d+)", Pattern.CASE_INSENSITIVE).matcher(changelog);
+        Integer increment = null;
+        while (matcher.find()) {
+            increment = Integer.valueOf(matcher.group(1));
+        }
+        return increment;
+    }
+}
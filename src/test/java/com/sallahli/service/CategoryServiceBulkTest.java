@@ -0,0 +1,142 @@
+package com.sallahli.service;
+
+import com.sallahli.dto.sallahli.CategoryDTO;
+import com.sallahli.exceptions.BadRequestException;
+import com.sallahli.exceptions.NotFoundException;
+import com.sallahli.mapper.CategoryMapper;
+import com.sallahli.mapper.MediaMapper;
+import com.sallahli.model.Category;
+import com.sallahli.repository.CategoryRepository;
+import com.sallahli.repository.MediaRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * The bulk endpoints go through the single entity create / update / delete, so the category
+ * validation and soft delete still apply, and load the existing rows with one query.
+ * Lists longer than a page are rejected.
+ */
+class CategoryServiceBulkTest {
+
+    private final CategoryRepository categoryRepository = mock(CategoryRepository.class);
+    private final CategoryMapper categoryMapper = mock(CategoryMapper.class);
+    private CategoryService categoryService;
+
+    @BeforeEach
+    void setUp() {
+        categoryService = new CategoryService(categoryRepository, categoryMapper, mock(MediaRepository.class),
+                mock(MediaService.class), mock(MediaMapper.class));
+        ReflectionTestUtils.setField(categoryService, "maxPageSize", 3);
+        when(categoryMapper.toModel(any(CategoryDTO.class))).thenAnswer(invocation -> {
+            CategoryDTO dto = invocation.getArgument(0);
+            return Category.builder().id(dto.getId()).code(dto.getCode()).name(dto.getName()).build();
+        });
+        when(categoryMapper.toDto(any(Category.class))).thenAnswer(invocation -> {
+            Category category = invocation.getArgument(0);
+            return CategoryDTO.builder().id(category.getId()).code(category.getCode()).name(category.getName())
+                    .build();
+        });
+        when(categoryRepository.save(any(Category.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void createAllValidatesEveryCategory() {
+        List<CategoryDTO> created = categoryService.createAll(List.of(dto(null, " plumbing ", "Plumbing"),
+                dto(null, "paint", "Painting")));
+
+        assertThat(created).extracting(CategoryDTO::getCode).containsExactly("PLUMBING", "PAINT");
+        verify(categoryRepository, times(2)).save(any(Category.class));
+    }
+
+    @Test
+    void createAllStopsAtAnInvalidCategory() {
+        when(categoryRepository.existsByCodeIgnoreCase("PAINT")).thenReturn(true);
+
+        assertThatThrownBy(() -> categoryService.createAll(List.of(dto(null, "plumbing", "Plumbing"),
+                dto(null, "paint", "Painting"))))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("PAINT");
+    }
+
+    @Test
+    void updateAllLoadsTheCategoriesWithOneQuery() {
+        Category plumbing = category(1L, "PLUMBING");
+        Category paint = category(2L, "PAINT");
+        when(categoryRepository.findById(1L)).thenReturn(Optional.of(plumbing));
+        when(categoryRepository.findById(2L)).thenReturn(Optional.of(paint));
+
+        List<CategoryDTO> updated = categoryService.updateAll(List.of(dto(1L, null, "Plumbing & heating"),
+                dto(2L, null, "Painting")));
+
+        verify(categoryRepository).findAllById(List.of(1L, 2L));
+        assertThat(updated).extracting(CategoryDTO::getName).containsExactly("Plumbing & heating", "Painting");
+        assertThat(plumbing.getCode()).isEqualTo("PLUMBING");
+    }
+
+    @Test
+    void updateAllRequiresEveryId() {
+        assertThatThrownBy(() -> categoryService.updateAll(List.of(dto(1L, null, "Plumbing"),
+                dto(null, null, "Painting"))))
+                .isInstanceOf(BadRequestException.class);
+        verify(categoryRepository, never()).save(any(Category.class));
+    }
+
+    @Test
+    void deleteAllByIdsArchivesTheLoadedCategories() {
+        Category plumbing = category(1L, "PLUMBING");
+        Category paint = category(2L, "PAINT");
+        when(categoryRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(paint, plumbing));
+
+        categoryService.deleteAllByIds(List.of(1L, 2L));
+
+        assertThat(plumbing.getArchived()).isTrue();
+        assertThat(paint.getArchived()).isTrue();
+        assertThat(paint.getActive()).isFalse();
+        verify(categoryRepository, never()).findByIdAndArchivedFalse(anyLong());
+        verify(categoryRepository, never()).existsById(anyLong());
+        verify(categoryRepository, never()).deleteById(anyLong());
+    }
+
+    @Test
+    void deleteAllByIdsRejectsMissingOrArchivedCategories() {
+        Category paint = category(2L, "PAINT");
+        paint.setArchived(true);
+        when(categoryRepository.findAllById(List.of(1L))).thenReturn(List.of());
+        when(categoryRepository.findAllById(List.of(2L))).thenReturn(List.of(paint));
+
+        assertThatThrownBy(() -> categoryService.deleteAllByIds(List.of(1L)))
+                .isInstanceOf(NotFoundException.class);
+        assertThatThrownBy(() -> categoryService.deleteAllByIds(List.of(2L)))
+                .isInstanceOf(NotFoundException.class);
+        verify(categoryRepository, never()).save(any(Category.class));
+    }
+
+    @Test
+    void bulkListsAreCappedAtTheMaxPageSize() {
+        assertThatThrownBy(() -> categoryService.deleteAllByIds(List.of(1L, 2L, 3L, 4L)))
+                .isInstanceOf(BadRequestException.class);
+        verify(categoryRepository, never()).findAllById(any());
+    }
+
+    private static CategoryDTO dto(Long id, String code, String name) {
+        return CategoryDTO.builder().id(id).code(code).name(name).build();
+    }
+
+    private static Category category(Long id, String code) {
+        return Category.builder().id(id).code(code).name(code.toLowerCase()).build();
+    }
+}
@@ -0,0 +1,152 @@
+package com.sallahli.service;
+
+import com.sallahli.dto.chat.MessageDto;
+import com.sallahli.dto.search.CriteriaSearchExecutor;
+import com.sallahli.exceptions.AccessDeniedException;
+import com.sallahli.exceptions.ConflictException;
+import com.sallahli.mapper.ConversationMapper;
+import com.sallahli.mapper.ConversationParticipantsMapper;
+import com.sallahli.mapper.MessageMapper;
+import com.sallahli.model.Conversation;
+import com.sallahli.model.ConversationParticipantId;
+import com.sallahli.model.Enum.UserRoleEnum;
+import com.sallahli.repository.AdminRepository;
+import com.sallahli.repository.ClientRepository;
+import com.sallahli.repository.ConversationParticipantRepository;
+import com.sallahli.repository.ConversationRepository;
+import com.sallahli.repository.MessageRepository;
+import com.sallahli.repository.ProRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Who may post to a conversation: the authenticated participant, as one of their own
+ * roles, while the conversation is open. Reading its history takes a participant or staff.
+ */
+class ChatServiceAccessTest {
+
+    private static final Long CONVERSATION_ID = 5L;
+    private static final Long PRO_ID = 7L;
+    private static final String PRO_TEL = "22334455";
+
+    private final ConversationRepository conversationRepository = mock(ConversationRepository.class);
+    private final ConversationParticipantRepository participantRepository = mock(ConversationParticipantRepository.class);
+    private final ProRepository proRepository = mock(ProRepository.class);
+    private final MessageWriteBehindService messageWriteBehindService = mock(MessageWriteBehindService.class);
+    private final WebSocketService webSocketService = mock(WebSocketService.class);
+    private ChatService chatService;
+
+    @BeforeEach
+    void setUp() {
+        ParticipantDirectoryService participantDirectoryService = new ParticipantDirectoryService(
+                mock(ClientRepository.class), proRepository, mock(AdminRepository.class), 100);
+        chatService = new ChatService(conversationRepository, participantRepository, mock(MessageRepository.class),
+                mock(ConversationMapper.class), mock(ConversationParticipantsMapper.class), mock(MessageMapper.class),
+                webSocketService, messageWriteBehindService, participantDirectoryService,
+                mock(SupportQueueService.class), mock(CriteriaSearchExecutor.class));
+        when(conversationRepository.findById(CONVERSATION_ID))
+                .thenReturn(Optional.of(Conversation.builder().id(CONVERSATION_ID).build()));
+        when(proRepository.findIdByTel(PRO_TEL)).thenReturn(Optional.of(PRO_ID));
+        when(messageWriteBehindService.accept(eq(CONVERSATION_ID), any()))
+                .thenAnswer(invocation -> invocation.getArgument(1));
+    }
+
+    @AfterEach
+    void clearSecurityContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void participantSendsAsTheRoleTheTokenCarries() {
+        authenticate(PRO_TEL, "ROLE_PRO");
+        givenParticipant(PRO_ID, UserRoleEnum.DRIVER);
+
+        // No role in the payload: the only chat role of the token is used
+        MessageDto sent = chatService.sendMessage(CONVERSATION_ID, MessageDto.builder().content("hello").build());
+
+        assertThat(sent.getSenderId()).isEqualTo(PRO_ID);
+        assertThat(sent.getSenderRole()).isEqualTo(UserRoleEnum.DRIVER);
+        verify(webSocketService).sendChatMessageToConversation(CONVERSATION_ID, sent);
+    }
+
+    @Test
+    void roleNotHeldByTheTokenIsRejected() {
+        authenticate(PRO_TEL, "ROLE_PRO");
+
+        assertThatThrownBy(() -> chatService.sendMessage(CONVERSATION_ID,
+                MessageDto.builder().senderRole(UserRoleEnum.CUSTOMER_SUPPORT_AGENT).content("hello").build()))
+                .isInstanceOf(AccessDeniedException.class);
+        verifyNoInteractions(messageWriteBehindService);
+    }
+
+    @Test
+    void nonParticipantCannotSend() {
+        authenticate(PRO_TEL, "ROLE_PRO");
+
+        assertThatThrownBy(() -> chatService.sendMessage(CONVERSATION_ID,
+                MessageDto.builder().content("hello").build()))
+                .isInstanceOf(AccessDeniedException.class);
+        verifyNoInteractions(messageWriteBehindService, webSocketService);
+    }
+
+    @Test
+    void closedConversationRejectsMessages() {
+        authenticate(PRO_TEL, "ROLE_PRO");
+        givenParticipant(PRO_ID, UserRoleEnum.DRIVER);
+        when(conversationRepository.findById(CONVERSATION_ID))
+                .thenReturn(Optional.of(Conversation.builder().id(CONVERSATION_ID).closed(true).build()));
+
+        assertThatThrownBy(() -> chatService.sendMessage(CONVERSATION_ID,
+                MessageDto.builder().content("hello").build()))
+                .isInstanceOf(ConflictException.class);
+        verifyNoInteractions(messageWriteBehindService);
+    }
+
+    @Test
+    void nonParticipantCannotReadTheHistory() {
+        authenticate(PRO_TEL, "ROLE_PRO");
+
+        assertThatThrownBy(() -> chatService.getMessages(CONVERSATION_ID, null, null, 30))
+                .isInstanceOf(AccessDeniedException.class);
+        assertThatThrownBy(() -> chatService.getMessagesFromFirstUnread(CONVERSATION_ID, null, 30))
+                .isInstanceOf(AccessDeniedException.class);
+    }
+
+    @Test
+    void participantAndSupportReadTheHistory() {
+        authenticate(PRO_TEL, "ROLE_PRO");
+        givenParticipant(PRO_ID, UserRoleEnum.DRIVER);
+
+        assertThat(chatService.getMessages(CONVERSATION_ID, null, null, 30).getContent()).isEmpty();
+
+        authenticate("agent", "ROLE_CUSTOMER_SUPPORT_AGENT");
+
+        assertThat(chatService.getMessages(CONVERSATION_ID, null, 10L, 30).getContent()).isEmpty();
+    }
+
+    private void givenParticipant(Long userId, UserRoleEnum role) {
+        when(participantRepository.existsById(new ConversationParticipantId(CONVERSATION_ID, userId, role)))
+                .thenReturn(true);
+    }
+
+    private static void authenticate(String username, String authority) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                username, null, List.of(new SimpleGrantedAuthority(authority))));
+    }
+}
@@ -0,0 +1,97 @@
+package com.sallahli.service;
+
+import com.sallahli.dto.chat.MessageDroppedDto;
+import com.sallahli.dto.chat.MessageDto;
+import com.sallahli.mapper.MessageMapper;
+import com.sallahli.model.Message;
+import com.sallahli.repository.ConversationParticipantRepository;
+import com.sallahli.repository.ConversationRepository;
+import com.sallahli.repository.MessageRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Resends answered from the database once the in-memory entry is gone, and messages that
+ * cannot be stored announced to the conversation instead of silently lost.
+ */
+class MessageWriteBehindServiceTest {
+
+    private static final Long CONVERSATION_ID = 5L;
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final TransactionTemplate transactionTemplate = mock(TransactionTemplate.class);
+    private final MessageRepository messageRepository = mock(MessageRepository.class);
+    private final MessageMapper messageMapper = mock(MessageMapper.class);
+    private final WebSocketService webSocketService = mock(WebSocketService.class);
+    private MessageWriteBehindService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new MessageWriteBehindService(jdbcTemplate, transactionTemplate, mock(ConversationRepository.class),
+                mock(ConversationParticipantRepository.class), messageRepository, messageMapper, webSocketService,
+                200, 100, 1, 600);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenReturn(101L);
+        when(messageRepository.findByConversationIdAndClientMessageId(any(), any())).thenReturn(Optional.empty());
+    }
+
+    @Test
+    void resendOfAStoredMessageReturnsIt() {
+        Message stored = Message.builder().id(42L).clientMessageId("c1").build();
+        when(messageRepository.findByConversationIdAndClientMessageId(CONVERSATION_ID, "c1"))
+                .thenReturn(Optional.of(stored));
+        when(messageMapper.toDtoWithoutConversation(stored)).thenReturn(MessageDto.builder().id(42L).build());
+
+        MessageDto accepted = service.accept(CONVERSATION_ID, message("c1"));
+
+        assertThat(accepted.getId()).isEqualTo(42L);
+        assertThat(accepted.getConversationId()).isEqualTo(CONVERSATION_ID);
+        verify(jdbcTemplate, never()).queryForObject(anyString(), eq(Long.class));
+    }
+
+    @Test
+    void resendWhileRecentReturnsTheAcceptedMessage() {
+        MessageDto first = service.accept(CONVERSATION_ID, message("c1"));
+
+        MessageDto resent = service.accept(CONVERSATION_ID, message("c1"));
+
+        assertThat(resent.getId()).isEqualTo(first.getId()).isEqualTo(101L);
+    }
+
+    @Test
+    void messageThatCannotBeStoredIsAnnouncedAndCanBeResent() {
+        doThrow(new IllegalStateException("database down")).when(transactionTemplate).executeWithoutResult(any());
+        MessageDto first = service.accept(CONVERSATION_ID, message("c1"));
+
+        service.flush();
+
+        ArgumentCaptor<Object> update = ArgumentCaptor.forClass(Object.class);
+        verify(webSocketService).sendConversationUpdate(eq(CONVERSATION_ID), update.capture());
+        MessageDroppedDto dropped = (MessageDroppedDto) update.getValue();
+        assertThat(dropped.getMessageId()).isEqualTo(first.getId());
+        assertThat(dropped.getClientMessageId()).isEqualTo("c1");
+        assertThat(service.findPendingConversationId(first.getId())).isEmpty();
+
+        MessageDto resent = service.accept(CONVERSATION_ID, message("c1"));
+
+        assertThat(resent.getId()).isNotEqualTo(first.getId());
+    }
+
+    private static MessageDto message(String clientMessageId) {
+        return MessageDto.builder().senderId(3L).content("hello").clientMessageId(clientMessageId).build();
+    }
+}
@@ -0,0 +1,55 @@
+package com.sallahli.service;
+
+import com.sallahli.repository.ProRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * The availability a pro chose is stored as it is made and restored after a restart, so
+ * only the sessions have to come back.
+ */
+class ProPresenceServiceTest {
+
+    private final ProRepository proRepository = mock(ProRepository.class);
+    private ProPresenceService presenceService;
+
+    @BeforeEach
+    void setUp() {
+        presenceService = new ProPresenceService(proRepository, 30, 60, 60);
+    }
+
+    @Test
+    void choiceIsStoredAsItIsMade() {
+        presenceService.setAvailable(7L, true);
+
+        verify(proRepository).updateAvailable(7L, true);
+        assertThat(presenceService.isOnline(7L)).isTrue();
+    }
+
+    @Test
+    void availableProsAreRestoredWithinTheGracePeriod() {
+        when(proRepository.findAvailableProIds()).thenReturn(List.of(7L, 8L));
+
+        presenceService.restoreFromDatabase();
+
+        assertThat(presenceService.getOnlineProIds()).containsExactlyInAnyOrder(7L, 8L);
+    }
+
+    @Test
+    void proWhoWentOfflineIsNotRestored() {
+        when(proRepository.findAvailableProIds()).thenReturn(List.of(8L));
+        presenceService.setAvailable(7L, false);
+
+        presenceService.restoreFromDatabase();
+
+        assertThat(presenceService.isOnline(7L)).isFalse();
+        verify(proRepository).updateAvailable(7L, false);
+    }
+}
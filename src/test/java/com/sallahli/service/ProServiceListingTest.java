@@ -0,0 +1,178 @@
+package com.sallahli.service;
+
+import com.sallahli.dto.sallahli.ProDTO;
+import com.sallahli.dto.search.CountMode;
+import com.sallahli.dto.search.Criteria;
+import com.sallahli.dto.search.CriteriaExporter;
+import com.sallahli.dto.search.CriteriaSearchExecutor;
+import com.sallahli.dto.search.ExportFormat;
+import com.sallahli.mapper.ProMapper;
+import com.sallahli.model.Pro;
+import com.sallahli.repository.AdminRepository;
+import com.sallahli.repository.CategoryRepository;
+import com.sallahli.repository.MediaRepository;
+import com.sallahli.repository.ProRepository;
+import com.sallahli.repository.ZoneRepository;
+import com.sallahli.service.crud.StreamedListing;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * The admin listings below the controller, read through the column projection: the page
+ * trims its look-ahead row into {@code hasNext}, the stream reports whether the row cap cut
+ * it short, and the criteria search totals its page as the count mode asks.
+ */
+class ProServiceListingTest {
+
+    private final ProMapper proMapper = mock(ProMapper.class);
+    private final CriteriaSearchExecutor criteriaSearchExecutor = mock(CriteriaSearchExecutor.class);
+    private final CriteriaExporter criteriaExporter = mock(CriteriaExporter.class);
+    private ProService proService;
+
+    @BeforeEach
+    void setUp() {
+        proService = new ProService(mock(ProRepository.class), proMapper, mock(CategoryRepository.class),
+                mock(ZoneRepository.class), mock(MediaRepository.class), mock(AdminRepository.class),
+                mock(ProPresenceService.class), mock(WebSocketService.class));
+        proService.setCriteriaSearchExecutor(criteriaSearchExecutor);
+        proService.setCriteriaExporter(criteriaExporter);
+        ReflectionTestUtils.setField(proService, "defaultPageSize", 2);
+        ReflectionTestUtils.setField(proService, "maxPageSize", 100);
+        ReflectionTestUtils.setField(proService, "maxStreamRows", 3);
+    }
+
+    @Test
+    void pageReadsOneExtraRowToKnowThereIsANextPage() {
+        givenProjectedRows(1L, 2L, 3L);
+
+        Slice<ProDTO> page = proService.findPage(null, null);
+
+        assertThat(page.getContent()).extracting(ProDTO::getId).containsExactly(1L, 2L);
+        assertThat(page.hasNext()).isTrue();
+    }
+
+    @Test
+    void lastPageHasNoNext() {
+        givenProjectedRows(5L);
+
+        Slice<ProDTO> page = proService.findPage(2, 2);
+
+        assertThat(page.getContent()).extracting(ProDTO::getId).containsExactly(5L);
+        assertThat(page.hasNext()).isFalse();
+    }
+
+    @Test
+    void streamPastTheCapIsMarkedTruncated() {
+        StreamingResponseBody body = out -> out.write('[');
+        when(criteriaSearchExecutor.hasMoreThan(Pro.class, null, 3)).thenReturn(true);
+        when(criteriaExporter.exportProjected(eq(Pro.class), isNull(), eq(ProDTO.class), eq(ExportFormat.json),
+                eq(3)))
+                .thenReturn(body);
+
+        StreamedListing listing = proService.streamAll();
+
+        assertThat(listing.body()).isSameAs(body);
+        assertThat(listing.truncated()).isTrue();
+        assertThat(listing.headers().getFirst(StreamedListing.TRUNCATED_HEADER)).isEqualTo("true");
+        assertThat(listing.headers().getFirst(StreamedListing.MAX_ROWS_HEADER)).isEqualTo("3");
+    }
+
+    @Test
+    void streamWithinTheCapIsComplete() {
+        when(criteriaSearchExecutor.hasMoreThan(Pro.class, null, 3)).thenReturn(false);
+
+        StreamedListing listing = proService.streamAll();
+
+        assertThat(listing.truncated()).isFalse();
+        assertThat(listing.headers().getFirst(StreamedListing.TRUNCATED_HEADER)).isEqualTo("false");
+    }
+
+    @Test
+    void exactSearchCountsAFullPage() {
+        givenProjectedRows(1L, 2L, 3L);
+        when(criteriaSearchExecutor.count(eq(Pro.class), any())).thenReturn(57L);
+
+        Page<ProDTO> page = proService.findByCriteria(criteria(CountMode.exact));
+
+        assertThat(page.getContent()).extracting(ProDTO::getId).containsExactly(1L, 2L);
+        assertThat(page.getTotalElements()).isEqualTo(57L);
+    }
+
+    @Test
+    void sliceSearchSkipsTheCount() {
+        givenProjectedRows(1L, 2L, 3L);
+
+        Page<ProDTO> page = proService.findByCriteria(criteria(CountMode.slice));
+
+        assertThat(page.getContent()).extracting(ProDTO::getId).containsExactly(1L, 2L);
+        assertThat(page.hasNext()).isTrue();
+        verify(criteriaSearchExecutor, never()).count(any(), any());
+    }
+
+    @Test
+    void estimatedSearchReportsTheEstimate() {
+        givenProjectedRows(1L, 2L, 3L);
+        when(criteriaSearchExecutor.estimateCount(eq(Pro.class), any(), eq(false))).thenReturn(5000L);
+
+        Page<ProDTO> page = proService.findByCriteria(criteria(CountMode.estimated));
+
+        assertThat(page.getTotalElements()).isEqualTo(5000L);
+        verify(criteriaSearchExecutor, never()).count(any(), any());
+    }
+
+    @Test
+    void estimatedSearchFallsBackToTheExactCount() {
+        givenProjectedRows(1L, 2L, 3L);
+        when(criteriaSearchExecutor.estimateCount(eq(Pro.class), any(), eq(false))).thenReturn(-1L);
+        when(criteriaSearchExecutor.count(eq(Pro.class), any())).thenReturn(57L);
+
+        Page<ProDTO> page = proService.findByCriteria(criteria(CountMode.estimated));
+
+        assertThat(page.getTotalElements()).isEqualTo(57L);
+    }
+
+    /**
+     * Projected rows as the executor returns them: the page size, plus one when asked.
+     */
+    private void givenProjectedRows(Long... ids) {
+        when(criteriaSearchExecutor.findProjected(eq(Pro.class), eq(ProDTO.class), any(), any(Pageable.class),
+                anyBoolean()))
+                .thenAnswer(invocation -> {
+                    Pageable pageable = invocation.getArgument(3);
+                    boolean extraRow = invocation.getArgument(4);
+                    return Arrays.stream(ids)
+                            .limit(pageable.getPageSize() + (extraRow ? 1 : 0))
+                            .map(ProServiceListingTest::dto)
+                            .toList();
+                });
+    }
+
+    private static Criteria criteria(CountMode countMode) {
+        Criteria criteria = new Criteria();
+        criteria.setCountMode(countMode);
+        return criteria;
+    }
+
+    private static ProDTO dto(Long id) {
+        ProDTO dto = new ProDTO();
+        dto.setId(id);
+        return dto;
+    }
+}
@@ -0,0 +1,177 @@
+package com.sallahli.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sallahli.dto.sallahli.ProDTO;
+import com.sallahli.exceptions.AccessDeniedException;
+import com.sallahli.exceptions.BadRequestException;
+import com.sallahli.exceptions.ConflictException;
+import com.sallahli.mapper.ProMapper;
+import com.sallahli.model.Pro;
+import com.sallahli.repository.AdminRepository;
+import com.sallahli.repository.CategoryRepository;
+import com.sallahli.repository.MediaRepository;
+import com.sallahli.repository.ProRepository;
+import com.sallahli.repository.ZoneRepository;
+import com.sallahli.service.crud.EntityPatcher;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.metamodel.BasicType;
+import jakarta.persistence.metamodel.EntityType;
+import jakarta.persistence.metamodel.Metamodel;
+import jakarta.persistence.metamodel.SingularAttribute;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import javax.json.Json;
+import javax.json.JsonPatch;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * The PATCH path end to end below the controller: ownership, the attribute allow-list and
+ * the If-Match version check, with the real {@link EntityPatcher} over a stub metamodel.
+ */
+class ProServicePatchTest {
+
+    private static final Long PRO_ID = 7L;
+    private static final String PRO_TEL = "22334455";
+
+    private final ProRepository proRepository = mock(ProRepository.class);
+    private final ProMapper proMapper = mock(ProMapper.class);
+    private final EntityManager entityManager = mock(EntityManager.class);
+    private ProService proService;
+    private Pro pro;
+
+    @BeforeEach
+    void setUp() {
+        proService = new ProService(proRepository, proMapper, mock(CategoryRepository.class),
+                mock(ZoneRepository.class), mock(MediaRepository.class), mock(AdminRepository.class),
+                mock(ProPresenceService.class), mock(WebSocketService.class));
+        proService.setEntityPatcher(new EntityPatcher(entityManager, new ObjectMapper()));
+        stubMetamodel();
+
+        pro = Pro.builder().id(PRO_ID).walletBalance(100L).version(3L).build();
+        pro.setFirstName("Sidi");
+        when(proRepository.findById(PRO_ID)).thenReturn(Optional.of(pro));
+        when(proRepository.findIdByTel(PRO_TEL)).thenReturn(Optional.of(PRO_ID));
+        when(proRepository.saveAndFlush(any(Pro.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(proMapper.toDto(any(Pro.class))).thenAnswer(invocation -> {
+            Pro saved = invocation.getArgument(0);
+            ProDTO dto = new ProDTO();
+            dto.setId(saved.getId());
+            dto.setFirstName(saved.getFirstName());
+            dto.setVersion(saved.getVersion());
+            return dto;
+        });
+    }
+
+    @AfterEach
+    void clearSecurityContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void proPatchesOwnProfileAtTheExpectedVersion() {
+        authenticate(PRO_TEL, "ROLE_PRO");
+
+        ProDTO patched = proService.patch(PRO_ID, replace("/firstName", "Mohamed"), 3L);
+
+        assertThat(patched.getFirstName()).isEqualTo("Mohamed");
+        assertThat(pro.getFirstName()).isEqualTo("Mohamed");
+        verify(proRepository).saveAndFlush(pro);
+    }
+
+    @Test
+    void staleIfMatchVersionIsAConflict() {
+        authenticate(PRO_TEL, "ROLE_PRO");
+
+        assertThatThrownBy(() -> proService.patch(PRO_ID, replace("/firstName", "Mohamed"), 2L))
+                .isInstanceOf(ConflictException.class);
+        assertThat(pro.getFirstName()).isEqualTo("Sidi");
+        verify(proRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void attributesOutsideTheAllowListAreRejected() {
+        authenticate(PRO_TEL, "ROLE_PRO");
+
+        assertThatThrownBy(() -> proService.patch(PRO_ID, replaceNumber("/walletBalance", 1_000_000), null))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> proService.patch(PRO_ID, replaceNumber("/version", 9), null))
+                .isInstanceOf(BadRequestException.class);
+        assertThat(pro.getWalletBalance()).isEqualTo(100L);
+        assertThat(pro.getVersion()).isEqualTo(3L);
+    }
+
+    @Test
+    void proCannotPatchAnotherPro() {
+        authenticate("99887766", "ROLE_PRO");
+        when(proRepository.findIdByTel("99887766")).thenReturn(Optional.of(8L));
+
+        assertThatThrownBy(() -> proService.patch(PRO_ID, replace("/firstName", "Mohamed"), null))
+                .isInstanceOf(AccessDeniedException.class);
+        verify(proRepository, never()).findById(PRO_ID);
+    }
+
+    @Test
+    void adminPatchesAnyPro() {
+        authenticate("admin", "ROLE_ADMIN");
+
+        ProDTO patched = proService.patch(PRO_ID, replace("/firstName", "Mohamed"), null);
+
+        assertThat(patched.getFirstName()).isEqualTo("Mohamed");
+    }
+
+    private static JsonPatch replace(String path, String value) {
+        return Json.createPatchBuilder().replace(path, value).build();
+    }
+
+    private static JsonPatch replaceNumber(String path, int value) {
+        return Json.createPatchBuilder().replace(path, value).build();
+    }
+
+    private static void authenticate(String username, String authority) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                username, null, List.of(new SimpleGrantedAuthority(authority))));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void stubMetamodel() {
+        SingularAttribute<Pro, ?> firstName = attribute("firstName", String.class, false);
+        SingularAttribute<Pro, ?> walletBalance = attribute("walletBalance", Long.class, false);
+        SingularAttribute<Pro, ?> version = attribute("version", Long.class, true);
+
+        EntityType<Pro> entityType = mock(EntityType.class);
+        doReturn(Set.of(firstName, walletBalance, version)).when(entityType).getAttributes();
+        doReturn(Set.of(firstName, walletBalance, version)).when(entityType).getSingularAttributes();
+        when(entityType.hasVersionAttribute()).thenReturn(true);
+
+        Metamodel metamodel = mock(Metamodel.class);
+        when(metamodel.entity(Pro.class)).thenReturn(entityType);
+        when(entityManager.getMetamodel()).thenReturn(metamodel);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static SingularAttribute<Pro, ?> attribute(String name, Class<?> javaType, boolean isVersion) {
+        SingularAttribute<Pro, ?> attribute = mock(SingularAttribute.class);
+        when(attribute.getName()).thenReturn(name);
+        when(attribute.isVersion()).thenReturn(isVersion);
+        when(attribute.isOptional()).thenReturn(true);
+        doReturn(javaType).when(attribute).getJavaType();
+        doReturn(mock(BasicType.class)).when(attribute).getType();
+        return attribute;
+    }
+}
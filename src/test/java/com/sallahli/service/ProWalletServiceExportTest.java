@@ -0,0 +1,89 @@
+package com.sallahli.service;
+
+import com.sallahli.dto.WalletTransactionExportDTO;
+import com.sallahli.dto.search.Criteria;
+import com.sallahli.dto.search.CriteriaExporter;
+import com.sallahli.dto.search.ExportFormat;
+import com.sallahli.exceptions.AccessDeniedException;
+import com.sallahli.model.Pro;
+import com.sallahli.model.ProWalletTransaction;
+import com.sallahli.repository.ProRepository;
+import com.sallahli.repository.ProWalletTransactionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * Who may export a pro's wallet transactions: the pro, or an admin.
+ */
+class ProWalletServiceExportTest {
+
+    private static final Long PRO_ID = 7L;
+    private static final String PRO_TEL = "22334455";
+
+    private final ProRepository proRepository = mock(ProRepository.class);
+    private final CriteriaExporter criteriaExporter = mock(CriteriaExporter.class);
+    private ProWalletService proWalletService;
+
+    @BeforeEach
+    void setUp() {
+        proWalletService = new ProWalletService(proRepository, mock(ProWalletTransactionRepository.class),
+                criteriaExporter);
+        when(proRepository.findById(PRO_ID)).thenReturn(Optional.of(Pro.builder().id(PRO_ID).build()));
+        when(proRepository.findIdByTel(PRO_TEL)).thenReturn(Optional.of(PRO_ID));
+        when(proRepository.findIdByTel("99887766")).thenReturn(Optional.of(8L));
+    }
+
+    @AfterEach
+    void clearSecurityContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void proExportsOwnTransactions() {
+        authenticate(PRO_TEL, "ROLE_PRO");
+
+        proWalletService.exportTransactions(PRO_ID, new Criteria(), ExportFormat.csv);
+
+        verify(criteriaExporter).export(eq(ProWalletTransaction.class), any(), any(), eq(List.of()),
+                eq(WalletTransactionExportDTO.class), any(), eq(ExportFormat.csv));
+    }
+
+    @Test
+    void proCannotExportAnotherProsTransactions() {
+        authenticate("99887766", "ROLE_PRO");
+
+        assertThatThrownBy(() -> proWalletService.exportTransactions(PRO_ID, new Criteria(), ExportFormat.csv))
+                .isInstanceOf(AccessDeniedException.class);
+        verifyNoInteractions(criteriaExporter);
+    }
+
+    @Test
+    void adminExportsAnyProsTransactions() {
+        authenticate("admin", "ROLE_ADMIN");
+
+        proWalletService.exportTransactions(PRO_ID, new Criteria(), ExportFormat.ndjson);
+
+        verify(criteriaExporter).export(eq(ProWalletTransaction.class), any(), any(), eq(List.of()),
+                eq(WalletTransactionExportDTO.class), any(), eq(ExportFormat.ndjson));
+    }
+
+    private static void authenticate(String username, String authority) {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                username, null, List.of(new SimpleGrantedAuthority(authority))));
+    }
+}
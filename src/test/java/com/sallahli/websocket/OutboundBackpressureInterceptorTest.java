@@ -0,0 +1,66 @@
+package com.sallahli.websocket;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * The session depth counts frames between preSend and their handling, and gives back the
+ * ones the channel never queued.
+ */
+class OutboundBackpressureInterceptorTest {
+
+    private static final String SESSION_ID = "session-1";
+
+    private final OutboundBackpressureInterceptor interceptor = new OutboundBackpressureInterceptor(
+            new WebSocketSessionRegistry(), new SimpleMeterRegistry(), 50, 200, 3);
+
+    @Test
+    void handledFrameLeavesTheQueue() {
+        ExecutorSubscribableChannel channel = channel(new ExecutorSubscribableChannel(Runnable::run));
+
+        channel.send(frame("/topic/jobs/pro/7"));
+
+        assertThat(depth()).isZero();
+    }
+
+    @Test
+    void frameRejectedByTheExecutorLeavesTheQueue() {
+        ExecutorSubscribableChannel channel = channel(new ExecutorSubscribableChannel(task -> {
+            throw new RejectedExecutionException("queue full");
+        }));
+
+        assertThatThrownBy(() -> channel.send(frame("/topic/jobs/pro/7")))
+                .isInstanceOf(MessageDeliveryException.class);
+
+        assertThat(depth()).isZero();
+    }
+
+    private ExecutorSubscribableChannel channel(ExecutorSubscribableChannel channel) {
+        channel.addInterceptor(interceptor);
+        channel.subscribe(message -> {
+        });
+        return channel;
+    }
+
+    private int depth() {
+        return interceptor.snapshot().get(SESSION_ID).get("depth");
+    }
+
+    private static Message<byte[]> frame(String destination) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setSessionId(SESSION_ID);
+        accessor.setDestination(destination);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+}
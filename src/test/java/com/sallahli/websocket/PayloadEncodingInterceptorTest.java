@@ -0,0 +1,155 @@
+package com.sallahli.websocket;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompDecoder;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.messaging.SessionConnectEvent;
+import org.springframework.web.socket.messaging.StompSubProtocolHandler;
+import org.springframework.web.socket.sockjs.transport.SockJsSession;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Frames go through the interceptor then the real {@link StompSubProtocolHandler}, and
+ * the WebSocket message it sends is decoded the way a client would.
+ */
+class PayloadEncodingInterceptorTest {
+
+    private static final String SESSION_ID = "session-1";
+    private static final byte[] JSON =
+            "{\"id\":42,\"title\":\"Plomberie\",\"tags\":[\"urgent\",\"nuit\"],\"price\":12.5,\"client\":null}"
+                    .getBytes(StandardCharsets.UTF_8);
+
+    private final WebSocketSessionRegistry sessionRegistry = new WebSocketSessionRegistry();
+    private final PayloadEncodingInterceptor interceptor =
+            new PayloadEncodingInterceptor(sessionRegistry, new SimpleMeterRegistry());
+
+    @Test
+    void cborFrameIsSentAsBinaryAndDecodesToTheSameDocument() throws Exception {
+        WebSocketSession session = open(mock(WebSocketSession.class));
+        connect("cbor");
+
+        WebSocketMessage<?> sent = deliver(session);
+
+        assertThat(sent).isInstanceOf(BinaryMessage.class);
+        Message<byte[]> frame = decode(sent);
+        StompHeaderAccessor headers = StompHeaderAccessor.wrap(frame);
+        assertThat(headers.getCommand()).isEqualTo(StompCommand.MESSAGE);
+        assertThat(headers.getContentType()).isEqualTo(MimeTypeUtils.APPLICATION_OCTET_STREAM);
+        assertThat(headers.getFirstNativeHeader(PayloadEncoding.CONNECT_HEADER)).isEqualTo("cbor");
+        assertThat(new ObjectMapper(new CBORFactory()).readTree(frame.getPayload()))
+                .isEqualTo(new ObjectMapper().readTree(JSON));
+    }
+
+    @Test
+    void smileFrameIsSentAsBinaryAndDecodesToTheSameDocument() throws Exception {
+        WebSocketSession session = open(mock(WebSocketSession.class));
+        connect("smile");
+
+        WebSocketMessage<?> sent = deliver(session);
+
+        assertThat(sent).isInstanceOf(BinaryMessage.class);
+        Message<byte[]> frame = decode(sent);
+        assertThat(StompHeaderAccessor.wrap(frame).getFirstNativeHeader(PayloadEncoding.CONNECT_HEADER))
+                .isEqualTo("smile");
+        assertThat(new ObjectMapper(new SmileFactory()).readTree(frame.getPayload()))
+                .isEqualTo(new ObjectMapper().readTree(JSON));
+    }
+
+    @Test
+    void sessionWithoutEncodingKeepsJsonText() throws Exception {
+        WebSocketSession session = open(mock(WebSocketSession.class));
+        connect(null);
+
+        WebSocketMessage<?> sent = deliver(session);
+
+        assertThat(sent).isInstanceOf(TextMessage.class);
+        Message<byte[]> frame = decode(sent);
+        assertThat(StompHeaderAccessor.wrap(frame).getContentType()).isEqualTo(MimeTypeUtils.APPLICATION_JSON);
+        assertThat(frame.getPayload()).isEqualTo(JSON);
+    }
+
+    @Test
+    void sockJsSessionIgnoresEncodingAndKeepsJsonText() throws Exception {
+        WebSocketSession session = open(mock(SockJsSession.class));
+        connect("cbor");
+
+        WebSocketMessage<?> sent = deliver(session);
+
+        assertThat(sent).isInstanceOf(TextMessage.class);
+        Message<byte[]> frame = decode(sent);
+        assertThat(StompHeaderAccessor.wrap(frame).getFirstNativeHeader(PayloadEncoding.CONNECT_HEADER)).isNull();
+        assertThat(frame.getPayload()).isEqualTo(JSON);
+    }
+
+    private WebSocketSession open(WebSocketSession session) throws Exception {
+        when(session.getId()).thenReturn(SESSION_ID);
+        when(session.isOpen()).thenReturn(true);
+        sessionRegistry.decorate(mock(WebSocketHandler.class)).afterConnectionEstablished(session);
+        return session;
+    }
+
+    private void connect(String encoding) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.CONNECT);
+        accessor.setSessionId(SESSION_ID);
+        if (encoding != null) {
+            accessor.setNativeHeader(PayloadEncoding.CONNECT_HEADER, encoding);
+        }
+        interceptor.onSessionConnect(new SessionConnectEvent(this,
+                MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders())));
+    }
+
+    /**
+     * Broker frame → interceptor → STOMP handler → the WebSocket message the client receives.
+     */
+    private WebSocketMessage<?> deliver(WebSocketSession session) throws Exception {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setSessionId(SESSION_ID);
+        accessor.setSubscriptionId("sub-0");
+        accessor.setDestination("/topic/pro/42/offers");
+        accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        Message<?> message = MessageBuilder.createMessage(JSON, accessor.getMessageHeaders());
+
+        Message<?> outbound = interceptor.beforeHandle(message, mock(MessageChannel.class), mock(MessageHandler.class));
+        new StompSubProtocolHandler().handleMessageToClient(session, outbound);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<WebSocketMessage<?>> captor = ArgumentCaptor.forClass(WebSocketMessage.class);
+        verify(session).sendMessage(captor.capture());
+        return captor.getValue();
+    }
+
+    private static Message<byte[]> decode(WebSocketMessage<?> sent) {
+        ByteBuffer buffer = sent instanceof TextMessage text
+                ? ByteBuffer.wrap(text.asBytes())
+                : ((BinaryMessage) sent).getPayload();
+        List<Message<byte[]>> frames = new StompDecoder().decode(buffer);
+        assertThat(frames).hasSize(1);
+        return frames.get(0);
+    }
+}
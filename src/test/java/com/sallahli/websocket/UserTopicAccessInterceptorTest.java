@@ -0,0 +1,122 @@
+package com.sallahli.websocket;
+
+import com.sallahli.model.ConversationParticipantId;
+import com.sallahli.model.Enum.UserRoleEnum;
+import com.sallahli.repository.AdminRepository;
+import com.sallahli.repository.ClientRepository;
+import com.sallahli.repository.ConversationParticipantRepository;
+import com.sallahli.repository.ProRepository;
+import com.sallahli.service.ParticipantDirectoryService;
+import com.sallahli.service.SupportQueueService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.security.Principal;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Subscriptions to a pro's, a client's or a conversation's topic, or to the support queue,
+ * are checked against the principal of the STOMP session.
+ */
+class UserTopicAccessInterceptorTest {
+
+    private static final Long PRO_ID = 7L;
+    private static final String PRO_TEL = "22334455";
+
+    private final ProRepository proRepository = mock(ProRepository.class);
+    private final ConversationParticipantRepository participantRepository =
+            mock(ConversationParticipantRepository.class);
+    private UserTopicAccessInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() {
+        interceptor = new UserTopicAccessInterceptor(new ParticipantDirectoryService(mock(ClientRepository.class),
+                proRepository, mock(AdminRepository.class), 100), participantRepository);
+        when(proRepository.findIdByTel(PRO_TEL)).thenReturn(Optional.of(PRO_ID));
+    }
+
+    @Test
+    void proSubscribesToTheirOwnTopics() {
+        Principal pro = user(PRO_TEL, "ROLE_PRO");
+
+        assertThat(interceptor.preSend(subscribe("/topic/wallet/pro/7", pro), mock(MessageChannel.class)))
+                .isNotNull();
+        assertThat(interceptor.preSend(subscribe("/topic/jobs/pro/7", pro), mock(MessageChannel.class)))
+                .isNotNull();
+    }
+
+    @Test
+    void proCannotSubscribeToAnotherProsTopic() {
+        assertThatThrownBy(() -> interceptor.preSend(subscribe("/topic/wallet/pro/8", user(PRO_TEL, "ROLE_PRO")),
+                mock(MessageChannel.class)))
+                .isInstanceOf(AccessDeniedException.class);
+    }
+
+    @Test
+    void conversationTopicsAreForParticipants() {
+        Principal pro = user(PRO_TEL, "ROLE_PRO");
+        when(participantRepository.existsById(new ConversationParticipantId(5L, PRO_ID, UserRoleEnum.DRIVER)))
+                .thenReturn(true);
+
+        assertThat(interceptor.preSend(subscribe("/topic/conversation/5/updates", pro), mock(MessageChannel.class)))
+                .isNotNull();
+        assertThatThrownBy(() -> interceptor.preSend(subscribe("/topic/conversation/6", pro),
+                mock(MessageChannel.class)))
+                .isInstanceOf(AccessDeniedException.class);
+    }
+
+    @Test
+    void patternSubscriptionsAreForStaff() {
+        assertThatThrownBy(() -> interceptor.preSend(subscribe("/topic/wallet/pro/*", user(PRO_TEL, "ROLE_PRO")),
+                mock(MessageChannel.class)))
+                .isInstanceOf(AccessDeniedException.class);
+        assertThat(interceptor.preSend(subscribe("/topic/conversation/**", user("agent", "ROLE_CUSTOMER_SUPPORT_AGENT")),
+                mock(MessageChannel.class)))
+                .isNotNull();
+    }
+
+    @Test
+    void supportQueueIsForStaff() {
+        assertThatThrownBy(() -> interceptor.preSend(subscribe(SupportQueueService.TOPIC, user(PRO_TEL, "ROLE_PRO")),
+                mock(MessageChannel.class)))
+                .isInstanceOf(AccessDeniedException.class);
+        assertThat(interceptor.preSend(subscribe(SupportQueueService.TOPIC, user("root", "ROLE_SUPER_ADMIN")),
+                mock(MessageChannel.class)))
+                .isNotNull();
+    }
+
+    @Test
+    void anonymousSessionCannotSubscribeToUserTopics() {
+        assertThatThrownBy(() -> interceptor.preSend(subscribe("/topic/requests/client/3", null),
+                mock(MessageChannel.class)))
+                .isInstanceOf(AccessDeniedException.class);
+        assertThat(interceptor.preSend(subscribe("/topic/announcements", null), mock(MessageChannel.class)))
+                .isNotNull();
+    }
+
+    private static Message<byte[]> subscribe(String destination, Principal user) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.SUBSCRIBE);
+        accessor.setDestination(destination);
+        accessor.setSubscriptionId("sub-1");
+        accessor.setUser(user);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+
+    private static Principal user(String username, String authority) {
+        return new UsernamePasswordAuthenticationToken(username, null, List.of(new SimpleGrantedAuthority(authority)));
+    }
+}